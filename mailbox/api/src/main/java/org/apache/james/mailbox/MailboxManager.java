@@ -150,6 +150,19 @@ public interface MailboxManager extends RequestAware, RightManager, MailboxAnnot
 
     MessageManager getMailbox(Mailbox mailbox, MailboxSession session) throws MailboxException;
 
+    /**
+     * Retrieves the meta data of several mailboxes at once, allowing implementations to batch storage reads.
+     *
+     * @param mailboxes
+     *            the mailboxes to read, not null
+     * @return the meta data, emitted in the order of the given mailboxes
+     */
+    default Flux<MessageManager.MailboxMetaData> getMetaDataReactive(List<MessageManager> mailboxes, MessageManager.MailboxMetaData.RecentMode recentMode,
+                                                                     MailboxSession session, EnumSet<MessageManager.MailboxMetaData.Item> items) {
+        return Flux.fromIterable(mailboxes)
+            .concatMap(Throwing.<MessageManager, Mono<MessageManager.MailboxMetaData>>function(mailbox -> mailbox.getMetaDataReactive(recentMode, session, items)).sneakyThrow());
+    }
+
 
     enum CreateOption {
         NONE, CREATE_SUBSCRIPTION
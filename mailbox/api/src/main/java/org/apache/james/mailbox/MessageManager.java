@@ -593,6 +593,15 @@ public interface MessageManager {
             this.acl = acl;
         }
 
+        /**
+         * Copies this meta data, overriding the message and unseen counts.
+         *
+         * @return meta data holding the given counters
+         */
+        public MailboxMetaData withCounters(long messageCount, long unseenCount) {
+            return new MailboxMetaData(recent, permanentFlags, uidValidity, nextUid, highestModSeq, messageCount, unseenCount, firstUnseen, writeable, acl);
+        }
+
         /**
          * Gets the number of recent messages.
          *
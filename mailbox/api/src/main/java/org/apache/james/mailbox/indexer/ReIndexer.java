@@ -19,6 +19,8 @@
 
 package org.apache.james.mailbox.indexer;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -29,8 +31,73 @@ import org.apache.james.mailbox.model.MailboxId;
 import org.apache.james.mailbox.model.MailboxPath;
 import org.apache.james.task.Task;
 
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
 public interface ReIndexer {
 
+    /**
+     * Slice of the users, selected by hashing their username. Running one task per partition spreads a full
+     * re-indexing across the nodes consuming the task queue.
+     */
+    class Partition {
+        private static final HashFunction HASH_FUNCTION = Hashing.murmur3_32_fixed();
+
+        public static Partition of(int index, int count) {
+            Preconditions.checkArgument(count > 0, "'count' must be strictly positive");
+            Preconditions.checkArgument(index >= 0 && index < count, "'index' must be positive and lower than 'count'");
+
+            return new Partition(index, count);
+        }
+
+        private final int index;
+        private final int count;
+
+        private Partition(int index, int count) {
+            this.index = index;
+            this.count = count;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public boolean contains(Username username) {
+            int hash = HASH_FUNCTION.hashString(username.asString(), StandardCharsets.UTF_8).asInt();
+            return Math.floorMod(hash, count) == index;
+        }
+
+        @Override
+        public final boolean equals(Object o) {
+            if (o instanceof Partition) {
+                Partition that = (Partition) o;
+
+                return Objects.equals(this.index, that.index)
+                    && Objects.equals(this.count, that.count);
+            }
+            return false;
+        }
+
+        @Override
+        public final int hashCode() {
+            return Objects.hash(index, count);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                .add("index", index)
+                .add("count", count)
+                .toString();
+        }
+    }
+
     class RunningOptions {
         public static class Builder {
             private Optional<Integer> messagesPerSecond;
@@ -124,6 +191,14 @@ public interface ReIndexer {
 
     Task reIndex(RunningOptions runningOptions) throws MailboxException;
 
+    /**
+     * Re-indexes the users of a partition, in username order.
+     *
+     * @param resumeAfter users up to this one (included) are skipped, allowing to resume an interrupted re-indexing
+     *                    from the checkpoint it reported.
+     */
+    Task reIndex(Partition partition, Optional<Username> resumeAfter, RunningOptions runningOptions) throws MailboxException;
+
     Task reIndex(MailboxPath path, MessageUid uid) throws MailboxException;
 
     Task reIndex(MailboxId mailboxId, MessageUid uid) throws MailboxException;
@@ -52,6 +52,14 @@ public final class ByteContent implements Content {
         return new ByteArrayInputStream(contents);
     }
 
+    @Override
+    public InputStream getInputStream(long offset, long length) {
+        if (offset >= size) {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+        return new ByteArrayInputStream(contents, (int) offset, (int) Math.min(length, size - offset));
+    }
+
     @Override
     public Publisher<ByteBuffer> reactiveBytes() {
         return Flux.just(contents)
@@ -28,6 +28,8 @@ import org.apache.james.mailbox.exception.MailboxException;
 import org.apache.james.util.ReactorUtils;
 import org.reactivestreams.Publisher;
 
+import com.google.common.io.ByteStreams;
+
 import reactor.core.publisher.Flux;
 import reactor.core.scheduler.Schedulers;
 
@@ -43,6 +45,25 @@ public interface Content {
      */
     InputStream getInputStream() throws IOException;
 
+    /**
+     * Return at most {@code length} octets of the content, starting at {@code offset}, as {@link InputStream}
+     */
+    default InputStream getInputStream(long offset, long length) throws IOException {
+        InputStream inputStream = getInputStream();
+        long remaining = offset;
+        while (remaining > 0) {
+            long skipped = inputStream.skip(remaining);
+            if (skipped <= 0) {
+                if (inputStream.read() < 0) {
+                    break;
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+        return ByteStreams.limit(inputStream, length);
+    }
+
     default Optional<byte[][]> asBytesSequence() {
         return Optional.empty();
     }
@@ -54,6 +54,20 @@ public final class HeaderAndBodyByteContent implements Content {
             new ByteArrayInputStream(body));
     }
 
+    @Override
+    public InputStream getInputStream(long offset, long length) {
+        long end = offset + Math.min(length, Math.max(size - offset, 0));
+        return new SequenceInputStream(
+            slice(headers, offset, end),
+            slice(body, offset - headers.length, end - headers.length));
+    }
+
+    private InputStream slice(byte[] bytes, long start, long end) {
+        int from = (int) Math.min(Math.max(start, 0), bytes.length);
+        int to = (int) Math.min(Math.max(end, 0), bytes.length);
+        return new ByteArrayInputStream(bytes, from, Math.max(to - from, 0));
+    }
+
     @Override
     public Optional<byte[][]> asBytesSequence() {
         byte[][] answer = new byte[2][];
@@ -24,6 +24,7 @@ import static org.apache.james.mailbox.MessageManager.MailboxMetaData.RecentMode
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.assertj.core.api.SoftAssertions.assertSoftly;
 import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -1661,6 +1662,57 @@ public abstract class MailboxManagerTest<T extends MailboxManager> {
                         .isEqualTo(new Flags());
                 });
         }
+
+        @Test
+        void getMetaDataOfSeveralMailboxesShouldReturnCountersInOrder() throws Exception {
+            MailboxSession session = mailboxManager.createSystemSession(USER_1);
+            MailboxPath inbox = MailboxPath.inbox(session);
+            MailboxPath other = MailboxPath.forUser(USER_1, "other");
+            mailboxManager.createMailbox(inbox, session);
+            mailboxManager.createMailbox(other, session);
+            mailboxManager.getMailbox(inbox, session).appendMessage(AppendCommand.from(message), session);
+            mailboxManager.getMailbox(inbox, session).appendMessage(AppendCommand.from(message), session);
+            mailboxManager.getMailbox(other, session).appendMessage(AppendCommand.from(message), session);
+
+            List<MessageManager.MailboxMetaData> metaData = mailboxManager.getMetaDataReactive(
+                    ImmutableList.of(mailboxManager.getMailbox(other, session), mailboxManager.getMailbox(inbox, session)),
+                    IGNORE, session, MessageManager.MailboxMetaData.FetchGroup.UNSEEN_COUNT.getItems())
+                .collectList()
+                .block();
+
+            assertThat(metaData)
+                .extracting(MessageManager.MailboxMetaData::getMessageCount, MessageManager.MailboxMetaData::getUnseenCount)
+                .containsExactly(tuple(1L, 1L), tuple(2L, 2L));
+        }
+
+        @Test
+        void getMetaDataOfSeveralMailboxesShouldReturnDefaultValueWhenNoReadRight() throws Exception {
+            assumeTrue(mailboxManager.hasCapability(MailboxCapabilities.ACL));
+            MailboxSession session1 = mailboxManager.createSystemSession(USER_1);
+            MailboxSession session2 = mailboxManager.createSystemSession(USER_2);
+            MailboxPath inbox1 = MailboxPath.inbox(session1);
+            MailboxPath inbox2 = MailboxPath.inbox(session2);
+            mailboxManager.createMailbox(inbox1, session1);
+            mailboxManager.createMailbox(inbox2, session2);
+            mailboxManager.setRights(inbox1,
+                MailboxACL.EMPTY.apply(MailboxACL.command()
+                    .forUser(USER_2)
+                    .rights(MailboxACL.Right.Lookup)
+                    .asAddition()),
+                session1);
+            mailboxManager.getMailbox(inbox1, session1).appendMessage(AppendCommand.from(message), session1);
+            mailboxManager.getMailbox(inbox2, session2).appendMessage(AppendCommand.from(message), session2);
+
+            List<MessageManager.MailboxMetaData> metaData = mailboxManager.getMetaDataReactive(
+                    ImmutableList.of(mailboxManager.getMailbox(inbox1, session2), mailboxManager.getMailbox(inbox2, session2)),
+                    IGNORE, session2, MessageManager.MailboxMetaData.FetchGroup.UNSEEN_COUNT.getItems())
+                .collectList()
+                .block();
+
+            assertThat(metaData)
+                .extracting(MessageManager.MailboxMetaData::getMessageCount)
+                .containsExactly(0L, 1L);
+        }
     }
 
     @Nested
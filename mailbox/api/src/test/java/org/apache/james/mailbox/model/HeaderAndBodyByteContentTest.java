@@ -0,0 +1,79 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.model;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.InputStream;
+
+import org.junit.jupiter.api.Test;
+
+class HeaderAndBodyByteContentTest {
+    private static final HeaderAndBodyByteContent CONTENT = new HeaderAndBodyByteContent("header\r\n\r\n".getBytes(US_ASCII), "body".getBytes(US_ASCII));
+
+    @Test
+    void rangedInputStreamShouldReadWithinHeaders() throws Exception {
+        assertThat(new String(CONTENT.getInputStream(1, 4).readAllBytes(), US_ASCII))
+            .isEqualTo("eade");
+    }
+
+    @Test
+    void rangedInputStreamShouldReadWithinBody() throws Exception {
+        assertThat(new String(CONTENT.getInputStream(11, 2).readAllBytes(), US_ASCII))
+            .isEqualTo("od");
+    }
+
+    @Test
+    void rangedInputStreamShouldSpanHeadersAndBody() throws Exception {
+        assertThat(new String(CONTENT.getInputStream(8, 4).readAllBytes(), US_ASCII))
+            .isEqualTo("\r\nbo");
+    }
+
+    @Test
+    void rangedInputStreamShouldBeTruncatedToTheContentSize() throws Exception {
+        assertThat(new String(CONTENT.getInputStream(12, 100).readAllBytes(), US_ASCII))
+            .isEqualTo("dy");
+    }
+
+    @Test
+    void rangedInputStreamShouldBeEmptyBeyondTheContentSize() throws Exception {
+        assertThat(CONTENT.getInputStream(100, 2).readAllBytes())
+            .isEmpty();
+    }
+
+    @Test
+    void rangedInputStreamShouldMatchDefaultImplementation() throws Exception {
+        Content defaultImplementation = new Content() {
+            @Override
+            public InputStream getInputStream() {
+                return CONTENT.getInputStream();
+            }
+
+            @Override
+            public long size() {
+                return CONTENT.size();
+            }
+        };
+
+        assertThat(CONTENT.getInputStream(3, 9).readAllBytes())
+            .isEqualTo(defaultImplementation.getInputStream(3, 9).readAllBytes());
+    }
+}
@@ -23,6 +23,7 @@ import static org.apache.james.blob.api.BlobStore.StoragePolicy.LOW_COST;
 import static org.apache.james.util.ReactorUtils.DEFAULT_CONCURRENCY;
 import static org.apache.james.util.ReactorUtils.LOW_CONCURRENCY;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collection;
@@ -104,6 +105,15 @@ public class CassandraAttachmentMapper implements AttachmentMapper {
             .switchIfEmpty(Mono.error(() -> new AttachmentNotFoundException(attachmentId.toString())));
     }
 
+    @Override
+    public InputStream loadAttachmentContent(AttachmentId attachmentId, long offset, long length) throws AttachmentNotFoundException {
+        return attachmentDAOV2.getAttachment(attachmentId)
+            .flatMap(daoAttachment -> Mono.from(blobStore.readRange(blobStore.getDefaultBucketName(), daoAttachment.getBlobId(), offset, length)))
+            .<InputStream>map(ByteArrayInputStream::new)
+            .blockOptional()
+            .orElseThrow(() -> new AttachmentNotFoundException(attachmentId.toString()));
+    }
+
 
     public Mono<AttachmentMetadata> getAttachmentsAsMono(AttachmentId attachmentId) {
         return getAttachmentInternal(attachmentId)
@@ -170,6 +170,16 @@ public class CassandraMessageMapper implements MessageMapper {
             .doOnNext(counters -> readRepair(mailbox, counters));
     }
 
+    /**
+     * Counters are partitioned by mailbox: reading them concurrently lets the driver route each read to the
+     * relevant replica, which is preferred over a multi-partition IN query.
+     */
+    @Override
+    public Flux<MailboxCounters> getMailboxCountersReactive(Collection<Mailbox> mailboxes) {
+        return Flux.fromIterable(mailboxes)
+            .flatMapSequential(this::getMailboxCountersReactive, DEFAULT_CONCURRENCY);
+    }
+
     public Mono<MailboxCounters> readMailboxCounters(CassandraId mailboxId) {
         return mailboxCounterDAO.retrieveMailboxCounters(mailboxId)
             .defaultIfEmpty(MailboxCounters.empty(mailboxId));
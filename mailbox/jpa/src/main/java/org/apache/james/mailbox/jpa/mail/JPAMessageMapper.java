@@ -18,12 +18,14 @@
  ****************************************************************/
 package org.apache.james.mailbox.jpa.mail;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import jakarta.mail.Flags;
@@ -94,6 +96,43 @@ public class JPAMessageMapper extends JPATransactionalMapper implements MessageM
             .build();
     }
 
+    @Override
+    public Flux<MailboxCounters> getMailboxCountersReactive(Collection<Mailbox> mailboxes) {
+        if (mailboxes.isEmpty()) {
+            return Flux.empty();
+        }
+        return Mono.fromCallable(() -> {
+            List<Long> ids = mailboxes.stream()
+                .map(mailbox -> ((JPAId) mailbox.getMailboxId()).getRawId())
+                .collect(ImmutableList.toImmutableList());
+            Map<Long, Long> counts = countByMailbox("countMessagesInMailboxes", ids);
+            Map<Long, Long> unseenCounts = countByMailbox("countUnseenMessagesInMailboxes", ids);
+
+            return mailboxes.stream()
+                .map(mailbox -> {
+                    long id = ((JPAId) mailbox.getMailboxId()).getRawId();
+                    return MailboxCounters.builder()
+                        .mailboxId(mailbox.getMailboxId())
+                        .count(counts.getOrDefault(id, 0L))
+                        .unseen(unseenCounts.getOrDefault(id, 0L))
+                        .build();
+                })
+                .collect(ImmutableList.toImmutableList());
+        }).flatMapIterable(Function.identity());
+    }
+
+    private Map<Long, Long> countByMailbox(String queryName, List<Long> ids) throws MailboxException {
+        try {
+            List<Object[]> results = getEntityManager().createNamedQuery(queryName, Object[].class)
+                .setParameter("idsParam", ids)
+                .getResultList();
+            return results.stream()
+                .collect(Collectors.toMap(row -> (Long) row[0], row -> (Long) row[1]));
+        } catch (PersistenceException e) {
+            throw new MailboxException("Count of messages failed in mailboxes " + ids, e);
+        }
+    }
+
     @Override
     public Flux<MessageUid> listAllMessageUids(Mailbox mailbox) {
         return Mono.fromCallable(() -> {
@@ -19,6 +19,7 @@
 
 package org.apache.james.mailbox.jpa.mail;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collection;
 import java.util.List;
@@ -46,6 +47,11 @@ public class TransactionalAttachmentMapper implements AttachmentMapper {
         return attachmentMapper.loadAttachmentContent(attachmentId);
     }
 
+    @Override
+    public InputStream loadAttachmentContent(AttachmentId attachmentId, long offset, long length) throws AttachmentNotFoundException, IOException {
+        return attachmentMapper.loadAttachmentContent(attachmentId, offset, length);
+    }
+
     @Override
     public Mono<InputStream> loadAttachmentContentReactive(AttachmentId attachmentId) {
         return attachmentMapper.executeReactive(attachmentMapper.loadAttachmentContentReactive(attachmentId));
@@ -0,0 +1,323 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.search.indexed;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Flags;
+
+import org.apache.james.core.Username;
+import org.apache.james.events.Group;
+import org.apache.james.mailbox.AttachmentContentLoader;
+import org.apache.james.mailbox.MailboxManager.MessageCapabilities;
+import org.apache.james.mailbox.MailboxManager.SearchCapabilities;
+import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.SessionProvider;
+import org.apache.james.mailbox.extractor.TextExtractor;
+import org.apache.james.mailbox.model.Mailbox;
+import org.apache.james.mailbox.model.MailboxId;
+import org.apache.james.mailbox.model.MessageId;
+import org.apache.james.mailbox.model.MessageRange;
+import org.apache.james.mailbox.model.SearchQuery;
+import org.apache.james.mailbox.model.UpdatedFlags;
+import org.apache.james.mailbox.model.search.MailboxQuery;
+import org.apache.james.mailbox.store.MailboxSessionMapperFactory;
+import org.apache.james.mailbox.store.mail.MessageMapper;
+import org.apache.james.mailbox.store.mail.MessageMapper.FetchType;
+import org.apache.james.mailbox.store.mail.model.MailboxMessage;
+import org.apache.james.mailbox.store.search.ListeningMessageSearchIndex;
+import org.apache.james.mailbox.store.search.MessageSearches;
+import org.apache.james.mailbox.store.search.SearchUtil;
+import org.apache.james.mailbox.store.search.SimpleMessageSearchIndex;
+import org.apache.james.util.ReactorUtils;
+import org.apache.james.util.streams.Iterators;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link ListeningMessageSearchIndex} keeping an in-heap inverted index of each user's messages, fed from mailbox events.
+ *
+ * Flag and UID criteria are answered from bitmaps, text criteria are narrowed down through a trigram index. The
+ * remaining candidates are then always read from the {@link MessageMapper} and evaluated with {@link MessageSearches}:
+ * the index only prunes messages, the mapper stays the source of truth. Queries without text criteria only read the
+ * metadata of their candidates.
+ *
+ * Indexes are built lazily, the first time a user is searched or receives a message: the local snapshot, if any, is
+ * loaded then reconciled against the mapper, only the messages missing from the snapshot being read in full.
+ * Snapshots are written on shutdown.
+ *
+ * This index is node local and relies on receiving every mailbox event of the server: it is only suitable for single
+ * node deployments.
+ */
+public class IndexedMessageSearchIndex extends ListeningMessageSearchIndex {
+    public static class IndexedMessageSearchIndexGroup extends Group {
+
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IndexedMessageSearchIndex.class);
+    private static final Group GROUP = new IndexedMessageSearchIndexGroup();
+    private static final String SNAPSHOT_EXTENSION = ".snapshot";
+
+    private final MailboxSessionMapperFactory factory;
+    private final SessionProvider sessionProvider;
+    private final TextExtractor textExtractor;
+    private final AttachmentContentLoader attachmentContentLoader;
+    private final MailboxId.Factory mailboxIdFactory;
+    private final Optional<Path> snapshotDirectory;
+    private final Map<Username, Mono<UserIndex>> indexes;
+    private final Map<MailboxId, Username> owners;
+
+    public IndexedMessageSearchIndex(MailboxSessionMapperFactory factory, Set<SearchOverride> searchOverrides, SessionProvider sessionProvider,
+                                     TextExtractor textExtractor, AttachmentContentLoader attachmentContentLoader,
+                                     MailboxId.Factory mailboxIdFactory, Optional<Path> snapshotDirectory) {
+        super(factory, searchOverrides, sessionProvider);
+        this.factory = factory;
+        this.sessionProvider = sessionProvider;
+        this.textExtractor = textExtractor;
+        this.attachmentContentLoader = attachmentContentLoader;
+        this.mailboxIdFactory = mailboxIdFactory;
+        this.snapshotDirectory = snapshotDirectory;
+        this.indexes = new ConcurrentHashMap<>();
+        this.owners = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public Group getDefaultGroup() {
+        return GROUP;
+    }
+
+    @Override
+    public EnumSet<SearchCapabilities> getSupportedCapabilities(EnumSet<MessageCapabilities> messageCapabilities) {
+        return EnumSet.of(SearchCapabilities.MultimailboxSearch,
+            SearchCapabilities.Text,
+            SearchCapabilities.Attachment,
+            SearchCapabilities.PartialEmailMatch,
+            SearchCapabilities.AttachmentFileName);
+    }
+
+    @Override
+    public Mono<Void> add(MailboxSession session, Mailbox mailbox, MailboxMessage message) {
+        return index(mailbox.getUser())
+            .flatMap(index -> indexMessage(index, mailbox, message));
+    }
+
+    @Override
+    public Mono<Void> delete(MailboxSession session, MailboxId mailboxId, Collection<MessageUid> expungedUids) {
+        return loadedIndex(mailboxId)
+            .doOnNext(index -> index.remove(mailboxId, expungedUids))
+            .then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(MailboxSession session, MailboxId mailboxId) {
+        return loadedIndex(mailboxId)
+            .doOnNext(index -> index.removeMailbox(mailboxId))
+            .doOnNext(any -> owners.remove(mailboxId))
+            .then();
+    }
+
+    @Override
+    public Mono<Void> update(MailboxSession session, MailboxId mailboxId, List<UpdatedFlags> updatedFlagsList) {
+        return loadedIndex(mailboxId)
+            .doOnNext(index -> updatedFlagsList.forEach(updatedFlags ->
+                index.updateFlags(mailboxId, updatedFlags.getUid(), updatedFlags.getNewFlags())))
+            .then();
+    }
+
+    @Override
+    public Mono<Flags> retrieveIndexedFlags(Mailbox mailbox, MessageUid uid) {
+        return index(mailbox.getUser())
+            .flatMap(index -> Mono.justOrEmpty(index.retrieveFlags(mailbox.getMailboxId(), uid)));
+    }
+
+    @Override
+    protected Flux<MessageUid> doSearch(MailboxSession session, Mailbox mailbox, SearchQuery searchQuery) {
+        return index(mailbox.getUser())
+            .map(index -> index.select(mailbox.getMailboxId(), searchQuery))
+            .flatMapMany(selection -> candidates(session, mailbox, selection, searchQuery))
+            .collectList()
+            .flatMapMany(messages -> Iterators.toFlux(new MessageSearches(messages.iterator(), searchQuery, textExtractor, attachmentContentLoader, session).iterator()))
+            .map(SimpleMessageSearchIndex.SearchResult::getMessageUid)
+            .subscribeOn(ReactorUtils.BLOCKING_CALL_WRAPPER);
+    }
+
+    @Override
+    public Flux<MessageId> search(MailboxSession session, Collection<MailboxId> mailboxIds, SearchQuery searchQuery, long limit) {
+        return Flux.fromIterable(mailboxIds)
+            .concatMap(factory.getMailboxMapper(session)::findMailboxById)
+            .concatMap(mailbox -> index(mailbox.getUser())
+                .map(index -> index.select(mailbox.getMailboxId(), searchQuery))
+                .flatMapMany(selection -> candidates(session, mailbox, selection, searchQuery)))
+            .collectList()
+            .flatMapMany(messages -> Iterators.toFlux(new MessageSearches(messages.iterator(), searchQuery, textExtractor, attachmentContentLoader, session, Optional.of(limit)).iterator()))
+            .map(searchResult -> searchResult.getMessageId().get())
+            .filter(SearchUtil.distinct())
+            .take(limit)
+            .subscribeOn(ReactorUtils.BLOCKING_CALL_WRAPPER);
+    }
+
+    private Flux<MailboxMessage> candidates(MailboxSession session, Mailbox mailbox, UserIndex.Selection selection, SearchQuery searchQuery) {
+        MessageMapper messageMapper = factory.getMessageMapper(session);
+        FetchType fetchType = SimpleMessageSearchIndex.requiredFetchType(searchQuery);
+        List<MessageUid> uids = selection.messages().stream()
+            .map(UserIndex.IndexedMessage::uid)
+            .collect(ImmutableList.toImmutableList());
+        return Flux.fromIterable(MessageRange.toRanges(uids))
+            .concatMap(range -> messageMapper.findInMailboxReactive(mailbox, range, fetchType, UNLIMITED));
+    }
+
+    private Mono<Void> indexMessage(UserIndex index, Mailbox mailbox, MailboxMessage message) {
+        owners.put(mailbox.getMailboxId(), mailbox.getUser());
+        return Mono.fromCallable(() -> SearchableText.extract(message))
+            .doOnNext(text -> index.add(message, text))
+            .then();
+    }
+
+    private Mono<UserIndex> loadedIndex(MailboxId mailboxId) {
+        return Mono.justOrEmpty(owners.get(mailboxId))
+            .flatMap(owner -> Mono.justOrEmpty(indexes.get(owner)))
+            .flatMap(index -> index);
+    }
+
+    private Mono<UserIndex> index(Username owner) {
+        return indexes.computeIfAbsent(owner, any -> load(owner)
+            .doOnError(e -> indexes.remove(owner))
+            .cache());
+    }
+
+    private Mono<UserIndex> load(Username owner) {
+        return Mono.fromCallable(() -> readSnapshot(owner).orElseGet(UserIndex::new))
+            .flatMap(index -> reconcile(owner, index).thenReturn(index))
+            .subscribeOn(ReactorUtils.BLOCKING_CALL_WRAPPER);
+    }
+
+    private Mono<Void> reconcile(Username owner, UserIndex index) {
+        MailboxSession session = sessionProvider.createSystemSession(owner);
+        MailboxQuery.UserBound query = MailboxQuery.builder()
+            .privateNamespace()
+            .username(owner)
+            .matchesAllMailboxNames()
+            .build()
+            .asUserBound();
+        return factory.getMailboxMapper(session)
+            .findMailboxWithPathLike(query)
+            .collectList()
+            .flatMap(mailboxes -> {
+                Set<MailboxId> existingMailboxes = mailboxes.stream()
+                    .map(Mailbox::getMailboxId)
+                    .collect(ImmutableSet.toImmutableSet());
+                Sets.difference(index.mailboxIds(), existingMailboxes)
+                    .forEach(index::removeMailbox);
+                return Flux.fromIterable(mailboxes)
+                    .concatMap(mailbox -> reconcile(session, index, mailbox))
+                    .then();
+            })
+            .doFinally(any -> factory.endProcessingRequest(session));
+    }
+
+    private Mono<Void> reconcile(MailboxSession session, UserIndex index, Mailbox mailbox) {
+        owners.put(mailbox.getMailboxId(), mailbox.getUser());
+        MessageMapper messageMapper = factory.getMessageMapper(session);
+        return messageMapper.findInMailboxReactive(mailbox, MessageRange.all(), FetchType.METADATA, UNLIMITED)
+            .collectMap(MailboxMessage::getUid, MailboxMessage::createFlags)
+            .flatMap(storedFlags -> {
+                Set<MessageUid> indexedUids = index.indexedUids(mailbox.getMailboxId());
+                index.remove(mailbox.getMailboxId(), Sets.difference(indexedUids, storedFlags.keySet()));
+                Sets.intersection(indexedUids, storedFlags.keySet())
+                    .forEach(uid -> index.updateFlags(mailbox.getMailboxId(), uid, storedFlags.get(uid)));
+                List<MessageUid> missingUids = ImmutableList.copyOf(Sets.difference(storedFlags.keySet(), indexedUids));
+                return Flux.fromIterable(MessageRange.toRanges(missingUids))
+                    .concatMap(range -> messageMapper.findInMailboxReactive(mailbox, range, FetchType.FULL, UNLIMITED))
+                    .concatMap(message -> indexMessage(index, mailbox, message))
+                    .then();
+            });
+    }
+
+    private Optional<UserIndex> readSnapshot(Username owner) {
+        return snapshotDirectory.map(directory -> snapshotFile(directory, owner))
+            .filter(Files::exists)
+            .flatMap(file -> {
+                try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(file))) {
+                    return Optional.of(UserIndex.readSnapshot(new DataInputStream(inputStream), mailboxIdFactory));
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.warn("Ignoring unreadable search index snapshot {}, the index of {} will be rebuilt", file, owner.asString(), e);
+                    return Optional.empty();
+                }
+            });
+    }
+
+    /**
+     * Writes a snapshot of every loaded index to the snapshot directory.
+     */
+    @PreDestroy
+    public void snapshot() {
+        snapshotDirectory.ifPresent(directory -> indexes.forEach((owner, index) ->
+            index.blockOptional()
+                .ifPresent(userIndex -> writeSnapshot(directory, owner, userIndex))));
+    }
+
+    private void writeSnapshot(Path directory, Username owner, UserIndex index) {
+        Path file = snapshotFile(directory, owner);
+        Path temporaryFile = directory.resolve(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(temporaryFile))) {
+                DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
+                index.writeSnapshot(dataOutputStream);
+                dataOutputStream.flush();
+            }
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.error("Could not write the search index snapshot of {}", owner.asString(), e);
+        }
+    }
+
+    private Path snapshotFile(Path directory, Username owner) {
+        return directory.resolve(Hashing.sha256().hashString(owner.asString(), UTF_8) + SNAPSHOT_EXTENSION);
+    }
+}
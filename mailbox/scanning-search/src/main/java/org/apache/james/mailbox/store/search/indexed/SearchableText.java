@@ -0,0 +1,114 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.search.indexed;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.james.mailbox.store.mail.model.MailboxMessage;
+import org.apache.james.mime4j.MimeException;
+import org.apache.james.mime4j.codec.DecodeMonitor;
+import org.apache.james.mime4j.codec.DecoderUtil;
+import org.apache.james.mime4j.parser.AbstractContentHandler;
+import org.apache.james.mime4j.parser.MimeStreamParser;
+import org.apache.james.mime4j.stream.BodyDescriptor;
+import org.apache.james.mime4j.stream.Field;
+import org.apache.james.mime4j.stream.MimeConfig;
+import org.apache.james.mime4j.util.ContentUtil;
+
+/**
+ * Trigrams of the headers and textual body parts of a message.
+ *
+ * Parts that can not be turned into text (non textual media types, unknown charsets) are not indexed: the message
+ * is then flagged as opaque and is always considered a candidate for text searches.
+ */
+record SearchableText(Set<Long> trigrams, boolean opaque) {
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    static SearchableText extract(MailboxMessage message) throws IOException {
+        Trigrams.Accumulator accumulator = new Trigrams.Accumulator();
+        TextHandler handler = new TextHandler(accumulator);
+        MimeStreamParser parser = new MimeStreamParser(MimeConfig.PERMISSIVE);
+        parser.setContentDecoding(true);
+        parser.setContentHandler(handler);
+        try (InputStream content = message.getFullContent()) {
+            parser.parse(content);
+        } catch (MimeException e) {
+            throw new IOException("Unable to parse message " + message.getUid(), e);
+        }
+        return new SearchableText(accumulator.keys(), handler.opaque);
+    }
+
+    private static class TextHandler extends AbstractContentHandler {
+        private final Trigrams.Accumulator accumulator;
+        private boolean opaque;
+
+        private TextHandler(Trigrams.Accumulator accumulator) {
+            this.accumulator = accumulator;
+        }
+
+        @Override
+        public void field(Field field) {
+            accumulator.separate().accept(field.getName()).separate();
+            if (field.getRaw() != null) {
+                accumulator.accept(ContentUtil.decode(field.getRaw())).separate();
+            }
+            accumulator.accept(DecoderUtil.decodeEncodedWords(field.getBody(), DecodeMonitor.SILENT)).separate();
+        }
+
+        @Override
+        public void body(BodyDescriptor descriptor, InputStream in) throws IOException {
+            Optional<Charset> charset = charset(descriptor);
+            if (!isTextual(descriptor) || charset.isEmpty()) {
+                opaque = true;
+                return;
+            }
+            accumulator.separate();
+            try (Reader reader = new InputStreamReader(in, charset.get())) {
+                char[] buffer = new char[BUFFER_SIZE];
+                int read;
+                while ((read = reader.read(buffer)) != -1) {
+                    accumulator.accept(buffer, 0, read);
+                }
+            }
+            accumulator.separate();
+        }
+
+        private boolean isTextual(BodyDescriptor descriptor) {
+            String mediaType = descriptor.getMediaType().toLowerCase(Locale.US);
+            return mediaType.equals("text") || mediaType.equals("message");
+        }
+
+        private Optional<Charset> charset(BodyDescriptor descriptor) {
+            try {
+                return Optional.ofNullable(descriptor.getCharset())
+                    .map(Charset::forName);
+            } catch (IllegalArgumentException e) {
+                return Optional.empty();
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.search.indexed;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Folds text into the set of its trigrams.
+ *
+ * Every trigram of a searched value occurs in any text containing that value, so intersecting trigram postings yields a
+ * superset of the messages matching a substring search. Case is folded and whitespace runs are collapsed on both the
+ * indexed and the searched side, which only ever widens that superset.
+ */
+class Trigrams {
+    static class Accumulator {
+        private final Set<Long> keys = new HashSet<>();
+        private char first;
+        private char second;
+        private int buffered;
+
+        Accumulator accept(CharSequence text) {
+            for (int i = 0; i < text.length(); i++) {
+                accept(text.charAt(i));
+            }
+            return this;
+        }
+
+        Accumulator accept(char[] buffer, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                accept(buffer[i]);
+            }
+            return this;
+        }
+
+        /**
+         * Separates two unrelated pieces of text.
+         */
+        Accumulator separate() {
+            return accept(' ');
+        }
+
+        private Accumulator accept(char raw) {
+            char c = fold(raw);
+            if (c == ' ' && buffered > 0 && second == ' ') {
+                return this;
+            }
+            if (buffered == 2) {
+                keys.add(key(first, second, c));
+            }
+            first = second;
+            second = c;
+            buffered = Math.min(buffered + 1, 2);
+            return this;
+        }
+
+        Set<Long> keys() {
+            return keys;
+        }
+    }
+
+    static Set<Long> of(String value) {
+        return new Accumulator()
+            .accept(value)
+            .keys();
+    }
+
+    private static char fold(char c) {
+        if (Character.isWhitespace(c)) {
+            return ' ';
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private static long key(char first, char second, char third) {
+        return ((long) first << 32) | ((long) second << 16) | third;
+    }
+}
@@ -0,0 +1,393 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.search.indexed;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import jakarta.mail.Flags;
+
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.model.MailboxId;
+import org.apache.james.mailbox.model.SearchQuery;
+import org.apache.james.mailbox.model.SearchQuery.UidRange;
+import org.apache.james.mailbox.store.mail.model.MailboxMessage;
+import org.roaringbitmap.RoaringBitmap;
+
+import com.google.common.collect.ImmutableBiMap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Inverted index of the messages of a single user.
+ *
+ * Each indexed message is given a dense document number. Mailbox membership, flags and text trigrams are stored as
+ * compressed bitmaps of document numbers, so that flag and UID criteria are resolved exactly and text criteria are
+ * narrowed down to a small set of candidates without touching the message content.
+ *
+ * Postings of removed documents are purged lazily, when a snapshot is written: every selection is intersected with
+ * the live documents of the searched mailbox anyway.
+ */
+class UserIndex {
+    record IndexedMessage(MailboxId mailboxId, MessageUid uid) {
+
+    }
+
+    /**
+     * @param exact whether the selected messages are exactly those matching the query, or only a superset of them
+     */
+    record Selection(List<IndexedMessage> messages, boolean exact) {
+
+    }
+
+    private record Candidates(RoaringBitmap bitmap, boolean exact) {
+
+    }
+
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final ImmutableBiMap<Flags.Flag, String> SYSTEM_FLAGS = ImmutableBiMap.<Flags.Flag, String>builder()
+        .put(Flags.Flag.ANSWERED, "\\Answered")
+        .put(Flags.Flag.DELETED, "\\Deleted")
+        .put(Flags.Flag.DRAFT, "\\Draft")
+        .put(Flags.Flag.FLAGGED, "\\Flagged")
+        .put(Flags.Flag.RECENT, "\\Recent")
+        .put(Flags.Flag.SEEN, "\\Seen")
+        .build();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, IndexedMessage> documents = new HashMap<>();
+    private final Map<MailboxId, NavigableMap<MessageUid, Integer>> mailboxes = new HashMap<>();
+    private final Map<MailboxId, RoaringBitmap> mailboxDocuments = new HashMap<>();
+    private final Map<String, RoaringBitmap> flags = new HashMap<>();
+    private final Map<Long, RoaringBitmap> trigrams = new HashMap<>();
+    private final RoaringBitmap opaque = new RoaringBitmap();
+    private final RoaringBitmap removed = new RoaringBitmap();
+    private int nextDocument;
+
+    void add(MailboxMessage message, SearchableText text) {
+        write(() -> {
+            removeDocument(message.getMailboxId(), message.getUid());
+            int document = nextDocument++;
+            documents.put(document, new IndexedMessage(message.getMailboxId(), message.getUid()));
+            mailboxes.computeIfAbsent(message.getMailboxId(), any -> new TreeMap<>()).put(message.getUid(), document);
+            mailboxDocuments.computeIfAbsent(message.getMailboxId(), any -> new RoaringBitmap()).add(document);
+            setFlags(document, message.createFlags());
+            text.trigrams().forEach(trigram -> trigrams.computeIfAbsent(trigram, any -> new RoaringBitmap()).add(document));
+            if (text.opaque()) {
+                opaque.add(document);
+            }
+        });
+    }
+
+    void remove(MailboxId mailboxId, Collection<MessageUid> uids) {
+        write(() -> uids.forEach(uid -> removeDocument(mailboxId, uid)));
+    }
+
+    void removeMailbox(MailboxId mailboxId) {
+        write(() -> {
+            ImmutableList.copyOf(uids(mailboxId)).forEach(uid -> removeDocument(mailboxId, uid));
+            mailboxes.remove(mailboxId);
+            mailboxDocuments.remove(mailboxId);
+        });
+    }
+
+    void updateFlags(MailboxId mailboxId, MessageUid uid, Flags newFlags) {
+        write(() -> document(mailboxId, uid).ifPresent(document -> {
+            flags.values().forEach(bitmap -> bitmap.remove(document));
+            setFlags(document, newFlags);
+        }));
+    }
+
+    Optional<Flags> retrieveFlags(MailboxId mailboxId, MessageUid uid) {
+        return read(() -> document(mailboxId, uid).map(this::flags));
+    }
+
+    Set<MailboxId> mailboxIds() {
+        return read(() -> ImmutableSet.copyOf(mailboxes.keySet()));
+    }
+
+    Set<MessageUid> indexedUids(MailboxId mailboxId) {
+        return read(() -> ImmutableSet.copyOf(uids(mailboxId)));
+    }
+
+    Selection select(MailboxId mailboxId, SearchQuery query) {
+        return read(() -> {
+            RoaringBitmap scope = Optional.ofNullable(mailboxDocuments.get(mailboxId))
+                .map(RoaringBitmap::clone)
+                .orElseGet(RoaringBitmap::new);
+            Candidates selected = intersect(query.getCriteria(), scope, mailboxId, query.getRecentMessageUids());
+            List<IndexedMessage> messages = selected.bitmap().stream()
+                .mapToObj(documents::get)
+                .sorted(Comparator.comparing(IndexedMessage::uid))
+                .collect(ImmutableList.toImmutableList());
+            return new Selection(messages, selected.exact());
+        });
+    }
+
+    private Candidates select(SearchQuery.Criterion criterion, RoaringBitmap scope, MailboxId mailboxId, Collection<MessageUid> recentUids) {
+        if (criterion instanceof SearchQuery.AllCriterion) {
+            return new Candidates(scope, true);
+        } else if (criterion instanceof SearchQuery.FlagCriterion flagCriterion) {
+            if (flagCriterion.getFlag() == Flags.Flag.RECENT) {
+                return withFlag(flagCriterion.getOperator().isSet(), documents(mailboxId, recentUids), scope);
+            }
+            return Optional.ofNullable(SYSTEM_FLAGS.get(flagCriterion.getFlag()))
+                .map(flag -> withFlag(flagCriterion.getOperator().isSet(), flagged(flag), scope))
+                .orElseGet(() -> new Candidates(new RoaringBitmap(), true));
+        } else if (criterion instanceof SearchQuery.CustomFlagCriterion customFlagCriterion) {
+            return withFlag(customFlagCriterion.getOperator().isSet(), flagged(customFlagCriterion.getFlag()), scope);
+        } else if (criterion instanceof SearchQuery.UidCriterion uidCriterion) {
+            RoaringBitmap inRanges = new RoaringBitmap();
+            NavigableMap<MessageUid, Integer> uids = mailboxes.getOrDefault(mailboxId, new TreeMap<>());
+            for (UidRange range : uidCriterion.getOperator().getRange()) {
+                uids.subMap(range.getLowValue(), true, range.getHighValue(), true)
+                    .values()
+                    .forEach(inRanges::add);
+            }
+            return new Candidates(RoaringBitmap.and(scope, inRanges), true);
+        } else if (criterion instanceof SearchQuery.TextCriterion textCriterion) {
+            return containing(textCriterion, scope);
+        } else if (criterion instanceof SearchQuery.ConjunctionCriterion conjunctionCriterion) {
+            return select(conjunctionCriterion, scope, mailboxId, recentUids);
+        }
+        return new Candidates(scope, false);
+    }
+
+    private Candidates select(SearchQuery.ConjunctionCriterion criterion, RoaringBitmap scope, MailboxId mailboxId, Collection<MessageUid> recentUids) {
+        switch (criterion.getType()) {
+            case AND:
+                return intersect(criterion.getCriteria(), scope, mailboxId, recentUids);
+            case OR:
+                return union(criterion.getCriteria(), scope, mailboxId, recentUids);
+            case NOR:
+                Candidates union = union(criterion.getCriteria(), scope, mailboxId, recentUids);
+                if (union.exact()) {
+                    return new Candidates(RoaringBitmap.andNot(scope, union.bitmap()), true);
+                }
+                return new Candidates(scope, false);
+            default:
+                return new Candidates(scope, false);
+        }
+    }
+
+    private Candidates intersect(List<SearchQuery.Criterion> criteria, RoaringBitmap scope, MailboxId mailboxId, Collection<MessageUid> recentUids) {
+        RoaringBitmap result = scope.clone();
+        boolean exact = true;
+        for (SearchQuery.Criterion criterion : criteria) {
+            Candidates selected = select(criterion, scope, mailboxId, recentUids);
+            result.and(selected.bitmap());
+            exact &= selected.exact();
+        }
+        return new Candidates(result, exact);
+    }
+
+    private Candidates union(List<SearchQuery.Criterion> criteria, RoaringBitmap scope, MailboxId mailboxId, Collection<MessageUid> recentUids) {
+        RoaringBitmap result = new RoaringBitmap();
+        boolean exact = true;
+        for (SearchQuery.Criterion criterion : criteria) {
+            Candidates selected = select(criterion, scope, mailboxId, recentUids);
+            result.or(selected.bitmap());
+            exact &= selected.exact();
+        }
+        return new Candidates(result, exact);
+    }
+
+    private Candidates containing(SearchQuery.TextCriterion criterion, RoaringBitmap scope) {
+        Set<Long> searchedTrigrams = Trigrams.of(criterion.getOperator().getValue());
+        boolean indexedType = criterion.getType() == SearchQuery.Scope.BODY || criterion.getType() == SearchQuery.Scope.FULL;
+        if (!indexedType || searchedTrigrams.isEmpty()) {
+            return new Candidates(scope, false);
+        }
+        RoaringBitmap result = scope.clone();
+        for (Long trigram : searchedTrigrams) {
+            RoaringBitmap posting = trigrams.get(trigram);
+            if (posting == null) {
+                result.clear();
+                break;
+            }
+            result.and(posting);
+        }
+        result.or(RoaringBitmap.and(scope, opaque));
+        return new Candidates(result, false);
+    }
+
+    private Candidates withFlag(boolean isSet, RoaringBitmap flagged, RoaringBitmap scope) {
+        if (isSet) {
+            return new Candidates(RoaringBitmap.and(scope, flagged), true);
+        }
+        return new Candidates(RoaringBitmap.andNot(scope, flagged), true);
+    }
+
+    private RoaringBitmap flagged(String flag) {
+        return flags.getOrDefault(flag, new RoaringBitmap());
+    }
+
+    private RoaringBitmap documents(MailboxId mailboxId, Collection<MessageUid> uids) {
+        RoaringBitmap result = new RoaringBitmap();
+        uids.forEach(uid -> document(mailboxId, uid).ifPresent(result::add));
+        return result;
+    }
+
+    private Optional<Integer> document(MailboxId mailboxId, MessageUid uid) {
+        return Optional.ofNullable(mailboxes.get(mailboxId))
+            .map(uids -> uids.get(uid));
+    }
+
+    private Set<MessageUid> uids(MailboxId mailboxId) {
+        return Optional.ofNullable(mailboxes.get(mailboxId))
+            .map(NavigableMap::keySet)
+            .orElse(ImmutableSet.of());
+    }
+
+    private void removeDocument(MailboxId mailboxId, MessageUid uid) {
+        Optional.ofNullable(mailboxes.get(mailboxId))
+            .map(uids -> uids.remove(uid))
+            .ifPresent(document -> {
+                documents.remove(document);
+                mailboxDocuments.get(mailboxId).remove(document);
+                flags.values().forEach(bitmap -> bitmap.remove(document));
+                opaque.remove(document);
+                removed.add(document);
+            });
+    }
+
+    private void setFlags(int document, Flags messageFlags) {
+        for (Flags.Flag systemFlag : messageFlags.getSystemFlags()) {
+            Optional.ofNullable(SYSTEM_FLAGS.get(systemFlag))
+                .ifPresent(flag -> flags.computeIfAbsent(flag, any -> new RoaringBitmap()).add(document));
+        }
+        for (String userFlag : messageFlags.getUserFlags()) {
+            flags.computeIfAbsent(userFlag, any -> new RoaringBitmap()).add(document);
+        }
+    }
+
+    private Flags flags(int document) {
+        Flags result = new Flags();
+        flags.forEach((flag, bitmap) -> {
+            if (bitmap.contains(document)) {
+                Optional.ofNullable(SYSTEM_FLAGS.inverse().get(flag))
+                    .ifPresentOrElse(result::add, () -> result.add(flag));
+            }
+        });
+        return result;
+    }
+
+    void writeSnapshot(DataOutput output) throws IOException {
+        lock.writeLock().lock();
+        try {
+            purgeRemoved();
+            output.writeInt(SNAPSHOT_VERSION);
+            output.writeInt(nextDocument);
+            output.writeInt(documents.size());
+            for (Map.Entry<Integer, IndexedMessage> entry : documents.entrySet()) {
+                output.writeInt(entry.getKey());
+                output.writeUTF(entry.getValue().mailboxId().serialize());
+                output.writeLong(entry.getValue().uid().asLong());
+            }
+            opaque.serialize(output);
+            output.writeInt(flags.size());
+            for (Map.Entry<String, RoaringBitmap> entry : flags.entrySet()) {
+                output.writeUTF(entry.getKey());
+                entry.getValue().serialize(output);
+            }
+            output.writeInt(trigrams.size());
+            for (Map.Entry<Long, RoaringBitmap> entry : trigrams.entrySet()) {
+                output.writeLong(entry.getKey());
+                entry.getValue().serialize(output);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    static UserIndex readSnapshot(DataInput input, MailboxId.Factory mailboxIdFactory) throws IOException {
+        int version = input.readInt();
+        if (version != SNAPSHOT_VERSION) {
+            throw new IOException("Unsupported search index snapshot version " + version);
+        }
+        UserIndex index = new UserIndex();
+        index.nextDocument = input.readInt();
+        int documentCount = input.readInt();
+        for (int i = 0; i < documentCount; i++) {
+            int document = input.readInt();
+            IndexedMessage message = new IndexedMessage(mailboxIdFactory.fromString(input.readUTF()), MessageUid.of(input.readLong()));
+            index.documents.put(document, message);
+            index.mailboxes.computeIfAbsent(message.mailboxId(), any -> new TreeMap<>()).put(message.uid(), document);
+            index.mailboxDocuments.computeIfAbsent(message.mailboxId(), any -> new RoaringBitmap()).add(document);
+        }
+        index.opaque.deserialize(input);
+        int flagCount = input.readInt();
+        for (int i = 0; i < flagCount; i++) {
+            String flag = input.readUTF();
+            RoaringBitmap bitmap = new RoaringBitmap();
+            bitmap.deserialize(input);
+            index.flags.put(flag, bitmap);
+        }
+        int trigramCount = input.readInt();
+        for (int i = 0; i < trigramCount; i++) {
+            long trigram = input.readLong();
+            RoaringBitmap bitmap = new RoaringBitmap();
+            bitmap.deserialize(input);
+            index.trigrams.put(trigram, bitmap);
+        }
+        return index;
+    }
+
+    private void purgeRemoved() {
+        if (removed.isEmpty()) {
+            return;
+        }
+        trigrams.values().forEach(bitmap -> bitmap.andNot(removed));
+        trigrams.values().removeIf(RoaringBitmap::isEmpty);
+        flags.values().removeIf(RoaringBitmap::isEmpty);
+        removed.clear();
+    }
+
+    private <T> T read(Supplier<T> operation) {
+        lock.readLock().lock();
+        try {
+            return operation.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Runnable operation) {
+        lock.writeLock().lock();
+        try {
+            operation.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.search.indexed;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
+import jakarta.mail.Flags;
+
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.model.SearchQuery;
+import org.apache.james.mailbox.model.TestId;
+import org.apache.james.mailbox.store.MessageBuilder;
+import org.apache.james.mailbox.store.mail.model.MailboxMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+class UserIndexTest {
+    static final TestId MAILBOX_ID = TestId.of(42);
+    static final MessageUid UID_1 = MessageUid.of(1);
+    static final MessageUid UID_2 = MessageUid.of(2);
+    static final MessageUid UID_3 = MessageUid.of(3);
+
+    UserIndex testee;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        testee = new UserIndex();
+        add(new MessageBuilder()
+            .mailboxId(MAILBOX_ID)
+            .uid(UID_1)
+            .flags(new Flags(Flags.Flag.SEEN))
+            .header("Subject", "Rhubarb pie")
+            .body("Grandma's recipe".getBytes(UTF_8))
+            .build());
+        add(new MessageBuilder()
+            .mailboxId(MAILBOX_ID)
+            .uid(UID_2)
+            .flags(new Flags("custom"))
+            .header("Subject", "Meeting")
+            .body("See you tomorrow".getBytes(UTF_8))
+            .build());
+        add(new MessageBuilder()
+            .mailboxId(MAILBOX_ID)
+            .uid(UID_3)
+            .header("Content-Type", "application/octet-stream")
+            .body("binary".getBytes(UTF_8))
+            .build());
+    }
+
+    private void add(MailboxMessage message) throws Exception {
+        testee.add(message, SearchableText.extract(message));
+    }
+
+    private ImmutableList<MessageUid> uids(UserIndex.Selection selection) {
+        return selection.messages().stream()
+            .map(UserIndex.IndexedMessage::uid)
+            .collect(ImmutableList.toImmutableList());
+    }
+
+    @Test
+    void flagCriteriaShouldBeResolvedExactly() {
+        UserIndex.Selection selection = testee.select(MAILBOX_ID, SearchQuery.of(SearchQuery.flagIsUnSet(Flags.Flag.SEEN)));
+
+        assertThat(selection.exact()).isTrue();
+        assertThat(uids(selection)).containsExactly(UID_2, UID_3);
+    }
+
+    @Test
+    void customFlagCriteriaShouldBeResolvedExactly() {
+        UserIndex.Selection selection = testee.select(MAILBOX_ID, SearchQuery.of(SearchQuery.flagIsSet("custom")));
+
+        assertThat(selection.exact()).isTrue();
+        assertThat(uids(selection)).containsExactly(UID_2);
+    }
+
+    @Test
+    void textCriteriaShouldNarrowDownCandidates() {
+        UserIndex.Selection selection = testee.select(MAILBOX_ID, SearchQuery.of(SearchQuery.bodyContains("RECIPE")));
+
+        assertThat(selection.exact()).isFalse();
+        assertThat(uids(selection)).containsExactly(UID_1, UID_3);
+    }
+
+    @Test
+    void textCriteriaShouldMatchHeadersAcrossWhitespaces() {
+        UserIndex.Selection selection = testee.select(MAILBOX_ID, SearchQuery.of(SearchQuery.mailContains("rhubarb  pie")));
+
+        assertThat(uids(selection)).containsExactly(UID_1, UID_3);
+    }
+
+    @Test
+    void shortTextCriteriaShouldNotNarrowDownCandidates() {
+        UserIndex.Selection selection = testee.select(MAILBOX_ID, SearchQuery.of(SearchQuery.bodyContains("pi")));
+
+        assertThat(uids(selection)).containsExactly(UID_1, UID_2, UID_3);
+    }
+
+    @Test
+    void norShouldBeResolvedExactlyWhenItsCriteriaAre() {
+        UserIndex.Selection selection = testee.select(MAILBOX_ID, SearchQuery.of(SearchQuery.not(SearchQuery.flagIsSet("custom"))));
+
+        assertThat(selection.exact()).isTrue();
+        assertThat(uids(selection)).containsExactly(UID_1, UID_3);
+    }
+
+    @Test
+    void removedMessagesShouldNotBeSelected() {
+        testee.remove(MAILBOX_ID, ImmutableList.of(UID_1));
+
+        assertThat(uids(testee.select(MAILBOX_ID, SearchQuery.of(SearchQuery.bodyContains("recipe")))))
+            .containsExactly(UID_3);
+    }
+
+    @Test
+    void updateFlagsShouldReplacePreviousFlags() {
+        testee.updateFlags(MAILBOX_ID, UID_1, new Flags(Flags.Flag.FLAGGED));
+
+        assertThat(testee.retrieveFlags(MAILBOX_ID, UID_1)).contains(new Flags(Flags.Flag.FLAGGED));
+    }
+
+    @Test
+    void snapshotShouldRestoreTheIndex() throws Exception {
+        testee.remove(MAILBOX_ID, ImmutableList.of(UID_2));
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        testee.writeSnapshot(new DataOutputStream(snapshot));
+
+        UserIndex restored = UserIndex.readSnapshot(new DataInputStream(new ByteArrayInputStream(snapshot.toByteArray())), new TestId.Factory());
+
+        SearchQuery query = SearchQuery.of(SearchQuery.bodyContains("recipe"));
+        assertThat(restored.select(MAILBOX_ID, query)).isEqualTo(testee.select(MAILBOX_ID, query));
+        assertThat(restored.indexedUids(MAILBOX_ID)).containsExactlyInAnyOrder(UID_1, UID_3);
+        assertThat(restored.retrieveFlags(MAILBOX_ID, UID_1)).contains(new Flags(Flags.Flag.SEEN));
+    }
+}
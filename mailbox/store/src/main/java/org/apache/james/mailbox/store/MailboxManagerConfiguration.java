@@ -19,19 +19,31 @@
 
 package org.apache.james.mailbox.store;
 
+import java.util.Optional;
+
 import jakarta.inject.Inject;
 
 public class MailboxManagerConfiguration {
     public static final MailboxManagerConfiguration DEFAULT = new MailboxManagerConfiguration(BatchSizes.defaultValues());
 
     private final BatchSizes batchSizes;
+    private final Optional<MailboxResolutionCache> mailboxResolutionCache;
 
     @Inject
     public MailboxManagerConfiguration(BatchSizes batchSizes) {
+        this(batchSizes, Optional.empty());
+    }
+
+    public MailboxManagerConfiguration(BatchSizes batchSizes, Optional<MailboxResolutionCache> mailboxResolutionCache) {
         this.batchSizes = batchSizes;
+        this.mailboxResolutionCache = mailboxResolutionCache;
     }
 
     public BatchSizes getBatchSizes() {
         return batchSizes;
     }
+
+    public Optional<MailboxResolutionCache> getMailboxResolutionCache() {
+        return mailboxResolutionCache;
+    }
 }
@@ -0,0 +1,129 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.apache.james.core.Username;
+import org.apache.james.mailbox.model.Mailbox;
+import org.apache.james.mailbox.model.MailboxACL;
+import org.apache.james.mailbox.model.MailboxACL.EntryKey;
+import org.apache.james.mailbox.model.MailboxACL.NameType;
+import org.apache.james.mailbox.model.MailboxACL.Rfc4314Rights;
+import org.apache.james.mailbox.model.MailboxPath;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Node-local cache of mailbox path resolutions, along with the rights the resolving user holds on them.
+ *
+ * Resolutions are indexed per user as rights on a shared mailbox differ from one user to another. Local renames,
+ * deletions and ACL updates invalidate the resolutions of the mailbox owner and of the users its ACL names. Changes
+ * done on other James nodes are only reflected once entries expire, hence the expiracy should be kept short.
+ *
+ * The resolutions of a user all expire together, the expiracy being counted from the first resolution. Invalidating
+ * a user discards its resolutions at once, including the ones that loads in flight might still add.
+ */
+public class MailboxResolutionCache {
+    public static final Duration DEFAULT_EXPIRACY = Duration.ofSeconds(10);
+    public static final long DEFAULT_MAXIMUM_USERS = 10_000;
+    public static final int MAXIMUM_RESOLUTIONS_PER_USER = 1_000;
+
+    public record Resolution(Mailbox mailbox, Rfc4314Rights rights) {
+        public Resolution {
+            // Callers might mutate the mailbox, eg upon rename
+            mailbox = new Mailbox(mailbox);
+        }
+
+        public Mailbox mailboxCopy() {
+            return new Mailbox(mailbox);
+        }
+    }
+
+    private final Cache<Username, Map<MailboxPath, Resolution>> cache;
+
+    public MailboxResolutionCache() {
+        this(DEFAULT_EXPIRACY, DEFAULT_MAXIMUM_USERS);
+    }
+
+    public MailboxResolutionCache(Duration expiracy, long maximumUsers) {
+        Preconditions.checkArgument(!expiracy.isNegative() && !expiracy.isZero(), "'expiracy' needs to be strictly positive");
+        Preconditions.checkArgument(maximumUsers > 0, "'maximumUsers' needs to be strictly positive");
+
+        this.cache = Caffeine.newBuilder()
+            .expireAfterWrite(expiracy)
+            .maximumSize(maximumUsers)
+            .build();
+    }
+
+    public Mono<Resolution> resolve(Username username, MailboxPath path, Supplier<Mono<Resolution>> loader) {
+        return Mono.defer(() -> {
+            Map<MailboxPath, Resolution> resolutions = cache.get(username, any -> new ConcurrentHashMap<>());
+
+            return Mono.justOrEmpty(resolutions.get(path))
+                .switchIfEmpty(Mono.defer(loader)
+                    .doOnNext(resolution -> {
+                        if (resolutions.size() < MAXIMUM_RESOLUTIONS_PER_USER) {
+                            resolutions.put(path, resolution);
+                        }
+                    }));
+        });
+    }
+
+    public void invalidate(Mailbox mailbox) {
+        invalidate(mailbox.getUser(), ImmutableList.of(mailbox.getACL()));
+    }
+
+    /**
+     * Invalidates the resolutions of the mailbox owner, and of the users named by the given ACLs.
+     *
+     * ACLs granting rights to groups or to special names like 'anyone' can not be mapped to users: everything is
+     * then invalidated.
+     */
+    public void invalidate(Username owner, Collection<MailboxACL> acls) {
+        if (acls.stream().anyMatch(MailboxResolutionCache::namesOtherThanUsers)) {
+            cache.invalidateAll();
+            return;
+        }
+        cache.invalidate(owner);
+        cache.invalidateAll(acls.stream()
+            .flatMap(acl -> acl.getEntries().keySet().stream())
+            .filter(key -> key.getNameType() == NameType.user)
+            .map(EntryKey::getName)
+            .map(Username::of)
+            .collect(ImmutableSet.toImmutableSet()));
+    }
+
+    private static boolean namesOtherThanUsers(MailboxACL acl) {
+        return acl.getEntries().keySet()
+            .stream()
+            .anyMatch(key -> key.getNameType() != NameType.user && !key.equals(MailboxACL.OWNER_KEY));
+    }
+}
@@ -138,7 +138,7 @@ public interface MessageStorer {
                 }
             }).orElseGet(() -> {
                 try (InputStream inputStream = contentIn.getInputStream()) {
-                    return messageParser.retrieveAttachments(inputStream);
+                    return messageParser.streamAttachments(inputStream);
                 } catch (Exception e) {
                     LOGGER.warn("Error while parsing mail's attachments: {}", e.getMessage(), e);
                     return MessageParser.ParsingResult.EMPTY;
@@ -108,6 +108,18 @@ public class StoreAttachmentManager implements AttachmentManager {
         return attachmentMapperFactory.getAttachmentMapper(mailboxSession).loadAttachmentContent(attachmentId);
     }
 
+    @Override
+    public InputStream loadAttachmentContent(AttachmentId attachmentId, long offset, long length, MailboxSession mailboxSession) throws AttachmentNotFoundException, IOException {
+        try {
+            if (!exists(attachmentId, mailboxSession)) {
+                throw new AttachmentNotFoundException(attachmentId.getId());
+            }
+        } catch (MailboxException e) {
+            throw new RuntimeException(e);
+        }
+        return attachmentMapperFactory.getAttachmentMapper(mailboxSession).loadAttachmentContent(attachmentId, offset, length);
+    }
+
     @Override
     public Mono<InputStream> loadAttachmentContentReactive(AttachmentId attachmentId, MailboxSession mailboxSession) {
         return existsReactive(attachmentId, mailboxSession)
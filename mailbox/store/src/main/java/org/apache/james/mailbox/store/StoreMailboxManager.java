@@ -273,16 +273,45 @@ public class StoreMailboxManager implements MailboxManager {
 
     @Override
     public Mono<MessageManager> getMailboxReactive(MailboxPath mailboxPath, MailboxSession session) {
-        MailboxMapper mapper = mailboxSessionMapperFactory.getMailboxMapper(session);
-
-        return mapper.findMailboxByPath(mailboxPath)
-            .map(Throwing.<Mailbox, MessageManager>function(mailboxRow -> getMailbox(mailboxRow, session)).sneakyThrow())
+        return configuration.getMailboxResolutionCache()
+            .map(cache -> getCachedMailboxReactive(cache, mailboxPath, session))
+            .orElseGet(() -> mailboxSessionMapperFactory.getMailboxMapper(session)
+                .findMailboxByPath(mailboxPath)
+                .map(Throwing.<Mailbox, MessageManager>function(mailboxRow -> getMailbox(mailboxRow, session)).sneakyThrow()))
             .switchIfEmpty(Mono.fromCallable(() -> {
                 LOGGER.debug("Mailbox '{}' not found.", mailboxPath);
                 throw new MailboxNotFoundException(mailboxPath);
             }));
     }
 
+    private Mono<MessageManager> getCachedMailboxReactive(MailboxResolutionCache cache, MailboxPath mailboxPath, MailboxSession session) {
+        return cache.resolve(session.getUser(), mailboxPath, () -> mailboxSessionMapperFactory.getMailboxMapper(session)
+                .findMailboxByPath(mailboxPath)
+                .map(mailboxRow -> new MailboxResolutionCache.Resolution(mailboxRow, storeRightManager.myRights(mailboxRow, session))))
+            .map(Throwing.<MailboxResolutionCache.Resolution, MessageManager>function(resolution -> {
+                Mailbox mailboxRow = resolution.mailboxCopy();
+                if (!belongsToCurrentUser(mailboxRow, session) && !resolution.rights().contains(Right.Lookup)) {
+                    LOGGER.info("Mailbox '{}' does not belong to user '{}' but to '{}'", mailboxPath, session.getUser(), mailboxRow.getUser());
+                    throw new MailboxNotFoundException(mailboxPath);
+                }
+                return createMessageManager(mailboxRow, session);
+            }).sneakyThrow());
+    }
+
+    private void invalidateMailboxResolution(Mailbox mailbox) {
+        configuration.getMailboxResolutionCache()
+            .ifPresent(cache -> cache.invalidate(mailbox));
+    }
+
+    private void invalidateRenamedMailboxResolution(MailboxPath originPath, Mailbox renamedMailbox) {
+        // The owner might have changed upon rename
+        configuration.getMailboxResolutionCache()
+            .ifPresent(cache -> {
+                cache.invalidate(originPath.getUser(), ImmutableList.of(renamedMailbox.getACL()));
+                cache.invalidate(renamedMailbox);
+            });
+    }
+
     @Override
     public MessageManager getMailbox(Mailbox mailboxRow, MailboxSession session) throws MailboxException {
         MailboxPath mailboxPath = mailboxRow.generateAssociatedPath();
@@ -318,6 +347,39 @@ public class StoreMailboxManager implements MailboxManager {
             }).sneakyThrow());
     }
 
+    @Override
+    public Flux<MessageManager.MailboxMetaData> getMetaDataReactive(List<MessageManager> mailboxes, MessageManager.MailboxMetaData.RecentMode recentMode,
+                                                                    MailboxSession session, EnumSet<MessageManager.MailboxMetaData.Item> items) {
+        if (!items.contains(MessageManager.MailboxMetaData.Item.MailboxCounters)) {
+            return MailboxManager.super.getMetaDataReactive(mailboxes, recentMode, session, items);
+        }
+        // Counters of readable mailboxes are read at once, other items are still read mailbox per mailbox
+        ImmutableList<Mailbox> readableMailboxes = mailboxes.stream()
+            .filter(StoreMessageManager.class::isInstance)
+            .map(mailbox -> ((StoreMessageManager) mailbox).getMailboxEntity())
+            .filter(mailbox -> storeRightManager.hasRight(mailbox, Right.Read, session))
+            .collect(ImmutableList.toImmutableList());
+        EnumSet<MessageManager.MailboxMetaData.Item> remainingItems = EnumSet.copyOf(items);
+        remainingItems.remove(MessageManager.MailboxMetaData.Item.MailboxCounters);
+        MessageMapper messageMapper = mailboxSessionMapperFactory.getMessageMapper(session);
+
+        return messageMapper.getMailboxCountersReactive(readableMailboxes)
+            .collectMap(MailboxCounters::getMailboxId)
+            .flatMapMany(counters -> Flux.fromIterable(mailboxes)
+                .concatMap(Throwing.<MessageManager, Mono<MessageManager.MailboxMetaData>>function(mailbox ->
+                    retrieveMetaData(mailbox, Optional.ofNullable(counters.get(mailbox.getId())), recentMode, session, items, remainingItems)).sneakyThrow()));
+    }
+
+    private Mono<MessageManager.MailboxMetaData> retrieveMetaData(MessageManager mailbox, Optional<MailboxCounters> counters, MessageManager.MailboxMetaData.RecentMode recentMode,
+                                                                  MailboxSession session, EnumSet<MessageManager.MailboxMetaData.Item> items,
+                                                                  EnumSet<MessageManager.MailboxMetaData.Item> itemsWithoutCounters) throws MailboxException {
+        if (counters.isPresent()) {
+            return mailbox.getMetaDataReactive(recentMode, session, itemsWithoutCounters)
+                .map(metaData -> metaData.withCounters(counters.get().getCount(), counters.get().getUnseen()));
+        }
+        return mailbox.getMetaDataReactive(recentMode, session, items);
+    }
+
     private boolean assertUserHasAccessTo(Mailbox mailbox, MailboxSession session) {
         return belongsToCurrentUser(mailbox, session) || userHasLookupRightsOn(mailbox, session);
     }
@@ -509,6 +571,7 @@ public class StoreMailboxManager implements MailboxManager {
 
                 return preDeletionHooks.runHooks(PreDeletionHook.DeleteOperation.from(metadata))
                     .then(mailboxMapper.delete(mailbox))
+                    .then(Mono.fromRunnable(() -> invalidateMailboxResolution(mailbox)))
                     .then(eventBus.dispatch(EventFactory.mailboxDeleted()
                             .randomEventId()
                             .mailboxSession(session)
@@ -654,6 +717,7 @@ public class StoreMailboxManager implements MailboxManager {
 
         return mapper.rename(mailbox)
             .map(mailboxId -> {
+                invalidateRenamedMailboxResolution(from, mailbox);
                 resultBuilder.add(new MailboxRenamedResult(mailboxId, from, newMailboxPath));
                 return mailboxId;
             })
@@ -666,6 +730,7 @@ public class StoreMailboxManager implements MailboxManager {
                         sub.setUser(toSession.getUser());
                         return mapper.rename(sub)
                             .map(mailboxId -> {
+                                invalidateRenamedMailboxResolution(fromPath, sub);
                                 resultBuilder.add(new MailboxRenamedResult(sub.getMailboxId(), fromPath, sub.generateAssociatedPath()));
                                 return mailboxId;
                             })
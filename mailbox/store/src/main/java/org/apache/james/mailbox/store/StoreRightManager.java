@@ -56,6 +56,7 @@ import org.apache.james.mailbox.store.mail.MailboxMapper;
 
 import com.github.fge.lambdas.Throwing;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
 import reactor.core.publisher.Mono;
@@ -64,14 +65,23 @@ public class StoreRightManager implements RightManager {
     private final EventBus eventBus;
     private final MailboxSessionMapperFactory mailboxSessionMapperFactory;
     private final MailboxACLResolver aclResolver;
+    private final Optional<MailboxResolutionCache> mailboxResolutionCache;
 
-    @Inject
     public StoreRightManager(MailboxSessionMapperFactory mailboxSessionMapperFactory,
                              MailboxACLResolver aclResolver,
                              EventBus eventBus) {
+        this(mailboxSessionMapperFactory, aclResolver, eventBus, MailboxManagerConfiguration.DEFAULT);
+    }
+
+    @Inject
+    public StoreRightManager(MailboxSessionMapperFactory mailboxSessionMapperFactory,
+                             MailboxACLResolver aclResolver,
+                             EventBus eventBus,
+                             MailboxManagerConfiguration configuration) {
         this.mailboxSessionMapperFactory = mailboxSessionMapperFactory;
         this.aclResolver = aclResolver;
         this.eventBus = eventBus;
+        this.mailboxResolutionCache = configuration.getMailboxResolutionCache();
     }
 
     @Override
@@ -193,6 +203,8 @@ public class StoreRightManager implements RightManager {
     }
 
     private Mono<Void> dispatchACLUpdateEvent(MailboxSession session, Mailbox mailbox, ACLDiff aclDiff) {
+        // Every ACL update goes through here: cached resolutions of users losing or gaining rights are dropped
+        mailboxResolutionCache.ifPresent(cache -> cache.invalidate(mailbox.getUser(), ImmutableList.of(aclDiff.getOldACL(), aclDiff.getNewACL())));
         return eventBus.dispatch(EventFactory.aclUpdated()
                 .randomEventId()
                 .mailboxSession(session)
@@ -33,6 +33,8 @@ import org.apache.james.mailbox.model.ParsedAttachment;
 import org.apache.james.mailbox.store.transaction.Mapper;
 import org.apache.james.util.ReactorUtils;
 
+import com.google.common.io.ByteStreams;
+
 import reactor.core.publisher.Mono;
 
 public interface AttachmentMapper extends Mapper {
@@ -44,6 +46,20 @@ public interface AttachmentMapper extends Mapper {
             .subscribeOn(ReactorUtils.BLOCKING_CALL_WRAPPER);
     }
 
+    /**
+     * Loads {@code length} octets of the attachment content, starting at {@code offset}.
+     */
+    default InputStream loadAttachmentContent(AttachmentId attachmentId, long offset, long length) throws AttachmentNotFoundException, IOException {
+        InputStream content = loadAttachmentContent(attachmentId);
+        try {
+            ByteStreams.skipFully(content, offset);
+        } catch (IOException e) {
+            content.close();
+            throw e;
+        }
+        return ByteStreams.limit(content, length);
+    }
+
     AttachmentMetadata getAttachment(AttachmentId attachmentId) throws AttachmentNotFoundException;
 
     default Mono<AttachmentMetadata> getAttachmentReactive(AttachmentId attachmentId) {
@@ -0,0 +1,238 @@
+/******************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one     *
+ * or more contributor license agreements.  See the NOTICE file   *
+ * distributed with this work for additional information          *
+ * regarding copyright ownership.  The ASF licenses this file     *
+ * to you under the Apache License, Version 2.0 (the              *
+ * "License"); you may not use this file except in compliance     *
+ * with the License.  You may obtain a copy of the License at     *
+ *                                                                *
+ * http://www.apache.org/licenses/LICENSE-2.0                     *
+ *                                                                *
+ * Unless required by applicable law or agreed to in writing,     *
+ * software distributed under the License is distributed on an    *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY         *
+ * KIND, either express or implied.  See the License for the      *
+ * specific language governing permissions and limitations        *
+ * under the License.                                             *
+ ******************************************************************/
+package org.apache.james.mailbox.store.mail;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.james.core.Username;
+import org.apache.james.events.Event;
+import org.apache.james.events.EventListener;
+import org.apache.james.events.Group;
+import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.events.MailboxEvents;
+import org.apache.james.mailbox.model.MessageId;
+import org.apache.james.mailbox.model.MessageMetaData;
+import org.apache.james.mailbox.model.ThreadId;
+import org.apache.james.mailbox.store.mail.model.MimeMessageId;
+import org.apache.james.mailbox.store.mail.model.Subject;
+import org.apache.james.mailbox.store.search.SearchUtil;
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
+import org.reactivestreams.Publisher;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Answers thread id guesses from a node-local index before falling back to another {@link ThreadIdGuessingAlgorithm},
+ * typically the search based one.
+ *
+ * The index maps hashes of a MIME message id, be it the Message-ID, In-Reply-To or one of the References, together
+ * with the base subject, to the thread id of the messages holding them: the same relation the search based algorithm
+ * queries. Guesses become index entries once the {@link MailboxEvents.Added} event confirms the message was stored,
+ * and {@link MailboxEvents.Expunged} events drop the entries of removed messages, a later guess then falling back to
+ * the delegate. Entries are bounded per user, the least recently used being evicted first.
+ *
+ * Guesses without subject are not cached, as the delegate then matches any subject.
+ */
+public class CachingThreadIdGuessingAlgorithm implements ThreadIdGuessingAlgorithm, EventListener.ReactiveGroupEventListener {
+    public static final class CachingThreadIdGuessingAlgorithmGroup extends Group {
+
+    }
+
+    public static final Group GROUP = new CachingThreadIdGuessingAlgorithmGroup();
+    public static final long DEFAULT_MAXIMUM_USERS = 10_000;
+    public static final long DEFAULT_MAXIMUM_ENTRIES_PER_USER = 1_000;
+    public static final String GUESS_LATENCY_METRIC = "threadIdGuessing";
+    public static final String HIT_METRIC = "threadIdGuessing.cache.hit";
+    public static final String MISS_METRIC = "threadIdGuessing.cache.miss";
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+    private static final Duration PENDING_EXPIRACY = Duration.ofMinutes(1);
+    private static final char SEPARATOR = '\0';
+
+    private record PendingGuess(Username username, Set<Long> keys, ThreadId threadId) {
+
+    }
+
+    private static class UserIndex {
+        private final Cache<Long, ThreadId> threadIds;
+        private final Cache<MessageId, Set<Long>> keysByMessage;
+
+        UserIndex(long maximumEntries) {
+            this.threadIds = Caffeine.newBuilder()
+                .maximumSize(maximumEntries)
+                .build();
+            this.keysByMessage = Caffeine.newBuilder()
+                .maximumSize(maximumEntries)
+                .build();
+        }
+
+        Optional<ThreadId> lookup(Set<Long> keys) {
+            return keys.stream()
+                .map(threadIds::getIfPresent)
+                .filter(threadId -> threadId != null)
+                .findFirst();
+        }
+
+        void record(MessageId messageId, Set<Long> keys, ThreadId threadId) {
+            keys.forEach(key -> threadIds.put(key, threadId));
+            keysByMessage.put(messageId, keys);
+        }
+
+        void forget(MessageId messageId) {
+            Optional.ofNullable(keysByMessage.getIfPresent(messageId))
+                .ifPresent(keys -> {
+                    threadIds.invalidateAll(keys);
+                    keysByMessage.invalidate(messageId);
+                });
+        }
+    }
+
+    private final ThreadIdGuessingAlgorithm delegate;
+    private final MetricFactory metricFactory;
+    private final Metric hitMetric;
+    private final Metric missMetric;
+    private final long maximumEntriesPerUser;
+    private final Cache<Username, UserIndex> userIndexes;
+    private final Cache<MessageId, PendingGuess> pendingGuesses;
+
+    public CachingThreadIdGuessingAlgorithm(ThreadIdGuessingAlgorithm delegate, MetricFactory metricFactory) {
+        this(delegate, metricFactory, DEFAULT_MAXIMUM_USERS, DEFAULT_MAXIMUM_ENTRIES_PER_USER);
+    }
+
+    public CachingThreadIdGuessingAlgorithm(ThreadIdGuessingAlgorithm delegate, MetricFactory metricFactory, long maximumUsers, long maximumEntriesPerUser) {
+        Preconditions.checkArgument(maximumUsers > 0, "'maximumUsers' needs to be strictly positive");
+        Preconditions.checkArgument(maximumEntriesPerUser > 0, "'maximumEntriesPerUser' needs to be strictly positive");
+
+        this.delegate = delegate;
+        this.metricFactory = metricFactory;
+        this.hitMetric = metricFactory.generate(HIT_METRIC);
+        this.missMetric = metricFactory.generate(MISS_METRIC);
+        this.maximumEntriesPerUser = maximumEntriesPerUser;
+        this.userIndexes = Caffeine.newBuilder()
+            .maximumSize(maximumUsers)
+            .build();
+        this.pendingGuesses = Caffeine.newBuilder()
+            .expireAfterWrite(PENDING_EXPIRACY)
+            .maximumSize(maximumUsers * maximumEntriesPerUser)
+            .build();
+    }
+
+    @Override
+    public Mono<ThreadId> guessThreadIdReactive(MessageId messageId, Optional<MimeMessageId> mimeMessageId, Optional<MimeMessageId> inReplyTo, Optional<List<MimeMessageId>> references, Optional<Subject> subject, MailboxSession session) {
+        return Mono.from(metricFactory.decoratePublisherWithTimerMetric(GUESS_LATENCY_METRIC,
+            subject.map(value -> keys(mimeMessageId, inReplyTo, references, value))
+                .filter(keys -> !keys.isEmpty())
+                .map(keys -> Mono.defer(() -> guessThreadId(messageId, mimeMessageId, inReplyTo, references, subject, keys, session)))
+                .orElseGet(() -> delegate.guessThreadIdReactive(messageId, mimeMessageId, inReplyTo, references, subject, session))));
+    }
+
+    private Mono<ThreadId> guessThreadId(MessageId messageId, Optional<MimeMessageId> mimeMessageId, Optional<MimeMessageId> inReplyTo, Optional<List<MimeMessageId>> references, Optional<Subject> subject,
+                                         Set<Long> keys, MailboxSession session) {
+        Username username = session.getUser();
+        Optional<ThreadId> cachedThreadId = Optional.ofNullable(userIndexes.getIfPresent(username))
+            .flatMap(userIndex -> userIndex.lookup(keys));
+
+        return cachedThreadId
+            .map(threadId -> {
+                hitMetric.increment();
+                return Mono.just(threadId);
+            })
+            .orElseGet(() -> {
+                missMetric.increment();
+                return delegate.guessThreadIdReactive(messageId, mimeMessageId, inReplyTo, references, subject, session);
+            })
+            .doOnNext(threadId -> pendingGuesses.put(messageId, new PendingGuess(username, keys, threadId)));
+    }
+
+    @Override
+    public Flux<MessageId> getMessageIdsInThread(ThreadId threadId, MailboxSession session) {
+        return delegate.getMessageIdsInThread(threadId, session);
+    }
+
+    @Override
+    public Group getDefaultGroup() {
+        return GROUP;
+    }
+
+    @Override
+    public boolean isHandling(Event event) {
+        return event instanceof MailboxEvents.Added
+            || event instanceof MailboxEvents.Expunged
+            || event instanceof MailboxEvents.MailboxDeletion;
+    }
+
+    @Override
+    public Publisher<Void> reactiveEvent(Event event) {
+        return Mono.fromRunnable(() -> handle(event));
+    }
+
+    private void handle(Event event) {
+        if (event instanceof MailboxEvents.Added added) {
+            added.getAdded().values().forEach(this::confirm);
+        } else if (event instanceof MailboxEvents.Expunged expunged) {
+            Optional.ofNullable(userIndexes.getIfPresent(event.getUsername()))
+                .ifPresent(userIndex -> expunged.getExpunged().values()
+                    .forEach(metaData -> userIndex.forget(metaData.getMessageId())));
+        } else if (event instanceof MailboxEvents.MailboxDeletion) {
+            // Deleted messages are not listed: drop what we know about that user
+            userIndexes.invalidate(event.getUsername());
+        }
+    }
+
+    private void confirm(MessageMetaData metaData) {
+        Optional.ofNullable(pendingGuesses.getIfPresent(metaData.getMessageId()))
+            .ifPresent(guess -> {
+                pendingGuesses.invalidate(metaData.getMessageId());
+                userIndexes.get(guess.username(), any -> new UserIndex(maximumEntriesPerUser))
+                    .record(metaData.getMessageId(), guess.keys(), guess.threadId());
+            });
+    }
+
+    @VisibleForTesting
+    static Set<Long> keys(Optional<MimeMessageId> mimeMessageId, Optional<MimeMessageId> inReplyTo, Optional<List<MimeMessageId>> references, Subject subject) {
+        String baseSubject = SearchUtil.getBaseSubject(subject.getValue());
+        ImmutableSet.Builder<MimeMessageId> mimeMessageIds = ImmutableSet.builder();
+        mimeMessageId.ifPresent(mimeMessageIds::add);
+        inReplyTo.ifPresent(mimeMessageIds::add);
+        references.ifPresent(mimeMessageIds::addAll);
+
+        return mimeMessageIds.build().stream()
+            .map(id -> HASH_FUNCTION.newHasher()
+                .putString(id.getValue(), StandardCharsets.UTF_8)
+                .putChar(SEPARATOR)
+                .putString(baseSubject, StandardCharsets.UTF_8)
+                .hash()
+                .asLong())
+            .collect(ImmutableSet.toImmutableSet());
+    }
+}
@@ -20,6 +20,7 @@ package org.apache.james.mailbox.store.mail;
 
 import static jakarta.mail.Flags.Flag.RECENT;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -115,6 +116,15 @@ public interface MessageMapper extends Mapper {
             .subscribeOn(Schedulers.boundedElastic());
     }
 
+    /**
+     * Return the counters of several mailboxes. Implementations should override this with a multi-key read
+     * when their storage allows it.
+     */
+    default Flux<MailboxCounters> getMailboxCountersReactive(Collection<Mailbox> mailboxes) {
+        return Flux.fromIterable(mailboxes)
+            .concatMap(this::getMailboxCountersReactive);
+    }
+
     /**
      * Delete the given {@link MailboxMessage}
      */
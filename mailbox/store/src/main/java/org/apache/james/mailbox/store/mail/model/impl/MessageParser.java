@@ -21,6 +21,9 @@ package org.apache.james.mailbox.store.mail.model.impl;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
@@ -31,9 +34,12 @@ import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
 import org.apache.james.mailbox.model.Cid;
 import org.apache.james.mailbox.model.ContentType;
 import org.apache.james.mailbox.model.ParsedAttachment;
+import org.apache.james.mime4j.MimeException;
 import org.apache.james.mime4j.codec.DecodeMonitor;
 import org.apache.james.mime4j.dom.Body;
 import org.apache.james.mime4j.dom.Entity;
+import org.apache.james.mime4j.dom.FieldParser;
+import org.apache.james.mime4j.dom.Header;
 import org.apache.james.mime4j.dom.Message;
 import org.apache.james.mime4j.dom.Multipart;
 import org.apache.james.mime4j.dom.SingleBody;
@@ -41,10 +47,16 @@ import org.apache.james.mime4j.dom.field.ContentDispositionField;
 import org.apache.james.mime4j.dom.field.ContentIdField;
 import org.apache.james.mime4j.dom.field.ContentTypeField;
 import org.apache.james.mime4j.dom.field.ParsedField;
+import org.apache.james.mime4j.field.LenientFieldParser;
+import org.apache.james.mime4j.message.DefaultBodyDescriptorBuilder;
 import org.apache.james.mime4j.message.DefaultMessageBuilder;
 import org.apache.james.mime4j.message.DefaultMessageWriter;
+import org.apache.james.mime4j.message.HeaderImpl;
+import org.apache.james.mime4j.stream.EntityState;
 import org.apache.james.mime4j.stream.Field;
 import org.apache.james.mime4j.stream.MimeConfig;
+import org.apache.james.mime4j.stream.MimeTokenStream;
+import org.apache.james.mime4j.stream.RecursionMode;
 import org.apache.james.mime4j.util.MimeUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,6 +64,7 @@ import org.slf4j.LoggerFactory;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import com.google.common.io.ByteSource;
+import com.google.common.io.FileBackedOutputStream;
 
 public class MessageParser {
     public static class ParsingResult {
@@ -92,6 +105,7 @@ public class MessageParser {
         .add(TEXT_CALENDAR)
         .build();
     private static final Logger LOGGER = LoggerFactory.getLogger(MessageParser.class);
+    private static final FieldParser<ParsedField> FIELD_PARSER = LenientFieldParser.getParser();
 
     private final Cid.CidParser cidParser;
 
@@ -117,6 +131,97 @@ public class MessageParser {
         }
     }
 
+    /**
+     * Single pass alternative to {@link #retrieveAttachments(InputStream)}.
+     *
+     * The message is read as a token stream rather than built as a DOM: bodies of parts that are not attachments are
+     * skipped, and decoded attachment bodies are spooled as they are read, in memory up to
+     * {@link FileBufferedBodyFactory#FILE_THRESHOLD} bytes then in a temporary file. The size of each attachment is
+     * known once parsed, so storing it does not need to read it twice.
+     */
+    public ParsingResult streamAttachments(InputStream fullContent) throws IOException {
+        MimeTokenStream stream = new MimeTokenStream(MimeConfig.PERMISSIVE, DecodeMonitor.SILENT,
+            new DefaultBodyDescriptorBuilder(null, FIELD_PARSER, DecodeMonitor.SILENT));
+        stream.setRecursionMode(RecursionMode.M_NO_RECURSE);
+        stream.parse(fullContent);
+
+        List<FileBackedOutputStream> buffers = new ArrayList<>();
+        Runnable dispose = () -> buffers.forEach(this::release);
+        try {
+            return new ParsingResult(streamAttachments(stream, buffers), dispose);
+        } catch (MimeException e) {
+            dispose.run();
+            throw new IOException(e);
+        } catch (IOException | RuntimeException e) {
+            // Release associated temporary files
+            dispose.run();
+            throw e;
+        }
+    }
+
+    private List<ParsedAttachment> streamAttachments(MimeTokenStream stream, List<FileBackedOutputStream> buffers) throws IOException, MimeException {
+        ImmutableList.Builder<ParsedAttachment> attachments = ImmutableList.builder();
+        Deque<Context> multipartContexts = new ArrayDeque<>();
+        HeaderImpl header = new HeaderImpl();
+
+        for (EntityState state = stream.getState(); state != EntityState.T_END_OF_STREAM; state = stream.next()) {
+            switch (state) {
+                case T_START_MESSAGE, T_START_BODYPART -> header = new HeaderImpl();
+                case T_FIELD -> header.addField(FIELD_PARSER.parse(stream.getField(), DecodeMonitor.SILENT));
+                case T_START_MULTIPART -> multipartContexts.push(Context.fromSubType(stream.getBodyDescriptor().getSubType()));
+                case T_END_MULTIPART -> multipartContexts.pop();
+                case T_BODY -> {
+                    Context context = Optional.ofNullable(multipartContexts.peek()).orElse(Context.BODY);
+                    if (isAttachment(header, context)) {
+                        try {
+                            attachments.add(retrieveAttachment(header, spool(stream.getDecodedInputStream(), buffers)));
+                        } catch (IllegalStateException e) {
+                            LOGGER.warn("The attachment is not well-formed", e);
+                        }
+                    }
+                }
+                default -> {
+                    // Preamble, epilogue and end of parts carry nothing to extract
+                }
+            }
+        }
+        return attachments.build();
+    }
+
+    private ByteSource spool(InputStream decodedBody, List<FileBackedOutputStream> buffers) throws IOException {
+        FileBackedOutputStream buffer = new FileBackedOutputStream(FileBufferedBodyFactory.FILE_THRESHOLD);
+        buffers.add(buffer);
+        long size;
+        try (buffer) {
+            size = decodedBody.transferTo(buffer);
+        }
+        ByteSource content = buffer.asByteSource();
+        return new ByteSource() {
+            @Override
+            public InputStream openStream() throws IOException {
+                return content.openStream();
+            }
+
+            @Override
+            public com.google.common.base.Optional<Long> sizeIfKnown() {
+                return com.google.common.base.Optional.of(size);
+            }
+
+            @Override
+            public long size() {
+                return size;
+            }
+        };
+    }
+
+    private void release(FileBackedOutputStream buffer) {
+        try {
+            buffer.reset();
+        } catch (IOException e) {
+            LOGGER.error("Cannot delete {}", buffer, e);
+        }
+    }
+
     public List<ParsedAttachment> retrieveAttachments(Message message) throws IOException {
         Body body = message.getBody();
         if (body instanceof Multipart) {
@@ -124,7 +229,7 @@ public class MessageParser {
             return listAttachments(multipartBody, Context.fromSubType(multipartBody.getSubType()))
                 .collect(ImmutableList.toImmutableList());
         } else {
-            if (isAttachment(message, Context.BODY)) {
+            if (isAttachment(message.getHeader(), Context.BODY)) {
                 return ImmutableList.of(retrieveAttachment(message));
             }
             return ImmutableList.of();
@@ -141,7 +246,7 @@ public class MessageParser {
         if (isMultipart(entity)) {
             return listAttachments((Multipart) entity.getBody(), Context.fromEntity(entity));
         }
-        if (isAttachment(entity, context)) {
+        if (isAttachment(entity.getHeader(), context)) {
             try {
                 return Stream.of(retrieveAttachment(entity));
             } catch (IllegalStateException e) {
@@ -154,45 +259,49 @@ public class MessageParser {
     }
 
     private ParsedAttachment retrieveAttachment(Entity entity) throws IOException {
-        Optional<ContentTypeField> contentTypeField = getContentTypeField(entity);
-        Optional<ContentDispositionField> contentDispositionField = getContentDispositionField(entity);
+        return retrieveAttachment(entity.getHeader(), new ByteSource() {
+            @Override
+            public InputStream openStream() throws IOException {
+                Body body = entity.getBody();
+                if (body instanceof SingleBody) {
+                    // Avoid copies for BinaryBody / TextBody
+                    SingleBody singleBody = (SingleBody) body;
+                    return singleBody.getInputStream();
+                }
+                // Fallback to a memory copy
+                return getContent(body);
+            }
+        });
+    }
+
+    private ParsedAttachment retrieveAttachment(Header header, ByteSource content) {
+        Optional<ContentTypeField> contentTypeField = getContentTypeField(header);
+        Optional<ContentDispositionField> contentDispositionField = getContentDispositionField(header);
         Optional<ContentType> contentType = contentTypeField.map(ContentTypeField::getBody)
             .filter(Predicate.not(Strings::isNullOrEmpty))
             .map(ContentType::of);
         Optional<String> name = name(contentTypeField, contentDispositionField);
-        Optional<Cid> cid = cid(readHeader(entity, CONTENT_ID, ContentIdField.class));
-        boolean isInline = isInline(readHeader(entity, CONTENT_DISPOSITION, ContentDispositionField.class)) && cid.isPresent();
+        Optional<Cid> cid = cid(readHeader(header, CONTENT_ID, ContentIdField.class));
+        boolean isInline = isInline(readHeader(header, CONTENT_DISPOSITION, ContentDispositionField.class)) && cid.isPresent();
 
         return ParsedAttachment.builder()
                 .contentType(contentType.orElse(DEFAULT_CONTENT_TYPE))
-                .content(new ByteSource() {
-                    @Override
-                    public InputStream openStream() throws IOException {
-                        Body body = entity.getBody();
-                        if (body instanceof SingleBody) {
-                            // Avoid copies for BinaryBody / TextBody
-                            SingleBody singleBody = (SingleBody) body;
-                            return singleBody.getInputStream();
-                        }
-                        // Fallback to a memory copy
-                        return getContent(body);
-                    }
-                })
+                .content(content)
                 .name(name)
                 .cid(cid)
                 .inline(isInline);
     }
 
-    private <T extends ParsedField> Optional<T> readHeader(Entity entity, String headerName, Class<T> clazz) {
-        return castField(entity.getHeader().getField(headerName), clazz);
+    private <T extends ParsedField> Optional<T> readHeader(Header header, String headerName, Class<T> clazz) {
+        return castField(header.getField(headerName), clazz);
     }
 
-    private Optional<ContentTypeField> getContentTypeField(Entity entity) {
-        return castField(entity.getHeader().getField(CONTENT_TYPE), ContentTypeField.class);
+    private Optional<ContentTypeField> getContentTypeField(Header header) {
+        return castField(header.getField(CONTENT_TYPE), ContentTypeField.class);
     }
 
-    private Optional<ContentDispositionField> getContentDispositionField(Entity entity) {
-        return castField(entity.getHeader().getField(CONTENT_DISPOSITION), ContentDispositionField.class);
+    private Optional<ContentDispositionField> getContentDispositionField(Header header) {
+        return castField(header.getField(CONTENT_DISPOSITION), ContentDispositionField.class);
     }
 
     @SuppressWarnings("unchecked")
@@ -224,14 +333,14 @@ public class MessageParser {
             .orElse(false);
     }
 
-    private boolean isAttachment(Entity part, Context context) {
+    private boolean isAttachment(Header part, Context context) {
         if (context == Context.BODY && isTextPart(part)) {
             return false;
         }
         return attachmentDispositionCriterion(part) || attachmentContentTypeCriterion(part) || hadCID(part);
     }
 
-    private boolean isTextPart(Entity part) {
+    private boolean isTextPart(Header part) {
         return getContentTypeField(part)
             .filter(header -> !ALLOWED_ATTACHMENT_CONTENT_TYPES.contains(header.getMimeType()))
             .map(ContentTypeField::getMediaType)
@@ -239,7 +348,7 @@ public class MessageParser {
             .orElse(false);
     }
 
-    private boolean attachmentContentTypeCriterion(Entity part) {
+    private boolean attachmentContentTypeCriterion(Header part) {
         return getContentTypeField(part)
             .map(ContentTypeField::getMimeType)
             .map(dispositionType -> dispositionType.toLowerCase(Locale.US))
@@ -247,7 +356,7 @@ public class MessageParser {
             .orElse(false);
     }
 
-    private boolean attachmentDispositionCriterion(Entity part) {
+    private boolean attachmentDispositionCriterion(Header part) {
         return getContentDispositionField(part)
             .map(ContentDispositionField::getDispositionType)
             .map(dispositionType -> dispositionType.toLowerCase(Locale.US))
@@ -255,7 +364,7 @@ public class MessageParser {
             .orElse(false);
     }
 
-    private boolean hadCID(Entity part) {
+    private boolean hadCID(Header part) {
         return readHeader(part, CONTENT_ID, ContentIdField.class).isPresent();
     }
 
@@ -26,11 +26,15 @@ import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.TimeZone;
 import java.util.stream.Stream;
 
@@ -46,6 +50,7 @@ import org.apache.james.mailbox.extractor.TextExtractor;
 import org.apache.james.mailbox.model.AttachmentMetadata;
 import org.apache.james.mailbox.model.Header;
 import org.apache.james.mailbox.model.MessageAttachmentMetadata;
+import org.apache.james.mailbox.model.MessageId;
 import org.apache.james.mailbox.model.SearchQuery;
 import org.apache.james.mailbox.model.SearchQuery.AddressType;
 import org.apache.james.mailbox.model.SearchQuery.DateResolution;
@@ -74,67 +79,158 @@ import com.google.common.collect.Lists;
 
 /**
  * Utility methods to help perform search operations.
+ *
+ * The {@link SearchQuery} is compiled once into an evaluation plan: criteria of conjunctions are ordered by cost
+ * (message metadata, then headers, then content) so that evaluation stops as early and as cheaply as possible,
+ * and headers are parsed at most once per message.
  */
 public class MessageSearches implements Iterable<SimpleMessageSearchIndex.SearchResult> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MessageSearches.class);
 
+    private enum Cost {
+        METADATA,
+        HEADERS,
+        CONTENT
+    }
+
+    @FunctionalInterface
+    private interface Matcher {
+        boolean matches(MessageContext context) throws MailboxException;
+    }
+
+    private record CompiledCriterion(Cost cost, Matcher matcher) {
+        private static final CompiledCriterion ALL = new CompiledCriterion(Cost.METADATA, context -> true);
+
+        boolean matches(MessageContext context) throws MailboxException {
+            return matcher.matches(context);
+        }
+    }
+
+    private static class MessageContext {
+        private final MailboxMessage message;
+        private final Collection<MessageUid> recentMessageUids;
+        private List<Header> headers;
+
+        private MessageContext(MailboxMessage message, Collection<MessageUid> recentMessageUids) {
+            this.message = message;
+            this.recentMessageUids = recentMessageUids;
+        }
+
+        List<Header> headers() throws IOException {
+            if (headers == null) {
+                headers = ResultUtils.createHeaders(message);
+            }
+            return headers;
+        }
+    }
+
+    private record Candidate(MailboxMessage message, long position) {
+
+    }
+
     private final Iterator<MailboxMessage> messages;
     private final SearchQuery query;
     private final TextExtractor textExtractor;
     private final AttachmentContentLoader attachmentContentLoader;
     private final MailboxSession mailboxSession;
+    private final Optional<Long> limit;
 
     public MessageSearches(Iterator<MailboxMessage> messages, SearchQuery query, TextExtractor textExtractor, AttachmentContentLoader attachmentContentLoader, MailboxSession mailboxSession) {
+        this(messages, query, textExtractor, attachmentContentLoader, mailboxSession, Optional.empty());
+    }
+
+    /**
+     * @param limit when present, only the first {@code limit} distinct message ids are returned. A bounded heap is then
+     *              used instead of sorting every match.
+     */
+    public MessageSearches(Iterator<MailboxMessage> messages, SearchQuery query, TextExtractor textExtractor, AttachmentContentLoader attachmentContentLoader, MailboxSession mailboxSession, Optional<Long> limit) {
         this.messages = messages;
         this.query = query;
         this.textExtractor = textExtractor;
         this.attachmentContentLoader = attachmentContentLoader;
         this.mailboxSession = mailboxSession;
+        this.limit = limit;
     }
 
     @Override
     public Iterator<SimpleMessageSearchIndex.SearchResult> iterator() {
+        CompiledCriterion plan = compile(query.getCriteria());
+        Comparator<MailboxMessage> comparator = CombinedComparator.create(query.getSorts());
+        return limit.map(value -> topMatches(plan, comparator, value))
+            .orElseGet(() -> allMatches(plan, comparator))
+            .stream()
+            .map(mailboxMessage -> new SimpleMessageSearchIndex.SearchResult(
+                Optional.of(mailboxMessage.getMessageId()),
+                mailboxMessage.getMailboxId(),
+                mailboxMessage.getUid()))
+            .iterator();
+    }
+
+    private List<MailboxMessage> allMatches(CompiledCriterion plan, Comparator<MailboxMessage> comparator) {
         ImmutableList.Builder<MailboxMessage> builder = ImmutableList.builder();
         while (messages.hasNext()) {
             MailboxMessage m = messages.next();
-            try {
-                if (isMatch(m)) {
-                    builder.add(m);
-                }
-            } catch (MailboxException e) {
-                LOGGER.error("Unable to search message {}", m.getUid(), e);
+            if (isMatch(plan, m)) {
+                builder.add(m);
             }
         }
         return builder.build()
             .stream()
-            .sorted(CombinedComparator.create(query.getSorts()))
-            .map(mailboxMessage -> new SimpleMessageSearchIndex.SearchResult(
-                Optional.of(mailboxMessage.getMessageId()),
-                mailboxMessage.getMailboxId(),
-                mailboxMessage.getUid()))
-            .iterator();
+            .sorted(comparator)
+            .collect(ImmutableList.toImmutableList());
     }
 
     /**
-     * Does the row match the given criteria?
-     *
-     * @param message
-     *            <code>MailboxMessage</code>, not null
-     * @return <code>true</code> if the row matches the given criteria,
-     *         <code>false</code> otherwise
+     * Retains the best {@code limit} matches in a heap whose head is the worst retained one. Like a stable sort
+     * followed by a distinct filter on message ids, only the best ranked copy of a message id is kept and ties are
+     * resolved by encounter order.
      */
-    private boolean isMatch(MailboxMessage message) throws MailboxException {
-        final List<SearchQuery.Criterion> criteria = query.getCriteria();
-        final Collection<MessageUid> recentMessageUids = query.getRecentMessageUids();
-        if (criteria != null) {
-            for (SearchQuery.Criterion criterion : criteria) {
-                if (!isMatch(criterion, message, recentMessageUids)) {
-                    return false;
+    private List<MailboxMessage> topMatches(CompiledCriterion plan, Comparator<MailboxMessage> comparator, long limit) {
+        if (limit <= 0) {
+            return ImmutableList.of();
+        }
+        Comparator<Candidate> candidateComparator = Comparator.comparing(Candidate::message, comparator)
+            .thenComparingLong(Candidate::position);
+        PriorityQueue<Candidate> worstFirst = new PriorityQueue<>(candidateComparator.reversed());
+        Map<MessageId, Candidate> retained = new HashMap<>();
+        long position = 0;
+        while (messages.hasNext()) {
+            MailboxMessage m = messages.next();
+            if (!isMatch(plan, m)) {
+                continue;
+            }
+            Candidate candidate = new Candidate(m, position++);
+            Candidate sameMessageId = retained.get(m.getMessageId());
+            if (sameMessageId != null) {
+                if (candidateComparator.compare(candidate, sameMessageId) >= 0) {
+                    continue;
+                }
+                worstFirst.remove(sameMessageId);
+                retained.remove(m.getMessageId());
+            }
+            if (worstFirst.size() >= limit) {
+                if (candidateComparator.compare(candidate, worstFirst.peek()) >= 0) {
+                    continue;
                 }
+                retained.remove(worstFirst.poll().message().getMessageId());
             }
+            worstFirst.add(candidate);
+            retained.put(m.getMessageId(), candidate);
+        }
+        return worstFirst.stream()
+            .sorted(candidateComparator)
+            .map(Candidate::message)
+            .collect(ImmutableList.toImmutableList());
+    }
+
+    private boolean isMatch(CompiledCriterion plan, MailboxMessage message) {
+        try {
+            return plan.matches(new MessageContext(message, query.getRecentMessageUids()));
+        } catch (MailboxException e) {
+            LOGGER.error("Unable to search message {}", message.getUid(), e);
+            return false;
         }
-        return true;
     }
 
     /**
@@ -151,50 +247,126 @@ public class MessageSearches implements Iterable<SimpleMessageSearchIndex.Search
      */
     public boolean isMatch(SearchQuery.Criterion criterion, MailboxMessage message,
             final Collection<MessageUid> recentMessageUids) throws MailboxException {
-        if (criterion instanceof SearchQuery.InternalDateCriterion) {
-            return matches((SearchQuery.InternalDateCriterion) criterion, message);
-        } else if (criterion instanceof SearchQuery.SizeCriterion) {
-            return matches((SearchQuery.SizeCriterion) criterion, message);
-        } else if (criterion instanceof SearchQuery.HeaderCriterion) {
+        return compile(criterion).matches(new MessageContext(message, recentMessageUids));
+    }
+
+    private CompiledCriterion compile(List<SearchQuery.Criterion> criteria) {
+        if (criteria == null) {
+            return CompiledCriterion.ALL;
+        }
+        return allOf(compileByCost(criteria));
+    }
+
+    private List<CompiledCriterion> compileByCost(List<SearchQuery.Criterion> criteria) {
+        return criteria.stream()
+            .map(this::compile)
+            .sorted(Comparator.comparing(CompiledCriterion::cost))
+            .collect(ImmutableList.toImmutableList());
+    }
+
+    private CompiledCriterion compile(SearchQuery.Criterion criterion) {
+        if (criterion instanceof SearchQuery.InternalDateCriterion internalDateCriterion) {
+            return metadata(message -> matches(internalDateCriterion, message));
+        } else if (criterion instanceof SearchQuery.SizeCriterion sizeCriterion) {
+            return metadata(message -> matches(sizeCriterion, message));
+        } else if (criterion instanceof SearchQuery.HeaderCriterion headerCriterion) {
+            return compile(headerCriterion);
+        } else if (criterion instanceof SearchQuery.UidCriterion uidCriterion) {
+            return metadata(message -> matches(uidCriterion, message));
+        } else if (criterion instanceof SearchQuery.MessageIdCriterion messageIdCriterion) {
+            return metadata(message -> messageIdCriterion.getMessageId().equals(message.getMessageId()));
+        } else if (criterion instanceof SearchQuery.FlagCriterion flagCriterion) {
+            return new CompiledCriterion(Cost.METADATA, context -> matches(flagCriterion, context.message, context.recentMessageUids));
+        } else if (criterion instanceof SearchQuery.CustomFlagCriterion customFlagCriterion) {
+            return metadata(message -> matches(customFlagCriterion, message));
+        } else if (criterion instanceof SearchQuery.TextCriterion textCriterion) {
+            return new CompiledCriterion(Cost.CONTENT, context -> matches(textCriterion, context.message));
+        } else if (criterion instanceof SearchQuery.AllCriterion) {
+            return CompiledCriterion.ALL;
+        } else if (criterion instanceof SearchQuery.ConjunctionCriterion conjunctionCriterion) {
+            return compile(conjunctionCriterion);
+        } else if (criterion instanceof SearchQuery.AttachmentCriterion attachmentCriterion) {
+            return metadata(message -> matches(attachmentCriterion, message));
+        } else if (criterion instanceof SearchQuery.ModSeqCriterion modSeqCriterion) {
+            return metadata(message -> matches(modSeqCriterion, message));
+        } else if (criterion instanceof SearchQuery.MimeMessageIDCriterion mimeMessageIDCriterion) {
+            return compile(mimeMessageIDCriterion.asHeaderCriterion());
+        } else if (criterion instanceof SearchQuery.SubjectCriterion subjectCriterion) {
+            return compile(subjectCriterion.asHeaderCriterion());
+        } else if (criterion instanceof SearchQuery.ThreadIdCriterion threadIdCriterion) {
+            return metadata(message -> matches(threadIdCriterion, message));
+        } else if (criterion instanceof SearchQuery.SaveDateCriterion saveDateCriterion) {
+            return metadata(message -> matches(saveDateCriterion, message));
+        } else {
+            return new CompiledCriterion(Cost.METADATA, context -> {
+                throw new UnsupportedSearchException();
+            });
+        }
+    }
+
+    @FunctionalInterface
+    private interface MetadataMatcher {
+        boolean matches(MailboxMessage message) throws MailboxException;
+    }
+
+    private CompiledCriterion metadata(MetadataMatcher matcher) {
+        return new CompiledCriterion(Cost.METADATA, context -> matcher.matches(context.message));
+    }
+
+    private CompiledCriterion compile(SearchQuery.HeaderCriterion criterion) {
+        return new CompiledCriterion(Cost.HEADERS, context -> {
             try {
-                return matches((SearchQuery.HeaderCriterion) criterion, message);
+                return matches(criterion, context);
             } catch (IOException e) {
                 throw new MailboxException("Unable to search header", e);
             }
-        } else if (criterion instanceof SearchQuery.UidCriterion) {
-            return matches((SearchQuery.UidCriterion) criterion, message);
-        } else if (criterion instanceof SearchQuery.MessageIdCriterion) {
-            return ((SearchQuery.MessageIdCriterion) criterion).getMessageId().equals(message.getMessageId());
-        } else if (criterion instanceof SearchQuery.FlagCriterion) {
-            return matches((SearchQuery.FlagCriterion) criterion, message, recentMessageUids);
-        } else if (criterion instanceof SearchQuery.CustomFlagCriterion) {
-            return matches((SearchQuery.CustomFlagCriterion) criterion, message);
-        } else if (criterion instanceof SearchQuery.TextCriterion) {
-            return matches((SearchQuery.TextCriterion) criterion, message);
-        } else if (criterion instanceof SearchQuery.AllCriterion) {
-            return true;
-        } else if (criterion instanceof SearchQuery.ConjunctionCriterion) {
-            return matches((SearchQuery.ConjunctionCriterion) criterion, message, recentMessageUids);
-        } else if (criterion instanceof SearchQuery.AttachmentCriterion) {
-            return matches((SearchQuery.AttachmentCriterion) criterion, message);
-        } else if (criterion instanceof SearchQuery.ModSeqCriterion) {
-            return matches((SearchQuery.ModSeqCriterion) criterion, message);
-        } else if (criterion instanceof SearchQuery.MimeMessageIDCriterion) {
-            SearchQuery.MimeMessageIDCriterion mimeMessageIDCriterion = (SearchQuery.MimeMessageIDCriterion) criterion;
-            return isMatch(mimeMessageIDCriterion.asHeaderCriterion(), message, recentMessageUids);
-        } else if (criterion instanceof SearchQuery.SubjectCriterion) {
-            SearchQuery.SubjectCriterion subjectCriterion = (SearchQuery.SubjectCriterion) criterion;
-            return isMatch(subjectCriterion.asHeaderCriterion(), message, recentMessageUids);
-        } else if (criterion instanceof SearchQuery.ThreadIdCriterion) {
-            SearchQuery.ThreadIdCriterion threadIdCriterion = (SearchQuery.ThreadIdCriterion) criterion;
-            return matches(threadIdCriterion, message);
-        } else if (criterion instanceof SearchQuery.SaveDateCriterion) {
-            return matches((SearchQuery.SaveDateCriterion) criterion, message);
-        } else {
-            throw new UnsupportedSearchException();
+        });
+    }
+
+    private CompiledCriterion compile(SearchQuery.ConjunctionCriterion criterion) {
+        List<CompiledCriterion> criteria = compileByCost(criterion.getCriteria());
+        switch (criterion.getType()) {
+        case NOR:
+            CompiledCriterion anyOf = anyOf(criteria);
+            return new CompiledCriterion(anyOf.cost(), context -> !anyOf.matches(context));
+        case OR:
+            return anyOf(criteria);
+        case AND:
+            return allOf(criteria);
+        default:
+            return new CompiledCriterion(Cost.METADATA, context -> false);
         }
     }
 
+    private CompiledCriterion allOf(List<CompiledCriterion> criteria) {
+        return new CompiledCriterion(maxCost(criteria), context -> {
+            for (CompiledCriterion criterion : criteria) {
+                if (!criterion.matches(context)) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    private CompiledCriterion anyOf(List<CompiledCriterion> criteria) {
+        return new CompiledCriterion(maxCost(criteria), context -> {
+            for (CompiledCriterion criterion : criteria) {
+                if (criterion.matches(context)) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    private Cost maxCost(List<CompiledCriterion> criteria) {
+        return criteria.stream()
+            .map(CompiledCriterion::cost)
+            .max(Comparator.naturalOrder())
+            .orElse(Cost.METADATA);
+    }
+
     private boolean matches(SearchQuery.TextCriterion criterion, MailboxMessage message)
             throws MailboxException {
         try {
@@ -269,54 +441,6 @@ public class MessageSearches implements Iterable<SimpleMessageSearchIndex.Search
         }
     }
     
-    private boolean matches(SearchQuery.ConjunctionCriterion criterion, MailboxMessage message,
-            final Collection<MessageUid> recentMessageUids) throws MailboxException {
-        final List<SearchQuery.Criterion> criteria = criterion.getCriteria();
-        switch (criterion.getType()) {
-        case NOR:
-            return nor(criteria, message, recentMessageUids);
-        case OR:
-            return or(criteria, message, recentMessageUids);
-        case AND:
-            return and(criteria, message, recentMessageUids);
-        default:
-            return false;
-        }
-    }
-
-    private boolean and(List<SearchQuery.Criterion> criteria, MailboxMessage message,
-                        Collection<MessageUid> recentMessageUids) throws MailboxException {
-        for (SearchQuery.Criterion criterion : criteria) {
-            boolean matches = isMatch(criterion, message, recentMessageUids);
-            if (!matches) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    private boolean or(List<SearchQuery.Criterion> criteria, MailboxMessage message,
-                       Collection<MessageUid> recentMessageUids) throws MailboxException {
-        for (SearchQuery.Criterion criterion : criteria) {
-            boolean matches = isMatch(criterion, message, recentMessageUids);
-            if (matches) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private boolean nor(List<SearchQuery.Criterion> criteria, MailboxMessage message,
-                        Collection<MessageUid> recentMessageUids) throws MailboxException {
-        for (SearchQuery.Criterion criterion : criteria) {
-            boolean matches = isMatch(criterion, message, recentMessageUids);
-            if (matches) {
-                return false;
-            }
-        }
-        return true;
-    }
-
     private boolean matches(SearchQuery.FlagCriterion criterion, MailboxMessage message,
                             Collection<MessageUid> recentMessageUids) {
         SearchQuery.BooleanOperator operator = criterion.getOperator();
@@ -355,18 +479,18 @@ public class MessageSearches implements Iterable<SimpleMessageSearchIndex.Search
             .anyMatch(numericRange -> numericRange.isIn(uid));
     }
 
-    private boolean matches(SearchQuery.HeaderCriterion criterion, MailboxMessage message)
+    private boolean matches(SearchQuery.HeaderCriterion criterion, MessageContext context)
             throws MailboxException, IOException {
         SearchQuery.HeaderOperator operator = criterion.getOperator();
         String headerName = criterion.getHeaderName();
         if (operator instanceof SearchQuery.DateOperator) {
-            return matches((SearchQuery.DateOperator) operator, headerName, message);
+            return matches((SearchQuery.DateOperator) operator, headerName, context);
         } else if (operator instanceof SearchQuery.ContainsOperator) {
-            return matches((SearchQuery.ContainsOperator) operator, headerName, message);
+            return matches((SearchQuery.ContainsOperator) operator, headerName, context);
         } else if (operator instanceof SearchQuery.ExistsOperator) {
-            return exists(headerName, message);
+            return exists(headerName, context);
         } else if (operator instanceof SearchQuery.AddressOperator) {
-            return matchesAddress((SearchQuery.AddressOperator) operator, headerName, message);
+            return matchesAddress((SearchQuery.AddressOperator) operator, headerName, context);
         } else {
             throw new UnsupportedSearchException();
         }
@@ -377,9 +501,9 @@ public class MessageSearches implements Iterable<SimpleMessageSearchIndex.Search
      * @return containsAddress
      */
     private boolean matchesAddress(SearchQuery.AddressOperator operator, String headerName,
-                                   MailboxMessage message) throws MailboxException, IOException {
+                                   MessageContext context) throws MailboxException, IOException {
         String text = operator.getAddress();
-        List<Header> headers = ResultUtils.createHeaders(message);
+        List<Header> headers = context.headers();
         for (Header header : headers) {
             String name = header.getName();
             if (headerName.equalsIgnoreCase(name)) {
@@ -426,8 +550,8 @@ public class MessageSearches implements Iterable<SimpleMessageSearchIndex.Search
             AddressFormatter.DEFAULT.encode(mailbox));
     }
 
-    private boolean exists(String headerName, MailboxMessage message) throws MailboxException, IOException {
-        List<Header> headers = ResultUtils.createHeaders(message);
+    private boolean exists(String headerName, MessageContext context) throws MailboxException, IOException {
+        List<Header> headers = context.headers();
 
         return headers.stream()
             .map(Header::getName)
@@ -435,9 +559,9 @@ public class MessageSearches implements Iterable<SimpleMessageSearchIndex.Search
     }
 
     private boolean matches(SearchQuery.ContainsOperator operator, String headerName,
-            MailboxMessage message) throws MailboxException, IOException {
+            MessageContext context) throws MailboxException, IOException {
         String text = operator.getValue().toUpperCase(Locale.US);
-        List<Header> headers = ResultUtils.createHeaders(message);
+        List<Header> headers = context.headers();
         for (Header header : headers) {
             String name = header.getName();
             if (headerName.equalsIgnoreCase(name)) {
@@ -452,13 +576,13 @@ public class MessageSearches implements Iterable<SimpleMessageSearchIndex.Search
         return false;
     }
 
-    private boolean matches(SearchQuery.DateOperator operator, String headerName, MailboxMessage message)
+    private boolean matches(SearchQuery.DateOperator operator, String headerName, MessageContext context)
             throws MailboxException {
 
         Date date = operator.getDate();
         DateResolution res = operator.getDateResultion();
         try {
-            final String value = headerValue(headerName, message);
+            final String value = headerValue(headerName, context);
             if (value == null) {
                 return false;
             } else {
@@ -484,8 +608,8 @@ public class MessageSearches implements Iterable<SimpleMessageSearchIndex.Search
         }
     }
 
-    private String headerValue(String headerName, MailboxMessage message) throws MailboxException, IOException {
-        List<Header> headers = ResultUtils.createHeaders(message);
+    private String headerValue(String headerName, MessageContext context) throws MailboxException, IOException {
+        List<Header> headers = context.headers();
         for (Header header : headers) {
             String name = header.getName();
             if (headerName.equalsIgnoreCase(name)) {
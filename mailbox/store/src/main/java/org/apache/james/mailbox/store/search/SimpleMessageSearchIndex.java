@@ -24,6 +24,7 @@ import java.util.Collection;
 import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -53,7 +54,6 @@ import org.apache.james.mailbox.store.mail.MessageMapper;
 import org.apache.james.mailbox.store.mail.MessageMapper.FetchType;
 import org.apache.james.mailbox.store.mail.MessageMapperFactory;
 import org.apache.james.mailbox.store.mail.model.MailboxMessage;
-import org.apache.james.mailbox.store.search.comparator.CombinedComparator;
 import org.apache.james.util.ReactorUtils;
 import org.apache.james.util.streams.Iterators;
 
@@ -169,6 +169,13 @@ public class SimpleMessageSearchIndex implements MessageSearchIndex {
         }
     }
 
+    /**
+     * @return the lowest fetch type allowing to evaluate and sort the given query
+     */
+    public static FetchType requiredFetchType(SearchQuery query) {
+        return maxFetchType(getFetchTypeForCriteria(query.getCriteria()), getFetchTypeForSorts(query.getSorts()));
+    }
+
     @VisibleForTesting
     static FetchType maxFetchType(FetchType a, FetchType b) {
         return a.compareTo(b) >= 0 ? a : b;
@@ -177,7 +184,7 @@ public class SimpleMessageSearchIndex implements MessageSearchIndex {
     @Override
     public Flux<MessageUid> search(MailboxSession session, final Mailbox mailbox, SearchQuery query) {
         Preconditions.checkArgument(session != null, "'session' is mandatory");
-        return searchResults(session, Flux.just(mailbox), query)
+        return searchResults(session, Flux.just(mailbox), query, Optional.empty())
             .filter(searchResult -> searchResult.getMailboxId().equals(mailbox.getMailboxId()))
             .map(SearchResult::getMessageUid);
     }
@@ -201,7 +208,7 @@ public class SimpleMessageSearchIndex implements MessageSearchIndex {
             }
         } else {
             // we have to fetch all messages; try to limit their memory requirements
-            FetchType fetchType = maxFetchType(getFetchTypeForCriteria(query.getCriteria()), getFetchTypeForSorts(query.getSorts()));
+            FetchType fetchType = requiredFetchType(query);
             Iterator<MailboxMessage> messages = mapper.findInMailbox(mailbox, MessageRange.all(), fetchType, UNLIMITED);
             while (messages.hasNext()) {
                 MailboxMessage m = messages.next();
@@ -219,15 +226,15 @@ public class SimpleMessageSearchIndex implements MessageSearchIndex {
             Flux.fromIterable(mailboxIds)
             .concatMap(mailboxMapper::findMailboxById);
 
-        return getAsMessageIds(searchResults(session, filteredMailboxes, searchQuery), limit);
+        return getAsMessageIds(searchResults(session, filteredMailboxes, searchQuery, Optional.of(limit)), limit);
     }
 
-    private Flux<? extends SearchResult> searchResults(MailboxSession session, Flux<Mailbox> mailboxes, SearchQuery query) {
+    private Flux<? extends SearchResult> searchResults(MailboxSession session, Flux<Mailbox> mailboxes, SearchQuery query, Optional<Long> limit) {
         return mailboxes.concatMap(mailbox -> Mono.fromCallable(() -> getSearchResultStream(session, query, mailbox))
                 .flatMapMany(Flux::fromStream)
                 .subscribeOn(ReactorUtils.BLOCKING_CALL_WRAPPER))
-            .collectSortedList(CombinedComparator.create(query.getSorts()))
-            .flatMapMany(list -> Iterators.toFlux(new MessageSearches(list.iterator(), query, textExtractor, attachmentContentLoader, session).iterator()))
+            .collectList()
+            .flatMapMany(list -> Iterators.toFlux(new MessageSearches(list.iterator(), query, textExtractor, attachmentContentLoader, session, limit).iterator()))
             .subscribeOn(ReactorUtils.BLOCKING_CALL_WRAPPER);
     }
 
@@ -0,0 +1,166 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.james.core.Username;
+import org.apache.james.mailbox.model.Mailbox;
+import org.apache.james.mailbox.model.MailboxACL;
+import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.model.TestId;
+import org.apache.james.mailbox.model.UidValidity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import reactor.core.publisher.Mono;
+
+class MailboxResolutionCacheTest {
+    private static final Username BOB = Username.of("bob@domain.tld");
+    private static final Username ALICE = Username.of("alice@domain.tld");
+    private static final MailboxPath PATH = MailboxPath.forUser(BOB, "shared");
+    private static final Mailbox MAILBOX = new Mailbox(PATH, UidValidity.of(42), TestId.of(36));
+
+    private MailboxResolutionCache testee;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        testee = new MailboxResolutionCache();
+        loads = new AtomicInteger();
+    }
+
+    private Mono<MailboxResolutionCache.Resolution> load() {
+        return Mono.fromCallable(() -> {
+            loads.incrementAndGet();
+            return new MailboxResolutionCache.Resolution(MAILBOX, MailboxACL.FULL_RIGHTS);
+        });
+    }
+
+    @Test
+    void resolveShouldReturnLoadedValue() {
+        MailboxResolutionCache.Resolution resolution = testee.resolve(BOB, PATH, this::load).block();
+
+        assertThat(resolution.mailboxCopy().getMailboxId()).isEqualTo(MAILBOX.getMailboxId());
+        assertThat(resolution.rights()).isEqualTo(MailboxACL.FULL_RIGHTS);
+    }
+
+    @Test
+    void resolveShouldNotLoadTwice() {
+        testee.resolve(BOB, PATH, this::load).block();
+        testee.resolve(BOB, PATH, this::load).block();
+
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void resolveShouldBeScopedByUser() {
+        testee.resolve(BOB, PATH, this::load).block();
+        testee.resolve(ALICE, PATH, this::load).block();
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void resolveShouldNotCacheMissingMailboxes() {
+        testee.resolve(BOB, PATH, Mono::empty).block();
+        testee.resolve(BOB, PATH, this::load).block();
+
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void mailboxCopyShouldNotExposeCachedMailbox() {
+        testee.resolve(BOB, PATH, this::load).block()
+            .mailboxCopy()
+            .setName("renamed");
+
+        assertThat(testee.resolve(BOB, PATH, this::load).block().mailboxCopy().getName())
+            .isEqualTo("shared");
+    }
+
+    @Test
+    void invalidateShouldEvictOwnerAndUsersNamedByTheACL() throws Exception {
+        Mailbox sharedMailbox = new Mailbox(MAILBOX);
+        sharedMailbox.setACL(new MailboxACL(new MailboxACL.Entry(ALICE.asString(), MailboxACL.Right.Lookup)));
+        testee.resolve(BOB, PATH, this::load).block();
+        testee.resolve(ALICE, PATH, this::load).block();
+
+        testee.invalidate(sharedMailbox);
+        testee.resolve(BOB, PATH, this::load).block();
+        testee.resolve(ALICE, PATH, this::load).block();
+
+        assertThat(loads.get()).isEqualTo(4);
+    }
+
+    @Test
+    void invalidateShouldNotEvictOtherUsers() {
+        testee.resolve(BOB, PATH, this::load).block();
+        testee.resolve(ALICE, PATH, this::load).block();
+
+        testee.invalidate(MAILBOX);
+        testee.resolve(ALICE, PATH, this::load).block();
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidateShouldEvictEveryoneWhenTheACLNamesAGroup() throws Exception {
+        Mailbox sharedMailbox = new Mailbox(MAILBOX);
+        sharedMailbox.setACL(new MailboxACL(new MailboxACL.Entry(MailboxACL.EntryKey.createGroupEntryKey("group"),
+            new MailboxACL.Rfc4314Rights(MailboxACL.Right.Lookup))));
+        testee.resolve(BOB, PATH, this::load).block();
+        testee.resolve(ALICE, PATH, this::load).block();
+
+        testee.invalidate(sharedMailbox);
+        testee.resolve(ALICE, PATH, this::load).block();
+
+        assertThat(loads.get()).isEqualTo(3);
+    }
+
+    @Test
+    void invalidateShouldDiscardResolutionsLoadedMeanwhile() {
+        testee.resolve(ALICE, PATH, () -> {
+            testee.invalidate(ALICE, ImmutableList.of());
+            return load();
+        }).block();
+        testee.resolve(ALICE, PATH, this::load).block();
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void constructorShouldRejectZeroExpiracy() {
+        assertThatThrownBy(() -> new MailboxResolutionCache(Duration.ZERO, 10))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void constructorShouldRejectNonPositiveSize() {
+        assertThatThrownBy(() -> new MailboxResolutionCache(Duration.ofSeconds(1), 0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
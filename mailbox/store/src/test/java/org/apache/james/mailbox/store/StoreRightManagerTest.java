@@ -25,15 +25,23 @@ import static org.apache.james.mailbox.fixture.MailboxFixture.CEDRIC;
 import static org.apache.james.mailbox.fixture.MailboxFixture.INBOX_ALICE;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
 import jakarta.mail.Flags;
 
 import org.apache.james.core.Username;
+import org.apache.james.events.Event;
 import org.apache.james.events.EventBus;
+import org.apache.james.events.RegistrationKey;
 import org.apache.james.mailbox.MailboxSession;
 import org.apache.james.mailbox.MailboxSessionUtil;
+import org.apache.james.mailbox.acl.ACLDiff;
 import org.apache.james.mailbox.acl.MailboxACLResolver;
 import org.apache.james.mailbox.acl.UnionMailboxACLResolver;
 import org.apache.james.mailbox.exception.DifferentDomainException;
@@ -79,6 +87,33 @@ class StoreRightManagerTest {
         storeRightManager = new StoreRightManager(mockedMapperFactory, mailboxAclResolver, eventBus);
     }
 
+    @Test
+    void setRightsShouldInvalidateResolutionsOfUsersNamedByTheACL() throws Exception {
+        MailboxResolutionCache mailboxResolutionCache = new MailboxResolutionCache();
+        MailboxSessionMapperFactory mapperFactory = mock(MailboxSessionMapperFactory.class);
+        when(mapperFactory.getMailboxMapper(aliceSession)).thenReturn(mockedMailboxMapper);
+        EventBus eventBus = mock(EventBus.class);
+        when(eventBus.dispatch(any(Event.class), any(RegistrationKey.class))).thenReturn(Mono.empty());
+        StoreRightManager testee = new StoreRightManager(mapperFactory, mailboxAclResolver, eventBus,
+            new MailboxManagerConfiguration(BatchSizes.defaultValues(), Optional.of(mailboxResolutionCache)));
+
+        Mailbox mailbox = new Mailbox(INBOX_ALICE, UID_VALIDITY, MAILBOX_ID);
+        MailboxACL acl = new MailboxACL(new MailboxACL.Entry(BOB.asString(), Right.Lookup));
+        when(mockedMailboxMapper.findMailboxByPath(INBOX_ALICE)).thenReturn(Mono.just(mailbox));
+        when(mockedMailboxMapper.setACL(mailbox, acl)).thenReturn(Mono.just(ACLDiff.computeDiff(MailboxACL.EMPTY, acl)));
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<Mono<MailboxResolutionCache.Resolution>> loader = () -> Mono.fromCallable(() -> {
+            loads.incrementAndGet();
+            return new MailboxResolutionCache.Resolution(mailbox, MailboxACL.NO_RIGHTS);
+        });
+        mailboxResolutionCache.resolve(BOB, INBOX_ALICE, loader).block();
+
+        testee.setRights(INBOX_ALICE, acl, aliceSession);
+        mailboxResolutionCache.resolve(BOB, INBOX_ALICE, loader).block();
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
     @Test
     void hasRightShouldThrowMailboxNotFoundExceptionWhenMailboxDoesNotExist() {
         MailboxPath mailboxPath = MailboxPath.forUser(MailboxFixture.ALICE, "unexisting mailbox");
@@ -0,0 +1,189 @@
+/******************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one     *
+ * or more contributor license agreements.  See the NOTICE file   *
+ * distributed with this work for additional information          *
+ * regarding copyright ownership.  The ASF licenses this file     *
+ * to you under the Apache License, Version 2.0 (the              *
+ * "License"); you may not use this file except in compliance     *
+ * with the License.  You may obtain a copy of the License at     *
+ *                                                                *
+ * http://www.apache.org/licenses/LICENSE-2.0                     *
+ *                                                                *
+ * Unless required by applicable law or agreed to in writing,     *
+ * software distributed under the License is distributed on an    *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY         *
+ * KIND, either express or implied.  See the License for the      *
+ * specific language governing permissions and limitations        *
+ * under the License.                                             *
+ ******************************************************************/
+package org.apache.james.mailbox.store.mail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import jakarta.mail.Flags;
+
+import org.apache.james.core.Username;
+import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.MailboxSessionUtil;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.model.Mailbox;
+import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.model.MessageId;
+import org.apache.james.mailbox.model.MessageMetaData;
+import org.apache.james.mailbox.model.TestId;
+import org.apache.james.mailbox.model.TestMessageId;
+import org.apache.james.mailbox.model.ThreadId;
+import org.apache.james.mailbox.model.UidValidity;
+import org.apache.james.mailbox.store.event.EventFactory;
+import org.apache.james.mailbox.store.mail.model.MimeMessageId;
+import org.apache.james.mailbox.store.mail.model.Subject;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import reactor.core.publisher.Mono;
+
+class CachingThreadIdGuessingAlgorithmTest {
+    private static final Username USER = Username.of("bob");
+    private static final Mailbox MAILBOX = new Mailbox(MailboxPath.inbox(USER), UidValidity.of(42), TestId.of(1));
+    private static final MimeMessageId ROOT = new MimeMessageId("<root@domain.tld>");
+    private static final MimeMessageId REPLY = new MimeMessageId("<reply@domain.tld>");
+    private static final Optional<Subject> SUBJECT = Optional.of(new Subject("Lunch"));
+    private static final Optional<Subject> REPLY_SUBJECT = Optional.of(new Subject("Re: Lunch"));
+
+    private final TestMessageId.Factory messageIdFactory = new TestMessageId.Factory();
+    private ThreadIdGuessingAlgorithm delegate;
+    private RecordingMetricFactory metricFactory;
+    private CachingThreadIdGuessingAlgorithm testee;
+    private MailboxSession session;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(ThreadIdGuessingAlgorithm.class);
+        when(delegate.guessThreadIdReactive(any(), any(), any(), any(), any(), any()))
+            .thenAnswer(invocation -> Mono.just(ThreadId.fromBaseMessageId(invocation.getArgument(0))));
+        metricFactory = new RecordingMetricFactory();
+        testee = new CachingThreadIdGuessingAlgorithm(delegate, metricFactory);
+        session = MailboxSessionUtil.create(USER);
+    }
+
+    private ThreadId guess(MessageId messageId, Optional<MimeMessageId> mimeMessageId, Optional<MimeMessageId> inReplyTo, Optional<Subject> subject) {
+        return testee.guessThreadIdReactive(messageId, mimeMessageId, inReplyTo, Optional.empty(), subject, session).block();
+    }
+
+    private MessageMetaData metaData(MessageId messageId, ThreadId threadId) {
+        return new MessageMetaData(MessageUid.of(1), ModSeq.first(), new Flags(), 12, new Date(), Optional.empty(), messageId, threadId);
+    }
+
+    private void added(MessageId messageId, ThreadId threadId) {
+        Mono.from(testee.reactiveEvent(EventFactory.added()
+            .randomEventId()
+            .mailboxSession(session)
+            .mailbox(MAILBOX)
+            .addMetaData(metaData(messageId, threadId))
+            .isDelivery(false)
+            .isAppended(true)
+            .build()))
+            .block();
+    }
+
+    private void expunged(MessageId messageId, ThreadId threadId) {
+        Mono.from(testee.reactiveEvent(EventFactory.expunged()
+            .randomEventId()
+            .mailboxSession(session)
+            .mailbox(MAILBOX)
+            .addMetaData(metaData(messageId, threadId))
+            .build()))
+            .block();
+    }
+
+    private ThreadId appendRoot(MessageId rootId) {
+        ThreadId threadId = guess(rootId, Optional.of(ROOT), Optional.empty(), SUBJECT);
+        added(rootId, threadId);
+        return threadId;
+    }
+
+    @Test
+    void guessShouldReturnThreadOfRelatedMessageFromTheIndex() {
+        MessageId rootId = messageIdFactory.generate();
+        ThreadId threadId = appendRoot(rootId);
+
+        ThreadId replyThreadId = guess(messageIdFactory.generate(), Optional.of(REPLY), Optional.of(ROOT), REPLY_SUBJECT);
+
+        assertThat(replyThreadId).isEqualTo(threadId);
+        verify(delegate, times(1)).guessThreadIdReactive(any(), any(), any(), any(), any(), any());
+        assertThat(metricFactory.countFor(CachingThreadIdGuessingAlgorithm.HIT_METRIC)).isEqualTo(1);
+        assertThat(metricFactory.countFor(CachingThreadIdGuessingAlgorithm.MISS_METRIC)).isEqualTo(1);
+    }
+
+    @Test
+    void guessShouldFallbackToDelegateWhenGuessWasNotConfirmed() {
+        guess(messageIdFactory.generate(), Optional.of(ROOT), Optional.empty(), SUBJECT);
+
+        guess(messageIdFactory.generate(), Optional.of(REPLY), Optional.of(ROOT), REPLY_SUBJECT);
+
+        verify(delegate, times(2)).guessThreadIdReactive(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void guessShouldFallbackToDelegateWhenSubjectDiffers() {
+        appendRoot(messageIdFactory.generate());
+
+        guess(messageIdFactory.generate(), Optional.of(REPLY), Optional.of(ROOT), Optional.of(new Subject("Other")));
+
+        verify(delegate, times(2)).guessThreadIdReactive(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void guessShouldFallbackToDelegateWhenNoSubject() {
+        appendRoot(messageIdFactory.generate());
+
+        guess(messageIdFactory.generate(), Optional.of(REPLY), Optional.of(ROOT), Optional.empty());
+
+        verify(delegate, times(2)).guessThreadIdReactive(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void guessShouldNotShareIndexesAmongUsers() {
+        appendRoot(messageIdFactory.generate());
+
+        testee.guessThreadIdReactive(messageIdFactory.generate(), Optional.of(REPLY), Optional.of(ROOT), Optional.empty(), REPLY_SUBJECT,
+            MailboxSessionUtil.create(Username.of("alice"))).block();
+
+        verify(delegate, times(2)).guessThreadIdReactive(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void guessShouldFallbackToDelegateWhenRelatedMessageWasExpunged() {
+        MessageId rootId = messageIdFactory.generate();
+        ThreadId threadId = appendRoot(rootId);
+        expunged(rootId, threadId);
+
+        guess(messageIdFactory.generate(), Optional.of(REPLY), Optional.of(ROOT), REPLY_SUBJECT);
+
+        verify(delegate, times(2)).guessThreadIdReactive(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void guessShouldRecordLatency() {
+        guess(messageIdFactory.generate(), Optional.of(ROOT), Optional.empty(), SUBJECT);
+
+        assertThat(metricFactory.executionTimesFor(CachingThreadIdGuessingAlgorithm.GUESS_LATENCY_METRIC)).hasSize(1);
+    }
+
+    @Test
+    void keysShouldIgnoreSubjectPrefixes() {
+        assertThat(CachingThreadIdGuessingAlgorithm.keys(Optional.of(ROOT), Optional.empty(), Optional.<List<MimeMessageId>>empty(), SUBJECT.get()))
+            .isEqualTo(CachingThreadIdGuessingAlgorithm.keys(Optional.of(ROOT), Optional.empty(), Optional.empty(), REPLY_SUBJECT.get()));
+    }
+}
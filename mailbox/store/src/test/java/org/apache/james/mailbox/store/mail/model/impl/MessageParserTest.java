@@ -39,6 +39,8 @@ import org.apache.james.mime4j.dom.Message;
 import org.apache.james.mime4j.message.DefaultMessageWriter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 class MessageParserTest {
     MessageParser testee;
@@ -352,4 +354,55 @@ class MessageParserTest {
             .getAttachments();
         assertThat(result).isEmpty();
     }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "eml/noAttachment.eml",
+        "eml/inlined-mixed.eml",
+        "eml/oneAttachmentAndSomeTextInlined.eml",
+        "eml/messageWithNonASCIIFilenameAttachment.eml",
+        "eml/oneAttachmentWithoutContentType.eml",
+        "eml/oneAttachmentWithEmptyContentType.eml",
+        "eml/oneInlinedAttachment.eml",
+        "eml/oneHtmlAttachmentAndSomeTextInlined.eml",
+        "eml/invitationEmailFromOP.eml",
+        "eml/unknownDisposition.eml",
+        "eml/noContentDispositionWithCID.eml",
+        "eml/multiAttachmentsWithOneWrongContentDisposition.eml",
+        "eml/emailWithOnlyAttachment.eml",
+        "eml/charset2.eml",
+        "eml/calendar.eml",
+        "eml/calendar2.eml",
+        "eml/signedMessage.eml",
+        "eml/twoAttachments.eml"})
+    void streamAttachmentsShouldMatchRetrieveAttachments(String resource) throws Exception {
+        MessageParser.ParsingResult expected = testee.retrieveAttachments(ClassLoader.getSystemResourceAsStream(resource));
+        MessageParser.ParsingResult actual = testee.streamAttachments(ClassLoader.getSystemResourceAsStream(resource));
+
+        try {
+            assertThat(actual.getAttachments()).hasSameSizeAs(expected.getAttachments());
+            for (int i = 0; i < expected.getAttachments().size(); i++) {
+                ParsedAttachment actualAttachment = actual.getAttachments().get(i);
+                ParsedAttachment expectedAttachment = expected.getAttachments().get(i);
+
+                assertThat(actualAttachment.getContentType()).isEqualTo(expectedAttachment.getContentType());
+                assertThat(actualAttachment.getName()).isEqualTo(expectedAttachment.getName());
+                assertThat(actualAttachment.getCid()).isEqualTo(expectedAttachment.getCid());
+                assertThat(actualAttachment.isInline()).isEqualTo(expectedAttachment.isInline());
+                assertThat(actualAttachment.getContent().read()).isEqualTo(expectedAttachment.getContent().read());
+            }
+        } finally {
+            expected.dispose();
+            actual.dispose();
+        }
+    }
+
+    @Test
+    void streamAttachmentsShouldKnowAttachmentSizes() throws Exception {
+        MessageParser.ParsingResult attachments = testee.streamAttachments(ClassLoader.getSystemResourceAsStream("eml/oneAttachmentAndSomeTextInlined.eml"));
+
+        ParsedAttachment attachment = attachments.getAttachments().get(0);
+        assertThat(attachment.getContent().sizeIfKnown().toJavaUtil())
+            .contains((long) attachment.getContent().read().length);
+    }
 }
@@ -0,0 +1,135 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.model.MessageId;
+import org.apache.james.mailbox.model.SearchQuery;
+import org.apache.james.mailbox.model.SearchQuery.Sort;
+import org.apache.james.mailbox.model.SearchQuery.Sort.Order;
+import org.apache.james.mailbox.model.SearchQuery.Sort.SortClause;
+import org.apache.james.mailbox.model.TestMessageId;
+import org.apache.james.mailbox.store.MessageBuilder;
+import org.apache.james.mailbox.store.mail.model.MailboxMessage;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+class MessageSearchesTest {
+    private static final TestMessageId.Factory MESSAGE_ID_FACTORY = new TestMessageId.Factory();
+    private static final SearchQuery BIGGEST_FIRST = SearchQuery.builder()
+        .andCriteria(SearchQuery.sizeGreaterThan(10))
+        .sorts(new Sort(SortClause.Size, Order.REVERSE))
+        .build();
+
+    private MailboxMessage message(long uid, int size) throws Exception {
+        return message(uid, size, MESSAGE_ID_FACTORY.generate());
+    }
+
+    private MailboxMessage message(long uid, int size, MessageId messageId) throws Exception {
+        return new MessageBuilder()
+            .uid(MessageUid.of(uid))
+            .size(size)
+            .build(messageId);
+    }
+
+    private List<MessageUid> search(List<MailboxMessage> messages, SearchQuery query, Optional<Long> limit) {
+        return ImmutableList.copyOf(new MessageSearches(messages.iterator(), query, null, null, null, limit))
+            .stream()
+            .map(SimpleMessageSearchIndex.SearchResult::getMessageUid)
+            .collect(ImmutableList.toImmutableList());
+    }
+
+    @Test
+    void limitShouldRetainTheBestRankedMatches() throws Exception {
+        List<MailboxMessage> messages = ImmutableList.of(
+            message(1, 20),
+            message(2, 5),
+            message(3, 50),
+            message(4, 30),
+            message(5, 40));
+
+        assertThat(search(messages, BIGGEST_FIRST, Optional.of(2L)))
+            .containsExactly(MessageUid.of(3), MessageUid.of(5));
+    }
+
+    @Test
+    void limitShouldBeConsistentWithUnlimitedSearch() throws Exception {
+        List<MailboxMessage> messages = ImmutableList.of(
+            message(1, 20),
+            message(2, 20),
+            message(3, 50),
+            message(4, 20),
+            message(5, 40));
+
+        assertThat(search(messages, BIGGEST_FIRST, Optional.of(4L)))
+            .containsExactlyElementsOf(search(messages, BIGGEST_FIRST, Optional.empty()).subList(0, 4));
+    }
+
+    @Test
+    void limitShouldApplyToDistinctMessageIds() throws Exception {
+        MessageId messageId = MESSAGE_ID_FACTORY.generate();
+        List<MailboxMessage> messages = ImmutableList.of(
+            message(1, 30, messageId),
+            message(2, 50, messageId),
+            message(3, 40),
+            message(4, 20));
+
+        assertThat(search(messages, BIGGEST_FIRST, Optional.of(2L)))
+            .containsExactly(MessageUid.of(2), MessageUid.of(3));
+    }
+
+    @Test
+    void zeroLimitShouldReturnNoResult() throws Exception {
+        assertThat(search(ImmutableList.of(message(1, 20)), BIGGEST_FIRST, Optional.of(0L)))
+            .isEmpty();
+    }
+
+    @Test
+    void conjunctionShouldEvaluateCheapCriteriaFirst() throws Exception {
+        MailboxMessage message = spy(message(1, 5));
+        SearchQuery query = SearchQuery.of(SearchQuery.bodyContains("any"), SearchQuery.sizeGreaterThan(10));
+
+        assertThat(search(ImmutableList.of(message), query, Optional.empty())).isEmpty();
+        verify(message, never()).getFullContent();
+    }
+
+    @Test
+    void headersShouldBeParsedOncePerMessage() throws Exception {
+        MailboxMessage message = spy(new MessageBuilder()
+            .uid(MessageUid.of(1))
+            .header("Subject", "test")
+            .header("From", "bob@domain.tld")
+            .build());
+        SearchQuery query = SearchQuery.of(SearchQuery.headerExists("Subject"), SearchQuery.headerContains("From", "bob"));
+
+        assertThat(search(ImmutableList.of(message), query, Optional.empty())).containsExactly(MessageUid.of(1));
+        verify(message, times(1)).getHeaderContent();
+    }
+}
@@ -0,0 +1,116 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.mailbox.tools.indexer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.apache.james.task.Task.Result;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.concurrent.Queues;
+
+/**
+ * Throttles re-indexing to a rate adapted to what the index sustains.
+ *
+ * Like {@link org.apache.james.util.ReactorUtils#throttle()}, elements are processed by batches, one batch per second.
+ * The batch size is adjusted after each batch (additive increase, multiplicative decrease): it is halved when the
+ * index shows backpressure, meaning a failed operation or a batch taking longer than its second, and otherwise grows
+ * back towards the configured messages per second.
+ *
+ * Batches are only requested once the previous one completed, so that each batch is sized with the latest rate.
+ */
+class AdaptiveThrottler {
+    @VisibleForTesting
+    static final Duration WINDOW = Duration.ofSeconds(1);
+    private static final int MIN_RATE = 1;
+    private static final int INCREASE_RATIO = 10;
+    private static final int NO_PREFETCH = 0;
+
+    private final int maxRate;
+    private final int increment;
+    private final AtomicInteger rate;
+
+    AdaptiveThrottler(int maxRate) {
+        Preconditions.checkArgument(maxRate > 0, "'maxRate' must be strictly positive");
+
+        this.maxRate = maxRate;
+        this.increment = Math.max(1, maxRate / INCREASE_RATIO);
+        this.rate = new AtomicInteger(maxRate);
+    }
+
+    int currentRate() {
+        return rate.get();
+    }
+
+    <T> Function<Flux<T>, Flux<Result>> forOperation(Function<T, Mono<Result>> operation) {
+        return flux -> Flux.defer(() -> {
+            AtomicInteger batchSize = new AtomicInteger(0);
+
+            return flux
+                .bufferUntil(element -> closesBatch(batchSize))
+                .concatMap(batch -> processBatch(batch, operation), NO_PREFETCH);
+        });
+    }
+
+    private boolean closesBatch(AtomicInteger batchSize) {
+        if (batchSize.incrementAndGet() >= rate.get()) {
+            batchSize.set(0);
+            return true;
+        }
+        return false;
+    }
+
+    private <T> Flux<Result> processBatch(List<T> batch, Function<T, Mono<Result>> operation) {
+        return Mono.fromCallable(System::nanoTime)
+            .flatMapMany(start -> Flux.fromIterable(batch)
+                .flatMap(operation, Queues.SMALL_BUFFER_SIZE)
+                .collectList()
+                .flatMapMany(results -> {
+                    Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+                    adjust(results, elapsed);
+                    return Flux.fromIterable(results)
+                        .concatWith(Mono.delay(remainingWindow(elapsed)).then(Mono.<Result>empty()));
+                }));
+    }
+
+    private Duration remainingWindow(Duration elapsed) {
+        if (elapsed.compareTo(WINDOW) >= 0) {
+            return Duration.ZERO;
+        }
+        return WINDOW.minus(elapsed);
+    }
+
+    @VisibleForTesting
+    void adjust(List<Result> results, Duration elapsed) {
+        boolean backpressure = results.contains(Result.PARTIAL) || elapsed.compareTo(WINDOW) > 0;
+        if (backpressure) {
+            rate.updateAndGet(current -> Math.max(MIN_RATE, current / 2));
+        } else {
+            rate.updateAndGet(current -> Math.min(maxRate, current + increment));
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.mailbox.tools.indexer;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.james.core.Username;
+
+/**
+ * Tracks the progress of a partition re-indexing.
+ *
+ * Users are listed in username order but their messages are re-indexed concurrently. The checkpoint is the last user
+ * such that it and all the users listed before it are fully and successfully processed: resuming after it never skips
+ * a message. The checkpoint stops before the first user with a failure, so that resuming re-indexes it.
+ */
+class PartitionProgress {
+    class UserProgress {
+        private final Username username;
+        private long pendingEntries;
+        private boolean listed;
+        private boolean failed;
+
+        private UserProgress(Username username) {
+            this.username = username;
+        }
+
+        void entryListed() {
+            synchronized (PartitionProgress.this) {
+                pendingEntries++;
+            }
+        }
+
+        void entryProcessed() {
+            processedMessages.incrementAndGet();
+            synchronized (PartitionProgress.this) {
+                pendingEntries--;
+                advanceCheckpoint();
+            }
+        }
+
+        void entryFailed() {
+            processedMessages.incrementAndGet();
+            synchronized (PartitionProgress.this) {
+                pendingEntries--;
+                failed = true;
+                advanceCheckpoint();
+            }
+        }
+
+        void listingFailed() {
+            synchronized (PartitionProgress.this) {
+                failed = true;
+                advanceCheckpoint();
+            }
+        }
+
+        void allEntriesListed() {
+            synchronized (PartitionProgress.this) {
+                listed = true;
+                advanceCheckpoint();
+            }
+        }
+
+        private boolean isDone() {
+            return listed && pendingEntries == 0;
+        }
+    }
+
+    private final Clock clock;
+    private final Instant start;
+    private final Deque<UserProgress> inFlightUsers;
+    private final AtomicLong processedMessages;
+    private Optional<Username> checkpoint;
+    private long processedUsers;
+    private boolean checkpointBlocked;
+
+    PartitionProgress(Optional<Username> resumeAfter) {
+        this(resumeAfter, Clock.systemUTC());
+    }
+
+    PartitionProgress(Optional<Username> resumeAfter, Clock clock) {
+        this.clock = clock;
+        this.start = clock.instant();
+        this.inFlightUsers = new ArrayDeque<>();
+        this.processedMessages = new AtomicLong(0);
+        this.checkpoint = resumeAfter;
+        this.processedUsers = 0;
+        this.checkpointBlocked = false;
+    }
+
+    synchronized UserProgress startUser(Username username) {
+        UserProgress userProgress = new UserProgress(username);
+        if (!checkpointBlocked) {
+            inFlightUsers.addLast(userProgress);
+        }
+        return userProgress;
+    }
+
+    synchronized Optional<Username> checkpoint() {
+        return checkpoint;
+    }
+
+    synchronized long processedUsers() {
+        return processedUsers;
+    }
+
+    long processedMessages() {
+        return processedMessages.get();
+    }
+
+    double messagesPerSecond() {
+        long elapsedMillis = Duration.between(start, clock.instant()).toMillis();
+        if (elapsedMillis <= 0) {
+            return 0;
+        }
+        return processedMessages.get() * 1000.0 / elapsedMillis;
+    }
+
+    private void advanceCheckpoint() {
+        while (!checkpointBlocked && !inFlightUsers.isEmpty()) {
+            UserProgress first = inFlightUsers.peekFirst();
+            if (first.failed) {
+                checkpointBlocked = true;
+                inFlightUsers.clear();
+            } else if (first.isDone()) {
+                checkpoint = Optional.of(inFlightUsers.pollFirst().username);
+                processedUsers++;
+            } else {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.mailbox.tools.indexer;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Optional;
+
+import jakarta.inject.Inject;
+
+import org.apache.james.core.Username;
+import org.apache.james.mailbox.indexer.ReIndexer.Partition;
+import org.apache.james.mailbox.indexer.ReIndexer.RunningOptions;
+import org.apache.james.mailbox.indexer.ReIndexingExecutionFailures;
+import org.apache.james.task.Task;
+import org.apache.james.task.TaskExecutionDetails;
+import org.apache.james.task.TaskType;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import reactor.core.publisher.Mono;
+
+public class PartitionedReindexingTask implements Task {
+
+    public static final TaskType PARTITIONED_RE_INDEXING = TaskType.of("partitioned-reindexing");
+
+    public static class AdditionalInformation extends ReIndexingContextInformation {
+        private final Partition partition;
+        private final Optional<Username> checkpoint;
+        private final long processedUserCount;
+        private final double messagesPerSecond;
+        private final int currentRate;
+
+        @VisibleForTesting
+        public AdditionalInformation(Partition partition, Optional<Username> checkpoint, long processedUserCount,
+                                     double messagesPerSecond, int currentRate,
+                                     int successfullyReprocessedMailCount, int failedReprocessedMailCount,
+                                     ReIndexingExecutionFailures failures, Instant timestamp, RunningOptions runningOptions) {
+            super(successfullyReprocessedMailCount, failedReprocessedMailCount, failures, timestamp, runningOptions);
+            this.partition = partition;
+            this.checkpoint = checkpoint;
+            this.processedUserCount = processedUserCount;
+            this.messagesPerSecond = messagesPerSecond;
+            this.currentRate = currentRate;
+        }
+
+        public Partition getPartition() {
+            return partition;
+        }
+
+        /**
+         * Last user such that it and all the users before it in the partition are re-indexed. Submitting a new task
+         * resuming after it completes the re-indexing of the partition.
+         */
+        public Optional<Username> getCheckpoint() {
+            return checkpoint;
+        }
+
+        public long getProcessedUserCount() {
+            return processedUserCount;
+        }
+
+        /**
+         * Average throughput of the node running this task.
+         */
+        public double getMessagesPerSecond() {
+            return messagesPerSecond;
+        }
+
+        /**
+         * Rate currently allowed by the throttling, which adapts to the index backpressure.
+         */
+        public int getCurrentRate() {
+            return currentRate;
+        }
+    }
+
+    public static class Factory {
+
+        private final ReIndexerPerformer reIndexerPerformer;
+
+        @Inject
+        public Factory(ReIndexerPerformer reIndexerPerformer) {
+            this.reIndexerPerformer = reIndexerPerformer;
+        }
+
+        public PartitionedReindexingTask create(PartitionedReindexingTaskDTO dto) {
+            return new PartitionedReindexingTask(reIndexerPerformer,
+                Partition.of(dto.getPartitionIndex(), dto.getPartitionCount()),
+                dto.getResumeAfter().map(Username::of),
+                dto.getRunningOptions()
+                    .map(RunningOptionsDTO::toDomainObject)
+                    .orElse(RunningOptions.DEFAULT));
+        }
+    }
+
+    private final ReIndexerPerformer reIndexerPerformer;
+    private final Partition partition;
+    private final Optional<Username> resumeAfter;
+    private final RunningOptions runningOptions;
+    private final ReIndexingContext reIndexingContext;
+    private final PartitionProgress progress;
+    private final AdaptiveThrottler throttler;
+
+    public PartitionedReindexingTask(ReIndexerPerformer reIndexerPerformer, Partition partition, Optional<Username> resumeAfter, RunningOptions runningOptions) {
+        this.reIndexerPerformer = reIndexerPerformer;
+        this.partition = partition;
+        this.resumeAfter = resumeAfter;
+        this.runningOptions = runningOptions;
+        this.reIndexingContext = new ReIndexingContext();
+        this.progress = new PartitionProgress(resumeAfter);
+        this.throttler = new AdaptiveThrottler(runningOptions.getMessagesPerSecond());
+    }
+
+    @Override
+    public Result run() {
+        return reIndexerPerformer.reIndexPartition(partition, progress, throttler, reIndexingContext, runningOptions)
+            .onErrorResume(e -> Mono.just(Result.PARTIAL))
+            .block();
+    }
+
+    @Override
+    public TaskType type() {
+        return PARTITIONED_RE_INDEXING;
+    }
+
+    public Partition getPartition() {
+        return partition;
+    }
+
+    public Optional<Username> getResumeAfter() {
+        return resumeAfter;
+    }
+
+    public RunningOptions getRunningOptions() {
+        return runningOptions;
+    }
+
+    @Override
+    public Optional<TaskExecutionDetails.AdditionalInformation> details() {
+        return Optional.of(new AdditionalInformation(partition,
+            progress.checkpoint(),
+            progress.processedUsers(),
+            progress.messagesPerSecond(),
+            throttler.currentRate(),
+            reIndexingContext.successfullyReprocessedMailCount(),
+            reIndexingContext.failedReprocessingMailCount(),
+            reIndexingContext.failures(),
+            Clock.systemUTC().instant(),
+            runningOptions));
+    }
+}
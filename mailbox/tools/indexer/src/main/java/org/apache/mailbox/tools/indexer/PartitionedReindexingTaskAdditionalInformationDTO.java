@@ -0,0 +1,164 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.mailbox.tools.indexer;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.james.core.Username;
+import org.apache.james.json.DTOModule;
+import org.apache.james.mailbox.indexer.ReIndexer;
+import org.apache.james.mailbox.model.MailboxId;
+import org.apache.james.server.task.json.dto.AdditionalInformationDTO;
+import org.apache.james.server.task.json.dto.AdditionalInformationDTOModule;
+import org.apache.mailbox.tools.indexer.ReIndexingContextInformationDTO.ReindexingFailureDTO;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+
+public class PartitionedReindexingTaskAdditionalInformationDTO implements AdditionalInformationDTO {
+
+    public static AdditionalInformationDTOModule<PartitionedReindexingTask.AdditionalInformation, PartitionedReindexingTaskAdditionalInformationDTO> module(MailboxId.Factory factory) {
+        return DTOModule.forDomainObject(PartitionedReindexingTask.AdditionalInformation.class)
+            .convertToDTO(PartitionedReindexingTaskAdditionalInformationDTO.class)
+            .toDomainObjectConverter(dto -> new PartitionedReindexingTask.AdditionalInformation(
+                ReIndexer.Partition.of(dto.getPartitionIndex(), dto.getPartitionCount()),
+                dto.getCheckpoint().map(Username::of),
+                dto.getProcessedUserCount(),
+                dto.getMessagesPerSecond(),
+                dto.getCurrentRate(),
+                dto.getSuccessfullyReprocessedMailCount(),
+                dto.getFailedReprocessedMailCount(),
+                ReIndexingContextInformationDTO.deserializeFailures(factory, dto.getMessageFailures(), dto.getMailboxFailures().orElse(ImmutableList.of())),
+                dto.getTimestamp(),
+                dto.getRunningOptions()
+                    .map(RunningOptionsDTO::toDomainObject)
+                    .orElse(ReIndexer.RunningOptions.DEFAULT)))
+            .toDTOConverter((details, type) -> new PartitionedReindexingTaskAdditionalInformationDTO(
+                type,
+                details.getPartition().getIndex(),
+                details.getPartition().getCount(),
+                details.getCheckpoint().map(Username::asString),
+                details.getProcessedUserCount(),
+                details.getMessagesPerSecond(),
+                details.getCurrentRate(),
+                details.getSuccessfullyReprocessedMailCount(),
+                details.getFailedReprocessedMailCount(),
+                Optional.of(ReIndexingContextInformationDTO.serializeFailures(details.failures())),
+                Optional.of(details.failures().mailboxFailures().stream().map(MailboxId::serialize).collect(ImmutableList.toImmutableList())),
+                details.timestamp(),
+                Optional.of(RunningOptionsDTO.toDTO(details.getRunningOptions()))))
+            .typeName(PartitionedReindexingTask.PARTITIONED_RE_INDEXING.asString())
+            .withFactory(AdditionalInformationDTOModule::new);
+    }
+
+    private final ReIndexingContextInformationDTO reIndexingContextInformationDTO;
+    private final int partitionIndex;
+    private final int partitionCount;
+    private final Optional<String> checkpoint;
+    private final long processedUserCount;
+    private final double messagesPerSecond;
+    private final int currentRate;
+
+    @JsonCreator
+    private PartitionedReindexingTaskAdditionalInformationDTO(@JsonProperty("type") String type,
+                                                              @JsonProperty("partitionIndex") int partitionIndex,
+                                                              @JsonProperty("partitionCount") int partitionCount,
+                                                              @JsonProperty("checkpoint") Optional<String> checkpoint,
+                                                              @JsonProperty("processedUserCount") long processedUserCount,
+                                                              @JsonProperty("messagesPerSecond") double messagesPerSecond,
+                                                              @JsonProperty("currentRate") int currentRate,
+                                                              @JsonProperty("successfullyReprocessedMailCount") int successfullyReprocessedMailCount,
+                                                              @JsonProperty("failedReprocessedMailCount") int failedReprocessedMailCount,
+                                                              @JsonProperty("messageFailures") Optional<List<ReindexingFailureDTO>> messageFailures,
+                                                              @JsonProperty("mailboxFailures") Optional<List<String>> mailboxFailures,
+                                                              @JsonProperty("timestamp") Instant timestamp,
+                                                              @JsonProperty("runningOptions") Optional<RunningOptionsDTO> runningOptions) {
+        this.partitionIndex = partitionIndex;
+        this.partitionCount = partitionCount;
+        this.checkpoint = checkpoint;
+        this.processedUserCount = processedUserCount;
+        this.messagesPerSecond = messagesPerSecond;
+        this.currentRate = currentRate;
+        this.reIndexingContextInformationDTO = new ReIndexingContextInformationDTO(type,
+            successfullyReprocessedMailCount,
+            failedReprocessedMailCount,
+            Optional.empty(),
+            messageFailures,
+            mailboxFailures,
+            timestamp,
+            runningOptions);
+    }
+
+    @Override
+    public String getType() {
+        return reIndexingContextInformationDTO.getType();
+    }
+
+    public Instant getTimestamp() {
+        return reIndexingContextInformationDTO.getTimestamp();
+    }
+
+    public int getPartitionIndex() {
+        return partitionIndex;
+    }
+
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    public Optional<String> getCheckpoint() {
+        return checkpoint;
+    }
+
+    public long getProcessedUserCount() {
+        return processedUserCount;
+    }
+
+    public double getMessagesPerSecond() {
+        return messagesPerSecond;
+    }
+
+    public int getCurrentRate() {
+        return currentRate;
+    }
+
+    public int getSuccessfullyReprocessedMailCount() {
+        return reIndexingContextInformationDTO.getSuccessfullyReprocessedMailCount();
+    }
+
+    public int getFailedReprocessedMailCount() {
+        return reIndexingContextInformationDTO.getFailedReprocessedMailCount();
+    }
+
+    public List<ReindexingFailureDTO> getMessageFailures() {
+        return reIndexingContextInformationDTO.getMessageFailures();
+    }
+
+    public Optional<List<String>> getMailboxFailures() {
+        return reIndexingContextInformationDTO.getMailboxFailures();
+    }
+
+    public Optional<RunningOptionsDTO> getRunningOptions() {
+        return reIndexingContextInformationDTO.getRunningOptions();
+    }
+}
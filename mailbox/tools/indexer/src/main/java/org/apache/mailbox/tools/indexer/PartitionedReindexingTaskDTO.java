@@ -0,0 +1,89 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.mailbox.tools.indexer;
+
+import java.util.Optional;
+
+import org.apache.james.core.Username;
+import org.apache.james.json.DTOModule;
+import org.apache.james.server.task.json.dto.TaskDTO;
+import org.apache.james.server.task.json.dto.TaskDTOModule;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class PartitionedReindexingTaskDTO implements TaskDTO {
+
+    private static PartitionedReindexingTaskDTO of(PartitionedReindexingTask task, String type) {
+        return new PartitionedReindexingTaskDTO(type,
+            task.getPartition().getIndex(),
+            task.getPartition().getCount(),
+            task.getResumeAfter().map(Username::asString),
+            Optional.of(RunningOptionsDTO.toDTO(task.getRunningOptions())));
+    }
+
+    public static TaskDTOModule<PartitionedReindexingTask, PartitionedReindexingTaskDTO> module(PartitionedReindexingTask.Factory factory) {
+        return DTOModule
+            .forDomainObject(PartitionedReindexingTask.class)
+            .convertToDTO(PartitionedReindexingTaskDTO.class)
+            .toDomainObjectConverter(factory::create)
+            .toDTOConverter(PartitionedReindexingTaskDTO::of)
+            .typeName(PartitionedReindexingTask.PARTITIONED_RE_INDEXING.asString())
+            .withFactory(TaskDTOModule::new);
+    }
+
+    private final String type;
+    private final int partitionIndex;
+    private final int partitionCount;
+    private final Optional<String> resumeAfter;
+    private final Optional<RunningOptionsDTO> runningOptions;
+
+    private PartitionedReindexingTaskDTO(@JsonProperty("type") String type,
+                                         @JsonProperty("partitionIndex") int partitionIndex,
+                                         @JsonProperty("partitionCount") int partitionCount,
+                                         @JsonProperty("resumeAfter") Optional<String> resumeAfter,
+                                         @JsonProperty("runningOptions") Optional<RunningOptionsDTO> runningOptions) {
+        this.type = type;
+        this.partitionIndex = partitionIndex;
+        this.partitionCount = partitionCount;
+        this.resumeAfter = resumeAfter;
+        this.runningOptions = runningOptions;
+    }
+
+    @Override
+    public String getType() {
+        return type;
+    }
+
+    public int getPartitionIndex() {
+        return partitionIndex;
+    }
+
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    public Optional<String> getResumeAfter() {
+        return resumeAfter;
+    }
+
+    public Optional<RunningOptionsDTO> getRunningOptions() {
+        return runningOptions;
+    }
+}
@@ -19,6 +19,8 @@
 
 package org.apache.mailbox.tools.indexer;
 
+import java.util.Optional;
+
 import jakarta.inject.Inject;
 
 import org.apache.james.core.Username;
@@ -77,6 +79,11 @@ public class ReIndexerImpl implements ReIndexer {
         return new FullReindexingTask(reIndexerPerformer, runningOptions);
     }
 
+    @Override
+    public Task reIndex(Partition partition, Optional<Username> resumeAfter, RunningOptions runningOptions) {
+        return new PartitionedReindexingTask(reIndexerPerformer, partition, resumeAfter, runningOptions);
+    }
+
     @Override
     public Task reIndex(Username username, RunningOptions runningOptions) {
         return new UserReindexingTask(reIndexerPerformer, username, runningOptions);
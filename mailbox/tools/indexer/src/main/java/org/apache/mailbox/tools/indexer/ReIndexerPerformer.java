@@ -22,6 +22,8 @@ package org.apache.mailbox.tools.indexer;
 import static org.apache.james.util.ReactorUtils.DEFAULT_CONCURRENCY;
 
 import java.time.Duration;
+import java.util.Comparator;
+import java.util.Optional;
 
 import jakarta.inject.Inject;
 import jakarta.mail.Flags;
@@ -30,6 +32,7 @@ import org.apache.james.core.Username;
 import org.apache.james.mailbox.MailboxManager;
 import org.apache.james.mailbox.MailboxSession;
 import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.indexer.ReIndexer.Partition;
 import org.apache.james.mailbox.indexer.ReIndexer.RunningOptions;
 import org.apache.james.mailbox.indexer.ReIndexingExecutionFailures;
 import org.apache.james.mailbox.indexer.ReIndexingExecutionFailures.ReIndexingFailure;
@@ -45,6 +48,7 @@ import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 import org.apache.james.mailbox.store.search.ListeningMessageSearchIndex;
 import org.apache.james.task.Task;
 import org.apache.james.task.Task.Result;
+import org.apache.james.user.api.UsersRepository;
 import org.apache.james.util.ReactorUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -84,6 +88,9 @@ public class ReIndexerPerformer {
         }
     }
 
+    private record PartitionEntry(Either<Failure, ReIndexingEntry> failureOrEntry, PartitionProgress.UserProgress userProgress) {
+    }
+
     private interface Failure {
         void recordFailure(ReIndexingContext context);
     }
@@ -137,14 +144,17 @@ public class ReIndexerPerformer {
     private final MailboxManager mailboxManager;
     private final ListeningMessageSearchIndex messageSearchIndex;
     private final MailboxSessionMapperFactory mailboxSessionMapperFactory;
+    private final UsersRepository usersRepository;
 
     @Inject
     public ReIndexerPerformer(MailboxManager mailboxManager,
                               ListeningMessageSearchIndex messageSearchIndex,
-                              MailboxSessionMapperFactory mailboxSessionMapperFactory) {
+                              MailboxSessionMapperFactory mailboxSessionMapperFactory,
+                              UsersRepository usersRepository) {
         this.mailboxManager = mailboxManager;
         this.messageSearchIndex = messageSearchIndex;
         this.mailboxSessionMapperFactory = mailboxSessionMapperFactory;
+        this.usersRepository = usersRepository;
     }
 
     Mono<Result> reIndexAllMessages(ReIndexingContext reIndexingContext, RunningOptions runningOptions) {
@@ -190,6 +200,24 @@ public class ReIndexerPerformer {
         }
     }
 
+    Mono<Result> reIndexPartition(Partition partition, PartitionProgress progress, AdaptiveThrottler throttler,
+                                  ReIndexingContext reIndexingContext, RunningOptions runningOptions) {
+        MailboxSession mailboxSession = mailboxManager.createSystemSession(RE_INDEXER_PERFORMER_USER);
+        Optional<Username> resumeAfter = progress.checkpoint();
+        LOGGER.info("Starting a reindex of partition {}, resuming after {}", partition, resumeAfter.map(Username::asString).orElse("none"));
+
+        Flux<PartitionEntry> entriesToIndex = usersOfPartition(partition, resumeAfter)
+            .concatMap(username -> reIndexingEntriesForUser(username, progress, mailboxSession, runningOptions));
+
+        return entriesToIndex
+            .transform(throttler.forOperation(entry -> reIndex(entry.failureOrEntry(), reIndexingContext, runningOptions)
+                .doOnNext(result -> recordProgress(entry.userProgress(), result))))
+            .reduce(Task::combine)
+            .switchIfEmpty(Mono.just(Result.COMPLETED))
+            .doFinally(any -> LOGGER.info("Reindex of partition {} finished", partition))
+            .doFinally(any -> mailboxManager.endProcessingRequest(mailboxSession));
+    }
+
     Mono<Result> reIndexSingleMessage(MailboxId mailboxId, MessageUid uid, ReIndexingContext reIndexingContext) {
         MailboxSession mailboxSession = mailboxManager.createSystemSession(RE_INDEXER_PERFORMER_USER);
 
@@ -265,6 +293,43 @@ public class ReIndexerPerformer {
             });
     }
 
+    private void recordProgress(PartitionProgress.UserProgress userProgress, Result result) {
+        if (result == Result.COMPLETED) {
+            userProgress.entryProcessed();
+        } else {
+            userProgress.entryFailed();
+        }
+    }
+
+    private Flux<Username> usersOfPartition(Partition partition, Optional<Username> resumeAfter) {
+        return Flux.from(usersRepository.listReactive())
+            .filter(partition::contains)
+            .filter(username -> resumeAfter.map(checkpoint -> username.asString().compareTo(checkpoint.asString()) > 0).orElse(true))
+            .sort(Comparator.comparing(Username::asString));
+    }
+
+    private Flux<PartitionEntry> reIndexingEntriesForUser(Username username, PartitionProgress progress, MailboxSession mailboxSession, RunningOptions runningOptions) {
+        PartitionProgress.UserProgress userProgress = progress.startUser(username);
+        MailboxQuery.UserBound mailboxQuery = MailboxQuery.builder()
+            .privateNamespace()
+            .username(username)
+            .matchesAllMailboxNames()
+            .build()
+            .asUserBound();
+
+        return mailboxSessionMapperFactory.getMailboxMapper(mailboxSession).findMailboxWithPathLike(mailboxQuery)
+            .flatMap(mailbox -> reIndexingEntriesForMailbox(mailbox, mailboxSession, runningOptions), MAILBOX_CONCURRENCY)
+            .doOnNext(any -> userProgress.entryListed())
+            .map(failureOrEntry -> new PartitionEntry(failureOrEntry, userProgress))
+            .doOnComplete(userProgress::allEntriesListed)
+            .onErrorResume(e -> {
+                // The checkpoint stays before this user so that resuming lists it again
+                LOGGER.warn("Error fetching mailboxes for user: {}", username.asString(), e);
+                userProgress.listingFailed();
+                return Flux.empty();
+            });
+    }
+
     private Flux<Either<Failure, ReIndexingEntry>> reIndexingEntriesForMailbox(Mailbox mailbox, MailboxSession mailboxSession, RunningOptions runningOptions) {
         MessageMapper messageMapper = mailboxSessionMapperFactory.getMessageMapper(mailboxSession);
 
@@ -19,6 +19,8 @@
 
 package org.apache.mailbox.tools.indexer;
 
+import java.util.Optional;
+
 import org.apache.james.core.Username;
 import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.exception.MailboxException;
@@ -44,6 +46,11 @@ public class ThrowsReIndexer implements ReIndexer {
         throw new MailboxException("Not implemented");
     }
 
+    @Override
+    public Task reIndex(Partition partition, Optional<Username> resumeAfter, RunningOptions runningOptions) throws MailboxException {
+        throw new MailboxException("Not implemented");
+    }
+
     @Override
     public Task reIndex(Username username, RunningOptions runningOptions) throws MailboxException {
         throw new MailboxException("Not implemented");
@@ -0,0 +1,114 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.mailbox.tools.indexer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+
+import org.apache.james.task.Task.Result;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class AdaptiveThrottlerTest {
+    private static final Duration FAST = Duration.ofMillis(100);
+    private static final Duration SLOW = Duration.ofMillis(1500);
+
+    @Test
+    void constructorShouldRejectNonPositiveRate() {
+        assertThatThrownBy(() -> new AdaptiveThrottler(0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void currentRateShouldStartAtMaxRate() {
+        assertThat(new AdaptiveThrottler(50).currentRate()).isEqualTo(50);
+    }
+
+    @Test
+    void adjustShouldHalveRateUponFailure() {
+        AdaptiveThrottler throttler = new AdaptiveThrottler(50);
+
+        throttler.adjust(ImmutableList.of(Result.COMPLETED, Result.PARTIAL), FAST);
+
+        assertThat(throttler.currentRate()).isEqualTo(25);
+    }
+
+    @Test
+    void adjustShouldHalveRateWhenBatchExceedsWindow() {
+        AdaptiveThrottler throttler = new AdaptiveThrottler(50);
+
+        throttler.adjust(ImmutableList.of(Result.COMPLETED), SLOW);
+
+        assertThat(throttler.currentRate()).isEqualTo(25);
+    }
+
+    @Test
+    void adjustShouldNotGoBelowOne() {
+        AdaptiveThrottler throttler = new AdaptiveThrottler(4);
+
+        throttler.adjust(ImmutableList.of(Result.PARTIAL), FAST);
+        throttler.adjust(ImmutableList.of(Result.PARTIAL), FAST);
+        throttler.adjust(ImmutableList.of(Result.PARTIAL), FAST);
+
+        assertThat(throttler.currentRate()).isEqualTo(1);
+    }
+
+    @Test
+    void adjustShouldIncreaseRateAdditivelyWhenNoBackpressure() {
+        AdaptiveThrottler throttler = new AdaptiveThrottler(50);
+        throttler.adjust(ImmutableList.of(Result.PARTIAL), FAST);
+
+        throttler.adjust(ImmutableList.of(Result.COMPLETED), FAST);
+
+        assertThat(throttler.currentRate()).isEqualTo(30);
+    }
+
+    @Test
+    void adjustShouldNotExceedMaxRate() {
+        AdaptiveThrottler throttler = new AdaptiveThrottler(50);
+
+        throttler.adjust(ImmutableList.of(Result.COMPLETED), FAST);
+
+        assertThat(throttler.currentRate()).isEqualTo(50);
+    }
+
+    @Test
+    void forOperationShouldSizeEachBatchWithTheLatestRate() {
+        AdaptiveThrottler throttler = new AdaptiveThrottler(4);
+
+        StepVerifier.withVirtualTime(() -> Flux.range(0, 8)
+                .transform(throttler.forOperation(i -> Mono.just(Result.PARTIAL))))
+            .expectNextCount(4)
+            .thenAwait(AdaptiveThrottler.WINDOW)
+            .expectNextCount(2)
+            .thenAwait(AdaptiveThrottler.WINDOW)
+            .expectNextCount(1)
+            .thenAwait(AdaptiveThrottler.WINDOW)
+            .expectNextCount(1)
+            .thenAwait(AdaptiveThrottler.WINDOW)
+            .verifyComplete();
+    }
+}
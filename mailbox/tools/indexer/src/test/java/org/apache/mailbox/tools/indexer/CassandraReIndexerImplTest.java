@@ -52,6 +52,7 @@ import org.apache.james.mailbox.store.PreDeletionHooks;
 import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 import org.apache.james.mailbox.store.search.ListeningMessageSearchIndex;
 import org.apache.james.task.Task;
+import org.apache.james.user.api.UsersRepository;
 import org.apache.james.util.concurrency.ConcurrentTestRunner;
 import org.apache.mailbox.tools.indexer.ReIndexingContextInformationDTO.ReIndexingContextInformationForErrorRecoveryIndexationTask;
 import org.apache.mailbox.tools.indexer.ReIndexingContextInformationDTO.ReIndexingContextInformationForFullReindexingTask;
@@ -83,7 +84,7 @@ public class CassandraReIndexerImplTest {
         messageSearchIndex = mock(ListeningMessageSearchIndex.class);
         when(messageSearchIndex.add(any(), any(), any())).thenReturn(Mono.empty());
         when(messageSearchIndex.deleteAll(any(), any())).thenReturn(Mono.empty());
-        reIndexer = new ReIndexerImpl(new ReIndexerPerformer(mailboxManager, messageSearchIndex, mailboxSessionMapperFactory),
+        reIndexer = new ReIndexerImpl(new ReIndexerPerformer(mailboxManager, messageSearchIndex, mailboxSessionMapperFactory, mock(UsersRepository.class)),
             mailboxManager, mailboxSessionMapperFactory);
     }
 
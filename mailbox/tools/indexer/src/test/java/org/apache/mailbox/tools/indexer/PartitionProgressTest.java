@@ -0,0 +1,146 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.mailbox.tools.indexer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.apache.james.core.Username;
+import org.apache.james.utils.UpdatableTickingClock;
+import org.junit.jupiter.api.Test;
+
+class PartitionProgressTest {
+    private static final Username ALICE = Username.of("alice@domain.tld");
+    private static final Username BOB = Username.of("bob@domain.tld");
+
+    @Test
+    void checkpointShouldDefaultToResumeAfter() {
+        assertThat(new PartitionProgress(Optional.of(ALICE)).checkpoint()).contains(ALICE);
+    }
+
+    @Test
+    void checkpointShouldBeEmptyWhenNothingProcessed() {
+        PartitionProgress progress = new PartitionProgress(Optional.empty());
+        PartitionProgress.UserProgress alice = progress.startUser(ALICE);
+        alice.entryListed();
+
+        assertThat(progress.checkpoint()).isEmpty();
+    }
+
+    @Test
+    void checkpointShouldNotAdvanceWhileEntriesAreStillListed() {
+        PartitionProgress progress = new PartitionProgress(Optional.empty());
+        PartitionProgress.UserProgress alice = progress.startUser(ALICE);
+        alice.entryListed();
+        alice.entryProcessed();
+
+        assertThat(progress.checkpoint()).isEmpty();
+    }
+
+    @Test
+    void checkpointShouldAdvanceWhenUserIsDone() {
+        PartitionProgress progress = new PartitionProgress(Optional.empty());
+        PartitionProgress.UserProgress alice = progress.startUser(ALICE);
+        alice.entryListed();
+        alice.allEntriesListed();
+        alice.entryProcessed();
+
+        assertThat(progress.checkpoint()).contains(ALICE);
+        assertThat(progress.processedUsers()).isEqualTo(1);
+    }
+
+    @Test
+    void checkpointShouldAdvanceForUsersWithoutMessages() {
+        PartitionProgress progress = new PartitionProgress(Optional.empty());
+        progress.startUser(ALICE).allEntriesListed();
+
+        assertThat(progress.checkpoint()).contains(ALICE);
+    }
+
+    @Test
+    void checkpointShouldNotSkipUnfinishedUsers() {
+        PartitionProgress progress = new PartitionProgress(Optional.empty());
+        PartitionProgress.UserProgress alice = progress.startUser(ALICE);
+        PartitionProgress.UserProgress bob = progress.startUser(BOB);
+        alice.entryListed();
+        alice.allEntriesListed();
+        bob.allEntriesListed();
+
+        assertThat(progress.checkpoint()).isEmpty();
+    }
+
+    @Test
+    void checkpointShouldCatchUpOnceEarlierUsersAreDone() {
+        PartitionProgress progress = new PartitionProgress(Optional.empty());
+        PartitionProgress.UserProgress alice = progress.startUser(ALICE);
+        PartitionProgress.UserProgress bob = progress.startUser(BOB);
+        alice.entryListed();
+        alice.allEntriesListed();
+        bob.allEntriesListed();
+
+        alice.entryProcessed();
+
+        assertThat(progress.checkpoint()).contains(BOB);
+        assertThat(progress.processedUsers()).isEqualTo(2);
+    }
+
+    @Test
+    void checkpointShouldStopBeforeUsersWithFailures() {
+        PartitionProgress progress = new PartitionProgress(Optional.empty());
+        PartitionProgress.UserProgress alice = progress.startUser(ALICE);
+        PartitionProgress.UserProgress bob = progress.startUser(BOB);
+        alice.entryListed();
+        alice.allEntriesListed();
+        bob.allEntriesListed();
+
+        alice.entryFailed();
+
+        assertThat(progress.checkpoint()).isEmpty();
+        assertThat(progress.processedUsers()).isZero();
+    }
+
+    @Test
+    void checkpointShouldNotAdvanceAfterAFailure() {
+        PartitionProgress progress = new PartitionProgress(Optional.of(ALICE));
+        PartitionProgress.UserProgress bob = progress.startUser(BOB);
+        bob.listingFailed();
+
+        progress.startUser(Username.of("cedric@domain.tld")).allEntriesListed();
+
+        assertThat(progress.checkpoint()).contains(ALICE);
+    }
+
+    @Test
+    void messagesPerSecondShouldReflectProcessedMessages() {
+        UpdatableTickingClock clock = new UpdatableTickingClock(Instant.parse("2024-01-01T00:00:00Z"));
+        PartitionProgress progress = new PartitionProgress(Optional.empty(), clock);
+        PartitionProgress.UserProgress alice = progress.startUser(ALICE);
+        alice.entryListed();
+        alice.entryListed();
+        alice.entryProcessed();
+        alice.entryProcessed();
+
+        clock.setInstant(clock.instant().plus(Duration.ofSeconds(2)));
+
+        assertThat(progress.messagesPerSecond()).isEqualTo(1.0);
+    }
+}
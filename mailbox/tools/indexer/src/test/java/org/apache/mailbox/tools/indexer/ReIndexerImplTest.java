@@ -44,6 +44,7 @@ import org.apache.james.mailbox.model.MailboxPath;
 import org.apache.james.mailbox.store.MailboxSessionMapperFactory;
 import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 import org.apache.james.mailbox.store.search.ListeningMessageSearchIndex;
+import org.apache.james.user.api.UsersRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -66,7 +67,7 @@ public class ReIndexerImplTest {
         messageSearchIndex = mock(ListeningMessageSearchIndex.class);
         when(messageSearchIndex.add(any(), any(), any())).thenReturn(Mono.empty());
         when(messageSearchIndex.deleteAll(any(), any())).thenReturn(Mono.empty());
-        reIndexer = new ReIndexerImpl(new ReIndexerPerformer(mailboxManager, messageSearchIndex, mailboxSessionMapperFactory),
+        reIndexer = new ReIndexerImpl(new ReIndexerPerformer(mailboxManager, messageSearchIndex, mailboxSessionMapperFactory, mock(UsersRepository.class)),
             mailboxManager, mailboxSessionMapperFactory);
     }
 
@@ -26,6 +26,7 @@ import java.sql.Connection;
 import java.text.DecimalFormat;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.Map;
 
 import javax.sql.DataSource;
 
@@ -69,6 +70,12 @@ import org.slf4j.LoggerFactory;
  * minutes a special thread in this mailet will check if any change was made to
  * the database by the feeder, and rebuild the corpus if necessary.
  * </p>
+ *
+ * <p>
+ * Messages trained by a feeder running in the same JVM are applied to the
+ * corpus as soon as they are committed, without rebuilding it. The corpus is
+ * rebuilt once {@value #MAX_TRAINED_TOKENS} tokens were trained that way.
+ * </p>
  * 
  * <p>
  * A <code>org.apache.james.spam.probability</code> mail attribute will be
@@ -144,6 +151,7 @@ public class BayesianAnalysis extends GenericMailet {
     private static final AttributeName MAIL_ATTRIBUTE_NAME = AttributeName.of("org.apache.james.spam.probability");
     private static final String HEADER_NAME = "X-MessageIsSpamProbability";
     static final long CORPUS_RELOAD_INTERVAL = 600000;
+    static final int MAX_TRAINED_TOKENS = 100000;
     private String headerName;
     private boolean ignoreLocalSender = false;
     private boolean tagSubject = true;
@@ -168,6 +176,15 @@ public class BayesianAnalysis extends GenericMailet {
      */
     private long lastCorpusLoadTime;
 
+    /**
+     * Last time the corpus was brought up to date with the database, by a load or by a trained message.
+     */
+    private volatile long lastCorpusUpdateTime;
+
+    private volatile int trainedTokenCount;
+
+    private final JDBCBayesianAnalyzer.TrainingListener trainingListener = this::trained;
+
     private SystemContext fs;
 
     /**
@@ -206,6 +223,22 @@ public class BayesianAnalysis extends GenericMailet {
     private void touchLastCorpusLoadTime() {
 
         this.lastCorpusLoadTime = System.currentTimeMillis();
+        this.lastCorpusUpdateTime = lastCorpusLoadTime;
+        this.trainedTokenCount = 0;
+    }
+
+    /**
+     * @return true if the database changed since the corpus was last updated, or if enough messages were trained
+     *         since its last load to rebuild it
+     */
+    boolean isCorpusOutdated() {
+        return lastCorpusUpdateTime < JDBCBayesianAnalyzer.getLastDatabaseUpdateTime()
+            || trainedTokenCount >= MAX_TRAINED_TOKENS;
+    }
+
+    private void trained(boolean spam, Map<String, Integer> tokenCounts) {
+        trainedTokenCount = analyzer.getCorpus().addTrainedMessage(spam, tokenCounts);
+        lastCorpusUpdateTime = System.currentTimeMillis();
     }
 
     /**
@@ -245,12 +278,19 @@ public class BayesianAnalysis extends GenericMailet {
 
         initDb();
 
+        JDBCBayesianAnalyzer.addTrainingListener(trainingListener);
+
         CorpusLoaderThread corpusLoader = new CorpusLoaderThread(this);
         corpusLoader.setDaemon(true);
         corpusLoader.start();
 
     }
 
+    @Override
+    public void destroy() {
+        JDBCBayesianAnalyzer.removeTrainingListener(trainingListener);
+    }
+
     private void initDb() throws MessagingException {
 
         try {
@@ -113,7 +113,9 @@ import org.slf4j.LoggerFactory;
  * <code>BayesianAnalysis</code> must be rebuilt from the database, in order to
  * take advantage of the new token frequencies. Every 10 minutes a special
  * thread in the <code>BayesianAnalysis</code> mailet will check if any change
- * was made to the database, and rebuild the corpus if necessary.
+ * was made to the database, and rebuild the corpus if necessary. A
+ * <code>BayesianAnalysis</code> mailet running in the same JVM applies the
+ * messages fed to its corpus right away.
  * </p>
  * 
  * <p>
@@ -282,7 +284,8 @@ public class BayesianAnalysisFeeder extends GenericMailet {
                 // Clear out any existing word/counts etc..
                 analyzer.clear();
 
-                if ("ham".equalsIgnoreCase(feedType)) {
+                boolean spam = !"ham".equalsIgnoreCase(feedType);
+                if (!spam) {
                     LOGGER.debug("{} Feeding HAM", messageId);
                     // Process the stream as ham (not spam).
                     analyzer.addHam(br);
@@ -304,6 +307,7 @@ public class BayesianAnalysisFeeder extends GenericMailet {
                     dbUpdated = false;
                     LOGGER.debug("{} Training ended successfully", messageId);
                     JDBCBayesianAnalyzer.touchLastDatabaseUpdateTime();
+                    JDBCBayesianAnalyzer.notifyTrained(spam, spam ? analyzer.getSpamTokenCounts() : analyzer.getHamTokenCounts());
                 }
 
             }
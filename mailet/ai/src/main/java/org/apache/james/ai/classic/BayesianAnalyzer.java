@@ -27,6 +27,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Locale;
 import java.util.Map;
+import java.util.OptionalDouble;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -60,7 +61,7 @@ import java.util.TreeSet;
  * <p>
  * Use: void buildCorpus()
  * 
- * to build the final token/probabilities Map.
+ * to build the final token corpus.
  * 
  * Use your own methods for persistent storage of either the individual ham/spam
  * corpus & message counts, and/or the final corpus.
@@ -76,7 +77,7 @@ import java.util.TreeSet;
  * </p>
  * 
  * <p>
- * If you use persistent storage, use: void setCorpus(Map)
+ * If you use persistent storage, use: void setCorpus(TokenCorpus)
  * 
  * before calling computeSpamProbability.
  * </p>
@@ -116,8 +117,8 @@ public class BayesianAnalyzer {
     /** Number of spam messages analyzed. */
     private int spamMessageCount = 0;
 
-    /** Final token/probability corpus. */
-    private Map<String, Double> corpus = new HashMap<>();
+    /** Final token corpus, replaced as a whole when rebuilt. */
+    private volatile TokenCorpus corpus = TokenCorpus.empty();
 
     /**
      * Basic class constructor.
@@ -197,7 +198,7 @@ public class BayesianAnalyzer {
      * Clears all analysis repositories and counters.
      */
     public void clear() {
-        corpus.clear();
+        corpus = TokenCorpus.empty();
 
         tokenCountsClear();
 
@@ -219,14 +220,14 @@ public class BayesianAnalyzer {
      * @param corpus
      *            The new corpus.
      */
-    public void setCorpus(Map<String, Double> corpus) {
+    public void setCorpus(TokenCorpus corpus) {
         this.corpus = corpus;
     }
 
     /**
      * Public getter for corpus.
      */
-    public Map<String, Double> getCorpus() {
+    public TokenCorpus getCorpus() {
         return this.corpus;
     }
 
@@ -234,18 +235,7 @@ public class BayesianAnalyzer {
      * Builds the corpus from the existing ham & spam counts.
      */
     public void buildCorpus() {
-        // Combine the known ham & spam tokens.
-        Set<String> set = new HashSet<>(hamTokenCounts.size() + spamTokenCounts.size());
-        set.addAll(hamTokenCounts.keySet());
-        set.addAll(spamTokenCounts.keySet());
-        Map<String, Double> tempCorpus = new HashMap<>(set.size());
-
-        // Iterate through all the tokens and compute their new
-        // individual probabilities.
-        for (String token : set) {
-            tempCorpus.put(token, computeProbability(token));
-        }
-        setCorpus(tempCorpus);
+        setCorpus(TokenCorpus.build(hamTokenCounts, spamTokenCounts, hamMessageCount, spamMessageCount));
     }
 
     /**
@@ -289,7 +279,7 @@ public class BayesianAnalyzer {
 
         // Get the corpus to use in this run
         // A new corpus may be being built in the meantime
-        Map<String, Double> workCorpus = getCorpus();
+        TokenCorpus workCorpus = getCorpus();
 
         // Assign their probabilities from the Corpus (using an additional
         // calculation to determine spamminess).
@@ -297,7 +287,7 @@ public class BayesianAnalyzer {
 
         // Compute and return the overall probability that the
         // stream is SPAM.
-        return computeOverallProbability(tokenProbabilityStrengths, workCorpus);
+        return computeOverallProbability(tokenProbabilityStrengths);
     }
 
     /**
@@ -325,55 +315,6 @@ public class BayesianAnalyzer {
         return tokens;
     }
 
-    /**
-     * Compute the probability that "token" is SPAM.
-     * 
-     * @param token
-     * @return The probability that the token occurs within spam.
-     */
-    private double computeProbability(String token) {
-        double hamFactor = 0;
-        double spamFactor = 0;
-
-        boolean foundInHam = false;
-        boolean foundInSpam = false;
-
-        double minThreshold = 0.01;
-        double maxThreshold = 0.99;
-
-        if (hamTokenCounts.containsKey(token)) {
-            foundInHam = true;
-        }
-
-        if (spamTokenCounts.containsKey(token)) {
-            foundInSpam = true;
-        }
-
-        if (foundInHam) {
-            hamFactor = 2 * hamTokenCounts.get(token).doubleValue();
-            if (!foundInSpam) {
-                minThreshold = (hamFactor > 20) ? 0.0001 : 0.0002;
-            }
-        }
-
-        if (foundInSpam) {
-            spamFactor = spamTokenCounts.get(token).doubleValue();
-            if (!foundInHam) {
-                maxThreshold = (spamFactor > 10) ? 0.9999 : 0.9998;
-            }
-        }
-
-        if ((hamFactor + spamFactor) < 5) {
-            // This token hasn't been seen enough.
-            return 0.4;
-        }
-
-        double spamFreq = Math.min(1.0, spamFactor / spamMessageCount);
-        double hamFreq = Math.min(1.0, hamFactor / hamMessageCount);
-
-        return Math.max(minThreshold, Math.min(maxThreshold, (spamFreq / (hamFreq + spamFreq))));
-    }
-
     /**
      * Returns a SortedSet of TokenProbabilityStrength built from the Corpus and
      * the tokens passed in the "tokens" Set. The ordering is from the highest
@@ -383,7 +324,7 @@ public class BayesianAnalyzer {
      * @param workCorpus
      * @return SortedSet of TokenProbabilityStrength objects.
      */
-    private SortedSet<TokenProbabilityStrength> getTokenProbabilityStrengths(Set<String> tokens, Map<String, Double> workCorpus) {
+    private SortedSet<TokenProbabilityStrength> getTokenProbabilityStrengths(Set<String> tokens, TokenCorpus workCorpus) {
         // Convert to a SortedSet of token probability strengths.
         SortedSet<TokenProbabilityStrength> tokenProbabilityStrengths = new TreeSet<>();
 
@@ -392,38 +333,24 @@ public class BayesianAnalyzer {
 
             tps.token = token;
 
-            if (workCorpus.containsKey(tps.token)) {
-                tps.strength = Math.abs(0.5 - workCorpus.get(tps.token));
+            OptionalDouble probability = workCorpus.probability(tps.token);
+            if (probability.isPresent()) {
+                tps.probability = probability.getAsDouble();
+                tps.strength = Math.abs(0.5 - tps.probability);
             } else {
                 // This token has never been seen before,
-                // we'll give it initially the default probability.
-                Double corpusProbability = DEFAULT_TOKEN_PROBABILITY;
-                tps.strength = Math.abs(0.5 - DEFAULT_TOKEN_PROBABILITY);
-                boolean isTokenDegeneratedFound = false;
-
-                Collection<String> degeneratedTokens = buildDegenerated(tps.token);
-                Iterator<String> iDegenerated = degeneratedTokens.iterator();
-                String tokenDegenerated;
-                double strengthDegenerated;
-                while (iDegenerated.hasNext()) {
-                    tokenDegenerated = iDegenerated.next();
-                    if (workCorpus.containsKey(tokenDegenerated)) {
-                        Double probabilityTemp = workCorpus.get(tokenDegenerated);
-                        strengthDegenerated = Math.abs(0.5 - probabilityTemp);
+                // we'll give it initially the default probability,
+                // unless a degeneration of it is stronger.
+                for (String tokenDegenerated : buildDegenerated(tps.token)) {
+                    OptionalDouble probabilityDegenerated = workCorpus.probability(tokenDegenerated);
+                    if (probabilityDegenerated.isPresent()) {
+                        double strengthDegenerated = Math.abs(0.5 - probabilityDegenerated.getAsDouble());
                         if (strengthDegenerated > tps.strength) {
-                            isTokenDegeneratedFound = true;
                             tps.strength = strengthDegenerated;
-                            corpusProbability = probabilityTemp;
+                            tps.probability = probabilityDegenerated.getAsDouble();
                         }
                     }
                 }
-                // to reduce memory usage, put in the corpus only if the
-                // probability is different from (stronger than) the default
-                if (isTokenDegeneratedFound) {
-                    synchronized (workCorpus) {
-                        workCorpus.put(tps.token, corpusProbability);
-                    }
-                }
             }
 
             tokenProbabilityStrengths.add(tps);
@@ -487,10 +414,9 @@ public class BayesianAnalyzer {
      * tokenProbabilities SortedSet.
      * 
      * @param tokenProbabilityStrengths
-     * @param workCorpus
      * @return Computed spamminess.
      */
-    private double computeOverallProbability(SortedSet<TokenProbabilityStrength> tokenProbabilityStrengths, Map<String, Double> workCorpus) {
+    private double computeOverallProbability(SortedSet<TokenProbabilityStrength> tokenProbabilityStrengths) {
         double p = 1.0;
         double np = 1.0;
         double tempStrength = 0.5;
@@ -500,19 +426,10 @@ public class BayesianAnalyzer {
             TokenProbabilityStrength tps = iterator.next();
             tempStrength = tps.strength;
 
-            // System.out.println(tps);
-
-            double theDoubleValue = DEFAULT_TOKEN_PROBABILITY; // initialize it to the default
-            Double theDoubleObject = workCorpus.get(tps.token);
-            // if either the original token or a degeneration was found use the
-            // double value, otherwise use the default
-            if (theDoubleObject != null) {
-                theDoubleValue = theDoubleObject;
-            }
-            p *= theDoubleValue;
-            np *= (1.0 - theDoubleValue);
-            // System.out.println("Token " + tps + ", p=" + theDoubleValue +
-            // ", overall p=" + p / (p + np));
+            // either the original token or its strongest degeneration
+            // probability, otherwise the default
+            p *= tps.probability;
+            np *= (1.0 - tps.probability);
         }
 
         return (p / (p + np));
@@ -46,7 +46,7 @@ class CorpusLoaderThread extends Thread {
             Thread.sleep(BayesianAnalysis.CORPUS_RELOAD_INTERVAL);
 
             while (true) {
-                if (analysis.getLastCorpusLoadTime() < JDBCBayesianAnalyzer.getLastDatabaseUpdateTime()) {
+                if (analysis.isCorpusOutdated()) {
                     LOGGER.info("Reloading Corpus ...");
                     try {
                         analysis.loadData(analysis.datasource.getConnection());
@@ -26,6 +26,8 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -66,6 +68,32 @@ public class JDBCBayesianAnalyzer extends BayesianAnalyzer {
     /** Holds value of property lastDatabaseUpdateTime. */
     private static long lastDatabaseUpdateTime;
 
+    /**
+     * Notified of the messages trained in this JVM, once their token counts are committed to the database.
+     */
+    @FunctionalInterface
+    public interface TrainingListener {
+        void trained(boolean spam, Map<String, Integer> tokenCounts);
+    }
+
+    private static final Set<TrainingListener> trainingListeners = ConcurrentHashMap.newKeySet();
+
+    public static void addTrainingListener(TrainingListener listener) {
+        trainingListeners.add(listener);
+    }
+
+    public static void removeTrainingListener(TrainingListener listener) {
+        trainingListeners.remove(listener);
+    }
+
+    /**
+     * To be called while holding {@link #DATABASE_LOCK}, so that listeners do not interleave with corpus loads.
+     */
+    public static void notifyTrained(boolean spam, Map<String, Integer> tokenCounts) {
+        Map<String, Integer> trainedTokenCounts = Map.copyOf(tokenCounts);
+        trainingListeners.forEach(listener -> listener.trained(spam, trainedTokenCounts));
+    }
+
     /**
      * Getter for static lastDatabaseUpdateTime.
      * 
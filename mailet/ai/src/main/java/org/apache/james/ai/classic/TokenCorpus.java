@@ -0,0 +1,266 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.ai.classic;
+
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Token corpus used when computing spam probabilities.
+ *
+ * Tokens are stored by 64 bits hash in an open addressing table, with their ham and spam occurrences held in
+ * primitive arrays: a corpus of millions of tokens takes a fraction of the memory of boxed maps.
+ *
+ * The table is never modified once built, so that scoring reads it without locking, and a new corpus is swapped in
+ * on rebuild. Messages trained afterwards are recorded in a small overlay table with the same layout, written by a
+ * single trainer at a time and read without locking, until the next rebuild folds them in.
+ */
+public final class TokenCorpus {
+    private static final long EMPTY_SLOT = 0L;
+    private static final double MAX_LOAD_FACTOR = 0.6;
+    private static final int INITIAL_TRAINED_CAPACITY = 1024;
+
+    /**
+     * Occurrences of the tokens trained after the build.
+     *
+     * A new token gets its counts before its key is published, so that readers never see a key without its counts.
+     * The table is replaced by a bigger copy when full.
+     */
+    private static final class TrainedCounts {
+        private final AtomicLongArray keys;
+        private final AtomicIntegerArray hamCounts;
+        private final AtomicIntegerArray spamCounts;
+        private final int mask;
+        private int size;
+
+        private TrainedCounts(int capacity) {
+            this.keys = new AtomicLongArray(capacity);
+            this.hamCounts = new AtomicIntegerArray(capacity);
+            this.spamCounts = new AtomicIntegerArray(capacity);
+            this.mask = capacity - 1;
+        }
+
+        private boolean isFull() {
+            return size + 1 > keys.length() * MAX_LOAD_FACTOR;
+        }
+
+        private TrainedCounts grow() {
+            TrainedCounts grown = new TrainedCounts(keys.length() << 1);
+            for (int slot = 0; slot < keys.length(); slot++) {
+                long key = keys.get(slot);
+                if (key != EMPTY_SLOT) {
+                    grown.add(key, hamCounts.get(slot), spamCounts.get(slot));
+                }
+            }
+            return grown;
+        }
+
+        private void add(long key, int hamCount, int spamCount) {
+            int slot = (int) key & mask;
+            while (keys.get(slot) != EMPTY_SLOT) {
+                if (keys.get(slot) == key) {
+                    hamCounts.addAndGet(slot, hamCount);
+                    spamCounts.addAndGet(slot, spamCount);
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            hamCounts.set(slot, hamCount);
+            spamCounts.set(slot, spamCount);
+            keys.set(slot, key);
+            size++;
+        }
+
+        private int slot(long key) {
+            int slot = (int) key & mask;
+            long slotKey;
+            while ((slotKey = keys.get(slot)) != EMPTY_SLOT) {
+                if (slotKey == key) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+    }
+
+    static long hash(String token) {
+        // FNV-1a over the UTF-16 chars, followed by the murmur3 finalizer to spread the bits
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < token.length(); i++) {
+            hash ^= token.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        if (hash == EMPTY_SLOT) {
+            return 1L;
+        }
+        return hash;
+    }
+
+    /**
+     * @return a new corpus without any token, to be trained
+     */
+    static TokenCorpus empty() {
+        return build(Map.of(), Map.of(), 0, 0);
+    }
+
+    /**
+     * @param hamTokenCounts occurrences of tokens in ham messages
+     * @param spamTokenCounts occurrences of tokens in spam messages
+     * @param hamMessageCount number of ham messages these occurrences come from
+     * @param spamMessageCount number of spam messages these occurrences come from
+     */
+    static TokenCorpus build(Map<String, Integer> hamTokenCounts, Map<String, Integer> spamTokenCounts,
+                             int hamMessageCount, int spamMessageCount) {
+        TokenCorpus corpus = new TokenCorpus(hamTokenCounts.size() + spamTokenCounts.size(), hamMessageCount, spamMessageCount);
+        hamTokenCounts.forEach((token, count) -> corpus.hamCounts[corpus.slotForInsertion(hash(token))] += count);
+        spamTokenCounts.forEach((token, count) -> corpus.spamCounts[corpus.slotForInsertion(hash(token))] += count);
+        return corpus;
+    }
+
+    private final long[] keys;
+    private final int[] hamCounts;
+    private final int[] spamCounts;
+    private final int mask;
+    private final AtomicInteger hamMessageCount;
+    private final AtomicInteger spamMessageCount;
+    private volatile TrainedCounts trainedCounts;
+
+    private TokenCorpus(int expectedTokens, int hamMessageCount, int spamMessageCount) {
+        int capacity = Integer.highestOneBit((int) Math.max(2, expectedTokens / MAX_LOAD_FACTOR)) << 1;
+        this.keys = new long[capacity];
+        this.hamCounts = new int[capacity];
+        this.spamCounts = new int[capacity];
+        this.mask = capacity - 1;
+        this.hamMessageCount = new AtomicInteger(hamMessageCount);
+        this.spamMessageCount = new AtomicInteger(spamMessageCount);
+        this.trainedCounts = new TrainedCounts(INITIAL_TRAINED_CAPACITY);
+    }
+
+    private int slotForInsertion(long key) {
+        int slot = (int) key & mask;
+        while (keys[slot] != EMPTY_SLOT && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        return slot;
+    }
+
+    private int slot(long key) {
+        int slot = (int) key & mask;
+        while (keys[slot] != EMPTY_SLOT) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the probability that a message containing this token is spam, or empty for tokens never seen
+     */
+    public OptionalDouble probability(String token) {
+        long key = hash(token);
+        int slot = slot(key);
+        TrainedCounts trained = trainedCounts;
+        int trainedSlot = trained.slot(key);
+        if (slot < 0 && trainedSlot < 0) {
+            return OptionalDouble.empty();
+        }
+        int hamCount = 0;
+        int spamCount = 0;
+        if (slot >= 0) {
+            hamCount += hamCounts[slot];
+            spamCount += spamCounts[slot];
+        }
+        if (trainedSlot >= 0) {
+            hamCount += trained.hamCounts.get(trainedSlot);
+            spamCount += trained.spamCounts.get(trainedSlot);
+        }
+        return OptionalDouble.of(computeProbability(hamCount, spamCount));
+    }
+
+    /**
+     * Records the tokens of a message trained after this corpus was built.
+     *
+     * @return the number of tokens recorded since the build
+     */
+    synchronized int addTrainedMessage(boolean spam, Map<String, Integer> tokenCounts) {
+        TrainedCounts trained = trainedCounts;
+        for (Map.Entry<String, Integer> tokenCount : tokenCounts.entrySet()) {
+            if (trained.isFull()) {
+                trained = trained.grow();
+                trainedCounts = trained;
+            }
+            int count = tokenCount.getValue();
+            trained.add(hash(tokenCount.getKey()), spam ? 0 : count, spam ? count : 0);
+        }
+        if (spam) {
+            spamMessageCount.incrementAndGet();
+        } else {
+            hamMessageCount.incrementAndGet();
+        }
+        return trained.size;
+    }
+
+    private double computeProbability(int hamCount, int spamCount) {
+        double hamFactor = 0;
+        double spamFactor = 0;
+
+        boolean foundInHam = hamCount > 0;
+        boolean foundInSpam = spamCount > 0;
+
+        double minThreshold = 0.01;
+        double maxThreshold = 0.99;
+
+        if (foundInHam) {
+            hamFactor = 2 * (double) hamCount;
+            if (!foundInSpam) {
+                minThreshold = (hamFactor > 20) ? 0.0001 : 0.0002;
+            }
+        }
+
+        if (foundInSpam) {
+            spamFactor = spamCount;
+            if (!foundInHam) {
+                maxThreshold = (spamFactor > 10) ? 0.9999 : 0.9998;
+            }
+        }
+
+        if ((hamFactor + spamFactor) < 5) {
+            // This token hasn't been seen enough.
+            return 0.4;
+        }
+
+        double spamFreq = Math.min(1.0, spamFactor / spamMessageCount.get());
+        double hamFreq = Math.min(1.0, hamFactor / hamMessageCount.get());
+
+        return Math.max(minThreshold, Math.min(maxThreshold, (spamFreq / (hamFreq + spamFreq))));
+    }
+}
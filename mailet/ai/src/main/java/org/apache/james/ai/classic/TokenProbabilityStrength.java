@@ -39,6 +39,11 @@ class TokenProbabilityStrength implements Comparable<TokenProbabilityStrength> {
      */
     double strength = Math.abs(0.5 - BayesianAnalyzer.DEFAULT_TOKEN_PROBABILITY);
 
+    /**
+     * Probability of the token, or of its strongest degeneration.
+     */
+    double probability = BayesianAnalyzer.DEFAULT_TOKEN_PROBABILITY;
+
     /**
      * Force the natural sort order for this object to be high-to-low.
      * 
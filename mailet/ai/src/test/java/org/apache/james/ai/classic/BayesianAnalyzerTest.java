@@ -0,0 +1,174 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.ai.classic;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class BayesianAnalyzerTest {
+    private static final List<String> HAM = List.of(
+        "Hello team, the meeting is moved to Tuesday afternoon. Please review the quarterly report before the meeting.",
+        "Hi, attached is the report for the project review. Let me know about Tuesday.",
+        "Lunch on Tuesday? The team wants to discuss the project report.");
+    private static final List<String> SPAM = List.of(
+        "FREE money now!!! Click here to claim your prize money",
+        "Cheap pills, free shipping, click here now!!!",
+        "You won a free prize! Claim your money now, click here");
+    private static final int TRAINING_ROUNDS = 3;
+
+    static Stream<String> messages() {
+        return Stream.of(
+            "Please review the project report before Tuesday.",
+            "Click here now for FREE money!!",
+            "Free prize for the team meeting, click here",
+            "Subject: Money!!! Claim your prize",
+            "Nothing in common with the training set",
+            "");
+    }
+
+    /**
+     * Scores computed by the implementation preceding the {@link TokenCorpus} rewrite, on the training set above.
+     */
+    static Stream<Arguments> expectedScores() {
+        return Stream.of(
+            Arguments.of("Please review the project report before Tuesday.", 6.4083262114896404E-27),
+            Arguments.of("Click here now for FREE money!!", 0.9993253204727756),
+            Arguments.of("Free prize for the team meeting, click here", 6.666888896298744E-5),
+            Arguments.of("Subject: Money!!! Claim your prize", 0.16494845360824748),
+            Arguments.of("Nothing in common with the training set", 8.779950434436069E-6),
+            Arguments.of("", 0.5));
+    }
+
+    private BayesianAnalyzer analyzer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        analyzer = new BayesianAnalyzer();
+        for (int round = 0; round < TRAINING_ROUNDS; round++) {
+            for (String ham : HAM) {
+                analyzer.addHam(new StringReader(ham));
+            }
+            for (String spam : SPAM) {
+                analyzer.addSpam(new StringReader(spam));
+            }
+        }
+        analyzer.buildCorpus();
+    }
+
+    @ParameterizedTest
+    @MethodSource("expectedScores")
+    void computeSpamProbabilityShouldMatchThePreviousImplementation(String message, double expectedScore) throws Exception {
+        assertThat(analyzer.computeSpamProbability(new StringReader(message)))
+            .isEqualTo(expectedScore);
+    }
+
+    @Test
+    void computeSpamProbabilityShouldNotDependOnPreviousScorings() throws Exception {
+        String message = "Subject: Money!!! Claim your prize";
+        double firstScore = analyzer.computeSpamProbability(new StringReader(message));
+
+        messages().forEach(this::score);
+
+        assertThat(analyzer.computeSpamProbability(new StringReader(message)))
+            .isEqualTo(firstScore);
+    }
+
+    @ParameterizedTest
+    @MethodSource("messages")
+    void trainedMessagesShouldScoreAsARebuiltCorpus(String message) throws Exception {
+        String trainedSpam = "Cheap money and free pills, click here";
+        analyzer.getCorpus().addTrainedMessage(true, spamTokenCounts(trainedSpam));
+
+        analyzer.addSpam(new StringReader(trainedSpam));
+        BayesianAnalyzer rebuiltAnalyzer = new BayesianAnalyzer();
+        rebuiltAnalyzer.setCorpus(TokenCorpus.build(analyzer.getHamTokenCounts(), analyzer.getSpamTokenCounts(),
+            analyzer.getHamMessageCount(), analyzer.getSpamMessageCount()));
+
+        assertThat(analyzer.computeSpamProbability(new StringReader(message)))
+            .isEqualTo(rebuiltAnalyzer.computeSpamProbability(new StringReader(message)));
+    }
+
+    @Test
+    void addTrainedMessageShouldReturnTheNumberOfTrainedTokens() {
+        TokenCorpus corpus = TokenCorpus.empty();
+
+        corpus.addTrainedMessage(true, Map.of("free", 3, "money", 2));
+
+        assertThat(corpus.addTrainedMessage(false, Map.of("money", 1, "meeting", 4)))
+            .isEqualTo(3);
+    }
+
+    @Test
+    void addTrainedMessageShouldRetainTokensBeyondTheInitialCapacity() {
+        TokenCorpus corpus = TokenCorpus.empty();
+        IntStream.range(0, 10000)
+            .forEach(i -> corpus.addTrainedMessage(true, Map.of("token" + i, 10)));
+
+        assertThat(IntStream.range(0, 10000)
+            .filter(i -> corpus.probability("token" + i).isEmpty()))
+            .isEmpty();
+    }
+
+    @Test
+    void trainingShouldNotAffectOtherAnalyzers() {
+        BayesianAnalyzer otherAnalyzer = new BayesianAnalyzer();
+
+        new BayesianAnalyzer().getCorpus().addTrainedMessage(true, Map.of("unseen", 10));
+
+        assertThat(otherAnalyzer.getCorpus().probability("unseen")).isEmpty();
+    }
+
+    @Test
+    void clearShouldNotShareTrainedTokens() {
+        BayesianAnalyzer otherAnalyzer = new BayesianAnalyzer();
+        otherAnalyzer.clear();
+
+        analyzer.clear();
+        analyzer.getCorpus().addTrainedMessage(true, Map.of("unseen", 10));
+
+        assertThat(otherAnalyzer.getCorpus().probability("unseen")).isEmpty();
+    }
+
+    private Map<String, Integer> spamTokenCounts(String message) throws IOException {
+        BayesianAnalyzer trainer = new BayesianAnalyzer();
+        trainer.addSpam(new StringReader(message));
+        return Map.copyOf(trainer.getSpamTokenCounts());
+    }
+
+    private void score(String message) {
+        try {
+            analyzer.computeSpamProbability(new StringReader(message));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
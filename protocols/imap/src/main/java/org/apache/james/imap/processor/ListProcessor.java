@@ -28,6 +28,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -48,7 +49,6 @@ import org.apache.james.imap.api.process.MailboxTyper;
 import org.apache.james.imap.main.PathConverter;
 import org.apache.james.imap.message.request.ListRequest;
 import org.apache.james.imap.message.response.ListResponse;
-import org.apache.james.imap.message.response.MailboxStatusResponse;
 import org.apache.james.imap.message.response.MyRightsResponse;
 import org.apache.james.mailbox.MailboxManager;
 import org.apache.james.mailbox.MailboxSession;
@@ -57,6 +57,7 @@ import org.apache.james.mailbox.SubscriptionManager;
 import org.apache.james.mailbox.exception.MailboxException;
 import org.apache.james.mailbox.model.MailboxACL;
 import org.apache.james.mailbox.model.MailboxConstants;
+import org.apache.james.mailbox.model.MailboxId;
 import org.apache.james.mailbox.model.MailboxMetaData;
 import org.apache.james.mailbox.model.MailboxPath;
 import org.apache.james.mailbox.model.search.MailboxQuery;
@@ -74,6 +75,7 @@ import com.google.common.collect.ImmutableMap;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
 
 public class ListProcessor<T extends ListRequest> extends AbstractMailboxProcessor<T> implements CapabilityImplementingProcessor {
     public static final boolean RETURN_SUBSCRIBED = true;
@@ -85,6 +87,8 @@ public class ListProcessor<T extends ListRequest> extends AbstractMailboxProcess
         Capability.of("LIST-MYRIGHTS"),
         Capability.of("SPECIAL-USE"));
 
+    private static final int STATUS_BATCH_SIZE = 64;
+
     private final SubscriptionManager subscriptionManager;
     private final StatusProcessor statusProcessor;
     protected final MailboxTyper mailboxTyper;
@@ -213,8 +217,8 @@ public class ListProcessor<T extends ListRequest> extends AbstractMailboxProcess
 
     private Mono<Void> processWithoutSubscribed(ImapSession session, T request, Responder responder, MailboxSession mailboxSession,
                                                 boolean isRelative, MailboxQuery mailboxQuery, Predicate<MailboxPath> isSubscribed) {
-        return getMailboxManager().search(mailboxQuery, Minimal, mailboxSession)
-            .doOnNext(metaData -> {
+        return respondInBatches(getMailboxManager().search(mailboxQuery, Minimal, mailboxSession), Optional::of,
+            metaData -> {
                 MailboxType mailboxType = getMailboxType(request, session, metaData.getPath());
                 if (!request.getSelectOptions().contains(SPECIAL_USE) || mailboxType.getRfc6154attributeName() != null) {
                     responder.respond(
@@ -225,12 +229,41 @@ public class ListProcessor<T extends ListRequest> extends AbstractMailboxProcess
                             mailboxType,
                             isSubscribed.test(metaData.getPath())));
                 }
-            })
-            .doOnNext(metaData -> respondMyRights(request, responder, mailboxSession, metaData))
-            .concatMap(metaData -> request.getStatusDataItems().map(statusDataItems -> statusProcessor.sendStatus(retrieveMessageManager(metaData, mailboxSession), statusDataItems, responder, session, mailboxSession)).orElse(Mono.empty()))
+                respondMyRights(request, responder, mailboxSession, metaData);
+            },
+            request, session, responder, mailboxSession);
+    }
+
+    /**
+     * LIST-STATUS responses are computed by batches of mailboxes so that the mailbox manager can group storage
+     * reads. Each STATUS response is still sent right after the LIST response of its mailbox.
+     */
+    private <U> Mono<Void> respondInBatches(Flux<U> entries, Function<U, Optional<MailboxMetaData>> metaDataExtractor, Consumer<U> listResponder,
+                                            T request, ImapSession session, Responder responder, MailboxSession mailboxSession) {
+        return entries.buffer(STATUS_BATCH_SIZE)
+            .concatMap(batch -> computeStatuses(request, batch.stream().flatMap(entry -> metaDataExtractor.apply(entry).stream()).collect(ImmutableList.toImmutableList()), mailboxSession)
+                .doOnNext(statuses -> batch.forEach(entry -> {
+                    listResponder.accept(entry);
+                    metaDataExtractor.apply(entry)
+                        .flatMap(metaData -> Optional.ofNullable(statuses.get(metaData.getId())))
+                        .ifPresent(status -> statusProcessor.respond(status, responder, session));
+                })))
             .then();
     }
 
+    private Mono<Map<MailboxId, StatusProcessor.ComputedStatus>> computeStatuses(T request, List<MailboxMetaData> metaDatas, MailboxSession mailboxSession) {
+        return request.getStatusDataItems()
+            .map(statusDataItems -> {
+                List<MessageManager> mailboxes = metaDatas.stream()
+                    .map(metaData -> retrieveMessageManager(metaData, mailboxSession))
+                    .collect(ImmutableList.toImmutableList());
+                return statusProcessor.computeStatuses(mailboxes, statusDataItems, mailboxSession)
+                    .zipWithIterable(mailboxes)
+                    .collectMap(statusAndMailbox -> statusAndMailbox.getT2().getId(), Tuple2::getT1);
+            })
+            .orElse(Mono.just(ImmutableMap.of()));
+    }
+
     private MessageManager retrieveMessageManager(MailboxMetaData metaData, MailboxSession mailboxSession) {
         try {
             return getMailboxManager().getMailbox(metaData.getMailbox(), mailboxSession);
@@ -244,20 +277,12 @@ public class ListProcessor<T extends ListRequest> extends AbstractMailboxProcess
                     .map(searchedResultList -> searchedResultList.stream().collect(Collectors.toMap(MailboxMetaData::getPath, Function.identity()))),
                 Flux.from(Throwing.supplier(() -> subscriptionManager.subscriptionsReactive(mailboxSession)).get()).collectList())
             .map(tuple -> getListResponseForSelectSubscribed(session, tuple.getT1(), tuple.getT2(), request, mailboxSession, isRelative, mailboxQuery))
-            .flatMapIterable(list -> list)
-            .doOnNext(pathAndResponse -> responder.respond(pathAndResponse.getMiddle()))
-            .doOnNext(pathAndResponse -> pathAndResponse.getRight().ifPresent(mailboxMetaData -> respondMyRights(request, responder, mailboxSession, mailboxMetaData)))
-            .concatMap(pathAndResponse -> sendStatusWhenSubscribed(session, request, responder, mailboxSession, pathAndResponse))
-            .then();
-    }
-
-    private Mono<MailboxStatusResponse> sendStatusWhenSubscribed(ImapSession session, T request, Responder responder, MailboxSession mailboxSession,
-                                                                 Triple<MailboxPath, ListResponse, Optional<MailboxMetaData>> pathAndResponse) {
-        return pathAndResponse.getRight()
-            .map(metaData -> retrieveMessageManager(metaData, mailboxSession))
-            .flatMap(messageManager -> request.getStatusDataItems()
-                .map(statusDataItems -> statusProcessor.sendStatus(messageManager, statusDataItems, responder, session, mailboxSession)))
-            .orElse(Mono.empty());
+            .flatMap(responses -> respondInBatches(Flux.fromIterable(responses), Triple::getRight,
+                pathAndResponse -> {
+                    responder.respond(pathAndResponse.getMiddle());
+                    pathAndResponse.getRight().ifPresent(mailboxMetaData -> respondMyRights(request, responder, mailboxSession, mailboxMetaData));
+                },
+                request, session, responder, mailboxSession));
     }
 
     private List<Triple<MailboxPath, ListResponse, Optional<MailboxMetaData>>> getListResponseForSelectSubscribed(ImapSession session, Map<MailboxPath, MailboxMetaData> searchedResultMap, List<MailboxPath> allSubscribedSearch,
@@ -75,6 +75,10 @@ import reactor.core.publisher.Mono;
 public class StatusProcessor extends AbstractMailboxProcessor<StatusRequest> implements CapabilityImplementingProcessor {
     private static final Logger LOGGER = LoggerFactory.getLogger(StatusProcessor.class);
 
+    record ComputedStatus(MessageManager.MailboxMetaData metaData, MailboxStatusResponse response) {
+
+    }
+
     private ImapConfiguration imapConfiguration;
 
     @Inject
@@ -121,15 +125,30 @@ public class StatusProcessor extends AbstractMailboxProcessor<StatusRequest> imp
     }
 
     Mono<MailboxStatusResponse> sendStatus(MessageManager mailbox, StatusDataItems statusDataItems, Responder responder, ImapSession session, MailboxSession mailboxSession) {
-        return retrieveMetadata(mailbox, statusDataItems, mailboxSession)
-            .flatMap(metaData -> computeStatusResponse(mailbox, statusDataItems, metaData, mailboxSession)
-                .doOnNext(response -> {
-                    // Enable CONDSTORE as this is a CONDSTORE enabling command
-                    if (response.getHighestModSeq() != null) {
-                        condstoreEnablingCommand(session, responder, metaData, false);
-                    }
-                    responder.respond(response);
-                }));
+        return computeStatuses(ImmutableList.of(mailbox), statusDataItems, mailboxSession)
+            .next()
+            .doOnNext(status -> respond(status, responder, session))
+            .map(ComputedStatus::response);
+    }
+
+    /**
+     * Computes the status of several mailboxes, reading their meta data in a single batch.
+     *
+     * @return the statuses, in the order of the given mailboxes
+     */
+    Flux<ComputedStatus> computeStatuses(List<MessageManager> mailboxes, StatusDataItems statusDataItems, MailboxSession mailboxSession) {
+        return getMailboxManager().getMetaDataReactive(mailboxes, computeRecentMode(statusDataItems), mailboxSession, computeFetchGroup(statusDataItems))
+            .zipWithIterable(mailboxes)
+            .concatMap(metaDataAndMailbox -> computeStatusResponse(metaDataAndMailbox.getT2(), statusDataItems, metaDataAndMailbox.getT1(), mailboxSession)
+                .map(response -> new ComputedStatus(metaDataAndMailbox.getT1(), response)));
+    }
+
+    void respond(ComputedStatus status, Responder responder, ImapSession session) {
+        // Enable CONDSTORE as this is a CONDSTORE enabling command
+        if (status.response().getHighestModSeq() != null) {
+            condstoreEnablingCommand(session, responder, status.metaData(), false);
+        }
+        responder.respond(status.response());
     }
 
     private Mono<Void> logInitialRequest(MailboxPath mailboxPath) {
@@ -140,17 +159,6 @@ public class StatusProcessor extends AbstractMailboxProcessor<StatusRequest> imp
         }
     }
 
-    private Mono<MessageManager.MailboxMetaData> retrieveMetadata(MessageManager mailbox, StatusDataItems statusDataItems, MailboxSession mailboxSession) {
-        EnumSet<MessageManager.MailboxMetaData.Item> fetchGroup = computeFetchGroup(statusDataItems);
-        RecentMode recentMode = computeRecentMode(statusDataItems);
-
-        try {
-            return mailbox.getMetaDataReactive(recentMode, mailboxSession, fetchGroup);
-        } catch (MailboxException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
     private RecentMode computeRecentMode(StatusDataItems statusDataItems) {
         if (statusDataItems.isRecent()) {
             return RETRIEVE;
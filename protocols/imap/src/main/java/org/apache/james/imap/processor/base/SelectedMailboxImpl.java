@@ -33,6 +33,7 @@ import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.StampedLock;
 
 import jakarta.mail.Flags;
@@ -128,6 +129,8 @@ public class SelectedMailboxImpl implements SelectedMailbox, EventListener.React
     private final MailboxSession mailboxSession;
     private final UidMsnConverter uidMsnConverter;
     private final Set<MessageUid> recentUids = new TreeSet<>();
+    // Guards recent, expunged and flag update tracking. Unlike synchronized, waiting virtual threads do not pin their carrier
+    private final ReentrantLock lock = new ReentrantLock();
     private final Set<MessageUid> flagUpdateUids = new TreeSet<>();
     private final Set<MessageUid> expungedUids = new TreeSet<>();
     private final StampedLock applicableFlagsLock = new StampedLock();
@@ -201,12 +204,17 @@ public class SelectedMailboxImpl implements SelectedMailbox, EventListener.React
             .then();
     }
 
-    private synchronized void clearInternalStructures() {
-        uidMsnConverter.clear();
-        flagUpdateUids.clear();
+    private void clearInternalStructures() {
+        lock.lock();
+        try {
+            uidMsnConverter.clear();
+            flagUpdateUids.clear();
 
-        expungedUids.clear();
-        recentUids.clear();
+            expungedUids.clear();
+            recentUids.clear();
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
@@ -215,29 +223,49 @@ public class SelectedMailboxImpl implements SelectedMailbox, EventListener.React
     }
 
     @Override
-    public synchronized boolean removeRecent(MessageUid uid) {
-        final boolean result = recentUids.remove(uid);
-        if (result) {
-            recentUidRemoved.set(true);
+    public boolean removeRecent(MessageUid uid) {
+        lock.lock();
+        try {
+            final boolean result = recentUids.remove(uid);
+            if (result) {
+                recentUidRemoved.set(true);
+            }
+            return result;
+        } finally {
+            lock.unlock();
         }
-        return result;
     }
 
     @Override
-    public synchronized boolean addRecent(MessageUid uid) {
-        return recentUids.add(uid);
+    public boolean addRecent(MessageUid uid) {
+        lock.lock();
+        try {
+            return recentUids.add(uid);
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
-    public synchronized Collection<MessageUid> getRecent() {
-        checkExpungedRecents();
-        return new ArrayList<>(recentUids);
+    public Collection<MessageUid> getRecent() {
+        lock.lock();
+        try {
+            checkExpungedRecents();
+            return new ArrayList<>(recentUids);
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
-    public synchronized int recentCount() {
-        checkExpungedRecents();
-        return recentUids.size();
+    public int recentCount() {
+        lock.lock();
+        try {
+            checkExpungedRecents();
+            return recentUids.size();
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
@@ -258,8 +286,13 @@ public class SelectedMailboxImpl implements SelectedMailbox, EventListener.React
     }
 
     @Override
-    public synchronized boolean isRecent(MessageUid uid) {
-        return recentUids.contains(uid);
+    public boolean isRecent(MessageUid uid) {
+        lock.lock();
+        try {
+            return recentUids.contains(uid);
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
@@ -273,13 +306,18 @@ public class SelectedMailboxImpl implements SelectedMailbox, EventListener.React
     }
 
     @Override
-    public synchronized void resetEvents() {
-        sizeChanged.set(false);
-        flagUpdateUids.clear();
-        isDeletedByOtherSession.set(false);
-        long stamp = applicableFlagsLock.writeLock();
-        applicableFlags = applicableFlags.ackUpdates();
-        applicableFlagsLock.unlockWrite(stamp);
+    public void resetEvents() {
+        lock.lock();
+        try {
+            sizeChanged.set(false);
+            flagUpdateUids.clear();
+            isDeletedByOtherSession.set(false);
+            long stamp = applicableFlagsLock.writeLock();
+            applicableFlags = applicableFlags.ackUpdates();
+            applicableFlagsLock.unlockWrite(stamp);
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
@@ -305,8 +343,13 @@ public class SelectedMailboxImpl implements SelectedMailbox, EventListener.React
     }
     
     @Override
-    public synchronized void resetExpungedUids() {
-        expungedUids.clear();
+    public void resetExpungedUids() {
+        lock.lock();
+        try {
+            expungedUids.clear();
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -347,19 +390,29 @@ public class SelectedMailboxImpl implements SelectedMailbox, EventListener.React
      * Return a unmodifiable {@link Collection} of uids which have updated flags
      */
     @Override
-    public synchronized Collection<MessageUid> flagUpdateUids() {
-        // copy the TreeSet to fix possible
-        // java.util.ConcurrentModificationException
-        // See IMAP-278
-        return ImmutableSortedSet.copyOf(flagUpdateUids);
+    public Collection<MessageUid> flagUpdateUids() {
+        lock.lock();
+        try {
+            // copy the TreeSet to fix possible
+            // java.util.ConcurrentModificationException
+            // See IMAP-278
+            return ImmutableSortedSet.copyOf(flagUpdateUids);
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
-    public synchronized Collection<MessageUid> expungedUids() {
-        // copy the TreeSet to fix possible
-        // java.util.ConcurrentModificationException
-        // See IMAP-278
-        return ImmutableSortedSet.copyOf(expungedUids);
+    public Collection<MessageUid> expungedUids() {
+        lock.lock();
+        try {
+            // copy the TreeSet to fix possible
+            // java.util.ConcurrentModificationException
+            // See IMAP-278
+            return ImmutableSortedSet.copyOf(expungedUids);
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
@@ -389,10 +442,15 @@ public class SelectedMailboxImpl implements SelectedMailbox, EventListener.React
                 .flatMap(listener -> Mono.from(listener.reactiveEvent(event))));
     }
 
-    private synchronized void synchronizedEvent(Event event) {
-        if (event instanceof MailboxEvent) {
-            MailboxEvent mailboxEvent = (MailboxEvent) event;
-            mailboxEvent(mailboxEvent);
+    private void synchronizedEvent(Event event) {
+        lock.lock();
+        try {
+            if (event instanceof MailboxEvent) {
+                MailboxEvent mailboxEvent = (MailboxEvent) event;
+                mailboxEvent(mailboxEvent);
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
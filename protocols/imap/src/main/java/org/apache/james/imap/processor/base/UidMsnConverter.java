@@ -23,6 +23,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.NullableMessageSequenceNumber;
@@ -44,14 +45,21 @@ public class UidMsnConverter {
     @VisibleForTesting final LongArrayList uids;
     @VisibleForTesting final IntArrayList uidsAsInts;
     @VisibleForTesting boolean usesInts = true;
+    // Explicit lock rather than synchronized so that waiting virtual threads do not pin their carrier thread
+    private final ReentrantLock lock = new ReentrantLock();
 
     public UidMsnConverter() {
         this.uids = new LongArrayList();
         this.uidsAsInts = new IntArrayList();
     }
 
-    public synchronized void addAll(Collection<MessageUid> addedUids) {
-        addAllUnSynchronized(addedUids);
+    public void addAll(Collection<MessageUid> addedUids) {
+        lock.lock();
+        try {
+            addAllUnSynchronized(addedUids);
+        } finally {
+            lock.unlock();
+        }
     }
 
     private void addAllUnSynchronized(Collection<MessageUid> addedUids) {
@@ -127,8 +135,13 @@ public class UidMsnConverter {
         uidsAsInts.trim();
     }
 
-    public synchronized NullableMessageSequenceNumber getMsn(MessageUid uid) {
-        return getMsnUnsynchronized(uid);
+    public NullableMessageSequenceNumber getMsn(MessageUid uid) {
+        lock.lock();
+        try {
+            return getMsnUnsynchronized(uid);
+        } finally {
+            lock.unlock();
+        }
     }
 
     private NullableMessageSequenceNumber getMsnUnsynchronized(MessageUid uid) {
@@ -150,52 +163,82 @@ public class UidMsnConverter {
         }
     }
 
-    public synchronized Optional<MessageUid> getUid(int msn) {
-        if (usesInts) {
-            if (msn <= uidsAsInts.size() && msn > 0) {
-                return Optional.of(MessageUid.of(uidsAsInts.getInt(msn - 1)));
-            }
-        } else {
-            if (msn <= uids.size() && msn > 0) {
-                return Optional.of(MessageUid.of(uids.getLong(msn - 1)));
+    public Optional<MessageUid> getUid(int msn) {
+        lock.lock();
+        try {
+            if (usesInts) {
+                if (msn <= uidsAsInts.size() && msn > 0) {
+                    return Optional.of(MessageUid.of(uidsAsInts.getInt(msn - 1)));
+                }
+            } else {
+                if (msn <= uids.size() && msn > 0) {
+                    return Optional.of(MessageUid.of(uids.getLong(msn - 1)));
+                }
             }
+            return Optional.empty();
+        } finally {
+            lock.unlock();
         }
-        return Optional.empty();
     }
 
-    public synchronized Optional<MessageUid> getLastUid() {
-        if (uidsAsInts.isEmpty() && uids.isEmpty()) {
-            return Optional.empty();
+    public Optional<MessageUid> getLastUid() {
+        lock.lock();
+        try {
+            if (uidsAsInts.isEmpty() && uids.isEmpty()) {
+                return Optional.empty();
+            }
+            return getUid(getLastMsn());
+        } finally {
+            lock.unlock();
         }
-        return getUid(getLastMsn());
     }
 
-    public synchronized List<MessageUid> allUids() {
-        if (usesInts) {
-            return uidsAsInts.intStream()
-                .mapToObj(MessageUid::of)
-                .collect(ImmutableList.toImmutableList());
-        } else {
-            return uids.longStream()
-                .mapToObj(MessageUid::of)
-                .collect(ImmutableList.toImmutableList());
+    public List<MessageUid> allUids() {
+        lock.lock();
+        try {
+            if (usesInts) {
+                return uidsAsInts.intStream()
+                    .mapToObj(MessageUid::of)
+                    .collect(ImmutableList.toImmutableList());
+            } else {
+                return uids.longStream()
+                    .mapToObj(MessageUid::of)
+                    .collect(ImmutableList.toImmutableList());
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
-    public synchronized Optional<MessageUid> getFirstUid() {
-        return getUid(FIRST_MSN);
+    public Optional<MessageUid> getFirstUid() {
+        lock.lock();
+        try {
+            return getUid(FIRST_MSN);
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized int getNumMessage() {
-        if (usesInts) {
-            return uidsAsInts.size();
-        } else {
-            return uids.size();
+    public int getNumMessage() {
+        lock.lock();
+        try {
+            if (usesInts) {
+                return uidsAsInts.size();
+            } else {
+                return uids.size();
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
-    public synchronized void remove(MessageUid uid) {
-        removeUnsynchronized(uid);
+    public void remove(MessageUid uid) {
+        lock.lock();
+        try {
+            removeUnsynchronized(uid);
+        } finally {
+            lock.unlock();
+        }
     }
 
     private void removeUnsynchronized(MessageUid uid) {
@@ -215,23 +258,43 @@ public class UidMsnConverter {
         }
     }
 
-    public synchronized NullableMessageSequenceNumber getAndRemove(MessageUid uid) {
-        NullableMessageSequenceNumber result = getMsnUnsynchronized(uid);
-        removeUnsynchronized(uid);
-        return result;
+    public NullableMessageSequenceNumber getAndRemove(MessageUid uid) {
+        lock.lock();
+        try {
+            NullableMessageSequenceNumber result = getMsnUnsynchronized(uid);
+            removeUnsynchronized(uid);
+            return result;
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized boolean isEmpty() {
-        return uids.isEmpty() && uidsAsInts.isEmpty();
+    public boolean isEmpty() {
+        lock.lock();
+        try {
+            return uids.isEmpty() && uidsAsInts.isEmpty();
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized void clear() {
-        uids.clear();
-        uidsAsInts.clear();
+    public void clear() {
+        lock.lock();
+        try {
+            uids.clear();
+            uidsAsInts.clear();
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized void addUid(MessageUid uid) {
-        addUidUnSynchronized(uid);
+    public void addUid(MessageUid uid) {
+        lock.lock();
+        try {
+            addUidUnSynchronized(uid);
+        } finally {
+            lock.unlock();
+        }
     }
 
     private void addUidUnSynchronized(MessageUid uid) {
@@ -62,6 +62,9 @@ final class PartialFetchBodyElement implements BodyElement {
 
     @Override
     public InputStream getInputStream() throws IOException {
+        if (delegate instanceof ContentBodyElement contentBodyElement) {
+            return contentBodyElement.getInputStream(firstOctet, size());
+        }
         return new LimitingInputStream(delegate.getInputStream(), firstOctet, size());
     }
 
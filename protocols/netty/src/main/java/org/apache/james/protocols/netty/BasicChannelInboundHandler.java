@@ -30,6 +30,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
 
 import javax.net.ssl.SSLHandshakeException;
 
@@ -49,6 +50,8 @@ import org.apache.james.util.MDCBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.util.concurrent.MoreExecutors;
+
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
@@ -68,6 +71,12 @@ public class BasicChannelInboundHandler extends ChannelInboundHandlerAdapter imp
     public static final ProtocolSession.AttachmentKey<MDCBuilder> MDC_ATTRIBUTE_KEY = ProtocolSession.AttachmentKey.of("bound_MDC", MDCBuilder.class);
     public static final AttributeKey<CommandDetectionSession> SESSION_ATTRIBUTE_KEY =
             AttributeKey.valueOf("session");
+    private static final AttributeKey<Executor> REQUEST_EXECUTOR_ATTRIBUTE_KEY = AttributeKey.valueOf("requestExecutor");
+
+    @FunctionalInterface
+    private interface ChannelTask {
+        void run() throws Exception;
+    }
 
     protected final Protocol protocol;
     protected final ProtocolHandlerChain chain;
@@ -77,12 +86,24 @@ public class BasicChannelInboundHandler extends ChannelInboundHandlerAdapter imp
     private final Deque<ChannelInboundHandlerAdapter> behaviourOverrides = new ConcurrentLinkedDeque<>();
     private final Optional<LineHandler> lineHandler;
     protected final LinkedList<ProtocolHandlerResultHandler> resultHandlers;
+    private final Optional<Executor> requestExecutor;
 
     public BasicChannelInboundHandler(ProtocolMDCContextFactory mdcContextFactory, Protocol protocol) {
         this(mdcContextFactory, protocol, null, false);
     }
 
     public BasicChannelInboundHandler(ProtocolMDCContextFactory mdcContextFactory, Protocol protocol, Encryption secure, boolean proxyRequired) {
+        this(mdcContextFactory, protocol, secure, proxyRequired, Optional.empty());
+    }
+
+    /**
+     * @param requestExecutor when present, connection events are handled on this executor rather than on the
+     *                        Netty event executor, one at a time and in order for a given channel. This allows
+     *                        blocking handlers to run on a virtual thread per task executor.
+     */
+    public BasicChannelInboundHandler(ProtocolMDCContextFactory mdcContextFactory, Protocol protocol, Encryption secure, boolean proxyRequired,
+                                      Optional<Executor> requestExecutor) {
+        this.requestExecutor = requestExecutor;
         this.mdcContextFactory = mdcContextFactory;
         this.protocol = protocol;
         this.chain = protocol.getProtocolChain();
@@ -93,9 +114,13 @@ public class BasicChannelInboundHandler extends ChannelInboundHandlerAdapter imp
     }
 
 
-    @SuppressWarnings({ "rawtypes", "unchecked" })
     @Override
     public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        execute(ctx, () -> handleChannelActive(ctx));
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private void handleChannelActive(ChannelHandlerContext ctx) throws Exception {
         MDCBuilder boundMDC = mdcContextFactory.onBound(protocol, ctx);
         try (Closeable closeable = boundMDC.build()) {
             ProtocolSession session = createSession(ctx);
@@ -134,9 +159,13 @@ public class BasicChannelInboundHandler extends ChannelInboundHandlerAdapter imp
             .orElseGet(MDCBuilder::create);
     }
 
-    @SuppressWarnings({ "rawtypes", "unchecked" })
     @Override
     public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        execute(ctx, () -> handleChannelInactive(ctx));
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private void handleChannelInactive(ChannelHandlerContext ctx) throws Exception {
         try (Closeable closeable = mdc(ctx).build()) {
             List<DisconnectHandler> connectHandlers = chain.getHandlers(DisconnectHandler.class);
             ProtocolSession session = (ProtocolSession) ctx.channel().attr(SESSION_ATTRIBUTE_KEY).get();
@@ -164,9 +193,13 @@ public class BasicChannelInboundHandler extends ChannelInboundHandlerAdapter imp
     /**
      * Call the {@link LineHandler} 
      */
-    @SuppressWarnings({ "unchecked", "rawtypes" })
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        execute(ctx, () -> handleChannelRead(ctx, msg));
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private void handleChannelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
         if (msg instanceof HAProxyMessage) {
             handleHAProxyMessage(ctx, (HAProxyMessage) msg);
             return;
@@ -257,6 +290,10 @@ public class BasicChannelInboundHandler extends ChannelInboundHandlerAdapter imp
 
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+        execute(ctx, () -> handleException(ctx, cause));
+    }
+
+    private void handleException(ChannelHandlerContext ctx, Throwable cause) throws Exception {
         try (Closeable closeable = mdc(ctx).build()) {
             Channel channel = ctx.channel();
             ProtocolSession session = (ProtocolSession) ctx.channel().attr(SESSION_ATTRIBUTE_KEY).get();
@@ -290,6 +327,27 @@ public class BasicChannelInboundHandler extends ChannelInboundHandlerAdapter imp
         }
     }
 
+    private void execute(ChannelHandlerContext ctx, ChannelTask task) throws Exception {
+        if (requestExecutor.isEmpty()) {
+            task.run();
+            return;
+        }
+        channelExecutor(ctx).execute(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                // Not thrown on the event executor: route it through the pipeline so that it reaches exceptionCaught
+                ctx.pipeline().fireExceptionCaught(e);
+            }
+        });
+    }
+
+    private Executor channelExecutor(ChannelHandlerContext ctx) {
+        Executor channelExecutor = MoreExecutors.newSequentialExecutor(requestExecutor.get());
+        Executor previous = ctx.channel().attr(REQUEST_EXECUTOR_ATTRIBUTE_KEY).setIfAbsent(channelExecutor);
+        return Optional.ofNullable(previous).orElse(channelExecutor);
+    }
+
     private boolean isSslHandshkeException(Throwable cause) {
         return cause instanceof DecoderException &&
             cause.getCause() instanceof SSLHandshakeException;
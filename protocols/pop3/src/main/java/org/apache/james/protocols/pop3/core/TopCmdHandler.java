@@ -60,8 +60,9 @@ public class TopCmdHandler extends AbstractPOP3CommandHandler implements CapaCap
                 if (args.getLineCount().isEmpty()) {
                     return handleSyntaxError();
                 }
-                InputStream content = getMessageContent(session, data);
-                InputStream in = new CountingBodyInputStream(new CRLFTerminatedInputStream(new ExtraDotInputStream(content)), args.getLineCount().get());
+                int lineCount = args.getLineCount().get();
+                InputStream content = retrieveContent(session, data, lineCount);
+                InputStream in = new CountingBodyInputStream(new CRLFTerminatedInputStream(new ExtraDotInputStream(content)), lineCount);
                 return new POP3StreamResponse(POP3Response.OK_RESPONSE, "Message follows", in);
             }
 
@@ -91,10 +92,22 @@ public class TopCmdHandler extends AbstractPOP3CommandHandler implements CapaCap
                 () -> commandDelegate.handleMessageRequest(session, request)));
     }
 
+    private InputStream retrieveContent(POP3Session session, MessageMetaData data, int lineCount) throws IOException {
+        if (lineCount == 0) {
+            // Clients previewing messages only need headers: avoid loading the body
+            return getMessageHeadersContent(session, data);
+        }
+        return getMessageContent(session, data);
+    }
+
     protected InputStream getMessageContent(POP3Session session, MessageMetaData data) throws IOException {
         return session.getUserMailbox().getMessage(data.getUid());
     }
 
+    protected InputStream getMessageHeadersContent(POP3Session session, MessageMetaData data) throws IOException {
+        return session.getUserMailbox().getMessageHeaders(data.getUid());
+    }
+
     @Override
     public Set<String> getImplementedCapabilities(POP3Session session) {
         if (session.getHandlerState() == POP3Session.TRANSACTION) {
@@ -33,6 +33,20 @@ public interface Mailbox {
      */
     InputStream getMessage(String uid) throws IOException;
 
+    /**
+     * Return an {@link InputStream} starting with the message headers and the blank line
+     * separating them from the body, for the given <code>uid</code>.
+     *
+     * The returned stream might be followed by the body: callers only interested in headers
+     * must stop reading after the separating blank line. Implementations able to read headers
+     * without loading the body should override the default, which returns the full message.
+     *
+     * @exception IOException If message can not be found or is inaccessible
+     */
+    default InputStream getMessageHeaders(String uid) throws IOException {
+        return getMessage(uid);
+    }
+
     /**
      * Return a immutable {@link List} which holds the {@link MessageMetaData}
      * for all messages in the {@link Mailbox}
@@ -42,6 +42,7 @@ public class MemoryJamesConfiguration implements Configuration {
         private Optional<UsersRepositoryModuleChooser.Implementation> usersRepositoryImplementation;
         private Optional<Boolean> jmapEnabled;
         private Optional<Boolean> dropListsEnabled;
+        private Optional<Boolean> indexedSearchEnabled;
 
         private Builder() {
             rootDirectory = Optional.empty();
@@ -49,6 +50,7 @@ public class MemoryJamesConfiguration implements Configuration {
             usersRepositoryImplementation = Optional.empty();
             jmapEnabled = Optional.empty();
             dropListsEnabled = Optional.empty();
+            indexedSearchEnabled = Optional.empty();
         }
 
         public Builder workingDirectory(String path) {
@@ -94,6 +96,11 @@ public class MemoryJamesConfiguration implements Configuration {
             return this;
         }
 
+        public Builder enableIndexedSearch() {
+            this.indexedSearchEnabled = Optional.of(true);
+            return this;
+        }
+
         public MemoryJamesConfiguration build() {
             ConfigurationPath configurationPath = this.configurationPath.orElse(new ConfigurationPath(FileSystem.FILE_PROTOCOL_AND_CONF));
             JamesServerResourceLoader directories = new JamesServerResourceLoader(rootDirectory
@@ -130,11 +137,22 @@ public class MemoryJamesConfiguration implements Configuration {
                 }
             });
 
+            boolean indexedSearchEnabled = this.indexedSearchEnabled.orElseGet(() -> {
+                PropertiesProvider propertiesProvider = new PropertiesProvider(fileSystem, configurationPath);
+                try {
+                    return propertiesProvider.getConfiguration("search").getString("implementation", "scanning")
+                        .equalsIgnoreCase("indexed-scanning");
+                } catch (FileNotFoundException e) {
+                    return false;
+                } catch (ConfigurationException e) {
+                    throw new RuntimeException(e);
+                }
+            });
 
             return new MemoryJamesConfiguration(
                 configurationPath,
                 directories,
-                usersRepositoryChoice, jmapEnabled, dropListsEnabled);
+                usersRepositoryChoice, jmapEnabled, dropListsEnabled, indexedSearchEnabled);
         }
     }
 
@@ -147,15 +165,17 @@ public class MemoryJamesConfiguration implements Configuration {
     private final UsersRepositoryModuleChooser.Implementation usersRepositoryImplementation;
     private final boolean jmapEnabled;
     private final boolean dropListsEnabled;
+    private final boolean indexedSearchEnabled;
 
     public MemoryJamesConfiguration(ConfigurationPath configurationPath, JamesDirectoriesProvider directories,
                                     UsersRepositoryModuleChooser.Implementation usersRepositoryImplementation,
-                                    boolean jmapEnabled, boolean dropListsEnabled) {
+                                    boolean jmapEnabled, boolean dropListsEnabled, boolean indexedSearchEnabled) {
         this.configurationPath = configurationPath;
         this.directories = directories;
         this.usersRepositoryImplementation = usersRepositoryImplementation;
         this.jmapEnabled = jmapEnabled;
         this.dropListsEnabled = dropListsEnabled;
+        this.indexedSearchEnabled = indexedSearchEnabled;
     }
 
     @Override
@@ -179,4 +199,8 @@ public class MemoryJamesConfiguration implements Configuration {
     public boolean isDropListsEnabled() {
         return dropListsEnabled;
     }
+
+    public boolean isIndexedSearchEnabled() {
+        return indexedSearchEnabled;
+    }
 }
@@ -59,6 +59,7 @@ import org.apache.james.modules.server.MailRepositoriesRoutesModule;
 import org.apache.james.modules.server.MailboxRoutesModule;
 import org.apache.james.modules.server.MailboxesExportRoutesModule;
 import org.apache.james.modules.server.MailetContainerModule;
+import org.apache.james.modules.server.MailetContainerRoutesModule;
 import org.apache.james.modules.server.NoJwtModule;
 import org.apache.james.modules.server.RawPostDequeueDecoratorModule;
 import org.apache.james.modules.server.SieveRoutesModule;
@@ -91,6 +92,7 @@ public class MemoryJamesServerMain implements JamesServerMain {
         new MailboxRoutesModule(),
         new MailQueueRoutesModule(),
         new MailRepositoriesRoutesModule(),
+        new MailetContainerRoutesModule(),
         new SieveRoutesModule(),
         new UserIdentityModule(),
         new WebAdminMailOverWebModule());
@@ -165,7 +167,8 @@ public class MemoryJamesServerMain implements JamesServerMain {
 
         LOGGER.info("Loading configuration {}", configuration.toString());
         GuiceJamesServer server = createServer(configuration)
-            .combineWith(new FakeSearchMailboxModule(), new JMXServerModule())
+            .combineWith(new JMXServerModule())
+            .overrideWith(chooseSearchModule(configuration))
             .overrideWith(new RunArgumentsModule(args));
 
         JamesServerMain.main(server);
@@ -189,6 +192,13 @@ public class MemoryJamesServerMain implements JamesServerMain {
         };
     }
 
+    private static Module chooseSearchModule(MemoryJamesConfiguration configuration) {
+        if (configuration.isIndexedSearchEnabled()) {
+            return new IndexedSearchMailboxModule();
+        }
+        return new FakeSearchMailboxModule();
+    }
+
     private static Module chooseDropListsModule(MemoryJamesConfiguration configuration) {
         if (configuration.isDropListsEnabled()) {
             return Modules.combine(new MemoryDropListsModule(), new DropListsRoutesModule());
@@ -23,6 +23,7 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.security.GeneralSecurityException;
 import java.util.Collection;
 import java.util.Optional;
@@ -33,6 +34,7 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.apache.james.blob.api.BlobId;
 import org.apache.james.blob.api.BlobStoreDAO;
 import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.api.ByteRange;
 import org.apache.james.blob.api.ObjectNotFoundException;
 import org.apache.james.blob.api.ObjectStoreIOException;
 import org.apache.james.util.Size;
@@ -45,6 +47,7 @@ import com.google.common.io.ByteStreams;
 import com.google.common.io.CountingOutputStream;
 import com.google.common.io.FileBackedOutputStream;
 import com.google.crypto.tink.subtle.AesGcmHkdfStreaming;
+import com.google.crypto.tink.subtle.StreamSegmentDecrypter;
 
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
@@ -121,6 +124,84 @@ public class AESBlobStoreDAO implements BlobStoreDAO {
             }));
     }
 
+    /**
+     * Only the header and the ciphertext segments covering the range are read from the underlying BlobStoreDAO, and
+     * only these segments are decrypted and authenticated.
+     *
+     * One more octet than the covered segments is read in order to tell whether the last of them ends the blob, as the
+     * final segment is authenticated as such.
+     */
+    @Override
+    public Publisher<byte[]> readRange(BucketName bucketName, BlobId blobId, long offset, long length) {
+        ByteRange range = new ByteRange(offset, length);
+        long end = Math.min(range.end(), MAXIMUM_BLOB_SIZE);
+        Mono<byte[]> header = Mono.from(underlying.readRange(bucketName, blobId, 0, streamingAead.getHeaderLength()));
+
+        if (end <= range.offset()) {
+            return header.map(any -> new byte[0]);
+        }
+
+        int firstSegment = segmentOf(range.offset());
+        int lastSegment = segmentOf(end - 1);
+        long ciphertextStart = ciphertextStart(firstSegment);
+        long ciphertextEnd = ciphertextStart(lastSegment + 1) + 1;
+
+        return Mono.zip(header, Mono.from(underlying.readRange(bucketName, blobId, ciphertextStart, ciphertextEnd - ciphertextStart)))
+            .map(Throwing.function(headerAndSegments -> decryptRange(headerAndSegments.getT1(), headerAndSegments.getT2(),
+                firstSegment, lastSegment, new ByteRange(range.offset(), end - range.offset()))));
+    }
+
+    private byte[] decryptRange(byte[] header, byte[] ciphertext, int firstSegment, int lastSegment, ByteRange range) throws IOException {
+        long ciphertextStart = ciphertextStart(firstSegment);
+        long ciphertextEnd = ciphertextStart + ciphertext.length;
+
+        try (UnsynchronizedByteArrayOutputStream outputStream = UnsynchronizedByteArrayOutputStream.builder().get()) {
+            StreamSegmentDecrypter decrypter = streamingAead.newStreamSegmentDecrypter();
+            decrypter.init(ByteBuffer.wrap(header), PBKDF2StreamingAeadFactory.EMPTY_ASSOCIATED_DATA);
+            ByteBuffer plaintext = ByteBuffer.allocate(streamingAead.getPlaintextSegmentSize());
+
+            for (int segment = firstSegment; segment <= lastSegment && ciphertextStart(segment) < ciphertextEnd; segment++) {
+                long segmentEnd = Math.min(ciphertextStart(segment + 1), ciphertextEnd);
+                boolean isLastSegment = segmentEnd == ciphertextEnd;
+                int segmentOffset = (int) (ciphertextStart(segment) - ciphertextStart);
+
+                plaintext.clear();
+                decrypter.decryptSegment(ByteBuffer.wrap(ciphertext, segmentOffset, (int) (segmentEnd - ciphertextStart) - segmentOffset).slice(),
+                    segment, isLastSegment, plaintext);
+                plaintext.flip();
+
+                long plaintextStart = plaintextStart(segment);
+                long from = Math.max(range.offset(), plaintextStart);
+                long to = Math.min(range.end(), plaintextStart + plaintext.remaining());
+                if (to > from) {
+                    outputStream.write(plaintext.array(), (int) (from - plaintextStart), (int) (to - from));
+                }
+            }
+            return outputStream.toByteArray();
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Incorrect crypto setup", e);
+        }
+    }
+
+    private int segmentOf(long plaintextPosition) {
+        return Math.toIntExact((plaintextPosition + streamingAead.getCiphertextOffset()) / streamingAead.getPlaintextSegmentSize());
+    }
+
+    private long plaintextStart(int segment) {
+        if (segment == 0) {
+            return 0;
+        }
+        return (long) segment * streamingAead.getPlaintextSegmentSize() - streamingAead.getCiphertextOffset();
+    }
+
+    private long ciphertextStart(int segment) {
+        // The first segment is shortened by the header
+        if (segment == 0) {
+            return streamingAead.getCiphertextOffset();
+        }
+        return (long) segment * streamingAead.getCiphertextSegmentSize();
+    }
+
     @Override
     public Publisher<Void> save(BucketName bucketName, BlobId blobId, byte[] data) {
         Preconditions.checkNotNull(bucketName);
@@ -23,8 +23,11 @@ import static org.apache.james.blob.api.BlobStoreDAOFixture.SHORT_BYTEARRAY;
 import static org.apache.james.blob.api.BlobStoreDAOFixture.TEST_BLOB_ID;
 import static org.apache.james.blob.api.BlobStoreDAOFixture.TEST_BUCKET_NAME;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.io.ByteArrayInputStream;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
 
 import org.apache.james.blob.api.BlobStoreDAO;
 import org.apache.james.blob.api.BlobStoreDAOContract;
@@ -34,6 +37,7 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
 import com.google.common.io.ByteSource;
+import com.google.crypto.tink.subtle.AesGcmHkdfStreaming;
 
 import reactor.core.publisher.Mono;
 
@@ -53,6 +57,14 @@ class AESBlobStoreDAOTest implements BlobStoreDAOContract {
         testee = new AESBlobStoreDAO(underlying, CRYPTO_CONFIG);
     }
 
+    private static byte[] sample(int size) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) i;
+        }
+        return bytes;
+    }
+
     @Override
     public BlobStoreDAO testee() {
         return testee;
@@ -85,6 +97,45 @@ class AESBlobStoreDAOTest implements BlobStoreDAOContract {
         assertThat(bytes).isNotEqualTo(SHORT_BYTEARRAY);
     }
 
+    @Test
+    void readRangeShouldNotDecryptSegmentsOutsideTheRange() {
+        byte[] data = sample(20 * 1024);
+        Mono.from(testee.save(TEST_BUCKET_NAME, TEST_BLOB_ID, data)).block();
+
+        byte[] ciphertext = Mono.from(underlying.readBytes(TEST_BUCKET_NAME, TEST_BLOB_ID)).block();
+        ciphertext[ciphertext.length - 1] ^= 1;
+        Mono.from(underlying.save(TEST_BUCKET_NAME, TEST_BLOB_ID, ciphertext)).block();
+
+        byte[] bytes = Mono.from(testee.readRange(TEST_BUCKET_NAME, TEST_BLOB_ID, 5000, 6000)).block();
+
+        assertThat(bytes).isEqualTo(Arrays.copyOfRange(data, 5000, 11000));
+    }
+
+    @Test
+    void readRangeShouldAuthenticateTheSegmentsOfTheRange() {
+        byte[] data = sample(20 * 1024);
+        Mono.from(testee.save(TEST_BUCKET_NAME, TEST_BLOB_ID, data)).block();
+
+        byte[] ciphertext = Mono.from(underlying.readBytes(TEST_BUCKET_NAME, TEST_BLOB_ID)).block();
+        ciphertext[ciphertext.length - 1] ^= 1;
+        Mono.from(underlying.save(TEST_BUCKET_NAME, TEST_BLOB_ID, ciphertext)).block();
+
+        assertThatThrownBy(() -> Mono.from(testee.readRange(TEST_BUCKET_NAME, TEST_BLOB_ID, data.length - 10, 10)).block())
+            .hasRootCauseInstanceOf(GeneralSecurityException.class);
+    }
+
+    @Test
+    void readRangeShouldSupportBlobsEndingOnASegmentBoundary() {
+        AesGcmHkdfStreaming streamingAead = PBKDF2StreamingAeadFactory.newAesGcmHkdfStreaming(CRYPTO_CONFIG);
+        int firstSegmentSize = streamingAead.getPlaintextSegmentSize() - streamingAead.getCiphertextOffset();
+        byte[] data = sample(firstSegmentSize + streamingAead.getPlaintextSegmentSize());
+        Mono.from(testee.save(TEST_BUCKET_NAME, TEST_BLOB_ID, data)).block();
+
+        byte[] bytes = Mono.from(testee.readRange(TEST_BUCKET_NAME, TEST_BLOB_ID, firstSegmentSize - 10, data.length)).block();
+
+        assertThat(bytes).isEqualTo(Arrays.copyOfRange(data, firstSegmentSize - 10, data.length));
+    }
+
     @Override
     @Disabled("Not supported by the Memory blob store")
     public void listBucketsShouldReturnBucketsWithNoBlob() {
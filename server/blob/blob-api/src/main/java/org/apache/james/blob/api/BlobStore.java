@@ -25,6 +25,8 @@ import org.reactivestreams.Publisher;
 
 import com.google.common.io.ByteSource;
 
+import reactor.core.publisher.Mono;
+
 public interface BlobStore {
     String DEFAULT_BUCKET_NAME_QUALIFIER = "defaultBucket";
 
@@ -62,6 +64,18 @@ public interface BlobStore {
         return readReactive(bucketName, blobId);
     }
 
+    /**
+     * Reads {@code length} octets of a blob, starting at {@code offset}.
+     *
+     * @see BlobStoreDAO#readRange(BucketName, BlobId, long, long)
+     */
+    default Publisher<byte[]> readRange(BucketName bucketName, BlobId blobId, long offset, long length) {
+        ByteRange range = new ByteRange(offset, length);
+
+        return Mono.from(readBytes(bucketName, blobId))
+            .map(range::slice);
+    }
+
     BucketName getDefaultBucketName();
 
     Publisher<BucketName> listBuckets();
@@ -16,9 +16,8 @@
  * specific language governing permissions and limitations      *
  * under the License.                                           *
  ****************************************************************/
-package org.apache.james.blob.cassandra.cache;
+package org.apache.james.blob.api;
 
-import org.apache.james.blob.api.BlobId;
 import org.reactivestreams.Publisher;
 
 public interface BlobStoreCache {
@@ -74,6 +74,23 @@ public interface BlobStoreDAO {
      */
     Publisher<byte[]> readBytes(BucketName bucketName, BlobId blobId);
 
+    /**
+     * Reads {@code length} octets of a Blob, starting at {@code offset}.
+     *
+     * The result is truncated when the range exceeds the blob size, and empty when the offset is beyond its end.
+     * This default implementation reads the whole blob: implementations should rely on their storage ranged reads.
+     *
+     * @return a Mono containing the requested octets or
+     *  an ObjectNotFoundException in its error channel when the blobId or the bucket is not found
+     *  or an IOObjectStoreException when an unexpected IO error occurs
+     */
+    default Publisher<byte[]> readRange(BucketName bucketName, BlobId blobId, long offset, long length) {
+        ByteRange range = new ByteRange(offset, length);
+
+        return Mono.from(readBytes(bucketName, blobId))
+            .map(range::slice);
+    }
+
 
     /**
      * Save the blob with the provided blob id, and overwrite the previous blob with the same id if it already exists
@@ -0,0 +1,54 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.api;
+
+import java.util.Arrays;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A range of octets within a blob: {@code length} octets starting at {@code offset}.
+ *
+ * Ranges may exceed the blob size, in which case reads return the octets actually available.
+ */
+public record ByteRange(long offset, long length) {
+    public ByteRange {
+        Preconditions.checkArgument(offset >= 0, "'offset' should not be negative");
+        Preconditions.checkArgument(length >= 0, "'length' should not be negative");
+    }
+
+    /**
+     * @return the position following the last octet of this range
+     */
+    public long end() {
+        long end = offset + length;
+        if (end < 0) {
+            return Long.MAX_VALUE;
+        }
+        return end;
+    }
+
+    public byte[] slice(byte[] bytes) {
+        if (offset >= bytes.length) {
+            return new byte[0];
+        }
+        return Arrays.copyOfRange(bytes, (int) offset, (int) Math.min(bytes.length, end()));
+    }
+}
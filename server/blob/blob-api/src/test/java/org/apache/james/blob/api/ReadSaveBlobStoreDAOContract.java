@@ -171,6 +171,97 @@ public interface ReadSaveBlobStoreDAOContract {
         assertThat(bytes).isEqualTo(TWELVE_MEGABYTES);
     }
 
+    @Test
+    default void readRangeShouldThrowWhenNotExisting() {
+        BlobStoreDAO store = testee();
+
+        assertThatThrownBy(() -> Mono.from(store.readRange(TEST_BUCKET_NAME, new TestBlobId("unknown"), 0, 10)).block())
+            .isExactlyInstanceOf(ObjectNotFoundException.class);
+    }
+
+    @Test
+    default void readRangeShouldRejectNegativeOffset() {
+        BlobStoreDAO store = testee();
+
+        assertThatThrownBy(() -> Mono.from(store.readRange(TEST_BUCKET_NAME, TEST_BLOB_ID, -1, 10)).block())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    default void readRangeShouldRejectNegativeLength() {
+        BlobStoreDAO store = testee();
+
+        assertThatThrownBy(() -> Mono.from(store.readRange(TEST_BUCKET_NAME, TEST_BLOB_ID, 0, -1)).block())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    default void readRangeShouldReturnRequestedOctets() {
+        BlobStoreDAO store = testee();
+
+        Mono.from(store.save(TEST_BUCKET_NAME, TEST_BLOB_ID, ELEVEN_KILOBYTES)).block();
+
+        byte[] bytes = Mono.from(store.readRange(TEST_BUCKET_NAME, TEST_BLOB_ID, 5000, 3000)).block();
+
+        assertThat(bytes).isEqualTo(Arrays.copyOfRange(ELEVEN_KILOBYTES, 5000, 8000));
+    }
+
+    @Test
+    default void readRangeShouldBeTruncatedWhenExceedingBlobSize() {
+        BlobStoreDAO store = testee();
+
+        Mono.from(store.save(TEST_BUCKET_NAME, TEST_BLOB_ID, SHORT_BYTEARRAY)).block();
+
+        byte[] bytes = Mono.from(store.readRange(TEST_BUCKET_NAME, TEST_BLOB_ID, 2, 1000)).block();
+
+        assertThat(bytes).isEqualTo(Arrays.copyOfRange(SHORT_BYTEARRAY, 2, SHORT_BYTEARRAY.length));
+    }
+
+    @Test
+    default void readRangeShouldReturnTheRestOfTheBlobWhenOpenEnded() {
+        BlobStoreDAO store = testee();
+
+        Mono.from(store.save(TEST_BUCKET_NAME, TEST_BLOB_ID, ELEVEN_KILOBYTES)).block();
+
+        byte[] bytes = Mono.from(store.readRange(TEST_BUCKET_NAME, TEST_BLOB_ID, 5000, Long.MAX_VALUE)).block();
+
+        assertThat(bytes).isEqualTo(Arrays.copyOfRange(ELEVEN_KILOBYTES, 5000, ELEVEN_KILOBYTES.length));
+    }
+
+    @Test
+    default void readRangeShouldReturnEmptyWhenOffsetExceedsBlobSize() {
+        BlobStoreDAO store = testee();
+
+        Mono.from(store.save(TEST_BUCKET_NAME, TEST_BLOB_ID, SHORT_BYTEARRAY)).block();
+
+        byte[] bytes = Mono.from(store.readRange(TEST_BUCKET_NAME, TEST_BLOB_ID, 1000, 10)).block();
+
+        assertThat(bytes).isEmpty();
+    }
+
+    @Test
+    default void readRangeShouldReturnEmptyWhenZeroLength() {
+        BlobStoreDAO store = testee();
+
+        Mono.from(store.save(TEST_BUCKET_NAME, TEST_BLOB_ID, SHORT_BYTEARRAY)).block();
+
+        byte[] bytes = Mono.from(store.readRange(TEST_BUCKET_NAME, TEST_BLOB_ID, 1, 0)).block();
+
+        assertThat(bytes).isEmpty();
+    }
+
+    @Test
+    default void readRangeShouldReturnOctetsOfBigBlobs() {
+        BlobStoreDAO store = testee();
+
+        Mono.from(store.save(TEST_BUCKET_NAME, TEST_BLOB_ID, TWELVE_MEGABYTES)).block();
+
+        int offset = 5 * 1024 * 1024 + 17;
+        byte[] bytes = Mono.from(store.readRange(TEST_BUCKET_NAME, TEST_BLOB_ID, offset, 2 * 1024 * 1024)).block();
+
+        assertThat(bytes).isEqualTo(Arrays.copyOfRange(TWELVE_MEGABYTES, offset, offset + 2 * 1024 * 1024));
+    }
+
     @Test
     default void readStreamShouldThrowWhenNotExisting() {
         BlobStoreDAO store = testee();
@@ -37,6 +37,7 @@ import org.apache.james.blob.api.BlobId;
 import org.apache.james.blob.api.BlobStore;
 import org.apache.james.blob.api.BlobStoreDAO;
 import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.api.ByteRange;
 import org.apache.james.blob.api.ObjectNotFoundException;
 import org.apache.james.blob.api.ObjectStoreIOException;
 import org.apache.james.metrics.api.Metric;
@@ -113,6 +114,36 @@ public class CassandraBlobStoreDAO implements BlobStoreDAO {
             .map(this::byteBuffersToBytesArray);
     }
 
+    @Override
+    public Mono<byte[]> readRange(BucketName bucketName, BlobId blobId, long offset, long length) {
+        ByteRange range = new ByteRange(offset, length);
+
+        // Parts do not have a fixed size: stream them and stop once the range is covered
+        return readBlobParts(bucketName, blobId)
+            .scan(new PositionedPart(0, ByteBuffer.allocate(0)), (previous, part) -> new PositionedPart(previous.end(), part))
+            .skip(1)
+            .takeUntil(part -> part.end() >= range.end())
+            .filter(part -> part.end() > range.offset())
+            .map(part -> part.slice(range))
+            .collectList()
+            .map(this::byteBuffersToBytesArray);
+    }
+
+    private record PositionedPart(long start, ByteBuffer content) {
+        long end() {
+            return start + content.remaining();
+        }
+
+        ByteBuffer slice(ByteRange range) {
+            ByteBuffer slice = content.duplicate();
+            int to = (int) (Math.min(end(), range.end()) - start);
+            int from = (int) Math.min(Math.max(start, range.offset()) - start, to);
+            slice.limit(slice.position() + to);
+            slice.position(slice.position() + from);
+            return slice;
+        }
+    }
+
     @Override
     public Mono<Void> save(BucketName bucketName, BlobId blobId, byte[] data) {
         Preconditions.checkNotNull(data);
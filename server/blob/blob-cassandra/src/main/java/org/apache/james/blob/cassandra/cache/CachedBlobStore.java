@@ -33,6 +33,7 @@ import jakarta.inject.Named;
 import org.apache.commons.io.IOUtils;
 import org.apache.james.blob.api.BlobId;
 import org.apache.james.blob.api.BlobStore;
+import org.apache.james.blob.api.BlobStoreCache;
 import org.apache.james.blob.api.BucketName;
 import org.apache.james.blob.api.ObjectNotFoundException;
 import org.apache.james.blob.api.ObjectStoreIOException;
@@ -253,6 +254,12 @@ public class CachedBlobStore implements BlobStore {
                     .orElse(Mono.just(blobId))));
     }
 
+    @Override
+    public Publisher<byte[]> readRange(BucketName bucketName, BlobId blobId, long offset, long length) {
+        // Only small blobs are cached: ranged reads target the backend
+        return backend.readRange(bucketName, blobId, offset, length);
+    }
+
     @Override
     public BucketName getDefaultBucketName() {
         return backend.getDefaultBucketName();
@@ -26,6 +26,8 @@ import java.time.Duration;
 import org.apache.james.backends.cassandra.CassandraCluster;
 import org.apache.james.backends.cassandra.CassandraClusterExtension;
 import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BlobStoreCache;
+import org.apache.james.blob.api.BlobStoreCacheContract;
 import org.apache.james.blob.api.HashBlobId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
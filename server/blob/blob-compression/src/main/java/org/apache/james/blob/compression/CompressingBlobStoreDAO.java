@@ -0,0 +1,361 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.compression;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BlobStoreDAO;
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.api.ObjectNotFoundException;
+import org.apache.james.blob.api.ObjectStoreIOException;
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.metrics.api.TimeMetric;
+import org.reactivestreams.Publisher;
+
+import com.github.fge.lambdas.Throwing;
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import com.google.common.base.Preconditions;
+import com.google.common.io.ByteSource;
+import com.google.common.io.CountingOutputStream;
+import com.google.common.io.FileBackedOutputStream;
+import com.google.common.primitives.Bytes;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Compresses blobs of the underlying {@link BlobStoreDAO} using zstd.
+ *
+ * Stored blobs start with a frame header: {@link #MAGIC} followed by a codec octet, and for dictionary based
+ * compression the id of the dictionary. Blobs without this header are returned as is, allowing to enable compression
+ * on a store already holding uncompressed blobs.
+ */
+public class CompressingBlobStoreDAO implements BlobStoreDAO {
+    static final byte[] MAGIC = {(byte) 0xCE, 'J', 'B', 'C'};
+    static final byte RAW = 0;
+    static final byte ZSTD = 1;
+    static final byte ZSTD_DICTIONARY = 2;
+
+    static final String COMPRESS_TIMER_NAME = "blobStore:compression:compress";
+    static final String DECOMPRESS_TIMER_NAME = "blobStore:compression:decompress";
+    static final String ORIGINAL_SIZE_METRIC_NAME = "blobStore:compression:originalSize";
+    static final String STORED_SIZE_METRIC_NAME = "blobStore:compression:storedSize";
+    static final String RAW_BLOBS_METRIC_NAME = "blobStore:compression:rawBlobs";
+
+    private static final byte[] RAW_HEADER = Bytes.concat(MAGIC, new byte[] {RAW});
+    private static final int MAXIMUM_HEADER_LENGTH = MAGIC.length + 1 + Integer.BYTES;
+    private static final int FILE_THRESHOLD = 100 * 1024;
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private record Encoded(FileBackedOutputStream content, long size) {
+        ByteSource asByteSource() {
+            ByteSource byteSource = content.asByteSource();
+            return new ByteSource() {
+                @Override
+                public InputStream openStream() throws IOException {
+                    return byteSource.openStream();
+                }
+
+                @Override
+                public com.google.common.base.Optional<Long> sizeIfKnown() {
+                    return com.google.common.base.Optional.of(size);
+                }
+
+                @Override
+                public long size() {
+                    return size;
+                }
+            };
+        }
+    }
+
+    private final BlobStoreDAO underlying;
+    private final CompressionConfiguration configuration;
+    private final MetricFactory metricFactory;
+    private final Metric originalSize;
+    private final Metric storedSize;
+    private final Metric rawBlobs;
+    private final Optional<ZstdDictCompress> compressionDictionary;
+    private final Optional<ZstdDictDecompress> decompressionDictionary;
+    private final byte[] compressedHeader;
+
+    public CompressingBlobStoreDAO(BlobStoreDAO underlying, CompressionConfiguration configuration, MetricFactory metricFactory) {
+        this.underlying = underlying;
+        this.configuration = configuration;
+        this.metricFactory = metricFactory;
+        this.originalSize = metricFactory.generate(ORIGINAL_SIZE_METRIC_NAME);
+        this.storedSize = metricFactory.generate(STORED_SIZE_METRIC_NAME);
+        this.rawBlobs = metricFactory.generate(RAW_BLOBS_METRIC_NAME);
+        this.compressionDictionary = configuration.getDictionary().map(dictionary -> dictionary.forCompression(configuration.getLevel()));
+        this.decompressionDictionary = configuration.getDictionary().map(CompressionDictionary::forDecompression);
+        this.compressedHeader = configuration.getDictionary()
+            .map(dictionary -> ByteBuffer.allocate(MAXIMUM_HEADER_LENGTH)
+                .put(MAGIC)
+                .put(ZSTD_DICTIONARY)
+                .putInt(dictionary.id())
+                .array())
+            .orElse(Bytes.concat(MAGIC, new byte[] {ZSTD}));
+    }
+
+    @Override
+    public InputStream read(BucketName bucketName, BlobId blobId) throws ObjectStoreIOException, ObjectNotFoundException {
+        try {
+            return decode(underlying.read(bucketName, blobId));
+        } catch (IOException e) {
+            throw new ObjectStoreIOException("Error reading blob " + blobId.asString(), e);
+        }
+    }
+
+    @Override
+    public Publisher<InputStream> readReactive(BucketName bucketName, BlobId blobId) {
+        return Mono.from(underlying.readReactive(bucketName, blobId))
+            .map(Throwing.function(this::decode));
+    }
+
+    @Override
+    public Publisher<byte[]> readBytes(BucketName bucketName, BlobId blobId) {
+        return Mono.from(underlying.readBytes(bucketName, blobId))
+            .map(Throwing.function(this::decode));
+    }
+
+    private byte[] decode(byte[] stored) throws IOException {
+        if (!startsWithMagic(stored)) {
+            return stored;
+        }
+        TimeMetric timer = metricFactory.timer(DECOMPRESS_TIMER_NAME);
+        try (InputStream inputStream = decode(new ByteArrayInputStream(stored))) {
+            return inputStream.readAllBytes();
+        } finally {
+            timer.stopAndPublish();
+        }
+    }
+
+    private InputStream decode(InputStream stored) throws IOException {
+        BufferedInputStream inputStream = new BufferedInputStream(stored);
+        inputStream.mark(MAXIMUM_HEADER_LENGTH);
+        if (!Arrays.equals(inputStream.readNBytes(MAGIC.length), MAGIC)) {
+            inputStream.reset();
+            return inputStream;
+        }
+        int codec = inputStream.read();
+        switch (codec) {
+            case RAW:
+                return inputStream;
+            case ZSTD:
+                return new ZstdInputStream(inputStream);
+            case ZSTD_DICTIONARY:
+                int dictionaryId = new DataInputStream(inputStream).readInt();
+                return new ZstdInputStream(inputStream)
+                    .setDict(decompressionDictionary(dictionaryId));
+            default:
+                throw new IOException("Unknown compression codec " + codec);
+        }
+    }
+
+    private ZstdDictDecompress decompressionDictionary(int dictionaryId) throws IOException {
+        boolean matches = configuration.getDictionary()
+            .map(dictionary -> dictionary.id() == dictionaryId)
+            .orElse(false);
+        if (!matches) {
+            throw new IOException("Blob was compressed with unknown dictionary " + Integer.toUnsignedString(dictionaryId));
+        }
+        return decompressionDictionary.get();
+    }
+
+    @Override
+    public Publisher<Void> save(BucketName bucketName, BlobId blobId, byte[] data) {
+        Preconditions.checkNotNull(bucketName);
+        Preconditions.checkNotNull(blobId);
+        Preconditions.checkNotNull(data);
+
+        return Mono.fromCallable(() -> encode(data))
+            .flatMap(encoded -> Mono.from(underlying.save(bucketName, blobId, encoded)));
+    }
+
+    private byte[] encode(byte[] data) {
+        if (data.length >= configuration.getThreshold()) {
+            byte[] compressed = compress(data);
+            if (compressed.length < data.length) {
+                recordSizes(data.length, compressed.length);
+                return compressed;
+            }
+        }
+        return encodeRaw(data);
+    }
+
+    private byte[] compress(byte[] data) {
+        TimeMetric timer = metricFactory.timer(COMPRESS_TIMER_NAME);
+        try {
+            byte[] compressed = compressionDictionary
+                .map(dictionary -> Zstd.compress(data, dictionary))
+                .orElseGet(() -> Zstd.compress(data, configuration.getLevel()));
+            return Bytes.concat(compressedHeader, compressed);
+        } finally {
+            timer.stopAndPublish();
+        }
+    }
+
+    private byte[] encodeRaw(byte[] data) {
+        rawBlobs.increment();
+        if (startsWithMagic(data)) {
+            // Avoid mistaking these raw octets for a frame header upon reads
+            byte[] encoded = Bytes.concat(RAW_HEADER, data);
+            recordSizes(data.length, encoded.length);
+            return encoded;
+        }
+        recordSizes(data.length, data.length);
+        return data;
+    }
+
+    @Override
+    public Publisher<Void> save(BucketName bucketName, BlobId blobId, InputStream inputStream) {
+        Preconditions.checkNotNull(bucketName);
+        Preconditions.checkNotNull(blobId);
+        Preconditions.checkNotNull(inputStream);
+
+        return Mono.usingWhen(
+                Mono.fromCallable(() -> encode(inputStream)),
+                encoded -> Mono.from(underlying.save(bucketName, blobId, encoded.asByteSource())),
+                Throwing.function(encoded -> Mono.fromRunnable(Throwing.runnable(encoded.content()::reset)).subscribeOn(Schedulers.boundedElastic())))
+            .subscribeOn(Schedulers.boundedElastic())
+            .onErrorMap(e -> new ObjectStoreIOException("Exception occurred while saving input stream", e));
+    }
+
+    private Encoded encode(InputStream inputStream) throws IOException {
+        byte[] head = inputStream.readNBytes(Math.max(configuration.getThreshold(), MAGIC.length));
+        FileBackedOutputStream compressed = new FileBackedOutputStream(FILE_THRESHOLD);
+        FileBackedOutputStream raw = new FileBackedOutputStream(FILE_THRESHOLD);
+        try (CountingOutputStream compressedOutputStream = new CountingOutputStream(compressed);
+             CountingOutputStream rawOutputStream = new CountingOutputStream(raw)) {
+            if (head.length < configuration.getThreshold()) {
+                rawOutputStream.write(encodeRaw(head));
+                return new Encoded(raw, rawOutputStream.getCount());
+            }
+            // Raw octets are kept aside as we only know upon completion whether compression pays off
+            long read = compress(head, inputStream, compressedOutputStream, rawOutputStream);
+            if (compressedOutputStream.getCount() < read) {
+                raw.reset();
+                recordSizes(read, compressedOutputStream.getCount());
+                return new Encoded(compressed, compressedOutputStream.getCount());
+            }
+            compressed.reset();
+            rawBlobs.increment();
+            recordSizes(read, rawOutputStream.getCount());
+            return new Encoded(raw, rawOutputStream.getCount());
+        } catch (IOException e) {
+            compressed.reset();
+            raw.reset();
+            throw e;
+        }
+    }
+
+    private long compress(byte[] head, InputStream inputStream, CountingOutputStream compressedOutputStream, CountingOutputStream rawOutputStream) throws IOException {
+        TimeMetric timer = metricFactory.timer(COMPRESS_TIMER_NAME);
+        compressedOutputStream.write(compressedHeader);
+        if (startsWithMagic(head)) {
+            // Avoid mistaking these raw octets for a frame header upon reads
+            rawOutputStream.write(RAW_HEADER);
+        }
+        try (ZstdOutputStream compressingStream = compressingStream(compressedOutputStream)) {
+            compressingStream.write(head);
+            rawOutputStream.write(head);
+            long read = head.length;
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int length;
+            while ((length = inputStream.read(buffer)) != -1) {
+                compressingStream.write(buffer, 0, length);
+                rawOutputStream.write(buffer, 0, length);
+                read += length;
+            }
+            return read;
+        } finally {
+            timer.stopAndPublish();
+        }
+    }
+
+    private ZstdOutputStream compressingStream(CountingOutputStream outputStream) throws IOException {
+        if (compressionDictionary.isPresent()) {
+            return new ZstdOutputStream(outputStream)
+                .setDict(compressionDictionary.get());
+        }
+        return new ZstdOutputStream(outputStream, configuration.getLevel());
+    }
+
+    @Override
+    public Publisher<Void> save(BucketName bucketName, BlobId blobId, ByteSource content) {
+        Preconditions.checkNotNull(bucketName);
+        Preconditions.checkNotNull(blobId);
+        Preconditions.checkNotNull(content);
+
+        return Mono.using(content::openStream,
+            in -> Mono.from(save(bucketName, blobId, in)),
+            Throwing.consumer(InputStream::close))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private boolean startsWithMagic(byte[] data) {
+        return data.length >= MAGIC.length
+            && Arrays.equals(data, 0, MAGIC.length, MAGIC, 0, MAGIC.length);
+    }
+
+    private void recordSizes(long original, long stored) {
+        originalSize.add(Math.toIntExact(Math.min(original, Integer.MAX_VALUE)));
+        storedSize.add(Math.toIntExact(Math.min(stored, Integer.MAX_VALUE)));
+    }
+
+    @Override
+    public Publisher<Void> delete(BucketName bucketName, BlobId blobId) {
+        return underlying.delete(bucketName, blobId);
+    }
+
+    @Override
+    public Publisher<Void> delete(BucketName bucketName, Collection<BlobId> blobIds) {
+        return underlying.delete(bucketName, blobIds);
+    }
+
+    @Override
+    public Publisher<Void> deleteBucket(BucketName bucketName) {
+        return underlying.deleteBucket(bucketName);
+    }
+
+    @Override
+    public Publisher<BucketName> listBuckets() {
+        return underlying.listBuckets();
+    }
+
+    @Override
+    public Publisher<BlobId> listBlobs(BucketName bucketName) {
+        return underlying.listBlobs(bucketName);
+    }
+}
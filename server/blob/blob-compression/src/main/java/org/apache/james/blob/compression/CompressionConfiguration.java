@@ -0,0 +1,110 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.compression;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import com.github.luben.zstd.Zstd;
+import com.google.common.base.Preconditions;
+
+public class CompressionConfiguration {
+    public static final int DEFAULT_THRESHOLD = 1024;
+    public static final int DEFAULT_LEVEL = Zstd.defaultCompressionLevel();
+
+    public static class Builder {
+        private Optional<Integer> threshold = Optional.empty();
+        private Optional<Integer> level = Optional.empty();
+        private Optional<CompressionDictionary> dictionary = Optional.empty();
+
+        /**
+         * Blobs smaller than this size (in octets) are stored raw.
+         */
+        public Builder threshold(int threshold) {
+            Preconditions.checkArgument(threshold >= 0, "'threshold' should not be negative");
+            this.threshold = Optional.of(threshold);
+            return this;
+        }
+
+        public Builder level(int level) {
+            Preconditions.checkArgument(level >= Zstd.minCompressionLevel() && level <= Zstd.maxCompressionLevel(),
+                "'level' should be between %s and %s", Zstd.minCompressionLevel(), Zstd.maxCompressionLevel());
+            this.level = Optional.of(level);
+            return this;
+        }
+
+        public Builder dictionary(CompressionDictionary dictionary) {
+            this.dictionary = Optional.of(dictionary);
+            return this;
+        }
+
+        public CompressionConfiguration build() {
+            return new CompressionConfiguration(
+                threshold.orElse(DEFAULT_THRESHOLD),
+                level.orElse(DEFAULT_LEVEL),
+                dictionary);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final CompressionConfiguration DEFAULT = builder().build();
+
+    private final int threshold;
+    private final int level;
+    private final Optional<CompressionDictionary> dictionary;
+
+    private CompressionConfiguration(int threshold, int level, Optional<CompressionDictionary> dictionary) {
+        this.threshold = threshold;
+        this.level = level;
+        this.dictionary = dictionary;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public Optional<CompressionDictionary> getDictionary() {
+        return dictionary;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof CompressionConfiguration) {
+            CompressionConfiguration that = (CompressionConfiguration) o;
+
+            return Objects.equals(this.threshold, that.threshold)
+                && Objects.equals(this.level, that.level)
+                && Objects.equals(this.dictionary.map(CompressionDictionary::id), that.dictionary.map(CompressionDictionary::id));
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(threshold, level, dictionary.map(CompressionDictionary::id));
+    }
+}
@@ -0,0 +1,79 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.compression;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.google.common.base.Preconditions;
+
+/**
+ * A zstd dictionary, typically trained offline on a sample of header blobs.
+ *
+ * Dictionaries are identified by the id zstd embeds in them: blobs compressed with a dictionary record this id so
+ * that reading them with another dictionary fails explicitly.
+ */
+public final class CompressionDictionary {
+    public static CompressionDictionary train(Collection<byte[]> samples, int maximumSize) {
+        Preconditions.checkArgument(!samples.isEmpty(), "Training a dictionary requires samples");
+        Preconditions.checkArgument(maximumSize > 0, "'maximumSize' should be strictly positive");
+
+        byte[] buffer = new byte[maximumSize];
+        long size = Zstd.trainFromBuffer(samples.toArray(byte[][]::new), buffer);
+        if (Zstd.isError(size)) {
+            throw new IllegalArgumentException("Could not train dictionary: " + Zstd.getErrorName(size));
+        }
+        return of(Arrays.copyOf(buffer, (int) size));
+    }
+
+    public static CompressionDictionary of(byte[] content) {
+        long id = Zstd.getDictIdFromDict(content);
+        Preconditions.checkArgument(id != 0, "Not a zstd dictionary");
+
+        return new CompressionDictionary(content, (int) id);
+    }
+
+    private final byte[] content;
+    private final int id;
+
+    private CompressionDictionary(byte[] content, int id) {
+        this.content = content;
+        this.id = id;
+    }
+
+    public byte[] content() {
+        return content;
+    }
+
+    public int id() {
+        return id;
+    }
+
+    ZstdDictCompress forCompression(int level) {
+        return new ZstdDictCompress(content, level);
+    }
+
+    ZstdDictDecompress forDecompression() {
+        return new ZstdDictDecompress(content);
+    }
+}
@@ -0,0 +1,212 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.compression;
+
+import static org.apache.james.blob.api.BlobStoreDAOFixture.ELEVEN_KILOBYTES;
+import static org.apache.james.blob.api.BlobStoreDAOFixture.SHORT_BYTEARRAY;
+import static org.apache.james.blob.api.BlobStoreDAOFixture.TEST_BLOB_ID;
+import static org.apache.james.blob.api.BlobStoreDAOFixture.TEST_BUCKET_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.apache.james.blob.api.BlobStoreDAO;
+import org.apache.james.blob.api.BlobStoreDAOContract;
+import org.apache.james.blob.memory.MemoryBlobStoreDAO;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.primitives.Bytes;
+
+import reactor.core.publisher.Mono;
+
+class CompressingBlobStoreDAOTest implements BlobStoreDAOContract {
+    private static final List<byte[]> HEADER_SAMPLES = IntStream.range(0, 1000)
+        .mapToObj(i -> ("Return-Path: <user" + i + "@domain.tld>\r\n" +
+            "Received: from mx" + (i % 7) + ".domain.tld (mx" + (i % 7) + ".domain.tld [10.0.0." + (i % 250) + "])\r\n" +
+            "Message-ID: <" + i + "." + (i * 31) + "@domain.tld>\r\n" +
+            "Subject: Weekly report " + i + "\r\n" +
+            "Content-Type: text/plain; charset=UTF-8\r\n" +
+            "MIME-Version: 1.0\r\n\r\n").getBytes(StandardCharsets.UTF_8))
+        .toList();
+
+    private CompressingBlobStoreDAO testee;
+    private MemoryBlobStoreDAO underlying;
+    private RecordingMetricFactory metricFactory;
+
+    @BeforeEach
+    void setUp() {
+        underlying = new MemoryBlobStoreDAO();
+        metricFactory = new RecordingMetricFactory();
+        testee = new CompressingBlobStoreDAO(underlying, CompressionConfiguration.DEFAULT, metricFactory);
+    }
+
+    @Override
+    public BlobStoreDAO testee() {
+        return testee;
+    }
+
+    @Test
+    void underlyingDataShouldBeCompressed() {
+        Mono.from(testee.save(TEST_BUCKET_NAME, TEST_BLOB_ID, ELEVEN_KILOBYTES)).block();
+
+        byte[] bytes = Mono.from(underlying.readBytes(TEST_BUCKET_NAME, TEST_BLOB_ID)).block();
+
+        assertThat(bytes).hasSizeLessThan(ELEVEN_KILOBYTES.length);
+    }
+
+    @Test
+    void underlyingDataShouldBeCompressedWhenUsingStream() {
+        Mono.from(testee.save(TEST_BUCKET_NAME, TEST_BLOB_ID, new ByteArrayInputStream(ELEVEN_KILOBYTES))).block();
+
+        byte[] bytes = Mono.from(underlying.readBytes(TEST_BUCKET_NAME, TEST_BLOB_ID)).block();
+
+        assertThat(bytes).hasSizeLessThan(ELEVEN_KILOBYTES.length);
+    }
+
+    @Test
+    void dataBelowThresholdShouldBeStoredRaw() {
+        Mono.from(testee.save(TEST_BUCKET_NAME, TEST_BLOB_ID, SHORT_BYTEARRAY)).block();
+
+        byte[] bytes = Mono.from(underlying.readBytes(TEST_BUCKET_NAME, TEST_BLOB_ID)).block();
+
+        assertThat(bytes).isEqualTo(SHORT_BYTEARRAY);
+    }
+
+    @Test
+    void uncompressedBlobsShouldRemainReadable() {
+        Mono.from(underlying.save(TEST_BUCKET_NAME, TEST_BLOB_ID, ELEVEN_KILOBYTES)).block();
+
+        byte[] bytes = Mono.from(testee.readBytes(TEST_BUCKET_NAME, TEST_BLOB_ID)).block();
+
+        assertThat(bytes).isEqualTo(ELEVEN_KILOBYTES);
+    }
+
+    @Test
+    void rawDataStartingWithMagicShouldBeReadBack() {
+        byte[] data = Bytes.concat(CompressingBlobStoreDAO.MAGIC, SHORT_BYTEARRAY);
+        Mono.from(testee.save(TEST_BUCKET_NAME, TEST_BLOB_ID, data)).block();
+
+        assertThat(Mono.from(testee.readBytes(TEST_BUCKET_NAME, TEST_BLOB_ID)).block())
+            .isEqualTo(data);
+    }
+
+    @Test
+    void rawDataStartingWithMagicShouldBeStreamedBack() throws Exception {
+        byte[] data = Bytes.concat(CompressingBlobStoreDAO.MAGIC, SHORT_BYTEARRAY);
+        Mono.from(testee.save(TEST_BUCKET_NAME, TEST_BLOB_ID, new ByteArrayInputStream(data))).block();
+
+        assertThat(testee.read(TEST_BUCKET_NAME, TEST_BLOB_ID).readAllBytes())
+            .isEqualTo(data);
+    }
+
+    @Test
+    void incompressibleDataShouldBeStoredRawWhenUsingStream() {
+        byte[] data = incompressible(11 * 1024);
+        Mono.from(testee.save(TEST_BUCKET_NAME, TEST_BLOB_ID, new ByteArrayInputStream(data))).block();
+
+        byte[] bytes = Mono.from(underlying.readBytes(TEST_BUCKET_NAME, TEST_BLOB_ID)).block();
+
+        assertThat(bytes).isEqualTo(data);
+    }
+
+    @Test
+    void incompressibleDataStartingWithMagicShouldBeStreamedBack() throws Exception {
+        byte[] data = Bytes.concat(CompressingBlobStoreDAO.MAGIC, incompressible(11 * 1024));
+        Mono.from(testee.save(TEST_BUCKET_NAME, TEST_BLOB_ID, new ByteArrayInputStream(data))).block();
+
+        assertThat(testee.read(TEST_BUCKET_NAME, TEST_BLOB_ID).readAllBytes())
+            .isEqualTo(data);
+    }
+
+    private static byte[] incompressible(int size) {
+        byte[] bytes = new byte[size];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+
+    @Test
+    void saveShouldRecordSizes() {
+        Mono.from(testee.save(TEST_BUCKET_NAME, TEST_BLOB_ID, ELEVEN_KILOBYTES)).block();
+
+        byte[] bytes = Mono.from(underlying.readBytes(TEST_BUCKET_NAME, TEST_BLOB_ID)).block();
+
+        assertThat(metricFactory.countFor(CompressingBlobStoreDAO.ORIGINAL_SIZE_METRIC_NAME)).isEqualTo(ELEVEN_KILOBYTES.length);
+        assertThat(metricFactory.countFor(CompressingBlobStoreDAO.STORED_SIZE_METRIC_NAME)).isEqualTo(bytes.length);
+    }
+
+    @Test
+    void dictionaryShouldAllowReadingBlobsBack() {
+        CompressionDictionary dictionary = CompressionDictionary.train(HEADER_SAMPLES, 4096);
+        CompressingBlobStoreDAO dictionaryTestee = new CompressingBlobStoreDAO(underlying,
+            CompressionConfiguration.builder().threshold(64).dictionary(dictionary).build(),
+            metricFactory);
+
+        byte[] header = HEADER_SAMPLES.get(42);
+        Mono.from(dictionaryTestee.save(TEST_BUCKET_NAME, TEST_BLOB_ID, header)).block();
+
+        assertThat(Mono.from(dictionaryTestee.readBytes(TEST_BUCKET_NAME, TEST_BLOB_ID)).block())
+            .isEqualTo(header);
+    }
+
+    @Test
+    void dictionaryShouldImproveCompressionOfSmallBlobs() {
+        CompressionDictionary dictionary = CompressionDictionary.train(HEADER_SAMPLES, 4096);
+        MemoryBlobStoreDAO dictionaryUnderlying = new MemoryBlobStoreDAO();
+        CompressingBlobStoreDAO dictionaryTestee = new CompressingBlobStoreDAO(dictionaryUnderlying,
+            CompressionConfiguration.builder().threshold(64).dictionary(dictionary).build(),
+            metricFactory);
+        CompressingBlobStoreDAO noDictionaryTestee = new CompressingBlobStoreDAO(underlying,
+            CompressionConfiguration.builder().threshold(64).build(),
+            metricFactory);
+
+        byte[] header = HEADER_SAMPLES.get(42);
+        Mono.from(dictionaryTestee.save(TEST_BUCKET_NAME, TEST_BLOB_ID, header)).block();
+        Mono.from(noDictionaryTestee.save(TEST_BUCKET_NAME, TEST_BLOB_ID, header)).block();
+
+        assertThat(Mono.from(dictionaryUnderlying.readBytes(TEST_BUCKET_NAME, TEST_BLOB_ID)).block())
+            .hasSizeLessThan(Mono.from(underlying.readBytes(TEST_BUCKET_NAME, TEST_BLOB_ID)).block().length);
+    }
+
+    @Test
+    void readingDictionaryCompressedBlobsWithoutTheDictionaryShouldFail() {
+        CompressionDictionary dictionary = CompressionDictionary.train(HEADER_SAMPLES, 4096);
+        CompressingBlobStoreDAO dictionaryTestee = new CompressingBlobStoreDAO(underlying,
+            CompressionConfiguration.builder().threshold(64).dictionary(dictionary).build(),
+            metricFactory);
+        Mono.from(dictionaryTestee.save(TEST_BUCKET_NAME, TEST_BLOB_ID, HEADER_SAMPLES.get(42))).block();
+
+        assertThatThrownBy(() -> Mono.from(testee.readBytes(TEST_BUCKET_NAME, TEST_BLOB_ID)).block())
+            .hasMessageContaining("unknown dictionary");
+    }
+
+    @Override
+    @Disabled("Not supported by the Memory blob store")
+    public void listBucketsShouldReturnBucketsWithNoBlob() {
+
+    }
+}
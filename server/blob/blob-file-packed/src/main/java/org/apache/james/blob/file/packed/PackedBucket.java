@@ -0,0 +1,373 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.file.packed;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.james.blob.api.ByteRange;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteSource;
+
+/**
+ * The segments of a bucket, and the index locating the latest record of each blob.
+ *
+ * Writes are serialized. Reads run concurrently with each others but not with writes, as a write may seal a segment.
+ * Compactions copy live records concurrently with reads, and only exclude them while replacing the compacted segment.
+ */
+final class PackedBucket implements Closeable {
+    private record Location(Segment segment, long dataOffset, int dataLength, long recordLength) {
+
+    }
+
+    private record Copy(String blobId, Location original, Segment.Entry entry) {
+
+    }
+
+    static PackedBucket open(Path directory, PackedFileBlobStoreConfiguration configuration) throws IOException {
+        Files.createDirectories(directory);
+        PackedBucket bucket = new PackedBucket(directory, configuration);
+        bucket.recover();
+        return bucket;
+    }
+
+    private final Path directory;
+    private final PackedFileBlobStoreConfiguration configuration;
+    private final ReadWriteLock lock;
+    private final Lock compactionLock;
+    private final TreeMap<Integer, Segment> segments;
+    private final Map<String, Location> index;
+    private Segment active;
+
+    private PackedBucket(Path directory, PackedFileBlobStoreConfiguration configuration) {
+        this.directory = directory;
+        this.configuration = configuration;
+        this.lock = new ReentrantReadWriteLock();
+        this.compactionLock = new ReentrantLock();
+        this.segments = new TreeMap<>();
+        this.index = new ConcurrentHashMap<>();
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.collect(ImmutableList.toImmutableList());
+        }
+        for (Path leftover : files.stream().filter(Segment::isCompactionLeftover).toList()) {
+            // The node stopped before the compacted copy replaced its original segment
+            Files.deleteIfExists(leftover);
+        }
+        List<Integer> segmentIds = files.stream()
+            .map(Segment::parseId)
+            .flatMap(Optional::stream)
+            .sorted()
+            .collect(ImmutableList.toImmutableList());
+        for (int segmentId : segmentIds) {
+            Segment segment = Segment.open(directory, segmentId);
+            segments.put(segmentId, segment);
+            boolean lastSegment = segmentId == segmentIds.get(segmentIds.size() - 1);
+            for (Segment.Entry entry : segment.recover(lastSegment)) {
+                replay(segment, entry);
+            }
+        }
+
+        Optional<Segment> last = Optional.ofNullable(segments.lastEntry()).map(Map.Entry::getValue);
+        for (Segment segment : segments.values()) {
+            if (!segment.isSealed() && last.map(lastSegment -> lastSegment != segment).orElse(true)) {
+                // The node stopped before sealing this segment
+                segment.seal();
+            }
+        }
+        if (last.isPresent() && !last.get().isSealed()) {
+            active = last.get();
+        } else {
+            active = newSegment();
+        }
+    }
+
+    private void replay(Segment segment, Segment.Entry entry) {
+        if (entry.type() == Segment.PUT) {
+            markDead(index.put(entry.blobId(), new Location(segment, entry.dataOffset(), entry.dataLength(), entry.recordLength())));
+        } else {
+            markDead(index.remove(entry.blobId()));
+            segment.tombstones().add(entry.blobId());
+            segment.markDead(entry.recordLength());
+        }
+    }
+
+    private void markDead(Location location) {
+        if (location != null) {
+            location.segment().markDead(location.recordLength());
+        }
+    }
+
+    private Segment newSegment() throws IOException {
+        int segmentId = Optional.ofNullable(segments.lastEntry())
+            .map(entry -> entry.getKey() + 1)
+            .orElse(0);
+        Segment segment = Segment.open(directory, segmentId);
+        segments.put(segmentId, segment);
+        return segment;
+    }
+
+    void put(String blobId, ByteSource content, long dataLength) throws IOException {
+        Segment written = withLock(lock.writeLock(), () -> {
+            Segment.Entry entry = append(Segment.PUT, blobId, content, dataLength);
+            markDead(index.put(blobId, new Location(active, entry.dataOffset(), entry.dataLength(), entry.recordLength())));
+            return active;
+        });
+        syncIfNeeded(Optional.of(written));
+    }
+
+    void delete(String blobId) throws IOException {
+        Optional<Segment> written = withLock(lock.writeLock(), () -> {
+            if (index.containsKey(blobId)) {
+                appendTombstone(blobId);
+                markDead(index.remove(blobId));
+                return Optional.of(active);
+            }
+            return Optional.empty();
+        });
+        syncIfNeeded(written);
+    }
+
+    private void appendTombstone(String blobId) throws IOException {
+        Segment.Entry entry = append(Segment.DELETE, blobId, ByteSource.empty(), 0);
+        active.tombstones().add(blobId);
+        active.markDead(entry.recordLength());
+    }
+
+    private Segment.Entry append(byte type, String blobId, ByteSource content, long dataLength) throws IOException {
+        long recordLength = Segment.recordLength(blobId, dataLength);
+        if (active.size() > 0 && active.size() + recordLength > configuration.getMaximumSegmentSize()) {
+            active.seal();
+            active = newSegment();
+        }
+        return active.append(type, blobId, content, dataLength);
+    }
+
+    /**
+     * Syncs outside of the bucket lock so that concurrent writes and reads are not held up by the disk.
+     */
+    private void syncIfNeeded(Optional<Segment> written) throws IOException {
+        if (configuration.isSyncWrites() && written.isPresent()) {
+            try {
+                written.get().force();
+            } catch (ClosedChannelException e) {
+                // The segment was compacted meanwhile, which made its live records durable
+            }
+        }
+    }
+
+    Optional<byte[]> read(String blobId) throws IOException {
+        return read(blobId, Optional.empty());
+    }
+
+    Optional<byte[]> read(String blobId, ByteRange range) throws IOException {
+        return read(blobId, Optional.of(range));
+    }
+
+    private Optional<byte[]> read(String blobId, Optional<ByteRange> range) throws IOException {
+        return withLock(lock.readLock(), () -> {
+            Location location = index.get(blobId);
+            if (location == null) {
+                return Optional.empty();
+            }
+            long offset = range.map(ByteRange::offset).orElse(0L);
+            long end = range.map(ByteRange::end).orElse(Long.MAX_VALUE);
+            if (offset >= location.dataLength()) {
+                return Optional.of(new byte[0]);
+            }
+            int length = (int) (Math.min(location.dataLength(), end) - offset);
+            ByteBuffer buffer = location.segment().read(location.dataOffset() + offset, length);
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return Optional.of(bytes);
+        });
+    }
+
+    /**
+     * Streams the blob content without loading it in memory. The stream is independent of the bucket lock, and stays
+     * readable once its segment is compacted.
+     */
+    Optional<InputStream> stream(String blobId) throws IOException {
+        return withLock(lock.readLock(), () -> {
+            Location location = index.get(blobId);
+            if (location == null) {
+                return Optional.empty();
+            }
+            return Optional.of(location.segment().stream(location.dataOffset(), location.dataLength()));
+        });
+    }
+
+    List<String> list() {
+        return ImmutableList.copyOf(index.keySet());
+    }
+
+    boolean needsCompaction() {
+        lock.readLock().lock();
+        try {
+            return segments.values().stream()
+                .anyMatch(this::shouldCompact);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean shouldCompact(Segment segment) {
+        return segment != active
+            && segment.size() > 0
+            && segment.deadBytes() >= configuration.getCompactionThreshold() * segment.size();
+    }
+
+    /**
+     * Rewrites sealed segments mostly made of deleted or overwritten blobs, keeping only their live records.
+     *
+     * Tombstones are rewritten as long as an older segment may still hold a previous record of the deleted blob.
+     */
+    void compact() throws IOException {
+        compactionLock.lock();
+        try {
+            List<Segment> candidates = withLock(lock.readLock(), () -> segments.values().stream()
+                .filter(this::shouldCompact)
+                .collect(ImmutableList.toImmutableList()));
+            for (Segment candidate : candidates) {
+                compact(candidate);
+            }
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    /**
+     * Live records are copied under the read lock, into a segment bearing the id of the candidate: upon recovery, later
+     * segments keep superseding its records. The write lock is only taken to swap both segments.
+     */
+    private void compact(Segment candidate) throws IOException {
+        Segment compacted = Segment.openCompaction(directory, candidate.id());
+        List<Copy> copies;
+        try {
+            copies = withLock(lock.readLock(), () -> copyLiveRecords(candidate, compacted));
+        } catch (IOException | RuntimeException e) {
+            compacted.delete();
+            throw e;
+        }
+
+        withLock(lock.writeLock(), () -> {
+            for (Copy copy : copies) {
+                if (copy.original().equals(index.get(copy.blobId()))) {
+                    index.put(copy.blobId(), new Location(compacted, copy.entry().dataOffset(), copy.entry().dataLength(), copy.entry().recordLength()));
+                } else {
+                    // Overwritten or deleted while copying
+                    compacted.markDead(copy.entry().recordLength());
+                }
+            }
+            if (compacted.size() == 0) {
+                compacted.delete();
+                segments.remove(candidate.id());
+                candidate.delete();
+            } else {
+                compacted.replace(candidate);
+                segments.put(candidate.id(), compacted);
+            }
+            return null;
+        });
+    }
+
+    private List<Copy> copyLiveRecords(Segment candidate, Segment compacted) throws IOException {
+        List<Map.Entry<String, Location>> liveRecords = index.entrySet().stream()
+            .filter(entry -> entry.getValue().segment() == candidate)
+            .collect(ImmutableList.toImmutableList());
+        ImmutableList.Builder<Copy> copies = ImmutableList.builder();
+        for (Map.Entry<String, Location> liveRecord : liveRecords) {
+            Location location = liveRecord.getValue();
+            ByteBuffer data = candidate.read(location.dataOffset(), location.dataLength());
+            byte[] bytes = new byte[data.remaining()];
+            data.get(bytes);
+            copies.add(new Copy(liveRecord.getKey(), location,
+                compacted.append(Segment.PUT, liveRecord.getKey(), ByteSource.wrap(bytes), bytes.length)));
+        }
+
+        boolean hasOlderSegment = segments.firstKey() < candidate.id();
+        if (hasOlderSegment) {
+            for (String tombstone : candidate.tombstones()) {
+                if (!index.containsKey(tombstone)) {
+                    // Not accounted as dead: compacting them again would not reclaim anything while older segments remain
+                    compacted.append(Segment.DELETE, tombstone, ByteSource.empty(), 0);
+                    compacted.tombstones().add(tombstone);
+                }
+            }
+        }
+
+        // Copies need to be durable before replacing the original
+        compacted.seal();
+        return copies.build();
+    }
+
+    interface IOSupplier<T> {
+        T get() throws IOException;
+    }
+
+    private <T> T withLock(Lock lock, IOSupplier<T> supplier) throws IOException {
+        lock.lock();
+        try {
+            return supplier.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        compactionLock.lock();
+        try {
+            withLock(lock.writeLock(), () -> {
+                for (Segment segment : segments.values()) {
+                    segment.close();
+                }
+                return null;
+            });
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    void destroy() throws IOException {
+        close();
+        FileUtils.deleteDirectory(directory.toFile());
+    }
+}
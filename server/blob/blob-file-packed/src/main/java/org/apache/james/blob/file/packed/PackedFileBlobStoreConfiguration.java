@@ -0,0 +1,116 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.file.packed;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import com.google.common.base.Preconditions;
+
+public class PackedFileBlobStoreConfiguration {
+    public static final long DEFAULT_MAXIMUM_SEGMENT_SIZE = 64 * 1024 * 1024;
+    public static final double DEFAULT_COMPACTION_THRESHOLD = 0.5;
+    public static final boolean DEFAULT_SYNC_WRITES = false;
+
+    public static class Builder {
+        private Optional<Long> maximumSegmentSize = Optional.empty();
+        private Optional<Double> compactionThreshold = Optional.empty();
+        private Optional<Boolean> syncWrites = Optional.empty();
+
+        /**
+         * Segments are sealed once they reach this size. A blob larger than this size gets a segment on its own.
+         */
+        public Builder maximumSegmentSize(long maximumSegmentSize) {
+            Preconditions.checkArgument(maximumSegmentSize > 0, "'maximumSegmentSize' should be strictly positive");
+            Preconditions.checkArgument(maximumSegmentSize <= Integer.MAX_VALUE, "'maximumSegmentSize' should allow memory mapping segments");
+            this.maximumSegmentSize = Optional.of(maximumSegmentSize);
+            return this;
+        }
+
+        /**
+         * Ratio of deleted or overwritten octets above which a sealed segment gets compacted.
+         */
+        public Builder compactionThreshold(double compactionThreshold) {
+            Preconditions.checkArgument(compactionThreshold > 0 && compactionThreshold <= 1, "'compactionThreshold' should be in ]0, 1]");
+            this.compactionThreshold = Optional.of(compactionThreshold);
+            return this;
+        }
+
+        /**
+         * Whether each write is flushed to the disk before being acknowledged.
+         */
+        public Builder syncWrites(boolean syncWrites) {
+            this.syncWrites = Optional.of(syncWrites);
+            return this;
+        }
+
+        public PackedFileBlobStoreConfiguration build() {
+            return new PackedFileBlobStoreConfiguration(
+                maximumSegmentSize.orElse(DEFAULT_MAXIMUM_SEGMENT_SIZE),
+                compactionThreshold.orElse(DEFAULT_COMPACTION_THRESHOLD),
+                syncWrites.orElse(DEFAULT_SYNC_WRITES));
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final PackedFileBlobStoreConfiguration DEFAULT = builder().build();
+
+    private final long maximumSegmentSize;
+    private final double compactionThreshold;
+    private final boolean syncWrites;
+
+    private PackedFileBlobStoreConfiguration(long maximumSegmentSize, double compactionThreshold, boolean syncWrites) {
+        this.maximumSegmentSize = maximumSegmentSize;
+        this.compactionThreshold = compactionThreshold;
+        this.syncWrites = syncWrites;
+    }
+
+    public long getMaximumSegmentSize() {
+        return maximumSegmentSize;
+    }
+
+    public double getCompactionThreshold() {
+        return compactionThreshold;
+    }
+
+    public boolean isSyncWrites() {
+        return syncWrites;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof PackedFileBlobStoreConfiguration) {
+            PackedFileBlobStoreConfiguration that = (PackedFileBlobStoreConfiguration) o;
+
+            return Objects.equals(this.maximumSegmentSize, that.maximumSegmentSize)
+                && Objects.equals(this.compactionThreshold, that.compactionThreshold)
+                && Objects.equals(this.syncWrites, that.syncWrites);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(maximumSegmentSize, compactionThreshold, syncWrites);
+    }
+}
@@ -0,0 +1,284 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.file.packed;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BlobStoreDAO;
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.api.ByteRange;
+import org.apache.james.blob.api.ObjectNotFoundException;
+import org.apache.james.blob.api.ObjectStoreIOException;
+import org.apache.james.filesystem.api.FileSystem;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.fge.lambdas.Throwing;
+import com.google.common.base.Preconditions;
+import com.google.common.io.ByteSource;
+import com.google.common.io.CountingOutputStream;
+import com.google.common.io.FileBackedOutputStream;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * A file based {@link BlobStoreDAO} appending blobs to large segment files rather than using a file per blob.
+ *
+ * Each bucket is a directory of segments. An in-memory index, rebuilt upon startup from the segment hint files,
+ * locates the latest record of each blob. Deletions and overwrites append records too: segments mostly made of such
+ * dead records are compacted in the background.
+ */
+public class PackedFileBlobStoreDAO implements BlobStoreDAO {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PackedFileBlobStoreDAO.class);
+    private static final int FILE_THRESHOLD = 100 * 1024;
+
+    private final Path root;
+    private final BlobId.Factory blobIdFactory;
+    private final PackedFileBlobStoreConfiguration configuration;
+    private final ConcurrentHashMap<BucketName, PackedBucket> buckets;
+    private final ConcurrentHashMap<BucketName, AtomicBoolean> compactions;
+
+    public PackedFileBlobStoreDAO(FileSystem fileSystem, BlobId.Factory blobIdFactory) throws FileNotFoundException {
+        this(fileSystem, blobIdFactory, PackedFileBlobStoreConfiguration.DEFAULT);
+    }
+
+    @Inject
+    public PackedFileBlobStoreDAO(FileSystem fileSystem, BlobId.Factory blobIdFactory, PackedFileBlobStoreConfiguration configuration) throws FileNotFoundException {
+        this(fileSystem.getFile("file://var/blob-packed").toPath(), blobIdFactory, configuration);
+    }
+
+    public PackedFileBlobStoreDAO(Path root, BlobId.Factory blobIdFactory, PackedFileBlobStoreConfiguration configuration) {
+        this.root = root;
+        this.blobIdFactory = blobIdFactory;
+        this.configuration = configuration;
+        this.buckets = new ConcurrentHashMap<>();
+        this.compactions = new ConcurrentHashMap<>();
+    }
+
+    private PackedBucket bucket(BucketName bucketName) {
+        return buckets.computeIfAbsent(bucketName, name -> {
+            try {
+                return PackedBucket.open(root.resolve(name.asString()), configuration);
+            } catch (IOException e) {
+                throw new ObjectStoreIOException("Cannot open bucket " + name.asString(), e);
+            }
+        });
+    }
+
+    @Override
+    public InputStream read(BucketName bucketName, BlobId blobId) throws ObjectStoreIOException, ObjectNotFoundException {
+        try {
+            return bucket(bucketName).stream(blobId.asString())
+                .orElseThrow(() -> notFound(bucketName, blobId));
+        } catch (IOException e) {
+            throw new ObjectStoreIOException("Cannot read " + blobId.asString(), e);
+        }
+    }
+
+    @Override
+    public Mono<InputStream> readReactive(BucketName bucketName, BlobId blobId) {
+        return Mono.fromCallable(() -> read(bucketName, blobId))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<byte[]> readBytes(BucketName bucketName, BlobId blobId) {
+        return Mono.fromCallable(() -> readBlob(bucketName, blobId))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private byte[] readBlob(BucketName bucketName, BlobId blobId) {
+        try {
+            return bucket(bucketName).read(blobId.asString())
+                .orElseThrow(() -> notFound(bucketName, blobId));
+        } catch (IOException e) {
+            throw new ObjectStoreIOException("Cannot read " + blobId.asString(), e);
+        }
+    }
+
+    @Override
+    public Mono<byte[]> readRange(BucketName bucketName, BlobId blobId, long offset, long length) {
+        ByteRange range = new ByteRange(offset, length);
+
+        return Mono.fromCallable(() -> {
+            try {
+                return bucket(bucketName).read(blobId.asString(), range)
+                    .orElseThrow(() -> notFound(bucketName, blobId));
+            } catch (IOException e) {
+                throw new ObjectStoreIOException("Cannot read " + blobId.asString(), e);
+            }
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private ObjectNotFoundException notFound(BucketName bucketName, BlobId blobId) {
+        return new ObjectNotFoundException(String.format("Cannot locate %s within %s", blobId.asString(), bucketName.asString()));
+    }
+
+    @Override
+    public Mono<Void> save(BucketName bucketName, BlobId blobId, byte[] data) {
+        Preconditions.checkNotNull(data);
+
+        return put(bucketName, blobId, ByteSource.wrap(data), data.length);
+    }
+
+    @Override
+    public Mono<Void> save(BucketName bucketName, BlobId blobId, InputStream inputStream) {
+        Preconditions.checkNotNull(inputStream);
+
+        return Mono.usingWhen(
+                Mono.fromCallable(() -> spool(inputStream)),
+                spooled -> put(bucketName, blobId, spooled.asByteSource(), spooled.size()),
+                spooled -> Mono.fromRunnable(Throwing.runnable(spooled.content()::reset)).subscribeOn(Schedulers.boundedElastic()))
+            .subscribeOn(Schedulers.boundedElastic())
+            .onErrorMap(IOException.class, e -> new ObjectStoreIOException("IOException occurred", e));
+    }
+
+    private record Spooled(FileBackedOutputStream content, long size) {
+        ByteSource asByteSource() {
+            return content.asByteSource();
+        }
+    }
+
+    private Spooled spool(InputStream inputStream) throws IOException {
+        FileBackedOutputStream content = new FileBackedOutputStream(FILE_THRESHOLD);
+        try (CountingOutputStream countingOutputStream = new CountingOutputStream(content)) {
+            inputStream.transferTo(countingOutputStream);
+            return new Spooled(content, countingOutputStream.getCount());
+        } catch (IOException e) {
+            content.reset();
+            throw e;
+        }
+    }
+
+    @Override
+    public Mono<Void> save(BucketName bucketName, BlobId blobId, ByteSource content) {
+        Preconditions.checkNotNull(content);
+
+        return Mono.fromCallable(content::size)
+            .flatMap(size -> put(bucketName, blobId, content, size))
+            .subscribeOn(Schedulers.boundedElastic())
+            .onErrorMap(IOException.class, e -> new ObjectStoreIOException("IOException occurred", e));
+    }
+
+    private Mono<Void> put(BucketName bucketName, BlobId blobId, ByteSource content, long size) {
+        return Mono.fromRunnable(Throwing.runnable(() -> bucket(bucketName).put(blobId.asString(), content, size)).sneakyThrow())
+            .onErrorMap(IOException.class, e -> new ObjectStoreIOException("IOException occurred", e))
+            .subscribeOn(Schedulers.boundedElastic())
+            .then(Mono.fromRunnable(() -> compactIfNeeded(bucketName)));
+    }
+
+    @Override
+    public Mono<Void> delete(BucketName bucketName, BlobId blobId) {
+        Preconditions.checkNotNull(bucketName);
+
+        return Mono.fromRunnable(Throwing.runnable(() -> bucket(bucketName).delete(blobId.asString())).sneakyThrow())
+            .onErrorMap(IOException.class, e -> new ObjectStoreIOException("IOException occurred", e))
+            .subscribeOn(Schedulers.boundedElastic())
+            .then(Mono.fromRunnable(() -> compactIfNeeded(bucketName)));
+    }
+
+    @Override
+    public Publisher<Void> delete(BucketName bucketName, Collection<BlobId> blobIds) {
+        return Flux.fromIterable(blobIds)
+            .concatMap(id -> delete(bucketName, id))
+            .then();
+    }
+
+    /**
+     * Compacts the segments of this bucket mostly made of deleted or overwritten blobs.
+     *
+     * Compaction otherwise runs in the background after writes.
+     */
+    public Mono<Void> compact(BucketName bucketName) {
+        return Mono.fromRunnable(Throwing.runnable(() -> bucket(bucketName).compact()).sneakyThrow())
+            .onErrorMap(IOException.class, e -> new ObjectStoreIOException("Failed compacting bucket " + bucketName.asString(), e))
+            .subscribeOn(Schedulers.boundedElastic())
+            .then();
+    }
+
+    private void compactIfNeeded(BucketName bucketName) {
+        PackedBucket bucket = buckets.get(bucketName);
+        AtomicBoolean running = compactions.computeIfAbsent(bucketName, any -> new AtomicBoolean(false));
+        if (bucket != null && bucket.needsCompaction() && running.compareAndSet(false, true)) {
+            Mono.fromRunnable(Throwing.runnable(bucket::compact).sneakyThrow())
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(e -> {
+                    LOGGER.error("Failed compacting bucket {}", bucketName.asString(), e);
+                    return Mono.empty();
+                })
+                .doFinally(any -> running.set(false))
+                .subscribe();
+        }
+    }
+
+    @Override
+    public Mono<Void> deleteBucket(BucketName bucketName) {
+        return Mono.fromRunnable(Throwing.runnable(() -> {
+                PackedBucket bucket = buckets.remove(bucketName);
+                if (bucket != null) {
+                    bucket.destroy();
+                } else {
+                    FileUtils.deleteDirectory(root.resolve(bucketName.asString()).toFile());
+                }
+            }).sneakyThrow())
+            .subscribeOn(Schedulers.boundedElastic())
+            .then();
+    }
+
+    @Override
+    public Publisher<BucketName> listBuckets() {
+        return Mono.fromCallable(() -> Files.list(root))
+            .flatMapMany(Flux::fromStream)
+            .filter(Files::isDirectory)
+            .map(path -> BucketName.of(path.getFileName().toString()))
+            .subscribeOn(Schedulers.boundedElastic())
+            .onErrorResume(NoSuchFileException.class, e -> Flux.empty());
+    }
+
+    @Override
+    public Publisher<BlobId> listBlobs(BucketName bucketName) {
+        return Mono.fromCallable(() -> bucket(bucketName).list())
+            .flatMapIterable(blobIds -> blobIds)
+            .map(blobIdFactory::from)
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @PreDestroy
+    public void close() {
+        buckets.values().forEach(Throwing.consumer(PackedBucket::close).sneakyThrow());
+        buckets.clear();
+    }
+}
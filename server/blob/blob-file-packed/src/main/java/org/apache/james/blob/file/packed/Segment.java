@@ -0,0 +1,534 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.file.packed;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UTFDataFormatException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.fge.lambdas.Throwing;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteSource;
+import com.google.common.io.ByteStreams;
+
+/**
+ * An append only file holding blob records.
+ *
+ * A record is laid out as: magic (int), type (byte), blob id length (int), blob id (UTF-8), data length (int), data,
+ * and a CRC32 (int) of everything following the magic. Once sealed, a segment is never written again: its records are
+ * summarized in a hint file, allowing to rebuild the index without scanning the data, and it is memory mapped for reads.
+ */
+final class Segment implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Segment.class);
+
+    static final int RECORD_MAGIC = 0x4A504B31;
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+    static final String DATA_EXTENSION = ".segment";
+    static final String HINT_EXTENSION = ".hint";
+    static final String COMPACTION_SUFFIX = ".compacting";
+    // Hint files store blob ids as modified UTF-8, limited to 65535 octets
+    static final int MAXIMUM_BLOB_ID_LENGTH = 0xFFFF;
+
+    private static final int FIXED_RECORD_LENGTH = Integer.BYTES + 1 + Integer.BYTES + Integer.BYTES + Integer.BYTES;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final Optional<MappingCleaner> MAPPING_CLEANER = mappingCleaner();
+
+    record Entry(byte type, String blobId, long dataOffset, int dataLength, long recordLength) {
+
+    }
+
+    private record MappingCleaner(Object unsafe, Method invokeCleaner) {
+
+    }
+
+    static long recordLength(String blobId, long dataLength) {
+        return FIXED_RECORD_LENGTH + blobId.getBytes(StandardCharsets.UTF_8).length + dataLength;
+    }
+
+    static Segment open(Path directory, int id) throws IOException {
+        Path path = directory.resolve(fileName(id, DATA_EXTENSION));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new Segment(id, path, directory.resolve(fileName(id, HINT_EXTENSION)), channel);
+    }
+
+    /**
+     * Opens an empty segment receiving the live records of segment {@code id} upon compaction. It is written next to
+     * that segment, and replaces it with {@link #replace(Segment)}.
+     */
+    static Segment openCompaction(Path directory, int id) throws IOException {
+        Path path = directory.resolve(fileName(id, DATA_EXTENSION) + COMPACTION_SUFFIX);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new Segment(id, path, directory.resolve(fileName(id, HINT_EXTENSION) + COMPACTION_SUFFIX), channel);
+    }
+
+    static boolean isCompactionLeftover(Path path) {
+        return path.getFileName().toString().endsWith(COMPACTION_SUFFIX);
+    }
+
+    static Optional<Integer> parseId(Path path) {
+        String fileName = path.getFileName().toString();
+        if (!fileName.endsWith(DATA_EXTENSION)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Integer.parseInt(fileName.substring(0, fileName.length() - DATA_EXTENSION.length())));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static String fileName(int id, String extension) {
+        return String.format("%010d%s", id, extension);
+    }
+
+    private final int id;
+    private Path path;
+    private Path hintPath;
+    private final FileChannel channel;
+    private final List<Entry> entries;
+    private final Set<String> tombstones;
+    private final AtomicLong deadBytes;
+    private long size;
+    private volatile Optional<MappedByteBuffer> mapped;
+
+    private Segment(int id, Path path, Path hintPath, FileChannel channel) throws IOException {
+        this.id = id;
+        this.path = path;
+        this.hintPath = hintPath;
+        this.channel = channel;
+        this.entries = new ArrayList<>();
+        this.tombstones = ConcurrentHashMap.newKeySet();
+        this.deadBytes = new AtomicLong();
+        this.size = channel.size();
+        this.mapped = Optional.empty();
+    }
+
+    int id() {
+        return id;
+    }
+
+    long size() {
+        return size;
+    }
+
+    long deadBytes() {
+        return deadBytes.get();
+    }
+
+    void markDead(long recordLength) {
+        deadBytes.addAndGet(recordLength);
+    }
+
+    Set<String> tombstones() {
+        return tombstones;
+    }
+
+    boolean isSealed() {
+        return Files.exists(hintPath);
+    }
+
+    /**
+     * Appends a record, and returns its entry. The segment is left unchanged upon failures.
+     */
+    Entry append(byte type, String blobId, ByteSource content, long dataLength) throws IOException {
+        byte[] blobIdBytes = blobId.getBytes(StandardCharsets.UTF_8);
+        Preconditions.checkArgument(blobIdBytes.length <= MAXIMUM_BLOB_ID_LENGTH, "Blob id %s is too long", blobId);
+        long start = size;
+        CRC32 crc = new CRC32();
+        try {
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + 1 + Integer.BYTES + blobIdBytes.length + Integer.BYTES)
+                .putInt(RECORD_MAGIC)
+                .put(type)
+                .putInt(blobIdBytes.length)
+                .put(blobIdBytes)
+                .putInt(Math.toIntExact(dataLength))
+                .flip();
+            crc.update(header.duplicate().position(Integer.BYTES));
+            long position = write(header, start);
+
+            try (InputStream inputStream = content.openStream()) {
+                byte[] buffer = new byte[COPY_BUFFER_SIZE];
+                long copied = 0;
+                int read;
+                while ((read = inputStream.read(buffer)) >= 0) {
+                    copied += read;
+                    if (copied > dataLength) {
+                        break;
+                    }
+                    crc.update(buffer, 0, read);
+                    position = write(ByteBuffer.wrap(buffer, 0, read), position);
+                }
+                if (copied != dataLength) {
+                    throw new IOException(String.format("Content of %s changed size while being saved", blobId));
+                }
+            }
+
+            position = write(ByteBuffer.allocate(Integer.BYTES).putInt((int) crc.getValue()).flip(), position);
+            size = position;
+        } catch (IOException | RuntimeException e) {
+            channel.truncate(start);
+            throw e;
+        }
+        Entry entry = new Entry(type, blobId, start + Integer.BYTES + 1 + Integer.BYTES + blobIdBytes.length + Integer.BYTES,
+            (int) dataLength, size - start);
+        entries.add(entry);
+        return entry;
+    }
+
+    private long write(ByteBuffer buffer, long position) throws IOException {
+        long current = position;
+        while (buffer.hasRemaining()) {
+            current += channel.write(buffer, current);
+        }
+        return current;
+    }
+
+    ByteBuffer read(long offset, int length) throws IOException {
+        Optional<MappedByteBuffer> mappedBuffer = mapped;
+        if (mappedBuffer.isPresent()) {
+            return mappedBuffer.get().duplicate()
+                .position(Math.toIntExact(offset))
+                .limit(Math.toIntExact(offset + length))
+                .slice();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        long position = offset;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException(String.format("Segment %s is shorter than expected", path));
+            }
+            position += read;
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Streams {@code length} octets starting at {@code offset} from a channel of its own, so that the stream remains
+     * readable once this segment is compacted or closed.
+     */
+    InputStream stream(long offset, long length) throws IOException {
+        FileChannel readChannel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            readChannel.position(offset);
+        } catch (IOException e) {
+            readChannel.close();
+            throw e;
+        }
+        return ByteStreams.limit(Channels.newInputStream(readChannel), length);
+    }
+
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    /**
+     * Stops writing to this segment: writes its hint file and memory maps it for reads.
+     */
+    void seal() throws IOException {
+        channel.force(true);
+        writeHint();
+        map();
+    }
+
+    private void map() throws IOException {
+        if (size <= Integer.MAX_VALUE) {
+            mapped = Optional.of(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    private void unmap() {
+        Optional<MappedByteBuffer> mappedBuffer = mapped;
+        mapped = Optional.empty();
+        mappedBuffer.ifPresent(Segment::releaseMapping);
+    }
+
+    /**
+     * Mappings are otherwise only released once garbage collected, holding the disk space of deleted segments.
+     *
+     * Callers need to ensure no slice of the mapping is still in use.
+     */
+    private static void releaseMapping(MappedByteBuffer mappedBuffer) {
+        MAPPING_CLEANER.ifPresent(Throwing.consumer((MappingCleaner cleaner) -> cleaner.invokeCleaner().invoke(cleaner.unsafe(), mappedBuffer)).sneakyThrow());
+    }
+
+    private static Optional<MappingCleaner> mappingCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return Optional.of(new MappingCleaner(field.get(null), unsafeClass.getMethod("invokeCleaner", ByteBuffer.class)));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.warn("Cannot release memory mappings explicitly, relying on garbage collection", e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * The hint file lists the entries of the segment, followed by a CRC32 of that list. It is made durable before
+     * being renamed to its final name, the rename being made durable too.
+     */
+    private void writeHint() throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        try (DataOutputStream dataOutputStream = new DataOutputStream(content)) {
+            dataOutputStream.writeInt(entries.size());
+            for (Entry entry : entries) {
+                dataOutputStream.writeByte(entry.type());
+                dataOutputStream.writeUTF(entry.blobId());
+                dataOutputStream.writeLong(entry.dataOffset());
+                dataOutputStream.writeInt(entry.dataLength());
+                dataOutputStream.writeLong(entry.recordLength());
+            }
+        }
+        byte[] entriesBytes = content.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(entriesBytes);
+        ByteBuffer hint = ByteBuffer.allocate(entriesBytes.length + Integer.BYTES)
+            .put(entriesBytes)
+            .putInt((int) crc.getValue())
+            .flip();
+
+        Path temporaryHint = hintPath.resolveSibling(hintPath.getFileName() + ".tmp");
+        try (FileChannel hintChannel = FileChannel.open(temporaryHint, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (hint.hasRemaining()) {
+                hintChannel.write(hint);
+            }
+            hintChannel.force(true);
+        }
+        Files.move(temporaryHint, hintPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        forceDirectory();
+    }
+
+    private void forceDirectory() {
+        try (FileChannel directory = FileChannel.open(hintPath.getParent(), StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException e) {
+            // Not supported by every platform. A lost rename only means the segment gets sealed again upon recovery
+            LOGGER.debug("Could not sync directory {}", hintPath.getParent(), e);
+        }
+    }
+
+    /**
+     * Reads the records of this segment, from the hint file when sealed, otherwise by scanning the data.
+     *
+     * Scanning skips corrupted records up to the next valid one. Corrupted octets ending the last segment are the trace
+     * of an interrupted write: the segment is truncated there when {@code truncateTail} is set. Corrupted or truncated
+     * hint files are rebuilt by scanning the data.
+     */
+    List<Entry> recover(boolean truncateTail) throws IOException {
+        entries.clear();
+        if (isSealed()) {
+            Optional<List<Entry>> hint = readHint();
+            if (hint.isPresent()) {
+                entries.addAll(hint.get());
+            } else {
+                LOGGER.warn("Hint file {} is corrupted or truncated, rebuilding it from {}", hintPath, path);
+                entries.addAll(scan(false));
+                writeHint();
+            }
+            map();
+        } else {
+            entries.addAll(scan(truncateTail));
+        }
+        return ImmutableList.copyOf(entries);
+    }
+
+    private Optional<List<Entry>> readHint() throws IOException {
+        byte[] hint = Files.readAllBytes(hintPath);
+        if (hint.length < Integer.BYTES * 2) {
+            return Optional.empty();
+        }
+        int entriesLength = hint.length - Integer.BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(hint, 0, entriesLength);
+        if (ByteBuffer.wrap(hint, entriesLength, Integer.BYTES).getInt() != (int) crc.getValue()) {
+            return Optional.empty();
+        }
+
+        try (DataInputStream inputStream = new DataInputStream(new ByteArrayInputStream(hint, 0, entriesLength))) {
+            int count = inputStream.readInt();
+            ImmutableList.Builder<Entry> result = ImmutableList.builder();
+            for (int i = 0; i < count; i++) {
+                result.add(new Entry(inputStream.readByte(), inputStream.readUTF(), inputStream.readLong(), inputStream.readInt(), inputStream.readLong()));
+            }
+            if (inputStream.available() > 0) {
+                return Optional.empty();
+            }
+            return Optional.of(result.build());
+        } catch (EOFException | UTFDataFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    private List<Entry> scan(boolean truncateTail) throws IOException {
+        ImmutableList.Builder<Entry> result = ImmutableList.builder();
+        long position = 0;
+        while (position < size) {
+            Optional<Entry> entry = readRecord(position);
+            if (entry.isPresent()) {
+                result.add(entry.get());
+                position += entry.get().recordLength();
+                continue;
+            }
+            Optional<Long> nextRecord = nextRecord(position + 1);
+            if (nextRecord.isPresent()) {
+                LOGGER.warn("Skipping {} corrupted octets of segment {} at position {}", nextRecord.get() - position, path, position);
+                deadBytes.addAndGet(nextRecord.get() - position);
+                position = nextRecord.get();
+            } else if (truncateTail) {
+                LOGGER.warn("Truncating segment {} at position {} after an incomplete or corrupted record", path, position);
+                channel.truncate(position);
+                channel.force(true);
+                size = position;
+            } else {
+                LOGGER.warn("Ignoring the last {} corrupted octets of segment {}", size - position, path);
+                deadBytes.addAndGet(size - position);
+                position = size;
+            }
+        }
+        return result.build();
+    }
+
+    /**
+     * Locates the first valid record starting at or after {@code from}.
+     */
+    private Optional<Long> nextRecord(long from) throws IOException {
+        long position = from;
+        while (position + FIXED_RECORD_LENGTH <= size) {
+            ByteBuffer chunk = readUpTo(position, (int) Math.min(COPY_BUFFER_SIZE, size - position));
+            for (int i = 0; i + Integer.BYTES <= chunk.remaining(); i++) {
+                if (chunk.getInt(i) == RECORD_MAGIC && readRecord(position + i).isPresent()) {
+                    return Optional.of(position + i);
+                }
+            }
+            // Chunks overlap so that a magic spanning two of them is not missed
+            position += Math.max(chunk.remaining() - Integer.BYTES + 1, 1);
+        }
+        return Optional.empty();
+    }
+
+    private Optional<Entry> readRecord(long start) throws IOException {
+        ByteBuffer fixed = readUpTo(start, Integer.BYTES + 1 + Integer.BYTES);
+        if (fixed.remaining() < Integer.BYTES + 1 + Integer.BYTES || fixed.getInt() != RECORD_MAGIC) {
+            return Optional.empty();
+        }
+        byte type = fixed.get();
+        int blobIdLength = fixed.getInt();
+        if ((type != PUT && type != DELETE) || blobIdLength < 0 || blobIdLength > MAXIMUM_BLOB_ID_LENGTH
+                || start + FIXED_RECORD_LENGTH + blobIdLength > size) {
+            return Optional.empty();
+        }
+        ByteBuffer blobIdAndLength = readUpTo(start + Integer.BYTES + 1 + Integer.BYTES, blobIdLength + Integer.BYTES);
+        byte[] blobIdBytes = new byte[blobIdLength];
+        blobIdAndLength.get(blobIdBytes);
+        int dataLength = blobIdAndLength.getInt();
+        long dataOffset = start + Integer.BYTES + 1 + Integer.BYTES + blobIdLength + Integer.BYTES;
+        if (dataLength < 0 || dataOffset + dataLength + Integer.BYTES > size) {
+            return Optional.empty();
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(readUpTo(start + Integer.BYTES, 1 + Integer.BYTES + blobIdLength + Integer.BYTES));
+        long position = dataOffset;
+        while (position < dataOffset + dataLength) {
+            ByteBuffer chunk = readUpTo(position, (int) Math.min(COPY_BUFFER_SIZE, dataOffset + dataLength - position));
+            position += chunk.remaining();
+            crc.update(chunk);
+        }
+        if (readUpTo(position, Integer.BYTES).getInt() != (int) crc.getValue()) {
+            return Optional.empty();
+        }
+        String blobId = new String(blobIdBytes, StandardCharsets.UTF_8);
+        return Optional.of(new Entry(type, blobId, dataOffset, dataLength, recordLength(blobId, dataLength)));
+    }
+
+    private ByteBuffer readUpTo(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        long current = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, current);
+            if (read < 0) {
+                break;
+            }
+            current += read;
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Moves this compacted copy over {@code original}, which gets closed. The hint of the original is removed first:
+     * a crash in between leaves a segment without hint, which gets rebuilt by scanning it upon recovery.
+     */
+    void replace(Segment original) throws IOException {
+        Preconditions.checkArgument(original.id == id, "Segment %s can not replace segment %s", id, original.id);
+        Files.deleteIfExists(original.hintPath);
+        Files.move(path, original.path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        Files.move(hintPath, original.hintPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        path = original.path;
+        hintPath = original.hintPath;
+        forceDirectory();
+        original.close();
+    }
+
+    /**
+     * Callers need to ensure no read of this segment is in progress.
+     */
+    @Override
+    public void close() throws IOException {
+        unmap();
+        channel.close();
+    }
+
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(hintPath);
+        Files.deleteIfExists(path);
+    }
+}
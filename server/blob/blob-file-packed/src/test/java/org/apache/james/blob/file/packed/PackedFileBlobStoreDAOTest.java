@@ -0,0 +1,298 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.file.packed;
+
+import static org.apache.james.blob.api.BlobStoreDAOFixture.ELEVEN_KILOBYTES;
+import static org.apache.james.blob.api.BlobStoreDAOFixture.OTHER_TEST_BLOB_ID;
+import static org.apache.james.blob.api.BlobStoreDAOFixture.SHORT_BYTEARRAY;
+import static org.apache.james.blob.api.BlobStoreDAOFixture.TEST_BLOB_ID;
+import static org.apache.james.blob.api.BlobStoreDAOFixture.TEST_BUCKET_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Durations.ONE_MINUTE;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BlobStoreDAO;
+import org.apache.james.blob.api.BlobStoreDAOContract;
+import org.apache.james.blob.api.HashBlobId;
+import org.apache.james.blob.api.ObjectNotFoundException;
+import org.apache.james.blob.api.TestBlobId;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import reactor.core.publisher.Flux;
+
+class PackedFileBlobStoreDAOTest implements BlobStoreDAOContract {
+    private static final PackedFileBlobStoreConfiguration CONFIGURATION = PackedFileBlobStoreConfiguration.builder()
+        .maximumSegmentSize(64 * 1024)
+        .build();
+
+    @TempDir
+    Path root;
+
+    private PackedFileBlobStoreDAO blobStore;
+
+    @BeforeEach
+    void setUp() {
+        blobStore = new PackedFileBlobStoreDAO(root, new HashBlobId.Factory(), CONFIGURATION);
+    }
+
+    @AfterEach
+    void tearDown() {
+        blobStore.close();
+    }
+
+    @Override
+    public BlobStoreDAO testee() {
+        return blobStore;
+    }
+
+    private PackedFileBlobStoreDAO reopen() {
+        blobStore.close();
+        blobStore = new PackedFileBlobStoreDAO(root, new HashBlobId.Factory(), CONFIGURATION);
+        return blobStore;
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(root.resolve(TEST_BUCKET_NAME.asString()))) {
+            return files.filter(path -> path.toString().endsWith(Segment.DATA_EXTENSION)).count();
+        }
+    }
+
+    @Test
+    void blobsShouldBePackedIntoSegments() throws Exception {
+        Flux.range(0, 100)
+            .concatMap(i -> blobStore.save(TEST_BUCKET_NAME, new TestBlobId("blob-" + i), SHORT_BYTEARRAY))
+            .blockLast();
+
+        assertThat(segmentCount()).isEqualTo(1);
+    }
+
+    @Test
+    void blobsShouldBeReadableAfterRestart() {
+        Flux.range(0, 20)
+            .concatMap(i -> blobStore.save(TEST_BUCKET_NAME, new TestBlobId("blob-" + i), ELEVEN_KILOBYTES))
+            .blockLast();
+
+        PackedFileBlobStoreDAO reopened = reopen();
+
+        assertThat(IntStream.range(0, 20)
+            .mapToObj(i -> reopened.readBytes(TEST_BUCKET_NAME, new TestBlobId("blob-" + i)).block()))
+            .allSatisfy(bytes -> assertThat(bytes).isEqualTo(ELEVEN_KILOBYTES));
+    }
+
+    @Test
+    void deletionsShouldBeEffectiveAfterRestart() {
+        blobStore.save(TEST_BUCKET_NAME, TEST_BLOB_ID, SHORT_BYTEARRAY).block();
+        blobStore.delete(TEST_BUCKET_NAME, TEST_BLOB_ID).block();
+
+        PackedFileBlobStoreDAO reopened = reopen();
+
+        assertThatThrownBy(() -> reopened.readBytes(TEST_BUCKET_NAME, TEST_BLOB_ID).block())
+            .isInstanceOf(ObjectNotFoundException.class);
+    }
+
+    @Test
+    void overwritesShouldBeEffectiveAfterRestart() {
+        blobStore.save(TEST_BUCKET_NAME, TEST_BLOB_ID, SHORT_BYTEARRAY).block();
+        blobStore.save(TEST_BUCKET_NAME, TEST_BLOB_ID, ELEVEN_KILOBYTES).block();
+
+        PackedFileBlobStoreDAO reopened = reopen();
+
+        assertThat(reopened.readBytes(TEST_BUCKET_NAME, TEST_BLOB_ID).block())
+            .isEqualTo(ELEVEN_KILOBYTES);
+    }
+
+    @Test
+    void recoveryShouldDiscardIncompleteRecords() throws Exception {
+        blobStore.save(TEST_BUCKET_NAME, TEST_BLOB_ID, SHORT_BYTEARRAY).block();
+        blobStore.save(TEST_BUCKET_NAME, OTHER_TEST_BLOB_ID, ELEVEN_KILOBYTES).block();
+        blobStore.close();
+
+        Path segment = root.resolve(TEST_BUCKET_NAME.asString()).resolve(String.format("%010d%s", 0, Segment.DATA_EXTENSION));
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            // Simulates a crash while writing the second blob
+            channel.truncate(channel.size() - 10);
+        }
+
+        PackedFileBlobStoreDAO reopened = reopen();
+
+        assertThat(reopened.readBytes(TEST_BUCKET_NAME, TEST_BLOB_ID).block()).isEqualTo(SHORT_BYTEARRAY);
+        assertThatThrownBy(() -> reopened.readBytes(TEST_BUCKET_NAME, OTHER_TEST_BLOB_ID).block())
+            .isInstanceOf(ObjectNotFoundException.class);
+    }
+
+    @Test
+    void recoveryShouldSkipCorruptedRecords() throws Exception {
+        blobStore.save(TEST_BUCKET_NAME, TEST_BLOB_ID, SHORT_BYTEARRAY).block();
+        blobStore.save(TEST_BUCKET_NAME, OTHER_TEST_BLOB_ID, ELEVEN_KILOBYTES).block();
+        blobStore.save(TEST_BUCKET_NAME, new TestBlobId("last"), SHORT_BYTEARRAY).block();
+        blobStore.close();
+
+        Path segment = root.resolve(TEST_BUCKET_NAME.asString()).resolve(String.format("%010d%s", 0, Segment.DATA_EXTENSION));
+        byte[] segmentContent = Files.readAllBytes(segment);
+        // Corrupts the data of the second blob
+        segmentContent[(int) Segment.recordLength(TEST_BLOB_ID.asString(), SHORT_BYTEARRAY.length) + 100] ^= 1;
+        Files.write(segment, segmentContent);
+
+        PackedFileBlobStoreDAO reopened = reopen();
+
+        assertThat(reopened.readBytes(TEST_BUCKET_NAME, TEST_BLOB_ID).block()).isEqualTo(SHORT_BYTEARRAY);
+        assertThat(reopened.readBytes(TEST_BUCKET_NAME, new TestBlobId("last")).block()).isEqualTo(SHORT_BYTEARRAY);
+        assertThatThrownBy(() -> reopened.readBytes(TEST_BUCKET_NAME, OTHER_TEST_BLOB_ID).block())
+            .isInstanceOf(ObjectNotFoundException.class);
+    }
+
+    @Test
+    void writesShouldSucceedAfterRecoveringIncompleteRecords() throws Exception {
+        blobStore.save(TEST_BUCKET_NAME, TEST_BLOB_ID, SHORT_BYTEARRAY).block();
+        blobStore.close();
+
+        Path segment = root.resolve(TEST_BUCKET_NAME.asString()).resolve(String.format("%010d%s", 0, Segment.DATA_EXTENSION));
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+
+        PackedFileBlobStoreDAO reopened = reopen();
+        reopened.save(TEST_BUCKET_NAME, OTHER_TEST_BLOB_ID, ELEVEN_KILOBYTES).block();
+
+        assertThat(reopen().readBytes(TEST_BUCKET_NAME, OTHER_TEST_BLOB_ID).block()).isEqualTo(ELEVEN_KILOBYTES);
+    }
+
+    @Test
+    void corruptedHintsShouldBeRebuiltFromTheSegment() throws Exception {
+        Flux.range(0, 20)
+            .concatMap(i -> blobStore.save(TEST_BUCKET_NAME, new TestBlobId("blob-" + i), ELEVEN_KILOBYTES))
+            .blockLast();
+        blobStore.close();
+
+        Path hint = root.resolve(TEST_BUCKET_NAME.asString()).resolve(String.format("%010d%s", 0, Segment.HINT_EXTENSION));
+        byte[] hintContent = Files.readAllBytes(hint);
+        hintContent[hintContent.length / 2] ^= 1;
+        Files.write(hint, hintContent);
+
+        PackedFileBlobStoreDAO reopened = reopen();
+
+        assertThat(IntStream.range(0, 20)
+            .mapToObj(i -> reopened.readBytes(TEST_BUCKET_NAME, new TestBlobId("blob-" + i)).block()))
+            .allSatisfy(bytes -> assertThat(bytes).isEqualTo(ELEVEN_KILOBYTES));
+    }
+
+    @Test
+    void truncatedHintsShouldBeRebuiltFromTheSegment() throws Exception {
+        Flux.range(0, 20)
+            .concatMap(i -> blobStore.save(TEST_BUCKET_NAME, new TestBlobId("blob-" + i), ELEVEN_KILOBYTES))
+            .blockLast();
+        blobStore.close();
+
+        Path hint = root.resolve(TEST_BUCKET_NAME.asString()).resolve(String.format("%010d%s", 0, Segment.HINT_EXTENSION));
+        try (FileChannel channel = FileChannel.open(hint, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() / 2);
+        }
+
+        // Recovering the bucket rebuilds the hint, which is then used upon the next restart
+        reopen().readBytes(TEST_BUCKET_NAME, new TestBlobId("blob-0")).block();
+        PackedFileBlobStoreDAO reopened = reopen();
+
+        assertThat(IntStream.range(0, 20)
+            .mapToObj(i -> reopened.readBytes(TEST_BUCKET_NAME, new TestBlobId("blob-" + i)).block()))
+            .allSatisfy(bytes -> assertThat(bytes).isEqualTo(ELEVEN_KILOBYTES));
+    }
+
+    @Test
+    void syncedWritesShouldBeReadable() {
+        blobStore.close();
+        blobStore = new PackedFileBlobStoreDAO(root, new HashBlobId.Factory(), PackedFileBlobStoreConfiguration.builder()
+            .maximumSegmentSize(64 * 1024)
+            .syncWrites(true)
+            .build());
+
+        Flux.range(0, 20)
+            .flatMap(i -> blobStore.save(TEST_BUCKET_NAME, new TestBlobId("blob-" + i), ELEVEN_KILOBYTES))
+            .blockLast();
+
+        assertThat(IntStream.range(0, 20)
+            .mapToObj(i -> blobStore.readBytes(TEST_BUCKET_NAME, new TestBlobId("blob-" + i)).block()))
+            .allSatisfy(bytes -> assertThat(bytes).isEqualTo(ELEVEN_KILOBYTES));
+    }
+
+    @Test
+    void compactionShouldReclaimSegmentsOfDeletedBlobs() throws Exception {
+        Flux.range(0, 30)
+            .concatMap(i -> blobStore.save(TEST_BUCKET_NAME, new TestBlobId("blob-" + i), ELEVEN_KILOBYTES))
+            .blockLast();
+        long segmentsBeforeDeletion = segmentCount();
+
+        Flux.range(0, 25)
+            .concatMap(i -> blobStore.delete(TEST_BUCKET_NAME, new TestBlobId("blob-" + i)))
+            .blockLast();
+
+        Awaitility.await().atMost(ONE_MINUTE)
+            .untilAsserted(() -> assertThat(segmentCount()).isLessThan(segmentsBeforeDeletion));
+    }
+
+    @Test
+    void streamsShouldRemainReadableWhenTheirSegmentIsCompacted() throws Exception {
+        Flux.range(0, 30)
+            .concatMap(i -> blobStore.save(TEST_BUCKET_NAME, new TestBlobId("blob-" + i), ELEVEN_KILOBYTES))
+            .blockLast();
+
+        try (InputStream stream = blobStore.read(TEST_BUCKET_NAME, new TestBlobId("blob-0"))) {
+            Flux.range(1, 25)
+                .concatMap(i -> blobStore.delete(TEST_BUCKET_NAME, new TestBlobId("blob-" + i)))
+                .blockLast();
+            blobStore.compact(TEST_BUCKET_NAME).block();
+
+            assertThat(stream).hasBinaryContent(ELEVEN_KILOBYTES);
+        }
+        assertThat(blobStore.read(TEST_BUCKET_NAME, new TestBlobId("blob-0"))).hasBinaryContent(ELEVEN_KILOBYTES);
+    }
+
+    @Test
+    void compactionShouldPreserveLiveBlobs() {
+        Flux.range(0, 30)
+            .concatMap(i -> blobStore.save(TEST_BUCKET_NAME, new TestBlobId("blob-" + i), ELEVEN_KILOBYTES))
+            .blockLast();
+        Flux.range(0, 25)
+            .concatMap(i -> blobStore.delete(TEST_BUCKET_NAME, new TestBlobId("blob-" + i)))
+            .blockLast();
+
+        blobStore.compact(TEST_BUCKET_NAME).block();
+        PackedFileBlobStoreDAO reopened = reopen();
+
+        assertThat(Flux.from(reopened.listBlobs(TEST_BUCKET_NAME)).map(BlobId::asString).collectList().block())
+            .containsExactlyInAnyOrder("blob-25", "blob-26", "blob-27", "blob-28", "blob-29");
+        assertThat(IntStream.range(25, 30)
+            .mapToObj(i -> reopened.readBytes(TEST_BUCKET_NAME, new TestBlobId("blob-" + i)).block()))
+            .allSatisfy(bytes -> assertThat(bytes).isEqualTo(ELEVEN_KILOBYTES));
+    }
+}
@@ -30,6 +30,7 @@ import java.security.GeneralSecurityException;
 import java.security.KeyStore;
 import java.security.cert.X509Certificate;
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
@@ -46,6 +47,7 @@ import org.apache.commons.io.IOUtils;
 import org.apache.james.blob.api.BlobId;
 import org.apache.james.blob.api.BlobStoreDAO;
 import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.api.ByteRange;
 import org.apache.james.blob.api.ObjectNotFoundException;
 import org.apache.james.blob.api.ObjectStoreIOException;
 import org.apache.james.lifecycle.api.Startable;
@@ -87,6 +89,7 @@ import software.amazon.awssdk.services.s3.model.NoSuchBucketException;
 import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
 import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
 import software.amazon.awssdk.services.s3.model.S3Object;
 
 public class S3BlobStoreDAO implements BlobStoreDAO, Startable, Closeable {
@@ -142,6 +145,7 @@ public class S3BlobStoreDAO implements BlobStoreDAO, Startable, Closeable {
     private static final Duration FIRST_BACK_OFF = Duration.ofMillis(100);
     private static final boolean LAZY = false;
     private static final int MAX_RETRIES = 5;
+    private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
 
     private final BucketNameResolver bucketNameResolver;
     private final S3AsyncClient client;
@@ -315,6 +319,41 @@ public class S3BlobStoreDAO implements BlobStoreDAO, Startable, Closeable {
             .onErrorMap(e -> e.getCause() instanceof OutOfMemoryError, Throwable::getCause);
     }
 
+    @Override
+    public Mono<byte[]> readRange(BucketName bucketName, BlobId blobId, long offset, long length) {
+        ByteRange range = new ByteRange(offset, length);
+        BucketName resolvedBucketName = bucketNameResolver.resolve(bucketName);
+        return Mono.fromFuture(() ->
+                client.getObject(
+                    builder -> builder.bucket(resolvedBucketName.asString()).key(blobId.asString())
+                        .range(httpRange(range)),
+                    new MinimalCopyBytesResponseTransformer(configuration, blobId)))
+            .onErrorMap(NoSuchBucketException.class, e -> new ObjectNotFoundException("Bucket not found " + resolvedBucketName.asString(), e))
+            .onErrorMap(NoSuchKeyException.class, e -> new ObjectNotFoundException("Blob not found " + blobId.asString() + " in bucket " + resolvedBucketName.asString(), e))
+            .publishOn(Schedulers.parallel())
+            .map(BytesWrapper::asByteArrayUnsafe)
+            .map(bytes -> trim(bytes, range.length()))
+            .onErrorResume(e -> e instanceof S3Exception && ((S3Exception) e).statusCode() == HTTP_RANGE_NOT_SATISFIABLE,
+                e -> Mono.just(new byte[0]))
+            .onErrorMap(e -> e.getCause() instanceof OutOfMemoryError, Throwable::getCause);
+    }
+
+    private String httpRange(ByteRange range) {
+        if (range.end() == Long.MAX_VALUE) {
+            return "bytes=" + range.offset() + "-";
+        }
+        // HTTP ranges can not be empty: request at least one octet and trim the result
+        long lastOctet = Math.max(range.end() - 1, range.offset());
+        return "bytes=" + range.offset() + "-" + lastOctet;
+    }
+
+    private byte[] trim(byte[] bytes, long length) {
+        if (bytes.length <= length) {
+            return bytes;
+        }
+        return Arrays.copyOf(bytes, (int) length);
+    }
+
     @Override
     public Mono<Void> save(BucketName bucketName, BlobId blobId, byte[] data) {
         BucketName resolvedBucketName = bucketNameResolver.resolve(bucketName);
@@ -0,0 +1,60 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.server.blob.cache;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BlobStoreCache;
+import org.reactivestreams.Publisher;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Chains a node-local {@link BlobStoreCache} in front of a shared one.
+ *
+ * Reads hitting the shared cache populate the local one.
+ */
+public class ChainedBlobStoreCache implements BlobStoreCache {
+    private final BlobStoreCache local;
+    private final BlobStoreCache shared;
+
+    public ChainedBlobStoreCache(BlobStoreCache local, BlobStoreCache shared) {
+        this.local = local;
+        this.shared = shared;
+    }
+
+    @Override
+    public Publisher<Void> cache(BlobId blobId, byte[] data) {
+        return Mono.from(local.cache(blobId, data))
+            .then(Mono.from(shared.cache(blobId, data)));
+    }
+
+    @Override
+    public Publisher<byte[]> read(BlobId blobId) {
+        return Mono.from(local.read(blobId))
+            .switchIfEmpty(Mono.from(shared.read(blobId))
+                .flatMap(bytes -> Mono.from(local.cache(blobId, bytes))
+                    .thenReturn(bytes)));
+    }
+
+    @Override
+    public Publisher<Void> remove(BlobId blobId) {
+        return Mono.from(local.remove(blobId))
+            .then(Mono.from(shared.remove(blobId)));
+    }
+}
@@ -0,0 +1,76 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.server.blob.cache;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BlobStoreCache;
+import org.apache.james.metrics.api.GaugeRegistry;
+import org.reactivestreams.Publisher;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * A node-local, size bounded {@link BlobStoreCache}.
+ *
+ * Caffeine relies on W-TinyLFU for admission and eviction, keeping frequently read blobs like headers over one-off
+ * reads. Blobs are immutable for a given {@link BlobId}: deleted blobs might linger on other nodes until the TTL
+ * expires.
+ */
+public class LocalBlobStoreCache implements BlobStoreCache {
+    public static final String HIT_COUNT_GAUGE_NAME = "blobStoreLocalCacheHits";
+    public static final String MISS_COUNT_GAUGE_NAME = "blobStoreLocalCacheMisses";
+    public static final String EVICTION_COUNT_GAUGE_NAME = "blobStoreLocalCacheEvictions";
+    public static final String SIZE_GAUGE_NAME = "blobStoreLocalCacheSizeInBytes";
+
+    private final Cache<BlobId, byte[]> cache;
+
+    public LocalBlobStoreCache(LocalBlobStoreCacheConfiguration configuration, GaugeRegistry gaugeRegistry) {
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(configuration.getMaximumSizeInBytes())
+            .weigher((BlobId blobId, byte[] bytes) -> bytes.length)
+            .expireAfterWrite(configuration.getTtl())
+            .recordStats()
+            .build();
+
+        gaugeRegistry.register(HIT_COUNT_GAUGE_NAME, () -> cache.stats().hitCount())
+            .register(MISS_COUNT_GAUGE_NAME, () -> cache.stats().missCount())
+            .register(EVICTION_COUNT_GAUGE_NAME, () -> cache.stats().evictionCount())
+            .register(SIZE_GAUGE_NAME, () -> cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L));
+    }
+
+    @Override
+    public Publisher<Void> cache(BlobId blobId, byte[] data) {
+        return Mono.fromRunnable(() -> cache.put(blobId, data));
+    }
+
+    @Override
+    public Publisher<byte[]> read(BlobId blobId) {
+        return Mono.fromCallable(() -> cache.getIfPresent(blobId));
+    }
+
+    @Override
+    public Publisher<Void> remove(BlobId blobId) {
+        return Mono.fromRunnable(() -> cache.invalidate(blobId));
+    }
+}
@@ -0,0 +1,122 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.server.blob.cache;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.apache.commons.configuration2.Configuration;
+import org.apache.james.util.DurationParser;
+import org.apache.james.util.SizeFormat;
+
+import com.google.common.base.Preconditions;
+
+public class LocalBlobStoreCacheConfiguration {
+
+    public static class Builder {
+        private static final long DEFAULT_MAXIMUM_SIZE_IN_BYTES = 256 * 1024 * 1024;
+        private static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+
+        private Optional<Long> maximumSizeInBytes = Optional.empty();
+        private Optional<Duration> ttl = Optional.empty();
+
+        public Builder maximumSizeInBytes(long maximumSizeInBytes) {
+            Preconditions.checkArgument(maximumSizeInBytes > 0, "'Maximum size' needs to be strictly positive");
+
+            this.maximumSizeInBytes = Optional.of(maximumSizeInBytes);
+            return this;
+        }
+
+        public Builder maximumSizeInBytes(Optional<Long> maximumSizeInBytes) {
+            maximumSizeInBytes.ifPresent(this::maximumSizeInBytes);
+            return this;
+        }
+
+        public Builder ttl(Duration ttl) {
+            Preconditions.checkNotNull(ttl, "'TTL' must not to be null");
+            Preconditions.checkArgument(!ttl.isNegative() && !ttl.isZero(), "'TTL' needs to be positive");
+
+            this.ttl = Optional.of(ttl);
+            return this;
+        }
+
+        public Builder ttl(Optional<Duration> ttl) {
+            ttl.ifPresent(this::ttl);
+            return this;
+        }
+
+        public LocalBlobStoreCacheConfiguration build() {
+            return new LocalBlobStoreCacheConfiguration(
+                maximumSizeInBytes.orElse(DEFAULT_MAXIMUM_SIZE_IN_BYTES),
+                ttl.orElse(DEFAULT_TTL));
+        }
+    }
+
+    public static final LocalBlobStoreCacheConfiguration DEFAULT = builder().build();
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static LocalBlobStoreCacheConfiguration from(Configuration configuration) {
+        Optional<Long> maximumSize = Optional.ofNullable(configuration.getString("cache.local.maximumSize", null))
+            .map(SizeFormat::parseAsByteCount);
+        Optional<Duration> ttl = Optional.ofNullable(configuration.getString("cache.local.ttl", null))
+            .map(value -> DurationParser.parse(value, ChronoUnit.SECONDS));
+
+        return builder()
+            .maximumSizeInBytes(maximumSize)
+            .ttl(ttl)
+            .build();
+    }
+
+    private final long maximumSizeInBytes;
+    private final Duration ttl;
+
+    private LocalBlobStoreCacheConfiguration(long maximumSizeInBytes, Duration ttl) {
+        this.maximumSizeInBytes = maximumSizeInBytes;
+        this.ttl = ttl;
+    }
+
+    public long getMaximumSizeInBytes() {
+        return maximumSizeInBytes;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof LocalBlobStoreCacheConfiguration) {
+            LocalBlobStoreCacheConfiguration that = (LocalBlobStoreCacheConfiguration) o;
+
+            return Objects.equals(this.maximumSizeInBytes, that.maximumSizeInBytes)
+                && Objects.equals(this.ttl, that.ttl);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(maximumSizeInBytes, ttl);
+    }
+}
@@ -0,0 +1,91 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.server.blob.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BlobStoreCache;
+import org.apache.james.blob.api.BlobStoreCacheContract;
+import org.apache.james.blob.api.HashBlobId;
+import org.apache.james.metrics.api.NoopGaugeRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import reactor.core.publisher.Mono;
+
+class LocalBlobStoreCacheTest implements BlobStoreCacheContract {
+    private static final Duration _2_SEC_TTL = Duration.ofSeconds(2);
+
+    private BlobStoreCache testee;
+    private HashBlobId.Factory blobIdFactory;
+
+    @BeforeEach
+    void setUp() {
+        blobIdFactory = new HashBlobId.Factory();
+        testee = new LocalBlobStoreCache(LocalBlobStoreCacheConfiguration.builder()
+                .maximumSizeInBytes(1024 * 1024)
+                .ttl(_2_SEC_TTL)
+                .build(),
+            new NoopGaugeRegistry());
+    }
+
+    @Override
+    public BlobStoreCache testee() {
+        return testee;
+    }
+
+    @Override
+    public BlobId.Factory blobIdFactory() {
+        return blobIdFactory;
+    }
+
+    @Test
+    void chainedCacheShouldPopulateLocalCacheUponSharedCacheHits() {
+        BlobStoreCache shared = new LocalBlobStoreCache(LocalBlobStoreCacheConfiguration.builder()
+                .maximumSizeInBytes(1024 * 1024)
+                .build(),
+            new NoopGaugeRegistry());
+        ChainedBlobStoreCache chained = new ChainedBlobStoreCache(testee, shared);
+        BlobId blobId = blobIdFactory.randomId();
+        Mono.from(shared.cache(blobId, EIGHT_KILOBYTES)).block();
+
+        Mono.from(chained.read(blobId)).block();
+
+        assertThat(Mono.from(testee.read(blobId)).block()).containsExactly(EIGHT_KILOBYTES);
+    }
+
+    @Test
+    void chainedCacheShouldRemoveFromBothCaches() {
+        BlobStoreCache shared = new LocalBlobStoreCache(LocalBlobStoreCacheConfiguration.builder()
+                .maximumSizeInBytes(1024 * 1024)
+                .build(),
+            new NoopGaugeRegistry());
+        ChainedBlobStoreCache chained = new ChainedBlobStoreCache(testee, shared);
+        BlobId blobId = blobIdFactory.randomId();
+        Mono.from(chained.cache(blobId, EIGHT_KILOBYTES)).block();
+
+        Mono.from(chained.remove(blobId)).block();
+
+        assertThat(Mono.from(testee.read(blobId)).blockOptional()).isEmpty();
+        assertThat(Mono.from(shared.read(blobId)).blockOptional()).isEmpty();
+    }
+}
@@ -28,7 +28,12 @@ import java.io.LineNumberReader;
 import java.io.OutputStream;
 import java.io.SequenceInputStream;
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
 
 import jakarta.activation.DataHandler;
@@ -46,7 +51,9 @@ import org.apache.commons.io.input.UnsynchronizedBufferedInputStream;
 import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
 import org.apache.james.lifecycle.api.Disposable;
 import org.apache.james.lifecycle.api.LifecycleUtil;
+import org.apache.mailet.base.RFC2822Headers;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.io.CountingInputStream;
 
 /**
@@ -95,6 +102,11 @@ public class MimeMessageWrapper extends MimeMessage implements Disposable {
 
     private long initialHeaderSize;
 
+    /**
+     * Case-insensitive view over {@link #headers}, built on first lookup and dropped on header mutation.
+     */
+    private HeaderIndex headerIndex;
+
     private MimeMessageWrapper(Session session) {
         super(session);
         this.headers = null;
@@ -444,18 +456,53 @@ public class MimeMessageWrapper extends MimeMessage implements Disposable {
 
     @Override
     public String[] getHeader(String name) throws MessagingException {
-        if (headers == null) {
-            loadHeaders();
+        List<String> values = headerIndex().rawValues(name);
+        if (values.isEmpty()) {
+            return null;
         }
-        return headers.getHeader(name);
+        return values.toArray(String[]::new);
     }
 
     @Override
     public String getHeader(String name, String delimiter) throws MessagingException {
+        List<String> values = headerIndex().rawValues(name);
+        if (values.isEmpty()) {
+            return null;
+        }
+        if (values.size() == 1 || delimiter == null) {
+            return values.get(0);
+        }
+        return String.join(delimiter, values);
+    }
+
+    /**
+     * Returns the values of the given header, unfolded and with RFC 2047 encoded words decoded.
+     *
+     * Values are decoded once per header name and cached until the headers are modified.
+     *
+     * @return the decoded values, in header order, or an empty list if the header is absent
+     */
+    public List<String> getDecodedHeader(String name) throws MessagingException {
+        return headerIndex().decodedValues(name);
+    }
+
+    @Override
+    public String getSubject() throws MessagingException {
+        List<String> subjects = getDecodedHeader(RFC2822Headers.SUBJECT);
+        if (subjects.isEmpty()) {
+            return null;
+        }
+        return subjects.get(0);
+    }
+
+    private HeaderIndex headerIndex() throws MessagingException {
         if (headers == null) {
             loadHeaders();
         }
-        return headers.getHeader(name, delimiter);
+        if (headerIndex == null || !headerIndex.indexes(headers)) {
+            headerIndex = HeaderIndex.of(headers);
+        }
+        return headerIndex;
     }
 
     @Override
@@ -531,24 +578,28 @@ public class MimeMessageWrapper extends MimeMessage implements Disposable {
             return;
         }
         super.setHeader(name, value);
+        headerIndex = null;
     }
 
     @Override
     public void addHeader(String name, String value) throws MessagingException {
         checkModifyHeaders();
         super.addHeader(name, value);
+        headerIndex = null;
     }
 
     @Override
     public void removeHeader(String name) throws MessagingException {
         checkModifyHeaders();
         super.removeHeader(name);
+        headerIndex = null;
     }
 
     @Override
     public void addHeaderLine(String line) throws MessagingException {
         checkModifyHeaders();
         super.addHeaderLine(line);
+        headerIndex = null;
     }
 
     /**
@@ -561,6 +612,7 @@ public class MimeMessageWrapper extends MimeMessage implements Disposable {
         saved = false;
         bodyModified = true;
         super.setDataHandler(arg0);
+        headerIndex = null;
     }
 
     @Override
@@ -727,4 +779,57 @@ public class MimeMessageWrapper extends MimeMessage implements Disposable {
         }
     }
 
+
+    /**
+     * Groups header values by lower-cased name so that lookups do not scan every header line.
+     */
+    private static final class HeaderIndex {
+        static HeaderIndex of(InternetHeaders headers) {
+            Map<String, List<String>> rawValues = new HashMap<>();
+            Enumeration<Header> allHeaders = headers.getAllHeaders();
+            while (allHeaders.hasMoreElements()) {
+                Header header = allHeaders.nextElement();
+                rawValues.computeIfAbsent(key(header.getName()), any -> new ArrayList<>())
+                    .add(header.getValue());
+            }
+            return new HeaderIndex(headers, rawValues);
+        }
+
+        private static String key(String name) {
+            return name.toLowerCase(Locale.US);
+        }
+
+        private static String decode(String rawValue) {
+            try {
+                return MimeUtility.decodeText(MimeUtility.unfold(rawValue));
+            } catch (UnsupportedEncodingException e) {
+                return rawValue;
+            }
+        }
+
+        private final InternetHeaders headers;
+        private final Map<String, List<String>> rawValues;
+        private final Map<String, List<String>> decodedValues;
+
+        private HeaderIndex(InternetHeaders headers, Map<String, List<String>> rawValues) {
+            this.headers = headers;
+            this.rawValues = rawValues;
+            this.decodedValues = new HashMap<>();
+        }
+
+        boolean indexes(InternetHeaders headers) {
+            return this.headers == headers;
+        }
+
+        List<String> rawValues(String name) {
+            return rawValues.getOrDefault(key(name), ImmutableList.of());
+        }
+
+        List<String> decodedValues(String name) {
+            return decodedValues.computeIfAbsent(key(name), lowerCaseName -> rawValues.getOrDefault(lowerCaseName, ImmutableList.of())
+                .stream()
+                .map(HeaderIndex::decode)
+                .collect(ImmutableList.toImmutableList()));
+        }
+    }
 }
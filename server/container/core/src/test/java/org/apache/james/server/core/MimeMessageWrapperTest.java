@@ -404,4 +404,47 @@ public class MimeMessageWrapperTest extends MimeMessageFromStreamTest {
             IOUtils.consume(wrapper.getMessageInputStream()));
         LifecycleUtil.dispose(wrapper);
     }
+
+    @Test
+    void getHeaderShouldBeCaseInsensitive() throws Exception {
+        assertThat(mw.getHeader("SUBJECT")).containsExactly("foo");
+        assertThat(mw.getHeader("subject", ",")).isEqualTo("foo");
+    }
+
+    @Test
+    void getHeaderShouldReturnNullWhenAbsent() throws Exception {
+        assertThat(mw.getHeader("X-Absent")).isNull();
+        assertThat(mw.getHeader("X-Absent", ",")).isNull();
+    }
+
+    @Test
+    void getHeaderShouldReflectModificationsMadeAfterALookup() throws Exception {
+        assertThat(mw.getHeader("X-Test")).isNull();
+
+        mw.addHeader("X-Test", "value1");
+        mw.addHeader("X-Test", "value2");
+        assertThat(mw.getHeader("X-Test", ", ")).isEqualTo("value1, value2");
+
+        mw.removeHeader("X-Test");
+        assertThat(mw.getHeader("X-Test")).isNull();
+    }
+
+    @Test
+    void getDecodedHeaderShouldDecodeEncodedWords() throws Exception {
+        MimeMessageWrapper message = getMessageFromSources("Subject: =?UTF-8?Q?caf=C3=A9?=\r\nX-Folded: a\r\n b" + sep + body);
+
+        assertThat(message.getDecodedHeader("subject")).containsExactly("café");
+        assertThat(message.getDecodedHeader("X-Folded")).containsExactly("a b");
+        assertThat(message.getSubject()).isEqualTo("café");
+        LifecycleUtil.dispose(message);
+    }
+
+    @Test
+    void getSubjectShouldReflectSubjectUpdates() throws Exception {
+        assertThat(mw.getSubject()).isEqualTo("foo");
+
+        mw.setSubject("bar");
+
+        assertThat(mw.getSubject()).isEqualTo("bar");
+    }
 }
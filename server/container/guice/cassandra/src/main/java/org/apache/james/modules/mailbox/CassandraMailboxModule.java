@@ -21,6 +21,8 @@ package org.apache.james.modules.mailbox;
 import static org.apache.james.modules.Names.MAILBOXMANAGER_NAME;
 
 import java.io.FileNotFoundException;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
 
 import jakarta.inject.Singleton;
 
@@ -105,6 +107,9 @@ import org.apache.james.mailbox.indexer.MessageIdReIndexer;
 import org.apache.james.mailbox.indexer.ReIndexer;
 import org.apache.james.mailbox.model.MailboxId;
 import org.apache.james.mailbox.model.MessageId;
+import org.apache.james.mailbox.store.BatchSizes;
+import org.apache.james.mailbox.store.MailboxManagerConfiguration;
+import org.apache.james.mailbox.store.MailboxResolutionCache;
 import org.apache.james.mailbox.store.MailboxSessionMapperFactory;
 import org.apache.james.mailbox.store.NoMailboxPathLocker;
 import org.apache.james.mailbox.store.SessionProviderImpl;
@@ -124,6 +129,7 @@ import org.apache.james.mailbox.store.mail.UidProvider;
 import org.apache.james.mailbox.store.user.SubscriptionMapperFactory;
 import org.apache.james.user.api.DeleteUserDataTaskStep;
 import org.apache.james.user.api.UsernameChangeTaskStep;
+import org.apache.james.util.DurationParser;
 import org.apache.james.utils.MailboxManagerDefinition;
 import org.apache.james.utils.PropertiesProvider;
 import org.apache.mailbox.tools.indexer.MessageIdReIndexerImpl;
@@ -282,6 +288,28 @@ public class CassandraMailboxModule extends AbstractModule {
         }
     }
 
+    @Provides
+    @Singleton
+    MailboxManagerConfiguration providesMailboxManagerConfiguration(BatchSizes batchSizes, PropertiesProvider propertiesProvider) throws ConfigurationException {
+        try {
+            Configuration configuration = propertiesProvider.getConfiguration("cassandra");
+            return new MailboxManagerConfiguration(batchSizes, mailboxResolutionCache(configuration));
+        } catch (FileNotFoundException e) {
+            return new MailboxManagerConfiguration(batchSizes);
+        }
+    }
+
+    private Optional<MailboxResolutionCache> mailboxResolutionCache(Configuration configuration) {
+        if (!configuration.getBoolean("mailbox.resolution.cache.enabled", false)) {
+            return Optional.empty();
+        }
+        return Optional.of(new MailboxResolutionCache(
+            Optional.ofNullable(configuration.getString("mailbox.resolution.cache.ttl", null))
+                .map(ttl -> DurationParser.parse(ttl, ChronoUnit.SECONDS))
+                .orElse(MailboxResolutionCache.DEFAULT_EXPIRACY),
+            configuration.getLong("mailbox.resolution.cache.max.users", MailboxResolutionCache.DEFAULT_MAXIMUM_USERS)));
+    }
+
     @Provides
     @Singleton
     CassandraChangesConfiguration providesCassandraChangesConfiguration(PropertiesProvider propertiesProvider) throws ConfigurationException {
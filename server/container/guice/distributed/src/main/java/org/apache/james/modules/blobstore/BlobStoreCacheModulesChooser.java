@@ -29,14 +29,18 @@ import org.apache.commons.configuration2.ex.ConfigurationException;
 import org.apache.james.backends.cassandra.components.CassandraModule;
 import org.apache.james.backends.cassandra.init.configuration.InjectionNames;
 import org.apache.james.blob.api.BlobStore;
+import org.apache.james.blob.api.BlobStoreCache;
 import org.apache.james.blob.api.MetricableBlobStore;
-import org.apache.james.blob.cassandra.cache.BlobStoreCache;
 import org.apache.james.blob.cassandra.cache.CachedBlobStore;
 import org.apache.james.blob.cassandra.cache.CassandraBlobCacheModule;
 import org.apache.james.blob.cassandra.cache.CassandraBlobStoreCache;
 import org.apache.james.blob.cassandra.cache.CassandraCacheConfiguration;
+import org.apache.james.metrics.api.GaugeRegistry;
 import org.apache.james.modules.mailbox.CassandraCacheSessionModule;
 import org.apache.james.modules.mailbox.ConfigurationComponent;
+import org.apache.james.server.blob.cache.ChainedBlobStoreCache;
+import org.apache.james.server.blob.cache.LocalBlobStoreCache;
+import org.apache.james.server.blob.cache.LocalBlobStoreCacheConfiguration;
 import org.apache.james.utils.PropertiesProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -62,11 +66,37 @@ public class BlobStoreCacheModulesChooser {
         }
     }
 
+    static class LocalCacheModule extends AbstractModule {
+        @Provides
+        @Named(MetricableBlobStore.BLOB_STORE_IMPLEMENTATION)
+        @Singleton
+        BlobStore provideBlobStore(CachedBlobStore cachedBlobStore) {
+            return cachedBlobStore;
+        }
+
+        @Provides
+        @Singleton
+        BlobStoreCache provideBlobStoreCache(PropertiesProvider propertiesProvider, GaugeRegistry gaugeRegistry) throws ConfigurationException {
+            return new LocalBlobStoreCache(localCacheConfiguration(propertiesProvider), gaugeRegistry);
+        }
+
+        @Provides
+        @Singleton
+        CassandraCacheConfiguration providesCacheConfiguration(PropertiesProvider propertiesProvider) throws ConfigurationException {
+            return cacheConfiguration(propertiesProvider);
+        }
+    }
+
     static class CacheEnabledModule extends AbstractModule {
+        private final boolean localCacheEnabled;
+
+        CacheEnabledModule(boolean localCacheEnabled) {
+            this.localCacheEnabled = localCacheEnabled;
+        }
+
         @Override
         protected void configure() {
             bind(CassandraBlobStoreCache.class).in(Scopes.SINGLETON);
-            bind(BlobStoreCache.class).to(CassandraBlobStoreCache.class);
 
             Multibinder.newSetBinder(binder(), CassandraModule.class, Names.named(InjectionNames.CACHE))
                 .addBinding()
@@ -82,20 +112,47 @@ public class BlobStoreCacheModulesChooser {
 
         @Provides
         @Singleton
-        CassandraCacheConfiguration providesCacheConfiguration(PropertiesProvider propertiesProvider) throws ConfigurationException {
-            try {
-                Configuration configuration = propertiesProvider.getConfigurations(ConfigurationComponent.NAMES);
-                return CassandraCacheConfiguration.from(configuration);
-            } catch (FileNotFoundException e) {
-                LOGGER.warn("Could not find " + ConfigurationComponent.NAME + " configuration file, using cassandra cache defaults");
-                return CassandraCacheConfiguration.DEFAULT;
+        BlobStoreCache provideBlobStoreCache(CassandraBlobStoreCache cassandraBlobStoreCache, PropertiesProvider propertiesProvider,
+                                             GaugeRegistry gaugeRegistry) throws ConfigurationException {
+            if (localCacheEnabled) {
+                return new ChainedBlobStoreCache(new LocalBlobStoreCache(localCacheConfiguration(propertiesProvider), gaugeRegistry), cassandraBlobStoreCache);
             }
+            return cassandraBlobStoreCache;
+        }
+
+        @Provides
+        @Singleton
+        CassandraCacheConfiguration providesCacheConfiguration(PropertiesProvider propertiesProvider) throws ConfigurationException {
+            return cacheConfiguration(propertiesProvider);
+        }
+    }
+
+    private static LocalBlobStoreCacheConfiguration localCacheConfiguration(PropertiesProvider propertiesProvider) throws ConfigurationException {
+        try {
+            return LocalBlobStoreCacheConfiguration.from(propertiesProvider.getConfigurations(ConfigurationComponent.NAMES));
+        } catch (FileNotFoundException e) {
+            LOGGER.warn("Could not find " + ConfigurationComponent.NAME + " configuration file, using local cache defaults");
+            return LocalBlobStoreCacheConfiguration.DEFAULT;
+        }
+    }
+
+    // Also carries the size threshold applying to the node-local cache
+    private static CassandraCacheConfiguration cacheConfiguration(PropertiesProvider propertiesProvider) throws ConfigurationException {
+        try {
+            Configuration configuration = propertiesProvider.getConfigurations(ConfigurationComponent.NAMES);
+            return CassandraCacheConfiguration.from(configuration);
+        } catch (FileNotFoundException e) {
+            LOGGER.warn("Could not find " + ConfigurationComponent.NAME + " configuration file, using cassandra cache defaults");
+            return CassandraCacheConfiguration.DEFAULT;
         }
     }
 
     public static List<Module> chooseModules(BlobStoreConfiguration blobStoreConfiguration) {
         if (blobStoreConfiguration.cacheEnabled()) {
-            return ImmutableList.of(new CassandraCacheSessionModule(), new CacheEnabledModule());
+            return ImmutableList.of(new CassandraCacheSessionModule(), new CacheEnabledModule(blobStoreConfiguration.localCacheEnabled()));
+        }
+        if (blobStoreConfiguration.localCacheEnabled()) {
+            return ImmutableList.of(new LocalCacheModule());
         }
         return ImmutableList.of(new CacheDisabledModule());
     }
@@ -29,6 +29,7 @@ import org.apache.commons.configuration2.Configuration;
 import org.apache.commons.configuration2.ex.ConfigurationException;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.james.blob.aes.CryptoConfig;
+import org.apache.james.blob.compression.CompressionConfiguration;
 import org.apache.james.modules.mailbox.ConfigurationComponent;
 import org.apache.james.server.blob.deduplication.StorageStrategy;
 import org.apache.james.server.core.filesystem.FileSystemImpl;
@@ -59,6 +60,10 @@ public class BlobStoreConfiguration {
         default RequireCache s3() {
             return implementation(BlobStoreImplName.S3);
         }
+
+        default RequireCache filePacked() {
+            return implementation(BlobStoreImplName.FILE_PACKED);
+        }
     }
 
     @FunctionalInterface
@@ -108,6 +113,7 @@ public class BlobStoreConfiguration {
     public enum BlobStoreImplName {
         CASSANDRA("cassandra"),
         FILE("file"),
+        FILE_PACKED("file-packed"),
         S3("s3");
 
         static String supportedImplNames() {
@@ -137,11 +143,15 @@ public class BlobStoreConfiguration {
 
     static final String BLOBSTORE_IMPLEMENTATION_PROPERTY = "implementation";
     static final String CACHE_ENABLE_PROPERTY = "cache.enable";
+    static final String LOCAL_CACHE_ENABLE_PROPERTY = "cache.local.enable";
     static final String ENCRYPTION_ENABLE_PROPERTY = "encryption.aes.enable";
     static final String ENCRYPTION_PASSWORD_PROPERTY = "encryption.aes.password";
     static final String ENCRYPTION_SALT_PROPERTY = "encryption.aes.salt";
     static final boolean CACHE_ENABLED = true;
     static final String DEDUPLICATION_ENABLE_PROPERTY = "deduplication.enable";
+    static final String COMPRESSION_ENABLE_PROPERTY = "compression.zstd.enable";
+    static final String COMPRESSION_THRESHOLD_PROPERTY = "compression.zstd.threshold";
+    static final String COMPRESSION_LEVEL_PROPERTY = "compression.zstd.level";
 
     public static BlobStoreConfiguration parse(org.apache.james.server.core.configuration.Configuration configuration) throws ConfigurationException {
         PropertiesProvider propertiesProvider = new PropertiesProvider(new FileSystemImpl(configuration.directories()),
@@ -173,6 +183,7 @@ public class BlobStoreConfiguration {
                 "supported values in: %s", BLOBSTORE_IMPLEMENTATION_PROPERTY, BlobStoreImplName.supportedImplNames())));
 
         boolean cacheEnabled = configuration.getBoolean(CACHE_ENABLE_PROPERTY, false);
+        boolean localCacheEnabled = configuration.getBoolean(LOCAL_CACHE_ENABLE_PROPERTY, false);
         boolean deduplicationEnabled = Try.ofCallable(() -> configuration.getBoolean(DEDUPLICATION_ENABLE_PROPERTY))
                 .getOrElseThrow(() -> new IllegalStateException("deduplication.enable property is missing please use one of the supported values in: true, false\n" +
                         "If you choose to enable deduplication, the mails with the same content will be stored only once.\n" +
@@ -180,19 +191,24 @@ public class BlobStoreConfiguration {
                         "the mails sharing the same content once one is deleted.\n" +
                         "Upgrade note: If you are upgrading from James 3.5 or older, the deduplication was enabled."));
         Optional<CryptoConfig> cryptoConfig = parseCryptoConfig(configuration);
+        Optional<CompressionConfiguration> compressionConfiguration = parseCompressionConfiguration(configuration);
 
         if (deduplicationEnabled) {
             return builder()
                 .implementation(blobStoreImplName)
                 .enableCache(cacheEnabled)
                 .deduplication()
-                .cryptoConfig(cryptoConfig);
+                .cryptoConfig(cryptoConfig)
+                .compression(compressionConfiguration)
+                .localCache(localCacheEnabled);
         } else {
             return builder()
                 .implementation(blobStoreImplName)
                 .enableCache(cacheEnabled)
                 .passthrough()
-                .cryptoConfig(cryptoConfig);
+                .cryptoConfig(cryptoConfig)
+                .compression(compressionConfiguration)
+                .localCache(localCacheEnabled);
         }
     }
 
@@ -207,6 +223,18 @@ public class BlobStoreConfiguration {
         return Optional.empty();
     }
 
+    private static Optional<CompressionConfiguration> parseCompressionConfiguration(Configuration configuration) {
+        if (configuration.getBoolean(COMPRESSION_ENABLE_PROPERTY, false)) {
+            CompressionConfiguration.Builder builder = CompressionConfiguration.builder();
+            Optional.ofNullable(configuration.getInteger(COMPRESSION_THRESHOLD_PROPERTY, null))
+                .ifPresent(builder::threshold);
+            Optional.ofNullable(configuration.getInteger(COMPRESSION_LEVEL_PROPERTY, null))
+                .ifPresent(builder::level);
+            return Optional.of(builder.build());
+        }
+        return Optional.empty();
+    }
+
     @VisibleForTesting
     public static RequireStoringStrategy cassandra() {
         return builder()
@@ -222,18 +250,43 @@ public class BlobStoreConfiguration {
     private final boolean cacheEnabled;
     private final StorageStrategy storageStrategy;
     private final Optional<CryptoConfig> cryptoConfig;
+    private final Optional<CompressionConfiguration> compressionConfiguration;
+    private final boolean localCacheEnabled;
 
     BlobStoreConfiguration(BlobStoreImplName implementation, boolean cacheEnabled, StorageStrategy storageStrategy, Optional<CryptoConfig> cryptoConfig) {
+        this(implementation, cacheEnabled, storageStrategy, cryptoConfig, Optional.empty(), false);
+    }
+
+    BlobStoreConfiguration(BlobStoreImplName implementation, boolean cacheEnabled, StorageStrategy storageStrategy, Optional<CryptoConfig> cryptoConfig,
+                           Optional<CompressionConfiguration> compressionConfiguration, boolean localCacheEnabled) {
         this.implementation = implementation;
         this.cacheEnabled = cacheEnabled;
         this.storageStrategy = storageStrategy;
         this.cryptoConfig = cryptoConfig;
+        this.compressionConfiguration = compressionConfiguration;
+        this.localCacheEnabled = localCacheEnabled;
+    }
+
+    public BlobStoreConfiguration compression(Optional<CompressionConfiguration> compressionConfiguration) {
+        return new BlobStoreConfiguration(implementation, cacheEnabled, storageStrategy, cryptoConfig, compressionConfiguration, localCacheEnabled);
+    }
+
+    public BlobStoreConfiguration compression(CompressionConfiguration compressionConfiguration) {
+        return compression(Optional.of(compressionConfiguration));
+    }
+
+    public BlobStoreConfiguration localCache(boolean enabled) {
+        return new BlobStoreConfiguration(implementation, cacheEnabled, storageStrategy, cryptoConfig, compressionConfiguration, enabled);
     }
 
     public boolean cacheEnabled() {
         return cacheEnabled;
     }
 
+    public boolean localCacheEnabled() {
+        return localCacheEnabled;
+    }
+
     public StorageStrategy storageStrategy() {
         return storageStrategy;
     }
@@ -246,6 +299,10 @@ public class BlobStoreConfiguration {
         return cryptoConfig;
     }
 
+    public Optional<CompressionConfiguration> getCompressionConfiguration() {
+        return compressionConfiguration;
+    }
+
     @Override
     public final boolean equals(Object o) {
         if (o instanceof BlobStoreConfiguration) {
@@ -254,14 +311,16 @@ public class BlobStoreConfiguration {
             return Objects.equals(this.implementation, that.implementation)
                 && Objects.equals(this.cacheEnabled, that.cacheEnabled)
                 && Objects.equals(this.storageStrategy, that.storageStrategy)
-                && Objects.equals(this.cryptoConfig, that.cryptoConfig);
+                && Objects.equals(this.cryptoConfig, that.cryptoConfig)
+                && Objects.equals(this.compressionConfiguration, that.compressionConfiguration)
+                && Objects.equals(this.localCacheEnabled, that.localCacheEnabled);
         }
         return false;
     }
 
     @Override
     public final int hashCode() {
-        return Objects.hash(implementation, cacheEnabled, storageStrategy, cryptoConfig);
+        return Objects.hash(implementation, cacheEnabled, storageStrategy, cryptoConfig, compressionConfiguration, localCacheEnabled);
     }
 
     @Override
@@ -271,6 +330,8 @@ public class BlobStoreConfiguration {
             .add("cacheEnabled", cacheEnabled)
             .add("storageStrategy", storageStrategy.name())
             .add("cryptoConfig", cryptoConfig)
+            .add("compressionConfiguration", compressionConfiguration)
+            .add("localCacheEnabled", localCacheEnabled)
             .toString();
     }
 }
@@ -19,9 +19,12 @@
 
 package org.apache.james.modules.blobstore;
 
+import java.io.FileNotFoundException;
 import java.util.List;
 import java.util.Optional;
 
+import org.apache.commons.configuration2.Configuration;
+import org.apache.commons.configuration2.ex.ConfigurationException;
 import org.apache.james.blob.aes.AESBlobStoreDAO;
 import org.apache.james.blob.aes.CryptoConfig;
 import org.apache.james.blob.api.BlobStore;
@@ -29,19 +32,27 @@ import org.apache.james.blob.api.BlobStoreDAO;
 import org.apache.james.blob.api.ObjectStorageHealthCheck;
 import org.apache.james.blob.cassandra.CassandraBlobStoreDAO;
 import org.apache.james.blob.cassandra.cache.CachedBlobStore;
+import org.apache.james.blob.compression.CompressingBlobStoreDAO;
+import org.apache.james.blob.compression.CompressionConfiguration;
 import org.apache.james.blob.file.FileBlobStoreDAO;
+import org.apache.james.blob.file.packed.PackedFileBlobStoreConfiguration;
+import org.apache.james.blob.file.packed.PackedFileBlobStoreDAO;
 import org.apache.james.blob.objectstorage.aws.S3BlobStoreDAO;
 import org.apache.james.core.healthcheck.HealthCheck;
+import org.apache.james.metrics.api.MetricFactory;
 import org.apache.james.modules.blobstore.validation.BlobStoreConfigurationValidationStartUpCheck.StorageStrategySupplier;
 import org.apache.james.modules.blobstore.validation.StoragePolicyConfigurationSanityEnforcementModule;
 import org.apache.james.modules.mailbox.BlobStoreAPIModule;
 import org.apache.james.modules.mailbox.CassandraBlobStoreDependenciesModule;
+import org.apache.james.modules.mailbox.ConfigurationComponent;
 import org.apache.james.modules.mailbox.DefaultBucketModule;
 import org.apache.james.modules.objectstorage.S3BlobStoreModule;
 import org.apache.james.modules.objectstorage.S3BucketModule;
 import org.apache.james.server.blob.deduplication.DeDuplicationBlobStore;
 import org.apache.james.server.blob.deduplication.PassThroughBlobStore;
 import org.apache.james.server.blob.deduplication.StorageStrategy;
+import org.apache.james.util.Size;
+import org.apache.james.utils.PropertiesProvider;
 
 import com.google.common.collect.ImmutableList;
 import com.google.inject.AbstractModule;
@@ -55,6 +66,10 @@ import com.google.inject.name.Names;
 
 public class BlobStoreModulesChooser {
     private static final String UNENCRYPTED = "unencrypted";
+    private static final String UNCOMPRESSED = "uncompressed";
+    static final String PACKED_SEGMENT_MAXIMUM_SIZE_PROPERTY = "file.packed.segment.max.size";
+    static final String PACKED_COMPACTION_THRESHOLD_PROPERTY = "file.packed.compaction.threshold";
+    static final String PACKED_SYNC_WRITES_PROPERTY = "file.packed.sync.writes";
 
     static class CassandraBlobStoreDAODeclarationModule extends AbstractModule {
         @Override
@@ -87,9 +102,40 @@ public class BlobStoreModulesChooser {
         }
     }
 
+    static class PackedFileBlobStoreDAODeclarationModule extends AbstractModule {
+        @Override
+        protected void configure() {
+            install(new DefaultBucketModule());
+
+            bind(PackedFileBlobStoreDAO.class).in(Scopes.SINGLETON);
+            bind(BlobStoreDAO.class).annotatedWith(Names.named(UNENCRYPTED)).to(PackedFileBlobStoreDAO.class);
+        }
+
+        @Provides
+        @Singleton
+        PackedFileBlobStoreConfiguration packedFileBlobStoreConfiguration(PropertiesProvider propertiesProvider) throws ConfigurationException {
+            try {
+                Configuration configuration = propertiesProvider.getConfigurations(ConfigurationComponent.NAMES);
+                PackedFileBlobStoreConfiguration.Builder builder = PackedFileBlobStoreConfiguration.builder();
+                Optional.ofNullable(configuration.getString(PACKED_SEGMENT_MAXIMUM_SIZE_PROPERTY, null))
+                    .map(Size::parse)
+                    .map(Size::asBytes)
+                    .ifPresent(builder::maximumSegmentSize);
+                Optional.ofNullable(configuration.getDouble(PACKED_COMPACTION_THRESHOLD_PROPERTY, null))
+                    .ifPresent(builder::compactionThreshold);
+                Optional.ofNullable(configuration.getBoolean(PACKED_SYNC_WRITES_PROPERTY, null))
+                    .ifPresent(builder::syncWrites);
+                return builder.build();
+            } catch (FileNotFoundException e) {
+                return PackedFileBlobStoreConfiguration.DEFAULT;
+            }
+        }
+    }
+
     static class NoEncryptionModule extends AbstractModule {
         @Provides
         @Singleton
+        @Named(UNCOMPRESSED)
         BlobStoreDAO blobStoreDAO(@Named(UNENCRYPTED) BlobStoreDAO unencrypted) {
             return unencrypted;
         }
@@ -104,6 +150,7 @@ public class BlobStoreModulesChooser {
 
         @Provides
         @Singleton
+        @Named(UNCOMPRESSED)
         BlobStoreDAO blobStoreDAO(@Named(UNENCRYPTED) BlobStoreDAO unencrypted) {
             return new AESBlobStoreDAO(unencrypted, cryptoConfig);
         }
@@ -114,8 +161,32 @@ public class BlobStoreModulesChooser {
         }
     }
 
+    static class NoCompressionModule extends AbstractModule {
+        @Provides
+        @Singleton
+        BlobStoreDAO blobStoreDAO(@Named(UNCOMPRESSED) BlobStoreDAO uncompressed) {
+            return uncompressed;
+        }
+    }
+
+    static class CompressionModule extends AbstractModule {
+        private final CompressionConfiguration compressionConfiguration;
+
+        CompressionModule(CompressionConfiguration compressionConfiguration) {
+            this.compressionConfiguration = compressionConfiguration;
+        }
+
+        // Compression needs to happen before encryption, as ciphertext does not compress
+        @Provides
+        @Singleton
+        BlobStoreDAO blobStoreDAO(@Named(UNCOMPRESSED) BlobStoreDAO uncompressed, MetricFactory metricFactory) {
+            return new CompressingBlobStoreDAO(uncompressed, compressionConfiguration, metricFactory);
+        }
+    }
+
     public static List<Module> chooseModules(BlobStoreConfiguration choosingConfiguration) {
         return ImmutableList.<Module>builder()
+            .add(chooseCompressionModule(choosingConfiguration.getCompressionConfiguration()))
             .add(chooseEncryptionModule(choosingConfiguration.getCryptoConfig()))
             .add(chooseBlobStoreDAOModule(choosingConfiguration.getImplementation()))
             .addAll(chooseStoragePolicyModule(choosingConfiguration.storageStrategy()))
@@ -133,6 +204,8 @@ public class BlobStoreModulesChooser {
                 return new ObjectStorageBlobStoreDAODeclarationModule();
             case FILE:
                 return new FileBlobStoreDAODeclarationModule();
+            case FILE_PACKED:
+                return new PackedFileBlobStoreDAODeclarationModule();
             default:
                 throw new RuntimeException("Unsupported blobStore implementation " + implementation);
         }
@@ -143,6 +216,11 @@ public class BlobStoreModulesChooser {
         return encryptionModule.orElse(new NoEncryptionModule());
     }
 
+    public static Module chooseCompressionModule(Optional<CompressionConfiguration> compressionConfiguration) {
+        Optional<Module> compressionModule = compressionConfiguration.map(CompressionModule::new);
+        return compressionModule.orElse(new NoCompressionModule());
+    }
+
     private static List<Module> chooseStoragePolicyModule(StorageStrategy storageStrategy) {
         switch (storageStrategy) {
             case DEDUPLICATION:
@@ -50,4 +50,32 @@ class BlobStoreCacheModulesChooserTest {
                     BlobStoreCacheModulesChooser.CacheEnabledModule.class,
                     CassandraCacheSessionModule.class));
     }
+
+    @Test
+    void chooseModulesShouldReturnLocalCacheModuleWhenOnlyLocalCacheEnabled() {
+        assertThat(BlobStoreCacheModulesChooser.chooseModules(BlobStoreConfiguration.builder()
+                    .s3()
+                    .disableCache()
+                    .deduplication()
+                    .noCryptoConfig()
+                    .localCache(true)))
+            .hasSize(1)
+            .first()
+            .isInstanceOf(BlobStoreCacheModulesChooser.LocalCacheModule.class);
+    }
+
+    @Test
+    void chooseModulesShouldReturnCacheEnabledAndCassandraCacheModulesWhenBothCachesEnabled() {
+        assertThat(BlobStoreCacheModulesChooser.chooseModules(BlobStoreConfiguration.builder()
+                .s3()
+                .enableCache()
+                .deduplication()
+                .noCryptoConfig()
+                .localCache(true)))
+            .hasSize(2)
+            .allSatisfy(module ->
+                assertThat(module).isOfAnyClassIn(
+                    BlobStoreCacheModulesChooser.CacheEnabledModule.class,
+                    CassandraCacheSessionModule.class));
+    }
 }
\ No newline at end of file
@@ -26,6 +26,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import org.apache.commons.configuration2.PropertiesConfiguration;
 import org.apache.james.FakePropertiesProvider;
 import org.apache.james.blob.aes.CryptoConfig;
+import org.apache.james.blob.compression.CompressionConfiguration;
 import org.apache.james.modules.mailbox.ConfigurationComponent;
 import org.apache.james.server.blob.deduplication.StorageStrategy;
 import org.junit.jupiter.api.Test;
@@ -157,6 +158,90 @@ class BlobStoreConfigurationTest {
                     .build()));
     }
 
+    @Test
+    void compressionShouldBeDisabledByDefault() throws Exception {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("implementation", "cassandra");
+        configuration.addProperty("deduplication.enable", false);
+        FakePropertiesProvider propertyProvider = FakePropertiesProvider.builder()
+            .register(ConfigurationComponent.NAME, configuration)
+            .build();
+
+        assertThat(parse(propertyProvider).getCompressionConfiguration())
+            .isEmpty();
+    }
+
+    @Test
+    void localCacheShouldBeDisabledByDefault() throws Exception {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("implementation", "cassandra");
+        configuration.addProperty("deduplication.enable", false);
+        FakePropertiesProvider propertyProvider = FakePropertiesProvider.builder()
+            .register(ConfigurationComponent.NAME, configuration)
+            .build();
+
+        assertThat(parse(propertyProvider).localCacheEnabled())
+            .isFalse();
+    }
+
+    @Test
+    void localCacheCanBeActivatedWithoutTheCassandraCache() throws Exception {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("implementation", "s3");
+        configuration.addProperty("deduplication.enable", false);
+        configuration.addProperty("cache.local.enable", true);
+        FakePropertiesProvider propertyProvider = FakePropertiesProvider.builder()
+            .register(ConfigurationComponent.NAME, configuration)
+            .build();
+
+        assertThat(parse(propertyProvider))
+            .isEqualTo(BlobStoreConfiguration.builder()
+                .s3()
+                .disableCache()
+                .passthrough()
+                .noCryptoConfig()
+                .localCache(true));
+    }
+
+    @Test
+    void compressionCanBeActivated() throws Exception {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("implementation", "cassandra");
+        configuration.addProperty("deduplication.enable", false);
+        configuration.addProperty("compression.zstd.enable", true);
+        configuration.addProperty("compression.zstd.threshold", 4096);
+        configuration.addProperty("compression.zstd.level", 6);
+        FakePropertiesProvider propertyProvider = FakePropertiesProvider.builder()
+            .register(ConfigurationComponent.NAME, configuration)
+            .build();
+
+        assertThat(parse(propertyProvider))
+            .isEqualTo(BlobStoreConfiguration.builder()
+                .cassandra()
+                .disableCache()
+                .passthrough()
+                .noCryptoConfig()
+                .compression(CompressionConfiguration.builder()
+                    .threshold(4096)
+                    .level(6)
+                    .build()));
+    }
+
+    @Test
+    void compressionShouldRejectInvalidLevel() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("implementation", "cassandra");
+        configuration.addProperty("deduplication.enable", false);
+        configuration.addProperty("compression.zstd.enable", true);
+        configuration.addProperty("compression.zstd.level", 1000);
+        FakePropertiesProvider propertyProvider = FakePropertiesProvider.builder()
+            .register(ConfigurationComponent.NAME, configuration)
+            .build();
+
+        assertThatThrownBy(() -> parse(propertyProvider))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
     @Test
     void provideChoosingConfigurationShouldThrowWhenPropertyFieldIsNotInSupportedList() {
         PropertiesConfiguration configuration = new PropertiesConfiguration();
@@ -22,6 +22,7 @@ package org.apache.james.modules.blobstore;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import org.apache.james.blob.aes.CryptoConfig;
+import org.apache.james.blob.compression.CompressionConfiguration;
 import org.junit.jupiter.api.Test;
 
 class BlobStoreModulesChooserTest {
@@ -48,6 +49,17 @@ class BlobStoreModulesChooserTest {
             .hasSize(1);
     }
 
+    @Test
+    void provideBlobStoreShouldReturnPackedFileBlobStoreWhenPackedFileConfigured() {
+        assertThat(BlobStoreModulesChooser.chooseModules(BlobStoreConfiguration.builder()
+                .filePacked()
+                .disableCache()
+                .passthrough()
+                .noCryptoConfig()))
+            .filteredOn(module -> module instanceof BlobStoreModulesChooser.PackedFileBlobStoreDAODeclarationModule)
+            .hasSize(1);
+    }
+
     @Test
     void provideBlobStoreShouldReturnNoEncryptionWhenNoneConfigured() {
         assertThat(BlobStoreModulesChooser.chooseModules(BlobStoreConfiguration.builder()
@@ -73,4 +85,27 @@ class BlobStoreModulesChooserTest {
             .filteredOn(module -> module instanceof BlobStoreModulesChooser.EncryptionModule)
             .hasSize(1);
     }
-}
\ No newline at end of file
+
+    @Test
+    void provideBlobStoreShouldReturnNoCompressionWhenNoneConfigured() {
+        assertThat(BlobStoreModulesChooser.chooseModules(BlobStoreConfiguration.builder()
+                    .s3()
+                    .disableCache()
+                    .deduplication()
+                    .noCryptoConfig()))
+            .filteredOn(module -> module instanceof BlobStoreModulesChooser.NoCompressionModule)
+            .hasSize(1);
+    }
+
+    @Test
+    void provideBlobStoreShouldReturnCompressionWhenConfigured() {
+        assertThat(BlobStoreModulesChooser.chooseModules(BlobStoreConfiguration.builder()
+                .cassandra()
+                .disableCache()
+                .passthrough()
+                .noCryptoConfig()
+                .compression(CompressionConfiguration.DEFAULT)))
+            .filteredOn(module -> module instanceof BlobStoreModulesChooser.CompressionModule)
+            .hasSize(1);
+    }
+}
@@ -32,6 +32,9 @@ import org.apache.mailbox.tools.indexer.FullReindexingTaskDTO;
 import org.apache.mailbox.tools.indexer.MessageIdReIndexingTask;
 import org.apache.mailbox.tools.indexer.MessageIdReindexingTaskAdditionalInformationDTO;
 import org.apache.mailbox.tools.indexer.MessageIdReindexingTaskDTO;
+import org.apache.mailbox.tools.indexer.PartitionedReindexingTask;
+import org.apache.mailbox.tools.indexer.PartitionedReindexingTaskAdditionalInformationDTO;
+import org.apache.mailbox.tools.indexer.PartitionedReindexingTaskDTO;
 import org.apache.mailbox.tools.indexer.ReIndexerPerformer;
 import org.apache.mailbox.tools.indexer.ReIndexingContextInformationDTO;
 import org.apache.mailbox.tools.indexer.SingleMailboxReindexingTask;
@@ -78,6 +81,11 @@ public class ReIndexingTaskSerializationModule extends AbstractModule {
         return UserReindexingTaskDTO.module(factory);
     }
 
+    @ProvidesIntoSet
+    public TaskDTOModule<? extends Task, ? extends TaskDTO> partitionedReindexingTask(PartitionedReindexingTask.Factory factory) {
+        return PartitionedReindexingTaskDTO.module(factory);
+    }
+
     @ProvidesIntoSet
     public AdditionalInformationDTOModule<? extends TaskExecutionDetails.AdditionalInformation, ? extends  AdditionalInformationDTO> errorRecoveryAdditionalInformation(MailboxId.Factory mailboxIdFactory) {
         return ReIndexingContextInformationDTO.ReIndexingContextInformationForErrorRecoveryIndexationTask.module(mailboxIdFactory);
@@ -107,4 +115,9 @@ public class ReIndexingTaskSerializationModule extends AbstractModule {
     public AdditionalInformationDTOModule<? extends TaskExecutionDetails.AdditionalInformation, ? extends  AdditionalInformationDTO> userReindexingAdditionalInformation(MailboxId.Factory mailboxIdFactory) {
         return UserReindexingTaskAdditionalInformationDTO.module(mailboxIdFactory);
     }
+
+    @ProvidesIntoSet
+    public AdditionalInformationDTOModule<? extends TaskExecutionDetails.AdditionalInformation, ? extends  AdditionalInformationDTO> partitionedReindexingAdditionalInformation(MailboxId.Factory mailboxIdFactory) {
+        return PartitionedReindexingTaskAdditionalInformationDTO.module(mailboxIdFactory);
+    }
 }
@@ -0,0 +1,67 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james;
+
+import java.io.FileNotFoundException;
+import java.util.Optional;
+
+import org.apache.james.events.EventListener;
+import org.apache.james.filesystem.api.FileSystem;
+import org.apache.james.mailbox.AttachmentContentLoader;
+import org.apache.james.mailbox.SessionProvider;
+import org.apache.james.mailbox.extractor.TextExtractor;
+import org.apache.james.mailbox.model.MailboxId;
+import org.apache.james.mailbox.store.MailboxSessionMapperFactory;
+import org.apache.james.mailbox.store.search.ListeningMessageSearchIndex;
+import org.apache.james.mailbox.store.search.MessageSearchIndex;
+import org.apache.james.mailbox.store.search.indexed.IndexedMessageSearchIndex;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
+import com.google.inject.multibindings.Multibinder;
+
+/**
+ * Backs search with the node local {@link IndexedMessageSearchIndex}. Meant to override the default scanning search of
+ * single node servers: the index relies on receiving every mailbox event of the server.
+ */
+public class IndexedSearchMailboxModule extends AbstractModule {
+    private static final String SNAPSHOT_DIRECTORY = "file://var/search-index";
+
+    @Override
+    protected void configure() {
+        bind(MessageSearchIndex.class).to(IndexedMessageSearchIndex.class);
+        bind(ListeningMessageSearchIndex.class).to(IndexedMessageSearchIndex.class);
+
+        Multibinder.newSetBinder(binder(), EventListener.ReactiveGroupEventListener.class)
+            .addBinding()
+            .to(IndexedMessageSearchIndex.class);
+    }
+
+    @Provides
+    @Singleton
+    IndexedMessageSearchIndex provideIndexedMessageSearchIndex(MailboxSessionMapperFactory factory, SessionProvider sessionProvider,
+                                                               TextExtractor textExtractor, AttachmentContentLoader attachmentContentLoader,
+                                                               MailboxId.Factory mailboxIdFactory, FileSystem fileSystem) throws FileNotFoundException {
+        return new IndexedMessageSearchIndex(factory, ImmutableSet.of(), sessionProvider, textExtractor, attachmentContentLoader,
+            mailboxIdFactory, Optional.of(fileSystem.getFile(SNAPSHOT_DIRECTORY).toPath()));
+    }
+}
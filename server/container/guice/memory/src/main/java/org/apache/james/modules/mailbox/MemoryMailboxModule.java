@@ -70,6 +70,7 @@ import org.apache.james.mailbox.store.event.MailboxAnnotationListener;
 import org.apache.james.mailbox.store.event.MailboxSubscriptionListener;
 import org.apache.james.mailbox.store.extractor.JsoupTextExtractor;
 import org.apache.james.mailbox.store.mail.AttachmentMapperFactory;
+import org.apache.james.mailbox.store.mail.CachingThreadIdGuessingAlgorithm;
 import org.apache.james.mailbox.store.mail.MailboxMapperFactory;
 import org.apache.james.mailbox.store.mail.MessageMapperFactory;
 import org.apache.james.mailbox.store.mail.ModSeqProvider;
@@ -79,6 +80,7 @@ import org.apache.james.mailbox.store.mail.UidProvider;
 import org.apache.james.mailbox.store.search.MessageSearchIndex;
 import org.apache.james.mailbox.store.search.SimpleMessageSearchIndex;
 import org.apache.james.mailbox.store.user.SubscriptionMapperFactory;
+import org.apache.james.metrics.api.MetricFactory;
 import org.apache.james.user.api.DeleteUserDataTaskStep;
 import org.apache.james.user.api.UsernameChangeTaskStep;
 import org.apache.james.utils.MailboxManagerDefinition;
@@ -87,6 +89,7 @@ import org.apache.james.vault.metadata.DeletedMessageMetadataVault;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Inject;
+import com.google.inject.Provides;
 import com.google.inject.Scopes;
 import com.google.inject.multibindings.Multibinder;
 import com.google.inject.name.Names;
@@ -109,7 +112,7 @@ public class MemoryMailboxModule extends AbstractModule {
         bind(UidProvider.class).to(InMemoryUidProvider.class);
         bind(MailboxId.Factory.class).to(InMemoryId.Factory.class);
         bind(MessageId.Factory.class).to(InMemoryMessageId.Factory.class);
-        bind(ThreadIdGuessingAlgorithm.class).to(SearchThreadIdGuessingAlgorithm.class);
+        bind(ThreadIdGuessingAlgorithm.class).to(CachingThreadIdGuessingAlgorithm.class);
         bind(State.Factory.class).to(State.DefaultFactory.class);
 
         bind(SubscriptionManager.class).to(StoreSubscriptionManager.class);
@@ -165,6 +168,10 @@ public class MemoryMailboxModule extends AbstractModule {
             .addBinding()
             .to(MailboxSubscriptionListener.class);
 
+        Multibinder.newSetBinder(binder(), EventListener.ReactiveGroupEventListener.class)
+            .addBinding()
+            .to(CachingThreadIdGuessingAlgorithm.class);
+
         bind(MailboxManager.class).annotatedWith(Names.named(MAILBOXMANAGER_NAME)).to(MailboxManager.class);
         bind(MailboxManagerConfiguration.class).toInstance(MailboxManagerConfiguration.DEFAULT);
 
@@ -177,6 +184,12 @@ public class MemoryMailboxModule extends AbstractModule {
         deleteUserDataTaskStepMultibinder.addBinding().to(MailboxUserDeletionTaskStep.class);
     }
 
+    @Provides
+    @Singleton
+    CachingThreadIdGuessingAlgorithm provideThreadIdGuessingAlgorithm(SearchThreadIdGuessingAlgorithm searchThreadIdGuessingAlgorithm, MetricFactory metricFactory) {
+        return new CachingThreadIdGuessingAlgorithm(searchThreadIdGuessingAlgorithm, metricFactory);
+    }
+
     @Singleton
     private static class MemoryMailboxManagerDefinition extends MailboxManagerDefinition {
         @Inject
@@ -25,6 +25,8 @@ import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.util.Iterator;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -64,6 +66,8 @@ public class ReactorUtils {
     private static final boolean DAEMON = true;
     public static final Scheduler BLOCKING_CALL_WRAPPER = Schedulers.newBoundedElastic(DEFAULT_BOUNDED_ELASTIC_SIZE, DEFAULT_BOUNDED_ELASTIC_QUEUESIZE,
         "blocking-call-wrapper", TTL_SECONDS, DAEMON);
+    public static final ExecutorService VIRTUAL_THREAD_PER_TASK_EXECUTOR = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("virtual-thread-", 0).factory());
+    public static final Scheduler VIRTUAL_THREADS = Schedulers.fromExecutorService(VIRTUAL_THREAD_PER_TASK_EXECUTOR, "virtual-threads");
 
 
     public static <T, U> RequiresQuantity<T, U> throttle() {
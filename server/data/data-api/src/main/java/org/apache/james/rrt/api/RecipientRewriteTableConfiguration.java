@@ -19,11 +19,14 @@
 
 package org.apache.james.rrt.api;
 
+import java.time.Duration;
 import java.util.Objects;
+import java.util.Optional;
 
 import org.apache.commons.configuration2.HierarchicalConfiguration;
 import org.apache.commons.configuration2.ex.ConfigurationException;
 import org.apache.commons.configuration2.tree.ImmutableNode;
+import org.apache.james.util.DurationParser;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
@@ -34,6 +37,12 @@ public class RecipientRewriteTableConfiguration {
     public static final boolean RECURSIVE_MAPPING_ENABLED = true;
     public static final int DEFAULT_ENABLED_MAPPING_LIMIT = 10;
     public static final int DISABLED_MAPPING_LIMIT = 0;
+    public static final Duration DEFAULT_CACHE_EXPIRACY = Duration.ofSeconds(10);
+    public static final int DEFAULT_CACHE_SIZE = 10_000;
+
+    public static final String ENABLE_READ_CACHE = "read.cache.enable";
+    public static final String READ_CACHE_EXPIRACY = "read.cache.expiracy";
+    public static final String READ_CACHE_SIZE = "read.cache.size";
 
     public static final RecipientRewriteTableConfiguration DEFAULT_ENABLED = new RecipientRewriteTableConfiguration(RECURSIVE_MAPPING_ENABLED, DEFAULT_ENABLED_MAPPING_LIMIT);
     public static final RecipientRewriteTableConfiguration DISABLED = new RecipientRewriteTableConfiguration(!RECURSIVE_MAPPING_ENABLED, DISABLED_MAPPING_LIMIT);
@@ -43,11 +52,25 @@ public class RecipientRewriteTableConfiguration {
 
     private final boolean recursive;
 
+    // Resolved mappings cache: other nodes of a cluster see changes at most cacheExpiracy late
+    private final boolean cacheEnabled;
+    private final Duration cacheExpiracy;
+    private final int cacheSize;
+
     @VisibleForTesting
     public RecipientRewriteTableConfiguration(boolean recursive, int mappingLimit) {
+        this(recursive, mappingLimit, false, DEFAULT_CACHE_EXPIRACY, DEFAULT_CACHE_SIZE);
+    }
+
+    public RecipientRewriteTableConfiguration(boolean recursive, int mappingLimit, boolean cacheEnabled, Duration cacheExpiracy, int cacheSize) {
         Preconditions.checkArgument(mappingLimit == 0 || recursive, "mappingLimit can not be different than 0 when recursive mode is disabled");
+        Preconditions.checkArgument(!cacheExpiracy.isNegative(), "cacheExpiracy can not be negative");
+        Preconditions.checkArgument(cacheSize > 0, "cacheSize should be strictly positive");
         this.recursive = recursive;
         this.mappingLimit = mappingLimit;
+        this.cacheEnabled = cacheEnabled;
+        this.cacheExpiracy = cacheExpiracy;
+        this.cacheSize = cacheSize;
     }
 
     public static RecipientRewriteTableConfiguration fromConfiguration(HierarchicalConfiguration<ImmutableNode> config) throws ConfigurationException {
@@ -59,7 +82,15 @@ public class RecipientRewriteTableConfiguration {
         } else {
             mappingLimit = DISABLED_MAPPING_LIMIT;
         }
-        return new RecipientRewriteTableConfiguration(recursive, mappingLimit);
+        boolean cacheEnabled = config.getBoolean(ENABLE_READ_CACHE, false);
+        Duration cacheExpiracy = Optional.ofNullable(config.getString(READ_CACHE_EXPIRACY, null))
+            .map(DurationParser::parse)
+            .orElse(DEFAULT_CACHE_EXPIRACY);
+        int cacheSize = config.getInt(READ_CACHE_SIZE, DEFAULT_CACHE_SIZE);
+        if (cacheSize < 1) {
+            throw new ConfigurationException("The minimum " + READ_CACHE_SIZE + " is 1");
+        }
+        return new RecipientRewriteTableConfiguration(recursive, mappingLimit, cacheEnabled, cacheExpiracy, cacheSize);
     }
 
     private static void checkMappingLimit(int mappingLimit) throws ConfigurationException {
@@ -76,11 +107,27 @@ public class RecipientRewriteTableConfiguration {
         return recursive;
     }
 
+    public boolean isCacheEnabled() {
+        return cacheEnabled;
+    }
+
+    public Duration getCacheExpiracy() {
+        return cacheExpiracy;
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
     @Override
     public final boolean equals(Object other) {
         if (other instanceof RecipientRewriteTableConfiguration) {
             RecipientRewriteTableConfiguration that = (RecipientRewriteTableConfiguration) other;
-            return Objects.equals(mappingLimit, that.mappingLimit) && Objects.equals(recursive, that.recursive);
+            return Objects.equals(mappingLimit, that.mappingLimit)
+                && Objects.equals(recursive, that.recursive)
+                && Objects.equals(cacheEnabled, that.cacheEnabled)
+                && Objects.equals(cacheExpiracy, that.cacheExpiracy)
+                && Objects.equals(cacheSize, that.cacheSize);
         }
 
         return false;
@@ -88,7 +135,7 @@ public class RecipientRewriteTableConfiguration {
 
     @Override
     public final int hashCode() {
-        return Objects.hash(mappingLimit, recursive);
+        return Objects.hash(mappingLimit, recursive, cacheEnabled, cacheExpiracy, cacheSize);
     }
 
     @Override
@@ -96,6 +143,9 @@ public class RecipientRewriteTableConfiguration {
         return MoreObjects.toStringHelper(this)
             .add("mappingLimit", mappingLimit)
             .add("recursive", recursive)
+            .add("cacheEnabled", cacheEnabled)
+            .add("cacheExpiracy", cacheExpiracy)
+            .add("cacheSize", cacheSize)
             .toString();
     }
 }
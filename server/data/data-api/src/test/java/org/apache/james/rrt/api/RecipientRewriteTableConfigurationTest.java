@@ -22,6 +22,8 @@ package org.apache.james.rrt.api;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 
+import java.time.Duration;
+
 import org.apache.commons.configuration2.BaseHierarchicalConfiguration;
 import org.apache.commons.configuration2.ex.ConfigurationException;
 import org.junit.jupiter.api.Test;
@@ -80,4 +82,39 @@ class RecipientRewriteTableConfigurationTest {
         assertThat(recipientRewriteTableConfiguration.isRecursive())
             .isFalse();
     }
-}
\ No newline at end of file
+
+    @Test
+    void cacheShouldBeDisabledByDefault() throws ConfigurationException {
+        BaseHierarchicalConfiguration configuration = new BaseHierarchicalConfiguration();
+        RecipientRewriteTableConfiguration recipientRewriteTableConfiguration = RecipientRewriteTableConfiguration.fromConfiguration(configuration);
+
+        assertThat(recipientRewriteTableConfiguration.isCacheEnabled())
+            .isFalse();
+    }
+
+    @Test
+    void cacheConfigurationShouldBeParsed() throws ConfigurationException {
+        BaseHierarchicalConfiguration configuration = new BaseHierarchicalConfiguration();
+        configuration.addProperty("read.cache.enable", "true");
+        configuration.addProperty("read.cache.expiracy", "30s");
+        configuration.addProperty("read.cache.size", 500);
+        RecipientRewriteTableConfiguration recipientRewriteTableConfiguration = RecipientRewriteTableConfiguration.fromConfiguration(configuration);
+
+        assertThat(recipientRewriteTableConfiguration.isCacheEnabled())
+            .isTrue();
+        assertThat(recipientRewriteTableConfiguration.getCacheExpiracy())
+            .isEqualTo(Duration.ofSeconds(30));
+        assertThat(recipientRewriteTableConfiguration.getCacheSize())
+            .isEqualTo(500);
+    }
+
+    @Test
+    void nonPositiveCacheSizeShouldThrow() {
+        BaseHierarchicalConfiguration configuration = new BaseHierarchicalConfiguration();
+        configuration.addProperty("read.cache.enable", "true");
+        configuration.addProperty("read.cache.size", 0);
+
+        assertThatCode(() -> RecipientRewriteTableConfiguration.fromConfiguration(configuration))
+            .isInstanceOf(ConfigurationException.class);
+    }
+}
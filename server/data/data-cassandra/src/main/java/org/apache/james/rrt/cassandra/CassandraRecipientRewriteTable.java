@@ -53,6 +53,7 @@ public class CassandraRecipientRewriteTable extends AbstractRecipientRewriteTabl
         cassandraRecipientRewriteTableDAO.addMapping(source, mapping)
             .then(cassandraMappingsSourcesDAO.addMapping(mapping, source))
             .block();
+        invalidateResolvedMappings();
     }
 
     @Override
@@ -60,6 +61,7 @@ public class CassandraRecipientRewriteTable extends AbstractRecipientRewriteTabl
         cassandraRecipientRewriteTableDAO.removeMapping(source, mapping)
             .then(cassandraMappingsSourcesDAO.removeMapping(mapping, source))
             .block();
+        invalidateResolvedMappings();
     }
 
     @Override
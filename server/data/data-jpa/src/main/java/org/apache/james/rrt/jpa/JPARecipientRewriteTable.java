@@ -80,6 +80,7 @@ public class JPARecipientRewriteTable extends AbstractRecipientRewriteTable {
         } else {
             doAddMapping(source, mapping.asString());
         }
+        invalidateResolvedMappings();
     }
 
     @Override
@@ -165,6 +166,7 @@ public class JPARecipientRewriteTable extends AbstractRecipientRewriteTable {
         } else {
             doRemoveMapping(source, mapping.asString());
         }
+        invalidateResolvedMappings();
     }
 
     /**
@@ -57,6 +57,8 @@ import org.apache.james.user.api.UsersRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.fge.lambdas.Throwing;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
@@ -64,7 +66,12 @@ import com.google.common.collect.ImmutableSet;
 public abstract class AbstractRecipientRewriteTable implements RecipientRewriteTable, Configurable {
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractRecipientRewriteTable.class);
 
+    private record ResolutionKey(Username username, EnumSet<Type> mappingTypes) {
+
+    }
+
     private RecipientRewriteTableConfiguration configuration;
+    private Optional<Cache<ResolutionKey, Mappings>> resolvedMappingsCache = Optional.empty();
     private UserEntityValidator userEntityValidator;
     private UsersRepository usersRepository;
     private DomainList domainList;
@@ -73,6 +80,12 @@ public abstract class AbstractRecipientRewriteTable implements RecipientRewriteT
         Preconditions.checkState(this.configuration == null, "A configuration cannot be set twice");
         this.configuration = configuration;
         this.userEntityValidator = new RecipientRewriteTableUserEntityValidator(this);
+        if (configuration.isCacheEnabled()) {
+            this.resolvedMappingsCache = Optional.of(Caffeine.newBuilder()
+                .expireAfterWrite(configuration.getCacheExpiracy())
+                .maximumSize(configuration.getCacheSize())
+                .build());
+        }
     }
 
     @Inject
@@ -109,10 +122,36 @@ public abstract class AbstractRecipientRewriteTable implements RecipientRewriteT
     public Mappings getResolvedMappings(String user, Domain domain, EnumSet<Type> mappingTypes) throws ErrorMappingException, RecipientRewriteTableException {
         Preconditions.checkState(this.configuration != null, "RecipientRewriteTable is not configured");
         return asUsername(user, domain)
-            .map(Throwing.<Username, Mappings>function(username -> getMappings(username, configuration.getMappingLimit(), mappingTypes)).sneakyThrow())
+            .map(Throwing.<Username, Mappings>function(username -> getCachedMappings(username, mappingTypes)).sneakyThrow())
             .orElse(MappingsImpl.empty());
     }
 
+    private Mappings getCachedMappings(Username username, EnumSet<Type> mappingTypes) throws ErrorMappingException, RecipientRewriteTableException {
+        if (resolvedMappingsCache.isEmpty()) {
+            return getMappings(username, configuration.getMappingLimit(), mappingTypes);
+        }
+        Cache<ResolutionKey, Mappings> cache = resolvedMappingsCache.get();
+        ResolutionKey key = new ResolutionKey(username, EnumSet.copyOf(mappingTypes));
+        Mappings cachedMappings = cache.getIfPresent(key);
+        if (cachedMappings != null) {
+            return cachedMappings;
+        }
+        // Resolution failures (error mappings, loops) are not cached and are evaluated again on each call
+        Mappings mappings = getMappings(username, configuration.getMappingLimit(), mappingTypes);
+        cache.put(key, mappings);
+        return mappings;
+    }
+
+    /**
+     * Drops every resolved mapping kept in memory.
+     *
+     * Implementations must call this method after each successful mapping addition or removal: as resolution is
+     * recursive, a single change can affect the resolution of many addresses.
+     */
+    protected void invalidateResolvedMappings() {
+        resolvedMappingsCache.ifPresent(Cache::invalidateAll);
+    }
+
     private static Optional<Username> asUsername(String user, Domain domain) {
         try {
             return Optional.of(Username.fromLocalPartWithDomain(user, domain));
@@ -0,0 +1,98 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.rrt.memory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.james.core.Domain;
+import org.apache.james.rrt.api.RecipientRewriteTableConfiguration;
+import org.apache.james.rrt.lib.Mapping;
+import org.apache.james.rrt.lib.MappingSource;
+import org.apache.james.rrt.lib.Mappings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MemoryRecipientRewriteTableCacheTest {
+    private static final Domain DOMAIN = Domain.of("domain.tld");
+
+    static class CountingRecipientRewriteTable extends MemoryRecipientRewriteTable {
+        private final AtomicInteger lookups = new AtomicInteger();
+
+        @Override
+        protected Mappings mapAddress(String user, Domain domain) {
+            lookups.incrementAndGet();
+            return super.mapAddress(user, domain);
+        }
+    }
+
+    CountingRecipientRewriteTable recipientRewriteTable;
+
+    @BeforeEach
+    void setUp() {
+        recipientRewriteTable = new CountingRecipientRewriteTable();
+        recipientRewriteTable.setConfiguration(new RecipientRewriteTableConfiguration(true, 10, true, Duration.ofMinutes(1), 100));
+    }
+
+    @Test
+    void resolutionShouldBeCached() throws Exception {
+        recipientRewriteTable.addMapping(MappingSource.fromUser("alias", DOMAIN), Mapping.alias("bob@domain.tld"));
+
+        recipientRewriteTable.getResolvedMappings("alias", DOMAIN);
+        int lookupsAfterFirstResolution = recipientRewriteTable.lookups.get();
+        Mappings mappings = recipientRewriteTable.getResolvedMappings("alias", DOMAIN);
+
+        assertThat(recipientRewriteTable.lookups.get()).isEqualTo(lookupsAfterFirstResolution);
+        assertThat(mappings).containsOnly(Mapping.alias("bob@domain.tld"));
+    }
+
+    @Test
+    void addingAMappingShouldInvalidateResolutions() throws Exception {
+        recipientRewriteTable.addMapping(MappingSource.fromUser("alias", DOMAIN), Mapping.alias("bob@domain.tld"));
+        recipientRewriteTable.getResolvedMappings("alias", DOMAIN);
+
+        recipientRewriteTable.addMapping(MappingSource.fromUser("bob", DOMAIN), Mapping.alias("cedric@domain.tld"));
+
+        assertThat(recipientRewriteTable.getResolvedMappings("alias", DOMAIN))
+            .containsOnly(Mapping.alias("cedric@domain.tld"));
+    }
+
+    @Test
+    void removingAMappingShouldInvalidateResolutions() throws Exception {
+        recipientRewriteTable.addMapping(MappingSource.fromUser("alias", DOMAIN), Mapping.alias("bob@domain.tld"));
+        recipientRewriteTable.getResolvedMappings("alias", DOMAIN);
+
+        recipientRewriteTable.removeMapping(MappingSource.fromUser("alias", DOMAIN), Mapping.alias("bob@domain.tld"));
+
+        assertThat(recipientRewriteTable.getResolvedMappings("alias", DOMAIN)).isEmpty();
+    }
+
+    @Test
+    void resolutionShouldDependOnRequestedMappingTypes() throws Exception {
+        recipientRewriteTable.addMapping(MappingSource.fromUser("alias", DOMAIN), Mapping.alias("bob@domain.tld"));
+        recipientRewriteTable.getResolvedMappings("alias", DOMAIN);
+
+        assertThat(recipientRewriteTable.getResolvedMappings("alias", DOMAIN, EnumSet.of(Mapping.Type.Forward)))
+            .isEmpty();
+    }
+}
@@ -16,16 +16,17 @@
  * specific language governing permissions and limitations      *
  * under the License.                                           *
  ****************************************************************/
-
 package org.apache.james.jdkim.mailets;
 
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.List;
+import java.util.Optional;
 
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 
+import org.apache.commons.io.output.TeeOutputStream;
 import org.apache.james.jdkim.api.BodyHasher;
 import org.apache.james.jdkim.api.Headers;
 import org.apache.james.jdkim.api.PublicKeyRecordRetriever;
@@ -45,8 +46,30 @@ public class DKIMVerifier {
     }
 
     public List<SignatureRecord> verify(MimeMessage message, boolean forceCRLF) throws MessagingException, FailException {
+        return verify(message, forceCRLF, Optional.empty());
+    }
+
+    /**
+     * Verifies the message while copying its raw content, headers included, to the given stream.
+     *
+     * The whole content is copied even when the verification fails, which lets callers digest the message in the
+     * same pass, see {@link RecordedDKIMVerification.Fingerprint}.
+     */
+    public List<SignatureRecord> verify(MimeMessage message, boolean forceCRLF, OutputStream contentCopy) throws MessagingException, FailException {
+        return verify(message, forceCRLF, Optional.of(contentCopy));
+    }
+
+    private List<SignatureRecord> verify(MimeMessage message, boolean forceCRLF, Optional<OutputStream> contentCopy) throws MessagingException, FailException {
         Headers headers = new MimeMessageHeaders(message);
-        BodyHasher bh = originalVerifier.newBodyHasher(headers);
+        BodyHasher bh;
+        try {
+            bh = originalVerifier.newBodyHasher(headers);
+        } catch (FailException e) {
+            if (contentCopy.isPresent()) {
+                transfer(message, contentCopy.get());
+            }
+            throw e;
+        }
         try {
             if (bh != null) {
                 OutputStream os = new HeaderSkippingOutputStream(bh
@@ -54,12 +77,11 @@ public class DKIMVerifier {
                 if (forceCRLF) {
                     os = new CRLFOutputStream(os);
                 }
-                new MimeMessageInputStream(message).transferTo(os);
+                OutputStream hashedContent = os;
+                transfer(message, contentCopy.<OutputStream>map(copy -> new TeeOutputStream(hashedContent, copy)).orElse(hashedContent));
+            } else if (contentCopy.isPresent()) {
+                transfer(message, contentCopy.get());
             }
-
-        } catch (IOException e) {
-            throw new MessagingException("Exception calculating bodyhash: "
-                    + e.getMessage(), e);
         } finally {
             try {
                 if (bh != null) {
@@ -72,4 +94,13 @@ public class DKIMVerifier {
         }
         return originalVerifier.verify(bh);
     }
+
+    private void transfer(MimeMessage message, OutputStream os) throws MessagingException {
+        try (MimeMessageInputStream stream = new MimeMessageInputStream(message)) {
+            stream.transferTo(os);
+        } catch (IOException e) {
+            throw new MessagingException("Exception calculating bodyhash: "
+                    + e.getMessage(), e);
+        }
+    }
 }
@@ -19,7 +19,6 @@
 
 package org.apache.james.jdkim.mailets;
 
-import java.util.List;
 import java.util.Optional;
 
 import jakarta.inject.Inject;
@@ -27,7 +26,6 @@ import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 
 import org.apache.james.jdkim.api.PublicKeyRecordRetriever;
-import org.apache.james.jdkim.api.SignatureRecord;
 import org.apache.james.jdkim.exceptions.FailException;
 import org.apache.mailet.Attribute;
 import org.apache.mailet.AttributeName;
@@ -49,6 +47,9 @@ import com.google.common.annotations.VisibleForTesting;
  * By default the mailet assume that Javamail will use LF instead of CRLF
  * so it will verify the hash using converted newlines. If you don't want this
  * behaviour then set forceCRLF attribute to false.
+ *
+ * The result of a previous verification of the same content, for instance by the SMTP DKIM hook, is reused
+ * without hashing the message again. See {@link RecordedDKIMVerification}.
  */
 public class DKIMVerify extends GenericMailet {
 
@@ -70,30 +71,23 @@ public class DKIMVerify extends GenericMailet {
     }
 
     public void service(Mail mail) throws MessagingException {
+        Optional<String> recordedAuthResult = RecordedDKIMVerification.retrieve(mail, forceCRLF);
+        String authResult;
+        if (recordedAuthResult.isPresent()) {
+            authResult = recordedAuthResult.get();
+        } else {
+            RecordedDKIMVerification.Fingerprint fingerprint = new RecordedDKIMVerification.Fingerprint(forceCRLF);
+            authResult = verify(mail.getMessage(), fingerprint);
+            RecordedDKIMVerification.record(mail, authResult, fingerprint);
+        }
+        mail.setAttribute(new Attribute(DKIM_AUTH_RESULT, AttributeValue.of(authResult)));
+    }
+
+    private String verify(MimeMessage message, RecordedDKIMVerification.Fingerprint fingerprint) throws MessagingException {
         try {
-            MimeMessage message =  mail.getMessage();
-            List<SignatureRecord> res = verifier.verify(message, forceCRLF);
-            if (res == null || res.isEmpty()) {
-                // neutral
-                mail.setAttribute(new Attribute(DKIM_AUTH_RESULT, AttributeValue.of("neutral (no signatures)")));
-            } else {
-                // pass
-                StringBuilder msg = new StringBuilder();
-                msg.append("pass");
-                for (SignatureRecord rec : res) {
-                    msg.append(" (");
-                    msg.append("identity ");
-                    msg.append(rec.getIdentity().toString());
-                    msg.append(")");
-                }
-                mail.setAttribute(new Attribute(DKIM_AUTH_RESULT, AttributeValue.of(msg.toString())));
-            }
+            return RecordedDKIMVerification.authResult(verifier.verify(message, forceCRLF, fingerprint.contentStream()));
         } catch (FailException e) {
-            // fail
-            String relatedRecordIdentity = Optional.ofNullable(e.getRelatedRecordIdentity())
-                .map(value -> "identity" + value + ":")
-                .orElse("");
-            mail.setAttribute(new Attribute(DKIM_AUTH_RESULT, AttributeValue.of("fail (" + relatedRecordIdentity + e.getMessage() + ")")));
+            return RecordedDKIMVerification.authResult(e);
         }
     }
 }
@@ -0,0 +1,129 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.jdkim.mailets;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Optional;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+
+import org.apache.james.jdkim.api.SignatureRecord;
+import org.apache.james.jdkim.exceptions.FailException;
+import org.apache.james.server.core.MimeMessageInputStream;
+import org.apache.mailet.Attribute;
+import org.apache.mailet.AttributeName;
+import org.apache.mailet.AttributeUtils;
+import org.apache.mailet.AttributeValue;
+import org.apache.mailet.Mail;
+
+import com.google.common.hash.Funnels;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Records the outcome of a DKIM verification on a mail, together with a fingerprint of its content.
+ *
+ * A later verification of the same content, for instance {@link DKIMVerify} after the SMTP DKIM hook, then reuses it
+ * instead of hashing the message body and retrieving the public keys again.
+ *
+ * DKIM signatures cover both the headers and the body. The fingerprint thus digests the whole content of the message
+ * and the line ending handling. Verifiers compute it in the same pass over the message as the verification itself,
+ * checking a recorded result is a single pass without the DKIM canonicalization nor the DNS lookups.
+ */
+public class RecordedDKIMVerification {
+    public static final AttributeName AUTH_RESULT = AttributeName.of("jDKIM.RECORDED.AUTHRESULT");
+    public static final AttributeName FINGERPRINT = AttributeName.of("jDKIM.RECORDED.FINGERPRINT");
+
+    public static String authResult(List<SignatureRecord> records) {
+        if (records == null || records.isEmpty()) {
+            return "neutral (no signatures)";
+        }
+        StringBuilder msg = new StringBuilder();
+        msg.append("pass");
+        for (SignatureRecord rec : records) {
+            msg.append(" (");
+            msg.append("identity ");
+            msg.append(rec.getIdentity().toString());
+            msg.append(")");
+        }
+        return msg.toString();
+    }
+
+    public static String authResult(FailException e) {
+        String relatedRecordIdentity = Optional.ofNullable(e.getRelatedRecordIdentity())
+            .map(value -> "identity" + value + ":")
+            .orElse("");
+        return "fail (" + relatedRecordIdentity + e.getMessage() + ")";
+    }
+
+    /**
+     * Digest of the content of a message, fed while it is streamed, for instance by
+     * {@link DKIMVerifier#verify(MimeMessage, boolean, OutputStream)}.
+     */
+    public static class Fingerprint {
+        public static Fingerprint of(MimeMessage message, boolean forceCRLF) throws MessagingException {
+            Fingerprint fingerprint = new Fingerprint(forceCRLF);
+            try (MimeMessageInputStream stream = new MimeMessageInputStream(message)) {
+                stream.transferTo(fingerprint.contentStream());
+            } catch (IOException e) {
+                throw new MessagingException("Unable to read the message content", e);
+            }
+            return fingerprint;
+        }
+
+        private final Hasher hasher;
+
+        public Fingerprint(boolean forceCRLF) {
+            this.hasher = Hashing.sha256().newHasher()
+                .putBoolean(forceCRLF);
+        }
+
+        /**
+         * @return the stream the raw content of the message, headers included, is to be written to
+         */
+        public OutputStream contentStream() {
+            return Funnels.asOutputStream(hasher);
+        }
+
+        public String value() {
+            return hasher.hash().toString();
+        }
+    }
+
+    public static void record(Mail mail, String authResult, Fingerprint fingerprint) {
+        mail.setAttribute(new Attribute(FINGERPRINT, AttributeValue.of(fingerprint.value())));
+        mail.setAttribute(new Attribute(AUTH_RESULT, AttributeValue.of(authResult)));
+    }
+
+    /**
+     * @return the recorded authentication result, if the content of the mail did not change since it was recorded
+     */
+    public static Optional<String> retrieve(Mail mail, boolean forceCRLF) throws MessagingException {
+        Optional<String> recordedFingerprint = AttributeUtils.getValueAndCastFromMail(mail, FINGERPRINT, String.class);
+        if (recordedFingerprint.isEmpty()
+            || !recordedFingerprint.get().equals(Fingerprint.of(mail.getMessage(), forceCRLF).value())) {
+            return Optional.empty();
+        }
+        return AttributeUtils.getValueAndCastFromMail(mail, AUTH_RESULT, String.class);
+    }
+}
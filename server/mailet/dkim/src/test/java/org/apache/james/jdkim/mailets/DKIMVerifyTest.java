@@ -38,6 +38,7 @@ import org.apache.mailet.base.test.FakeMailetConfig;
 import org.junit.jupiter.api.Test;
 
 public class DKIMVerifyTest {
+    private static final String NEUTRAL_MESSAGE = "Received: by 10.XX.XX.12 with SMTP id dfgskldjfhgkljsdfhgkljdhfg;\r\n\tTue, 06 Oct 2009 07:37:34 -0700 (PDT)\r\nFrom: apache@bago.org\r\nTo: apache@bago.org\r\n\r\nbody\r\nprova\r\n";
 
     @Test
     void testDKIMVerifyPass() throws Exception {
@@ -90,7 +91,57 @@ public class DKIMVerifyTest {
             .hasValueSatisfying(result -> assertThat(result).startsWith("neutral"));
     }
 
+    @Test
+    void serviceShouldReuseRecordedResultWhenContentIsUnchanged() throws Exception {
+        Mail mail = mail(NEUTRAL_MESSAGE);
+        RecordedDKIMVerification.record(mail, "pass (identity recorded)", RecordedDKIMVerification.Fingerprint.of(mail.getMessage(), true));
+
+        mailet().service(mail);
+
+        assertThat(AttributeUtils.getValueAndCastFromMail(mail, DKIMVerify.DKIM_AUTH_RESULT, String.class))
+            .contains("pass (identity recorded)");
+    }
+
+    @Test
+    void serviceShouldVerifyAgainWhenBodyChangedSinceRecorded() throws Exception {
+        Mail mail = mail(NEUTRAL_MESSAGE);
+        RecordedDKIMVerification.record(mail, "pass (identity recorded)", RecordedDKIMVerification.Fingerprint.of(mail.getMessage(), true));
+        String sameHeadersSameSizeOtherBody = NEUTRAL_MESSAGE.replace("prova", "other");
+        mail.setMessage(mail(sameHeadersSameSizeOtherBody).getMessage());
+
+        mailet().service(mail);
+
+        assertThat(AttributeUtils.getValueAndCastFromMail(mail, DKIMVerify.DKIM_AUTH_RESULT, String.class))
+            .hasValueSatisfying(result -> assertThat(result).startsWith("neutral"));
+    }
+
+    @Test
+    void serviceShouldVerifyAgainWhenHeadersChangedSinceRecorded() throws Exception {
+        Mail mail = mail(NEUTRAL_MESSAGE);
+        RecordedDKIMVerification.record(mail, "pass (identity recorded)", RecordedDKIMVerification.Fingerprint.of(mail.getMessage(), true));
+        mail.getMessage().addHeader("Subject", "added");
+
+        mailet().service(mail);
+
+        assertThat(AttributeUtils.getValueAndCastFromMail(mail, DKIMVerify.DKIM_AUTH_RESULT, String.class))
+            .hasValueSatisfying(result -> assertThat(result).startsWith("neutral"));
+    }
+
+    @Test
+    void serviceShouldRecordItsResult() throws Exception {
+        Mail mail = process(NEUTRAL_MESSAGE);
+
+        assertThat(RecordedDKIMVerification.retrieve(mail, true))
+            .hasValueSatisfying(result -> assertThat(result).startsWith("neutral"));
+    }
+
     private Mail process(String message) throws Exception {
+        Mail mail = mail(message);
+        mailet().service(mail);
+        return mail;
+    }
+
+    private Mailet mailet() throws Exception {
         Mailet mailet = new DKIMVerify((new MockPublicKeyRecordRetriever(
             "v=DKIM1; k=rsa; p=MIGfMA0GCSqGSIb3DQEBAQUAA4GNADCBiQKBgQDYDaYKXzwVYwqWbLhmuJ66aTAN8wmDR+rfHE8HfnkSOax0oIoTM5zquZrTLo30870YMfYzxwfB6j/Nz3QdwrUD/t0YMYJiUKyWJnCKfZXHJBJ+yfRHr7oW+UW3cVo9CG2bBfIxsInwYe175g9UjyntJpWueqdEIo1c2bhv9Mp66QIDAQAB;",
             "selector", "example.com")));
@@ -101,15 +152,15 @@ public class DKIMVerifyTest {
                 .build();
 
         mailet.init(mci);
+        return mailet;
+    }
 
-        Mail mail = FakeMail.builder()
+    private Mail mail(String message) throws Exception {
+        return FakeMail.builder()
             .name("test")
             .mimeMessage(new MimeMessage(Session
                 .getDefaultInstance(new Properties()),
                 new ByteArrayInputStream(message.getBytes())))
             .build();
-
-        mailet.service(mail);
-        return mail;
     }
 }
@@ -0,0 +1,42 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailetcontainer.api;
+
+import java.util.List;
+
+/**
+ * Profiles the mailet pipeline step by step.
+ *
+ * Each matcher and each mailet of each processor is a distinct step, identified by its processor and its position
+ * within that processor, so that two instances of the same mailet are not conflated. Invocations, errors and
+ * matches are counted for every mail while latency, thread allocation and message size are only recorded for a
+ * sample of the mails, as configured by the <code>profilingSampleRate</code> attribute of the processors.
+ */
+public interface MailetPipelineProfiler {
+    /**
+     * @return the profile of every registered step, ordered by processor, position then kind
+     */
+    List<PipelineStepProfile> getProfiles();
+
+    /**
+     * Clears the recorded statistics while keeping the registered steps.
+     */
+    void reset();
+}
@@ -0,0 +1,63 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailetcontainer.api;
+
+import java.util.List;
+
+/**
+ * Snapshot of the statistics recorded for one step of the mailet pipeline.
+ *
+ * @param invocationCount number of mails handled by this step
+ * @param errorCount number of mails for which the matcher or mailet threw
+ * @param matchCount number of mails for which at least one recipient matched. Always 0 for mailets
+ * @param sampleCount number of invocations for which latency, allocation and size were recorded
+ * @param allocatedBytes bytes allocated by the processing thread during the sampled invocations, or -1 if the JVM
+ *                       does not support thread allocation accounting
+ */
+public record PipelineStepProfile(String processor, int position, Kind kind, String name,
+                                  long invocationCount, long errorCount, long matchCount, long sampleCount,
+                                  Histogram latencyMillis, Histogram messageSizeBytes, long allocatedBytes) {
+    public enum Kind {
+        MATCHER,
+        MAILET
+    }
+
+    /**
+     * Fixed buckets histogram: <code>counts.get(i)</code> holds the values lower or equal to
+     * <code>upperBounds.get(i)</code> and greater than the previous bound. The last count holds the values greater
+     * than every bound.
+     */
+    public record Histogram(List<Long> upperBounds, List<Long> counts) {
+        public Histogram {
+            upperBounds = List.copyOf(upperBounds);
+            counts = List.copyOf(counts);
+            if (counts.size() != upperBounds.size() + 1) {
+                throw new IllegalArgumentException("Expecting one count per upper bound, plus an overflow count");
+            }
+        }
+    }
+
+    public double matchRatio() {
+        if (invocationCount == 0) {
+            return 0;
+        }
+        return (double) matchCount / invocationCount;
+    }
+}
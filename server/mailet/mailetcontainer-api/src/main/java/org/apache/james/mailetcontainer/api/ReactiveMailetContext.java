@@ -0,0 +1,82 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailetcontainer.api;
+
+import jakarta.mail.MessagingException;
+
+import org.apache.mailet.Mail;
+import org.apache.mailet.MailetContext;
+
+import com.github.fge.lambdas.Throwing;
+
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link MailetContext} able to send mails without holding the calling thread while they are enqueued.
+ * <p>
+ * This is kept out of the Mailet API so that the latter does not depend on Reactor.
+ */
+public interface ReactiveMailetContext extends MailetContext {
+    /**
+     * Reactive counterpart of {@link MailetContext#sendMail(Mail)}, falling back to the blocking call for contexts that
+     * are not reactive.
+     *
+     * @return a Mono enqueuing the mail upon subscription
+     */
+    static Mono<Void> sendMailReactive(MailetContext mailetContext, Mail mail) {
+        if (mailetContext instanceof ReactiveMailetContext reactiveMailetContext) {
+            return reactiveMailetContext.sendMailReactive(mail);
+        }
+        return Mono.fromRunnable(Throwing.runnable(() -> mailetContext.sendMail(mail)).sneakyThrow());
+    }
+
+    /**
+     * Sends the mail through {@link #sendMailReactive(MailetContext, Mail)}, for mailets that can not return before it
+     * is enqueued.
+     *
+     * @throws MessagingException when the mail could not be enqueued
+     */
+    static void sendMailBlocking(MailetContext mailetContext, Mail mail) throws MessagingException {
+        try {
+            sendMailReactive(mailetContext, mail).block();
+        } catch (RuntimeException e) {
+            if (Exceptions.unwrap(e) instanceof MessagingException messagingException) {
+                throw messagingException;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Reactive counterpart of {@link #sendMail(Mail)}.
+     *
+     * @return a Mono completing once the mail is enqueued, or failing with the enqueue error
+     */
+    Mono<Void> sendMailReactive(Mail mail);
+
+    /**
+     * Reactive counterpart of {@link #sendMail(Mail, String)}.
+     *
+     * @param state the name of the processor for which the mail will be queued
+     * @return a Mono completing once the mail is enqueued, or failing with the enqueue error
+     */
+    Mono<Void> sendMailReactive(Mail mail, String state);
+}
@@ -27,6 +27,7 @@ import org.apache.commons.configuration2.tree.ImmutableNode;
 import org.apache.james.mailetcontainer.api.MailProcessor;
 import org.apache.james.mailetcontainer.api.MailetLoader;
 import org.apache.james.mailetcontainer.api.MatcherLoader;
+import org.apache.james.mailetcontainer.impl.profiling.MailetPipelineProfilerImpl;
 import org.apache.james.mailetcontainer.lib.AbstractStateCompositeProcessor;
 import org.apache.james.metrics.api.MetricFactory;
 import org.apache.mailet.Mail;
@@ -45,13 +46,20 @@ public class CompositeProcessorImpl extends AbstractStateCompositeProcessor {
     private final MailetContext mailetContext;
     private final MatcherLoader matcherLoader;
     private final MailetLoader mailetLoader;
+    private final MailetPipelineProfilerImpl profiler;
 
     @Inject
-    public CompositeProcessorImpl(MetricFactory metricFactory, MailetContext mailetContext, MatcherLoader matcherLoader, MailetLoader mailetLoader) {
+    public CompositeProcessorImpl(MetricFactory metricFactory, MailetContext mailetContext, MatcherLoader matcherLoader, MailetLoader mailetLoader,
+                                  MailetPipelineProfilerImpl profiler) {
         this.metricFactory = metricFactory;
         this.mailetContext = mailetContext;
         this.matcherLoader = matcherLoader;
         this.mailetLoader = mailetLoader;
+        this.profiler = profiler;
+    }
+
+    public CompositeProcessorImpl(MetricFactory metricFactory, MailetContext mailetContext, MatcherLoader matcherLoader, MailetLoader mailetLoader) {
+        this(metricFactory, mailetContext, matcherLoader, mailetLoader, new MailetPipelineProfilerImpl(metricFactory));
     }
 
     @Override
@@ -62,7 +70,7 @@ public class CompositeProcessorImpl extends AbstractStateCompositeProcessor {
 
     @Override
     protected MailProcessor createMailProcessor(String name, HierarchicalConfiguration<ImmutableNode> config) throws Exception {
-        MailetProcessorImpl processor = new MailetProcessorImpl(metricFactory);
+        MailetProcessorImpl processor = new MailetProcessorImpl(metricFactory, profiler);
         try {
             processor.setMailetContext(mailetContext);
             processor.setMailetLoader(mailetLoader);
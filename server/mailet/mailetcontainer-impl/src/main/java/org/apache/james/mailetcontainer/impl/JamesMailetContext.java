@@ -55,12 +55,12 @@ import org.apache.james.lifecycle.api.Configurable;
 import org.apache.james.lifecycle.api.Disposable;
 import org.apache.james.lifecycle.api.LifecycleUtil;
 import org.apache.james.mailetcontainer.api.LocalResources;
+import org.apache.james.mailetcontainer.api.ReactiveMailetContext;
 import org.apache.james.queue.api.MailQueue;
 import org.apache.james.queue.api.MailQueueFactory;
 import org.apache.james.server.core.MailImpl;
 import org.apache.mailet.LookupException;
 import org.apache.mailet.Mail;
-import org.apache.mailet.MailetContext;
 import org.apache.mailet.base.RFC2822Headers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -69,7 +69,10 @@ import com.github.fge.lambdas.Throwing;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
 
-public class JamesMailetContext implements MailetContext, Configurable, Disposable {
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+
+public class JamesMailetContext implements ReactiveMailetContext, Configurable, Disposable {
     private static final Logger LOGGER = LoggerFactory.getLogger(JamesMailetContext.class);
 
     /**
@@ -388,9 +391,28 @@ public class JamesMailetContext implements MailetContext, Configurable, Disposab
 
     @Override
     public void sendMail(Mail mail, String state) throws MessagingException {
-        mail.setAttribute(Mail.SENT_BY_MAILET_ATTRIBUTE);
-        mail.setState(state);
-        rootMailQueue.enQueue(mail);
+        try {
+            sendMailReactive(mail, state).block();
+        } catch (RuntimeException e) {
+            if (Exceptions.unwrap(e) instanceof MessagingException messagingException) {
+                throw messagingException;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public Mono<Void> sendMailReactive(Mail mail) {
+        return Mono.defer(() -> sendMailReactive(mail, Optional.ofNullable(mail.getState()).orElse(Mail.DEFAULT)));
+    }
+
+    @Override
+    public Mono<Void> sendMailReactive(Mail mail, String state) {
+        return Mono.defer(() -> {
+            mail.setAttribute(Mail.SENT_BY_MAILET_ATTRIBUTE);
+            mail.setState(state);
+            return Mono.from(rootMailQueue.enqueueReactive(mail));
+        });
     }
     
     @Override
@@ -23,6 +23,7 @@ import static org.apache.james.mailetcontainer.impl.MatcherSplitter.MATCHER_MATC
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import jakarta.annotation.PostConstruct;
@@ -31,6 +32,7 @@ import jakarta.mail.MessagingException;
 import org.apache.commons.lang3.NotImplementedException;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.james.lifecycle.api.LifecycleUtil;
+import org.apache.james.mailetcontainer.impl.profiling.MailetPipelineProfilerImpl;
 import org.apache.james.mailetcontainer.lib.AbstractStateMailetProcessor;
 import org.apache.james.metrics.api.MetricFactory;
 import org.apache.mailet.Mail;
@@ -115,11 +117,17 @@ public class MailetProcessorImpl extends AbstractStateMailetProcessor {
     private static final Logger LOGGER = LoggerFactory.getLogger(MailetProcessorImpl.class);
 
     private final MetricFactory metricFactory;
+    private final MailetPipelineProfilerImpl profiler;
     private List<MatcherMailetPair> pairs;
     private Map<MatcherSplitter, ProcessorImpl> pairsToBeProcessed;
 
-    public MailetProcessorImpl(MetricFactory metricFactory) {
+    public MailetProcessorImpl(MetricFactory metricFactory, MailetPipelineProfilerImpl profiler) {
         this.metricFactory = metricFactory;
+        this.profiler = profiler;
+    }
+
+    public MailetProcessorImpl(MetricFactory metricFactory) {
+        this(metricFactory, new MailetPipelineProfilerImpl(metricFactory));
     }
 
     @Override
@@ -196,13 +204,18 @@ public class MailetProcessorImpl extends AbstractStateMailetProcessor {
     protected void setupRouting(List<MatcherMailetPair> pairs) throws MessagingException {
         try {
             this.pairs = pairs;
-            this.pairsToBeProcessed = pairs.stream()
-                .map(pair -> Pair.of(new MatcherSplitter(metricFactory, this, pair),
-                    new ProcessorImpl(metricFactory, this, pair.getMailet())))
+            this.pairsToBeProcessed = IntStream.range(0, pairs.size())
+                .mapToObj(position -> toProcessingPair(position, pairs.get(position)))
                 .collect(ImmutableMap.toImmutableMap(Pair::getKey, Pair::getValue));
         } catch (Exception e) {
             throw new MessagingException("Unable to setup routing for MailetMatcherPairs", e);
         }
     }
 
+    private Pair<MatcherSplitter, ProcessorImpl> toProcessingPair(int position, MatcherMailetPair pair) {
+        double sampleRate = getProfilingSampleRate();
+        return Pair.of(
+            new MatcherSplitter(metricFactory, this, pair, profiler.matcherStep(getState(), position, pair.getMatcher(), sampleRate)),
+            new ProcessorImpl(metricFactory, this, pair.getMailet(), profiler.mailetStep(getState(), position, pair.getMailet(), sampleRate)));
+    }
 }
@@ -29,6 +29,7 @@ import java.util.Optional;
 import jakarta.mail.MessagingException;
 
 import org.apache.james.core.MailAddress;
+import org.apache.james.mailetcontainer.impl.profiling.StepProfiler;
 import org.apache.james.mailetcontainer.lib.AbstractStateMailetProcessor.MailetProcessorListener;
 import org.apache.james.metrics.api.MetricFactory;
 import org.apache.james.metrics.api.TimeMetric;
@@ -58,14 +59,20 @@ public class MatcherSplitter {
     private final MailetProcessorImpl container;
     private final Matcher matcher;
     private final String onMatchException;
+    private final StepProfiler stepProfiler;
 
-    public MatcherSplitter(MetricFactory metricFactory, MailetProcessorImpl container, MatcherMailetPair pair) {
+    public MatcherSplitter(MetricFactory metricFactory, MailetProcessorImpl container, MatcherMailetPair pair, StepProfiler stepProfiler) {
         this.metricFactory = metricFactory;
         this.container = container;
         this.matcher = pair.getMatcher();
         this.onMatchException = Optional.ofNullable(pair.getOnMatchException())
             .map(s -> s.trim().toLowerCase(Locale.US))
             .orElse(Mail.ERROR);
+        this.stepProfiler = stepProfiler;
+    }
+
+    public MatcherSplitter(MetricFactory metricFactory, MailetProcessorImpl container, MatcherMailetPair pair) {
+        this(metricFactory, container, pair, StepProfiler.NOOP);
     }
 
     /**
@@ -83,6 +90,7 @@ public class MatcherSplitter {
         long start = System.currentTimeMillis();
         Throwable ex = null;
         TimeMetric timeMetric = metricFactory.timer(matcher.getClass().getSimpleName());
+        StepProfiler.Sample sample = stepProfiler.start(mail);
 
         try {
             List<Mail> mails = new ArrayList<>();
@@ -171,6 +179,7 @@ public class MatcherSplitter {
             return mails;
         } finally {
             timeMetric.stopAndPublish();
+            sample.stop(ex != null, matchedRcpts != null && !matchedRcpts.isEmpty());
             long complete = System.currentTimeMillis() - start;
             List<MailetProcessorListener> listeners = container.getListeners();
             for (MailetProcessorListener listener : listeners) {
@@ -22,6 +22,7 @@ import java.io.Closeable;
 import java.util.List;
 import java.util.Locale;
 
+import org.apache.james.mailetcontainer.impl.profiling.StepProfiler;
 import org.apache.james.mailetcontainer.lib.AbstractStateMailetProcessor.MailetProcessorListener;
 import org.apache.james.metrics.api.MetricFactory;
 import org.apache.james.metrics.api.TimeMetric;
@@ -46,11 +47,17 @@ public class ProcessorImpl {
     private final MetricFactory metricFactory;
     private final Mailet mailet;
     private final MailetProcessorImpl processor;
+    private final StepProfiler stepProfiler;
 
-    public ProcessorImpl(MetricFactory metricFactory, MailetProcessorImpl processor, Mailet mailet) {
+    public ProcessorImpl(MetricFactory metricFactory, MailetProcessorImpl processor, Mailet mailet, StepProfiler stepProfiler) {
         this.metricFactory = metricFactory;
         this.processor = processor;
         this.mailet = mailet;
+        this.stepProfiler = stepProfiler;
+    }
+
+    public ProcessorImpl(MetricFactory metricFactory, MailetProcessorImpl processor, Mailet mailet) {
+        this(metricFactory, processor, mailet, StepProfiler.NOOP);
     }
 
     /**
@@ -59,6 +66,7 @@ public class ProcessorImpl {
     public void process(Mail mail) throws Exception {
         long start = System.currentTimeMillis();
         TimeMetric timeMetric = metricFactory.timer(mailet.getClass().getSimpleName());
+        StepProfiler.Sample sample = stepProfiler.start(mail);
         Throwable ex = null;
         String smtpSessionID = mail.getAttribute(Mail.SMTP_SESSION_ID)
             .map(Attribute::getValue)
@@ -106,6 +114,7 @@ public class ProcessorImpl {
 
         } finally {
             timeMetric.stopAndPublish();
+            sample.stop(ex != null, false);
             MailetPipelineLogging.logEndOfMailetProcess(mailet, mail);
             List<MailetProcessorListener> listeners = processor.getListeners();
             long complete = System.currentTimeMillis() - start;
@@ -0,0 +1,98 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailetcontainer.impl.profiling;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.inject.Inject;
+
+import org.apache.james.mailetcontainer.api.MailetPipelineProfiler;
+import org.apache.james.mailetcontainer.api.PipelineStepProfile;
+import org.apache.james.mailetcontainer.api.PipelineStepProfile.Kind;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.mailet.Mailet;
+import org.apache.mailet.MailetConfig;
+import org.apache.mailet.Matcher;
+import org.apache.mailet.MatcherConfig;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+public class MailetPipelineProfilerImpl implements MailetPipelineProfiler {
+    private record StepKey(String processor, int position, Kind kind) {
+
+    }
+
+    private static final Comparator<PipelineStepProfile> PIPELINE_ORDER = Comparator.comparing(PipelineStepProfile::processor)
+        .thenComparingInt(PipelineStepProfile::position)
+        .thenComparing(PipelineStepProfile::kind);
+
+    private final MetricFactory metricFactory;
+    private final ConcurrentHashMap<StepKey, SampledStepProfiler> steps;
+
+    @Inject
+    public MailetPipelineProfilerImpl(MetricFactory metricFactory) {
+        this.metricFactory = metricFactory;
+        this.steps = new ConcurrentHashMap<>();
+    }
+
+    public StepProfiler matcherStep(String processor, int position, Matcher matcher, double sampleRate) {
+        String name = Optional.ofNullable(matcher.getMatcherConfig())
+            .map(MatcherConfig::getMatcherName)
+            .orElse(matcher.getClass().getSimpleName());
+        return register(new StepKey(processor, position, Kind.MATCHER), name, sampleRate);
+    }
+
+    public StepProfiler mailetStep(String processor, int position, Mailet mailet, double sampleRate) {
+        String name = Optional.ofNullable(mailet.getMailetConfig())
+            .map(MailetConfig::getMailetName)
+            .orElse(mailet.getClass().getSimpleName());
+        return register(new StepKey(processor, position, Kind.MAILET), name, sampleRate);
+    }
+
+    private StepProfiler register(StepKey key, String name, double sampleRate) {
+        Preconditions.checkArgument(sampleRate >= 0 && sampleRate <= 1, "'sampleRate' should be between 0 and 1");
+
+        if (sampleRate == 0) {
+            steps.remove(key);
+            return StepProfiler.NOOP;
+        }
+        SampledStepProfiler stepProfiler = new SampledStepProfiler(key.processor(), key.position(), key.kind(), name, sampleRate, metricFactory);
+        steps.put(key, stepProfiler);
+        return stepProfiler;
+    }
+
+    @Override
+    public List<PipelineStepProfile> getProfiles() {
+        return steps.values()
+            .stream()
+            .map(SampledStepProfiler::profile)
+            .sorted(PIPELINE_ORDER)
+            .collect(ImmutableList.toImmutableList());
+    }
+
+    @Override
+    public void reset() {
+        steps.values().forEach(SampledStepProfiler::reset);
+    }
+}
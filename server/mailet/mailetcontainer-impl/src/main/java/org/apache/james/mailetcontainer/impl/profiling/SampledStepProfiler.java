@@ -0,0 +1,176 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailetcontainer.impl.profiling;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import jakarta.mail.MessagingException;
+
+import org.apache.james.mailetcontainer.api.PipelineStepProfile;
+import org.apache.james.mailetcontainer.api.PipelineStepProfile.Histogram;
+import org.apache.james.mailetcontainer.api.PipelineStepProfile.Kind;
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.metrics.api.TimeMetric;
+import org.apache.mailet.Mail;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * {@link StepProfiler} counting every invocation and recording latency, thread allocation and message size for a
+ * random sample of them.
+ *
+ * Sampled latencies are also published to the {@link MetricFactory} timer named after the step, and sampled
+ * allocations to the matching counter, so that steps show up in the metrics registry.
+ */
+class SampledStepProfiler implements StepProfiler {
+    static final List<Long> LATENCY_BUCKETS_MILLIS = ImmutableList.of(1L, 5L, 10L, 50L, 100L, 500L, 1000L, 5000L);
+    static final List<Long> SIZE_BUCKETS_BYTES = ImmutableList.of(10L * 1024, 100L * 1024, 1024L * 1024, 10L * 1024 * 1024);
+    private static final long UNKNOWN_SIZE = -1;
+
+    private static class BucketCounter {
+        private final List<Long> upperBounds;
+        private final LongAdder[] counts;
+
+        BucketCounter(List<Long> upperBounds) {
+            this.upperBounds = upperBounds;
+            this.counts = new LongAdder[upperBounds.size() + 1];
+            Arrays.setAll(counts, i -> new LongAdder());
+        }
+
+        void record(long value) {
+            int bucket = 0;
+            while (bucket < upperBounds.size() && value > upperBounds.get(bucket)) {
+                bucket++;
+            }
+            counts[bucket].increment();
+        }
+
+        Histogram snapshot() {
+            return new Histogram(upperBounds, Arrays.stream(counts)
+                .map(LongAdder::sum)
+                .collect(ImmutableList.toImmutableList()));
+        }
+
+        void reset() {
+            Arrays.stream(counts).forEach(LongAdder::reset);
+        }
+    }
+
+    static String metricName(String processor, int position, Kind kind, String name) {
+        return "mailetPipeline-" + processor + "-" + position + "-" + kind.name().toLowerCase(Locale.US) + "-" + name;
+    }
+
+    private final String processor;
+    private final int position;
+    private final Kind kind;
+    private final String name;
+    private final double sampleRate;
+    private final MetricFactory metricFactory;
+    private final String timerName;
+    private final Metric allocationMetric;
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder matches = new LongAdder();
+    private final LongAdder samples = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final BucketCounter latencies = new BucketCounter(LATENCY_BUCKETS_MILLIS);
+    private final BucketCounter messageSizes = new BucketCounter(SIZE_BUCKETS_BYTES);
+    private final Sample countingSample = this::count;
+
+    SampledStepProfiler(String processor, int position, Kind kind, String name, double sampleRate, MetricFactory metricFactory) {
+        this.processor = processor;
+        this.position = position;
+        this.kind = kind;
+        this.name = name;
+        this.sampleRate = sampleRate;
+        this.metricFactory = metricFactory;
+        this.timerName = metricName(processor, position, kind, name);
+        this.allocationMetric = metricFactory.generate(timerName + "-allocatedBytes");
+    }
+
+    @Override
+    public Sample start(Mail mail) {
+        if (!shouldSample()) {
+            return countingSample;
+        }
+        long messageSize = messageSize(mail);
+        TimeMetric timeMetric = metricFactory.timer(timerName);
+        long allocatedBefore = ThreadAllocation.currentThreadAllocatedBytes();
+
+        return (failed, matched) -> {
+            long allocatedAfter = ThreadAllocation.currentThreadAllocatedBytes();
+            latencies.record(timeMetric.stopAndPublish().elasped().toMillis());
+            if (messageSize != UNKNOWN_SIZE) {
+                messageSizes.record(messageSize);
+            }
+            if (allocatedBefore != ThreadAllocation.UNSUPPORTED) {
+                long allocated = allocatedAfter - allocatedBefore;
+                allocatedBytes.add(allocated);
+                allocationMetric.add((int) Math.min(allocated, Integer.MAX_VALUE));
+            }
+            samples.increment();
+            count(failed, matched);
+        };
+    }
+
+    private boolean shouldSample() {
+        return sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    private long messageSize(Mail mail) {
+        try {
+            return mail.getMessageSize();
+        } catch (MessagingException e) {
+            return UNKNOWN_SIZE;
+        }
+    }
+
+    private void count(boolean failed, boolean matched) {
+        invocations.increment();
+        if (failed) {
+            errors.increment();
+        }
+        if (matched) {
+            matches.increment();
+        }
+    }
+
+    PipelineStepProfile profile() {
+        return new PipelineStepProfile(processor, position, kind, name,
+            invocations.sum(), errors.sum(), matches.sum(), samples.sum(),
+            latencies.snapshot(), messageSizes.snapshot(),
+            ThreadAllocation.isSupported() ? allocatedBytes.sum() : ThreadAllocation.UNSUPPORTED);
+    }
+
+    void reset() {
+        invocations.reset();
+        errors.reset();
+        matches.reset();
+        samples.reset();
+        allocatedBytes.reset();
+        latencies.reset();
+        messageSizes.reset();
+    }
+}
@@ -0,0 +1,48 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailetcontainer.impl.profiling;
+
+import org.apache.mailet.Mail;
+
+/**
+ * Records the execution of one step of the mailet pipeline.
+ */
+@FunctionalInterface
+public interface StepProfiler {
+    @FunctionalInterface
+    interface Sample {
+        /**
+         * @param failed whether the matcher or mailet threw
+         * @param matched whether the matcher matched some recipients. Ignored for mailets
+         */
+        void stop(boolean failed, boolean matched);
+    }
+
+    Sample NO_SAMPLE = (failed, matched) -> {
+
+    };
+
+    StepProfiler NOOP = mail -> NO_SAMPLE;
+
+    /**
+     * Called before the step handles the given mail. The returned sample is to be stopped once the step completes.
+     */
+    Sample start(Mail mail);
+}
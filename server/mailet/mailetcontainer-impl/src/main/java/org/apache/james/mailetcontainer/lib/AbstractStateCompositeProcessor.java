@@ -168,6 +168,10 @@ public abstract class AbstractStateCompositeProcessor implements MailProcessor,
             if (!processorConf.containsKey("[@enableJmx]")) {
                 processorConf.addProperty("[@enableJmx]", enableJmx);
             }
+            // same goes for profiling
+            if (!processorConf.containsKey("[@profilingSampleRate]") && config.containsKey("[@profilingSampleRate]")) {
+                processorConf.addProperty("[@profilingSampleRate]", config.getString("[@profilingSampleRate]"));
+            }
             processors.put(processorName, createMailProcessor(processorName, processorConf));
         }
 
@@ -69,6 +69,7 @@ public abstract class AbstractStateMailetProcessor implements MailProcessor, Con
     private final Collection<MailetProcessorListener> listeners = new ConcurrentLinkedDeque<>();
     private JMXStateMailetProcessorListener jmxListener;
     private boolean enableJmx = true;
+    private double profilingSampleRate = 0;
     private HierarchicalConfiguration<ImmutableNode> config;
     private MailetLoader mailetLoader;
     private final List<MatcherMailetPair> pairs = new ArrayList<>();
@@ -104,6 +105,10 @@ public abstract class AbstractStateMailetProcessor implements MailProcessor, Con
         }
 
         this.enableJmx = config.getBoolean("[@enableJmx]", true);
+        this.profilingSampleRate = config.getDouble("[@profilingSampleRate]", 0);
+        if (profilingSampleRate < 0 || profilingSampleRate > 1) {
+            throw new ConfigurationException("Processor profilingSampleRate must be between 0 and 1, got " + profilingSampleRate);
+        }
         this.config = config;
 
     }
@@ -155,6 +160,13 @@ public abstract class AbstractStateMailetProcessor implements MailProcessor, Con
         return state;
     }
 
+    /**
+     * Share of the mails for which each matcher and mailet of this processor get profiled. 0 disables profiling.
+     */
+    protected double getProfilingSampleRate() {
+        return profilingSampleRate;
+    }
+
     /**
      * Return a unmodifiable {@link List} of the configured {@link Mailet}'s
      */
@@ -55,6 +55,8 @@ import org.mockito.ArgumentCaptor;
 
 import com.google.common.collect.ImmutableList;
 
+import reactor.core.publisher.Mono;
+
 public interface JamesMailetContextContract {
     Domain DOMAIN_COM = Domain.of("domain.com");
     String USERNAME = "user";
@@ -308,7 +310,7 @@ public interface JamesMailetContextContract {
         testee().bounce(mail, "message");
 
         ArgumentCaptor<Mail> mailArgumentCaptor = ArgumentCaptor.forClass(Mail.class);
-        verify(spoolMailQueue()).enQueue(mailArgumentCaptor.capture());
+        verify(spoolMailQueue()).enqueueReactive(mailArgumentCaptor.capture());
         verifyNoMoreInteractions(spoolMailQueue());
 
         assertThat(mailArgumentCaptor.getValue().getState()).isEqualTo(Mail.DEFAULT);
@@ -325,7 +327,7 @@ public interface JamesMailetContextContract {
         testee().sendMail(mail);
 
         ArgumentCaptor<Mail> mailArgumentCaptor = ArgumentCaptor.forClass(Mail.class);
-        verify(spoolMailQueue()).enQueue(mailArgumentCaptor.capture());
+        verify(spoolMailQueue()).enqueueReactive(mailArgumentCaptor.capture());
         verifyNoMoreInteractions(spoolMailQueue());
 
         assertThat(mailArgumentCaptor.getValue().getState()).isEqualTo(Mail.DEFAULT);
@@ -343,12 +345,94 @@ public interface JamesMailetContextContract {
         testee().sendMail(mail, other);
 
         ArgumentCaptor<Mail> mailArgumentCaptor = ArgumentCaptor.forClass(Mail.class);
-        verify(spoolMailQueue()).enQueue(mailArgumentCaptor.capture());
+        verify(spoolMailQueue()).enqueueReactive(mailArgumentCaptor.capture());
+        verifyNoMoreInteractions(spoolMailQueue());
+
+        assertThat(mailArgumentCaptor.getValue().getState()).isEqualTo(other);
+    }
+
+    @Test
+    default void sendMailShouldPropagateEnqueueFailures() throws Exception {
+        MailImpl mail = MailImpl.builder()
+            .name("mail1")
+            .sender(mailAddress())
+            .addRecipient(mailAddress())
+            .mimeMessage(MimeMessageUtil.mimeMessageFromBytes("header: value\r\n".getBytes(UTF_8)))
+            .build();
+        when(spoolMailQueue().enqueueReactive(any())).thenReturn(Mono.error(new MailQueue.MailQueueException("enqueue failed")));
+
+        assertThatThrownBy(() -> testee().sendMail(mail))
+            .isInstanceOf(MailQueue.MailQueueException.class);
+    }
+
+    @Test
+    default void sendMailReactiveShouldEnqueueEmailWithRootState() throws Exception {
+        MailImpl mail = MailImpl.builder()
+            .name("mail1")
+            .sender(mailAddress())
+            .addRecipient(mailAddress())
+            .mimeMessage(MimeMessageUtil.mimeMessageFromBytes("header: value\r\n".getBytes(UTF_8)))
+            .build();
+        when(spoolMailQueue().enqueueReactive(any())).thenReturn(Mono.empty());
+
+        testee().sendMailReactive(mail).block();
+
+        ArgumentCaptor<Mail> mailArgumentCaptor = ArgumentCaptor.forClass(Mail.class);
+        verify(spoolMailQueue()).enqueueReactive(mailArgumentCaptor.capture());
+        verifyNoMoreInteractions(spoolMailQueue());
+
+        assertThat(mailArgumentCaptor.getValue().getState()).isEqualTo(Mail.DEFAULT);
+        assertThat(mailArgumentCaptor.getValue().getAttribute(Mail.SENT_BY_MAILET_ATTRIBUTE.getName())).isPresent();
+    }
+
+    @Test
+    default void sendMailReactiveShouldEnqueueEmailWithOtherStateWhenSpecified() throws Exception {
+        MailImpl mail = MailImpl.builder()
+            .name("mail1")
+            .sender(mailAddress())
+            .addRecipient(mailAddress())
+            .mimeMessage(MimeMessageUtil.mimeMessageFromBytes("header: value\r\n".getBytes(UTF_8)))
+            .build();
+        when(spoolMailQueue().enqueueReactive(any())).thenReturn(Mono.empty());
+        String other = "other";
+
+        testee().sendMailReactive(mail, other).block();
+
+        ArgumentCaptor<Mail> mailArgumentCaptor = ArgumentCaptor.forClass(Mail.class);
+        verify(spoolMailQueue()).enqueueReactive(mailArgumentCaptor.capture());
         verifyNoMoreInteractions(spoolMailQueue());
 
         assertThat(mailArgumentCaptor.getValue().getState()).isEqualTo(other);
     }
 
+    @Test
+    default void sendMailReactiveShouldNotEnqueueBeforeSubscription() throws Exception {
+        MailImpl mail = MailImpl.builder()
+            .name("mail1")
+            .sender(mailAddress())
+            .addRecipient(mailAddress())
+            .mimeMessage(MimeMessageUtil.mimeMessageFromBytes("header: value\r\n".getBytes(UTF_8)))
+            .build();
+
+        testee().sendMailReactive(mail);
+
+        verifyNoMoreInteractions(spoolMailQueue());
+    }
+
+    @Test
+    default void sendMailReactiveShouldPropagateEnqueueFailures() throws Exception {
+        MailImpl mail = MailImpl.builder()
+            .name("mail1")
+            .sender(mailAddress())
+            .addRecipient(mailAddress())
+            .mimeMessage(MimeMessageUtil.mimeMessageFromBytes("header: value\r\n".getBytes(UTF_8)))
+            .build();
+        when(spoolMailQueue().enqueueReactive(any())).thenReturn(Mono.error(new MailQueue.MailQueueException("enqueue failed")));
+
+        assertThatThrownBy(() -> testee().sendMailReactive(mail).block())
+            .hasCauseInstanceOf(MailQueue.MailQueueException.class);
+    }
+
     @Test
     default void sendMailShouldEnqueueEmailWithRootStateAndDelayWhenSpecified() throws Exception {
         MailImpl mail = MailImpl.builder()
@@ -407,7 +491,7 @@ public interface JamesMailetContextContract {
         testee().sendMail(message);
 
         ArgumentCaptor<Mail> mailArgumentCaptor = ArgumentCaptor.forClass(Mail.class);
-        verify(spoolMailQueue()).enQueue(mailArgumentCaptor.capture());
+        verify(spoolMailQueue()).enqueueReactive(mailArgumentCaptor.capture());
         verifyNoMoreInteractions(spoolMailQueue());
 
         assertThat(mailArgumentCaptor.getValue().getState()).isEqualTo(Mail.DEFAULT);
@@ -426,7 +510,7 @@ public interface JamesMailetContextContract {
         testee().sendMail(sender, recipients, message);
 
         ArgumentCaptor<Mail> mailArgumentCaptor = ArgumentCaptor.forClass(Mail.class);
-        verify(spoolMailQueue()).enQueue(mailArgumentCaptor.capture());
+        verify(spoolMailQueue()).enqueueReactive(mailArgumentCaptor.capture());
         verifyNoMoreInteractions(spoolMailQueue());
 
         assertThat(mailArgumentCaptor.getValue().getState()).isEqualTo(Mail.DEFAULT);
@@ -446,7 +530,7 @@ public interface JamesMailetContextContract {
         testee().sendMail(sender, recipients, message, otherState);
 
         ArgumentCaptor<Mail> mailArgumentCaptor = ArgumentCaptor.forClass(Mail.class);
-        verify(spoolMailQueue()).enQueue(mailArgumentCaptor.capture());
+        verify(spoolMailQueue()).enqueueReactive(mailArgumentCaptor.capture());
         verifyNoMoreInteractions(spoolMailQueue());
 
         assertThat(mailArgumentCaptor.getValue().getState()).isEqualTo(otherState);
@@ -470,7 +554,7 @@ public interface JamesMailetContextContract {
             .build());
 
         ArgumentCaptor<Mail> mailArgumentCaptor = ArgumentCaptor.forClass(Mail.class);
-        verify(spoolMailQueue()).enQueue(mailArgumentCaptor.capture());
+        verify(spoolMailQueue()).enqueueReactive(mailArgumentCaptor.capture());
         verifyNoMoreInteractions(spoolMailQueue());
 
         assertThat(mailArgumentCaptor.getValue().getState()).isEqualTo(otherState);
@@ -492,7 +576,7 @@ public interface JamesMailetContextContract {
             .build());
 
         ArgumentCaptor<Mail> mailArgumentCaptor = ArgumentCaptor.forClass(Mail.class);
-        verify(spoolMailQueue()).enQueue(mailArgumentCaptor.capture());
+        verify(spoolMailQueue()).enqueueReactive(mailArgumentCaptor.capture());
         verifyNoMoreInteractions(spoolMailQueue());
 
         assertThat(mailArgumentCaptor.getValue().getState()).isEqualTo(Mail.DEFAULT);
@@ -19,6 +19,7 @@
 
 package org.apache.james.mailetcontainer.impl;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
@@ -38,6 +39,8 @@ import org.apache.james.user.api.UsersRepository;
 import org.apache.james.user.memory.MemoryUsersRepository;
 import org.junit.jupiter.api.BeforeEach;
 
+import reactor.core.publisher.Mono;
+
 public class JamesMailetContextTest implements JamesMailetContextContract {
     @Override
     public AbstractDomainList domainList() {
@@ -88,6 +91,7 @@ public class JamesMailetContextTest implements JamesMailetContextContract {
         MailQueueFactory mailQueueFactory = mock(MailQueueFactory.class);
         spoolMailQueue = mock(MailQueue.class);
         when(mailQueueFactory.createQueue(MailQueueFactory.SPOOL)).thenReturn(spoolMailQueue);
+        when(spoolMailQueue.enqueueReactive(any())).thenReturn(Mono.empty());
 
         LocalResources localResources = new LocalResourcesImpl(usersRepository, domainList, recipientRewriteTable);
         testee = new JamesMailetContext(dnsService, domainList, localResources, mailQueueFactory);
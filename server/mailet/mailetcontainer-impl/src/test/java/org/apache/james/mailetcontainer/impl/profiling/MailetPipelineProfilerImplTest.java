@@ -0,0 +1,145 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailetcontainer.impl.profiling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.apache.james.mailetcontainer.api.PipelineStepProfile;
+import org.apache.james.mailetcontainer.api.PipelineStepProfile.Kind;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.apache.mailet.Mail;
+import org.apache.mailet.Mailet;
+import org.apache.mailet.Matcher;
+import org.apache.mailet.base.test.FakeMail;
+import org.apache.mailet.base.test.FakeMailetConfig;
+import org.apache.mailet.base.test.FakeMatcherConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MailetPipelineProfilerImplTest {
+    private RecordingMetricFactory metricFactory;
+    private MailetPipelineProfilerImpl testee;
+    private Matcher matcher;
+    private Mailet mailet;
+    private Mail mail;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        metricFactory = new RecordingMetricFactory();
+        testee = new MailetPipelineProfilerImpl(metricFactory);
+
+        matcher = mock(Matcher.class);
+        when(matcher.getMatcherConfig()).thenReturn(FakeMatcherConfig.builder().matcherName("All").build());
+        mailet = mock(Mailet.class);
+        when(mailet.getMailetConfig()).thenReturn(FakeMailetConfig.builder().mailetName("Null").build());
+        mail = FakeMail.builder().name("mail").size(2048).build();
+    }
+
+    @Test
+    void getProfilesShouldBeEmptyByDefault() {
+        assertThat(testee.getProfiles()).isEmpty();
+    }
+
+    @Test
+    void disabledStepShouldNotBeProfiled() {
+        StepProfiler stepProfiler = testee.mailetStep("root", 0, mailet, 0);
+
+        stepProfiler.start(mail).stop(false, false);
+
+        assertThat(stepProfiler).isSameAs(StepProfiler.NOOP);
+        assertThat(testee.getProfiles()).isEmpty();
+    }
+
+    @Test
+    void sampleRateShouldBeValidated() {
+        assertThatThrownBy(() -> testee.mailetStep("root", 0, mailet, 1.5))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void fullySampledStepShouldRecordEveryInvocation() {
+        StepProfiler stepProfiler = testee.mailetStep("root", 0, mailet, 1);
+
+        stepProfiler.start(mail).stop(false, false);
+        stepProfiler.start(mail).stop(true, false);
+
+        PipelineStepProfile profile = testee.getProfiles().get(0);
+        assertThat(profile.name()).isEqualTo("Null");
+        assertThat(profile.kind()).isEqualTo(Kind.MAILET);
+        assertThat(profile.invocationCount()).isEqualTo(2);
+        assertThat(profile.errorCount()).isEqualTo(1);
+        assertThat(profile.sampleCount()).isEqualTo(2);
+        assertThat(profile.latencyMillis().counts().stream().mapToLong(Long::longValue).sum()).isEqualTo(2);
+        assertThat(profile.messageSizeBytes().counts().get(0)).isEqualTo(2);
+    }
+
+    @Test
+    void sampledStepShouldPublishTimer() {
+        testee.mailetStep("root", 0, mailet, 1).start(mail).stop(false, false);
+
+        assertThat(metricFactory.executionTimesFor(SampledStepProfiler.metricName("root", 0, Kind.MAILET, "Null")))
+            .hasSize(1);
+    }
+
+    @Test
+    void matcherStepShouldCountMatches() {
+        StepProfiler stepProfiler = testee.matcherStep("root", 0, matcher, 1);
+
+        stepProfiler.start(mail).stop(false, true);
+        stepProfiler.start(mail).stop(false, false);
+
+        PipelineStepProfile profile = testee.getProfiles().get(0);
+        assertThat(profile.kind()).isEqualTo(Kind.MATCHER);
+        assertThat(profile.matchCount()).isEqualTo(1);
+        assertThat(profile.matchRatio()).isEqualTo(0.5);
+    }
+
+    @Test
+    void getProfilesShouldFollowPipelineOrder() {
+        testee.mailetStep("transport", 0, mailet, 1);
+        testee.mailetStep("root", 1, mailet, 1);
+        testee.matcherStep("root", 1, matcher, 1);
+        testee.mailetStep("root", 0, mailet, 1);
+
+        assertThat(testee.getProfiles())
+            .extracting(PipelineStepProfile::processor, PipelineStepProfile::position, PipelineStepProfile::kind)
+            .containsExactly(
+                tuple("root", 0, Kind.MAILET),
+                tuple("root", 1, Kind.MATCHER),
+                tuple("root", 1, Kind.MAILET),
+                tuple("transport", 0, Kind.MAILET));
+    }
+
+    @Test
+    void resetShouldClearCounters() {
+        StepProfiler stepProfiler = testee.mailetStep("root", 0, mailet, 1);
+        stepProfiler.start(mail).stop(false, false);
+
+        testee.reset();
+
+        PipelineStepProfile profile = testee.getProfiles().get(0);
+        assertThat(profile.invocationCount()).isZero();
+        assertThat(profile.sampleCount()).isZero();
+    }
+}
@@ -48,6 +48,7 @@ import org.apache.james.core.MaybeSender;
 import org.apache.james.dnsservice.api.DNSService;
 import org.apache.james.javax.MimeMultipartReport;
 import org.apache.james.lifecycle.api.LifecycleUtil;
+import org.apache.james.mailetcontainer.api.ReactiveMailetContext;
 import org.apache.james.server.core.MailImpl;
 import org.apache.james.server.core.MimeMessageWrapper;
 import org.apache.james.transport.mailets.redirect.InitParameters;
@@ -340,7 +341,7 @@ public class DSNBounce extends GenericMailet implements RedirectNotify {
             newMail.getMessage().setHeader(RFC2822Headers.DATE, getDateHeader(originalMail));
 
             newMail.getMessage().saveChanges();
-            getMailetContext().sendMail(newMail);
+            ReactiveMailetContext.sendMailBlocking(getMailetContext(), newMail);
         } finally {
             LifecycleUtil.dispose(bounceMessage);
         }
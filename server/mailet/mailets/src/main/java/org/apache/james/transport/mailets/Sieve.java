@@ -24,6 +24,7 @@ import jakarta.mail.MessagingException;
 
 import org.apache.james.core.MailAddress;
 import org.apache.james.mailbox.model.MailboxConstants;
+import org.apache.james.metrics.api.MetricFactory;
 import org.apache.james.sieverepository.api.SieveRepository;
 import org.apache.james.transport.mailets.jsieve.ResourceLocator;
 import org.apache.james.transport.mailets.jsieve.delivery.SieveExecutor;
@@ -39,16 +40,18 @@ public class Sieve extends GenericMailet {
 
     private final UsersRepository usersRepository;
     private final ResourceLocator resourceLocator;
+    private final MetricFactory metricFactory;
     private SieveExecutor sieveExecutor;
 
     @Inject
-    public Sieve(UsersRepository usersRepository, SieveRepository sieveRepository) {
-        this(usersRepository, new ResourceLocator(sieveRepository, usersRepository));
+    public Sieve(UsersRepository usersRepository, SieveRepository sieveRepository, MetricFactory metricFactory) {
+        this(usersRepository, new ResourceLocator(sieveRepository, usersRepository), metricFactory);
     }
 
-    public Sieve(UsersRepository usersRepository, ResourceLocator resourceLocator) {
+    public Sieve(UsersRepository usersRepository, ResourceLocator resourceLocator, MetricFactory metricFactory) {
         this.usersRepository = usersRepository;
         this.resourceLocator = resourceLocator;
+        this.metricFactory = metricFactory;
     }
 
     @Override
@@ -62,6 +65,7 @@ public class Sieve extends GenericMailet {
             .resourceLocator(resourceLocator)
             .mailetContext(getMailetContext())
             .sievePoster(new SievePoster(usersRepository, MailboxConstants.INBOX))
+            .metricFactory(metricFactory)
             .build();
     }
 
@@ -30,6 +30,7 @@ import jakarta.mail.internet.MimeMessage;
 
 import org.apache.james.core.MailAddress;
 import org.apache.james.lifecycle.api.LifecycleUtil;
+import org.apache.james.mailetcontainer.api.ReactiveMailetContext;
 import org.apache.james.server.core.MailImpl;
 import org.apache.james.util.AuditTrail;
 import org.apache.mailet.Mail;
@@ -44,6 +45,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
+import reactor.core.Exceptions;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
@@ -124,35 +126,55 @@ public class MailDispatcher {
     }
 
     public void dispatch(Mail mail) throws MessagingException {
-        List<MailAddress> errors = customizeHeadersAndDeliver(mail);
-        if (!errors.isEmpty() && !ignoreError) {
-            // If there were errors, we redirect the email to the ERROR
-            // processor.
-            // In order for this server to meet the requirements of the SMTP
-            // specification, mails on the ERROR processor must be returned to
-            // the sender. Note that this email doesn't include any details
-            // regarding the details of the failure(s).
-            // In the future we may wish to address this.
-            Mail newMail = MailImpl.builder()
+        try {
+            dispatchReactive(mail).block();
+        } catch (RuntimeException e) {
+            if (Exceptions.unwrap(e) instanceof MessagingException messagingException) {
+                throw messagingException;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Reactive counterpart of {@link #dispatch(Mail)}: neither the mailbox appends nor the enqueue of the error mail
+     * hold the subscribing thread.
+     */
+    public Mono<Void> dispatchReactive(Mail mail) {
+        return Mono.defer(Throwing.supplier(() -> customizeHeadersAndDeliver(mail)).sneakyThrow())
+            .flatMap(errors -> sendToErrorProcessor(mail, errors))
+            .then(Mono.fromRunnable(() -> {
+                if (consume) {
+                    // Consume this message
+                    mail.setState(Mail.GHOST);
+                }
+            }));
+    }
+
+    private Mono<Void> sendToErrorProcessor(Mail mail, List<MailAddress> errors) {
+        if (errors.isEmpty() || ignoreError) {
+            return Mono.empty();
+        }
+        // If there were errors, we redirect the email to the ERROR
+        // processor.
+        // In order for this server to meet the requirements of the SMTP
+        // specification, mails on the ERROR processor must be returned to
+        // the sender. Note that this email doesn't include any details
+        // regarding the details of the failure(s).
+        // In the future we may wish to address this.
+        return Mono.using(
+            () -> MailImpl.builder()
                 .name("error-" + mail.getName())
                 .sender(mail.getMaybeSender())
                 .addRecipients(errors)
                 .mimeMessage(mail.getMessage())
                 .state(errorProcessor)
-                .build();
-            try {
-                mailetContext.sendMail(newMail);
-            } finally {
-                LifecycleUtil.dispose(newMail);
-            }
-        }
-        if (consume) {
-            // Consume this message
-            mail.setState(Mail.GHOST);
-        }
+                .build(),
+            errorMail -> ReactiveMailetContext.sendMailReactive(mailetContext, errorMail),
+            LifecycleUtil::dispose);
     }
 
-    private List<MailAddress> customizeHeadersAndDeliver(Mail mail) throws MessagingException {
+    private Mono<List<MailAddress>> customizeHeadersAndDeliver(Mail mail) throws MessagingException {
         MimeMessage message = mail.getMessage();
         // Set Return-Path and remove all other Return-Path headers from the message
         // This only works because there is a placeholder inserted by MimeMessageWrapper
@@ -161,7 +183,7 @@ public class MailDispatcher {
         return deliver(mail, message);
     }
 
-    private List<MailAddress> deliver(Mail mail, MimeMessage message) {
+    private Mono<List<MailAddress>> deliver(Mail mail, MimeMessage message) {
         return Flux.fromIterable(mail.getRecipients())
             .concatMap(recipient ->
                 Mono.using(
@@ -190,8 +212,7 @@ public class MailDispatcher {
                         }
                         return Mono.just(recipient);
                     }))
-            .collectList()
-            .block();
+            .collectList();
     }
 
     private Mono<Void> storeMailWithRetry(Mail mail, MailAddress recipient) {
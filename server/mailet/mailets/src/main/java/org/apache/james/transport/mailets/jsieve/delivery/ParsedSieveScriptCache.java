@@ -0,0 +1,106 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.transport.mailets.jsieve.delivery;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Optional;
+
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.metrics.api.TimeMetric;
+import org.apache.jsieve.SieveFactory;
+import org.apache.jsieve.parser.generated.Node;
+import org.apache.jsieve.parser.generated.ParseException;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+
+/**
+ * Node-local cache of parsed Sieve scripts, so that a script is parsed once rather than once per recipient.
+ *
+ * Entries are keyed by a digest of the script content. Activating another script or updating the active one thus
+ * never serves a stale script, whichever James node performed the change, and no invalidation is needed: unused
+ * entries are evicted once they expire. Parse trees are immutable, and users sharing a script share its entry.
+ */
+public class ParsedSieveScriptCache {
+    public static final Duration DEFAULT_EXPIRACY = Duration.ofHours(1);
+    public static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+    public static final String PARSE_TIMER = "sieve.parse";
+    public static final String HIT_METRIC = "sieve.parse.cache.hit";
+    public static final String AVOIDED_PARSE_TIME_METRIC = "sieve.parse.cache.avoidedMillis";
+
+    private record ParsedScript(Node node, Duration parseDuration) {
+
+    }
+
+    private final SieveFactory factory;
+    private final MetricFactory metricFactory;
+    private final Metric hitMetric;
+    private final Metric avoidedParseTimeMetric;
+    private final Cache<HashCode, ParsedScript> cache;
+
+    public ParsedSieveScriptCache(SieveFactory factory, MetricFactory metricFactory) {
+        this(factory, metricFactory, DEFAULT_EXPIRACY, DEFAULT_MAXIMUM_SIZE);
+    }
+
+    public ParsedSieveScriptCache(SieveFactory factory, MetricFactory metricFactory, Duration expiracy, long maximumSize) {
+        Preconditions.checkArgument(!expiracy.isNegative() && !expiracy.isZero(), "'expiracy' needs to be strictly positive");
+        Preconditions.checkArgument(maximumSize > 0, "'maximumSize' needs to be strictly positive");
+
+        this.factory = factory;
+        this.metricFactory = metricFactory;
+        this.hitMetric = metricFactory.generate(HIT_METRIC);
+        this.avoidedParseTimeMetric = metricFactory.generate(AVOIDED_PARSE_TIME_METRIC);
+        this.cache = CacheBuilder.newBuilder()
+            .expireAfterAccess(expiracy)
+            .maximumSize(maximumSize)
+            .build();
+    }
+
+    /**
+     * Parses the script, closing the supplied stream. Scripts failing to parse are not cached.
+     */
+    public Node parse(InputStream scriptContent) throws IOException, ParseException {
+        byte[] script;
+        try (scriptContent) {
+            script = scriptContent.readAllBytes();
+        }
+        HashCode key = Hashing.sha256().hashBytes(script);
+
+        Optional<ParsedScript> cached = Optional.ofNullable(cache.getIfPresent(key));
+        if (cached.isPresent()) {
+            hitMetric.increment();
+            avoidedParseTimeMetric.add(Math.toIntExact(cached.get().parseDuration().toMillis()));
+            return cached.get().node();
+        }
+
+        TimeMetric timer = metricFactory.timer(PARSE_TIMER);
+        Node node = factory.parse(new ByteArrayInputStream(script));
+        Duration parseDuration = timer.stopAndPublish().elasped();
+        cache.put(key, new ParsedScript(node, parseDuration));
+        return node;
+    }
+}
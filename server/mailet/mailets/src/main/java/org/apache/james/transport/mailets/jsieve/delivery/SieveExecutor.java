@@ -20,9 +20,12 @@
 
 package org.apache.james.transport.mailets.jsieve.delivery;
 
+import java.io.IOException;
+
 import jakarta.mail.MessagingException;
 
 import org.apache.james.core.MailAddress;
+import org.apache.james.metrics.api.MetricFactory;
 import org.apache.james.server.core.MailImpl;
 import org.apache.james.sieverepository.api.exception.ScriptNotFoundException;
 import org.apache.james.transport.mailets.jsieve.ActionDispatcher;
@@ -58,6 +61,7 @@ public class SieveExecutor {
         private MailetContext mailetContext;
         private SievePoster sievePoster;
         private ResourceLocator resourceLocator;
+        private MetricFactory metricFactory;
 
         public Builder sievePoster(SievePoster sievePoster) {
             this.sievePoster = sievePoster;
@@ -74,11 +78,17 @@ public class SieveExecutor {
             return this;
         }
 
+        public Builder metricFactory(MetricFactory metricFactory) {
+            this.metricFactory = metricFactory;
+            return this;
+        }
+
         public SieveExecutor build() throws MessagingException {
             Preconditions.checkNotNull(mailetContext);
             Preconditions.checkNotNull(resourceLocator);
             Preconditions.checkNotNull(sievePoster);
-            return new SieveExecutor(mailetContext, sievePoster, resourceLocator);
+            Preconditions.checkNotNull(metricFactory);
+            return new SieveExecutor(mailetContext, sievePoster, resourceLocator, metricFactory);
         }
     }
 
@@ -86,14 +96,16 @@ public class SieveExecutor {
     private final SievePoster sievePoster;
     private final ResourceLocator resourceLocator;
     private final SieveFactory factory;
+    private final ParsedSieveScriptCache scriptCache;
     private final ActionDispatcher actionDispatcher;
 
     public SieveExecutor(MailetContext mailetContext, SievePoster sievePoster,
-                         ResourceLocator resourceLocator) throws MessagingException {
+                         ResourceLocator resourceLocator, MetricFactory metricFactory) throws MessagingException {
         this.mailetContext = mailetContext;
         this.sievePoster = sievePoster;
         this.resourceLocator = resourceLocator;
         this.factory = createFactory();
+        this.scriptCache = new ParsedSieveScriptCache(factory, metricFactory);
         this.actionDispatcher = new ActionDispatcher();
     }
 
@@ -135,7 +147,9 @@ public class SieveExecutor {
                 // This logging operation is potentially costly
                 LOGGER.debug("Evaluating {} against \"{}\"", aMailAdapter.toString(), recipient.asPrettyString());
             }
-            factory.evaluate(aMailAdapter, factory.parse(userSieveInformation.getScriptContent()));
+            factory.evaluate(aMailAdapter, scriptCache.parse(userSieveInformation.getScriptContent()));
+        } catch (IOException ex) {
+            throw new MessagingException("Cannot read Sieve script of " + recipient.asString(), ex);
         } catch (SieveException | ParseException ex) {
             handleFailure(recipient, aMail, ex);
         } catch (TokenMgrError ex) {
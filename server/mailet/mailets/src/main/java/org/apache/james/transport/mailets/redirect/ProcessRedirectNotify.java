@@ -26,6 +26,7 @@ import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 
 import org.apache.james.lifecycle.api.LifecycleUtil;
+import org.apache.james.mailetcontainer.api.ReactiveMailetContext;
 import org.apache.james.server.core.MailImpl;
 import org.apache.mailet.Attribute;
 import org.apache.mailet.Mail;
@@ -94,7 +95,7 @@ public class ProcessRedirectNotify {
             if (senderDomainIsValid(newMail)) {
                 // Send it off...
                 if (!newMail.getRecipients().isEmpty()) {
-                    mailet.getMailetContext().sendMail(newMail);
+                    ReactiveMailetContext.sendMailBlocking(mailet.getMailetContext(), newMail);
                 }
             } else {
                 throw new MessagingException(mailet.getMailetName() + " mailet cannot forward " + originalMail.getName() + ". " +
@@ -22,9 +22,13 @@ package org.apache.james.transport.matchers.dlp;
 import static org.apache.james.javax.AddressHelper.asStringStream;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import jakarta.mail.BodyPart;
@@ -47,6 +51,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableCollection;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSet;
 
 public class DlpDomainRules {
 
@@ -66,64 +71,191 @@ public class DlpDomainRules {
         return new DlpDomainRulesBuilder();
     }
 
-    static class Rule {
+    /**
+     * A mail being matched against the rules of a domain.
+     *
+     * Its texts are extracted at most once, whatever the count of content rules, and the content prefilter is run at
+     * most once over them.
+     */
+    static class ScannedMail {
+        private final Mail mail;
+        private List<String> texts;
+        private Boolean prefilterMatch;
+
+        ScannedMail(Mail mail) {
+            this.mail = mail;
+        }
 
-        interface MatcherFunction extends ThrowingPredicate<Mail> { }
+        Mail mail() {
+            return mail;
+        }
 
-        private static class ContentMatcher implements Rule.MatcherFunction {
+        List<String> texts() throws MessagingException, IOException {
+            if (texts == null) {
+                texts = Stream.concat(getMessageSubjects(), getMessageBodies(mail.getMessage()))
+                    .collect(ImmutableList.toImmutableList());
+            }
+            return texts;
+        }
 
-            private final Pattern pattern;
+        boolean matchesPrefilter(ContentPrefilter prefilter) throws MessagingException, IOException {
+            if (prefilterMatch == null) {
+                prefilterMatch = prefilter.matchesAny(texts());
+            }
+            return prefilterMatch;
+        }
 
-            private ContentMatcher(Pattern pattern) {
-                this.pattern = pattern;
+        private Stream<String> getMessageSubjects() throws MessagingException {
+            MimeMessage message = mail.getMessage();
+            if (message != null) {
+                String subject = message.getSubject();
+                if (subject != null) {
+                    return Stream.of(subject);
+                }
             }
+            return Stream.of();
+        }
 
-            @Override
-            public boolean doTest(Mail mail) throws MessagingException, IOException {
-                return Stream
-                    .concat(getMessageSubjects(mail), getMessageBodies(mail.getMessage()))
-                    .anyMatch(pattern.asPredicate());
+        private Stream<String> getMessageBodies(Message message) throws MessagingException, IOException {
+            if (message != null) {
+                return getMessageBodiesFromContent(message.getContent());
             }
+            return Stream.of();
+        }
 
-            private Stream<String> getMessageSubjects(Mail mail) throws MessagingException {
-                MimeMessage message = mail.getMessage();
-                if (message != null) {
-                    String subject = message.getSubject();
-                    if (subject != null) {
-                        return Stream.of(subject);
-                    }
-                }
-                return Stream.of();
+        private Stream<String> getMessageBodiesFromContent(Object content) throws IOException, MessagingException {
+            if (content instanceof String) {
+                return Stream.of((String) content);
             }
 
-            private Stream<String> getMessageBodies(Message message) throws MessagingException, IOException {
-                if (message != null) {
-                    return getMessageBodiesFromContent(message.getContent());
-                }
-                return Stream.of();
+            return extractContentsComplexType(content)
+                .flatMap(Throwing.function(this::getMessageBodiesFromContent).sneakyThrow());
+        }
+
+        private Stream<Object> extractContentsComplexType(Object content) throws IOException, MessagingException {
+            if (content instanceof Message) {
+                Message message = (Message) content;
+                return Stream.of(message.getContent());
+            }
+            if (content instanceof Multipart) {
+                return MultipartUtil.retrieveBodyParts((Multipart) content)
+                    .stream()
+                    .map(Throwing.function(BodyPart::getContent).sneakyThrow());
             }
 
-            private Stream<String> getMessageBodiesFromContent(Object content) throws IOException, MessagingException {
-                if (content instanceof String) {
-                    return Stream.of((String) content);
-                }
+            return Stream.of();
+        }
+    }
 
-                return extractContentsComplexType(content)
-                    .flatMap(Throwing.function(this::getMessageBodiesFromContent).sneakyThrow());
+    /**
+     * All the content patterns of a domain compiled into a single alternation, so that each text is scanned once
+     * to know whether any of them matches.
+     *
+     * Constructs whose meaning depends on the rest of the pattern, like back-references, named groups or comments,
+     * cannot be combined: such patterns are left out and always evaluated on their own.
+     */
+    static class ContentPrefilter {
+        private static final ContentPrefilter NONE = new ContentPrefilter(Optional.empty(), ImmutableSet.of());
+        private static final int NON_INLINABLE_FLAGS = Pattern.LITERAL | Pattern.CANON_EQ | Pattern.COMMENTS;
+        private static final Pattern NON_COMBINABLE_CONSTRUCTS = Pattern.compile("\\\\[1-9]|\\\\k<|\\(\\?<[a-zA-Z]|\\(\\?[a-zA-Z-]*x");
+
+        static ContentPrefilter of(Collection<Pattern> patterns) {
+            ImmutableList<Pattern> combinable = patterns.stream()
+                .filter(ContentPrefilter::isCombinable)
+                .collect(ImmutableList.toImmutableList());
+            if (combinable.isEmpty()) {
+                return NONE;
             }
+            try {
+                Pattern combined = Pattern.compile(combinable.stream()
+                    .map(ContentPrefilter::asGroup)
+                    .collect(Collectors.joining("|")));
+                return new ContentPrefilter(Optional.of(combined), ImmutableSet.copyOf(combinable));
+            } catch (PatternSyntaxException e) {
+                return NONE;
+            }
+        }
 
-            private Stream<Object> extractContentsComplexType(Object content) throws IOException, MessagingException {
-                if (content instanceof Message) {
-                    Message message = (Message) content;
-                    return Stream.of(message.getContent());
-                }
-                if (content instanceof Multipart) {
-                    return MultipartUtil.retrieveBodyParts((Multipart) content)
-                        .stream()
-                        .map(Throwing.function(BodyPart::getContent).sneakyThrow());
-                }
+        private static boolean isCombinable(Pattern pattern) {
+            if ((pattern.flags() & NON_INLINABLE_FLAGS) != 0 || NON_COMBINABLE_CONSTRUCTS.matcher(pattern.pattern()).find()) {
+                return false;
+            }
+            try {
+                Pattern.compile(asGroup(pattern));
+                return true;
+            } catch (PatternSyntaxException e) {
+                return false;
+            }
+        }
 
-                return Stream.of();
+        private static String asGroup(Pattern pattern) {
+            return "(?" + inlineFlags(pattern.flags()) + ":" + pattern.pattern() + ")";
+        }
+
+        private static String inlineFlags(int flags) {
+            StringBuilder inlineFlags = new StringBuilder();
+            if ((flags & Pattern.UNIX_LINES) != 0) {
+                inlineFlags.append('d');
+            }
+            if ((flags & Pattern.CASE_INSENSITIVE) != 0) {
+                inlineFlags.append('i');
+            }
+            if ((flags & Pattern.MULTILINE) != 0) {
+                inlineFlags.append('m');
+            }
+            if ((flags & Pattern.DOTALL) != 0) {
+                inlineFlags.append('s');
+            }
+            if ((flags & Pattern.UNICODE_CASE) != 0) {
+                inlineFlags.append('u');
+            }
+            if ((flags & Pattern.UNICODE_CHARACTER_CLASS) != 0) {
+                inlineFlags.append('U');
+            }
+            return inlineFlags.toString();
+        }
+
+        private final Optional<Pattern> combined;
+        private final ImmutableSet<Pattern> combinedPatterns;
+
+        private ContentPrefilter(Optional<Pattern> combined, ImmutableSet<Pattern> combinedPatterns) {
+            this.combined = combined;
+            this.combinedPatterns = combinedPatterns;
+        }
+
+        boolean covers(Pattern pattern) {
+            return combinedPatterns.contains(pattern);
+        }
+
+        private boolean matchesAny(List<String> texts) {
+            return combined
+                .map(pattern -> texts.stream().anyMatch(pattern.asPredicate()))
+                .orElse(true);
+        }
+    }
+
+    static class Rule {
+
+        interface MatcherFunction extends ThrowingPredicate<ScannedMail> { }
+
+        private static class ContentMatcher implements Rule.MatcherFunction {
+
+            private final Pattern pattern;
+            private final ContentPrefilter prefilter;
+
+            private ContentMatcher(Pattern pattern, ContentPrefilter prefilter) {
+                this.pattern = pattern;
+                this.prefilter = prefilter;
+            }
+
+            @Override
+            public boolean doTest(ScannedMail scannedMail) throws MessagingException, IOException {
+                if (prefilter.covers(pattern) && !scannedMail.matchesPrefilter(prefilter)) {
+                    return false;
+                }
+                return scannedMail.texts()
+                    .stream()
+                    .anyMatch(pattern.asPredicate());
             }
         }
 
@@ -136,8 +268,8 @@ public class DlpDomainRules {
             }
 
             @Override
-            public boolean doTest(Mail mail) throws MessagingException, IOException {
-                return listRecipientsAsString(mail).anyMatch(pattern.asPredicate());
+            public boolean doTest(ScannedMail scannedMail) throws MessagingException, IOException {
+                return listRecipientsAsString(scannedMail.mail()).anyMatch(pattern.asPredicate());
             }
 
             private Stream<String> listRecipientsAsString(Mail mail) throws MessagingException {
@@ -166,8 +298,8 @@ public class DlpDomainRules {
             }
 
             @Override
-            public boolean doTest(Mail mail) throws MessagingException {
-                return listSenders(mail).anyMatch(pattern.asPredicate());
+            public boolean doTest(ScannedMail scannedMail) throws MessagingException {
+                return listSenders(scannedMail.mail()).anyMatch(pattern.asPredicate());
             }
 
             private Stream<String> listSenders(Mail mail) throws MessagingException {
@@ -201,8 +333,8 @@ public class DlpDomainRules {
             return id;
         }
 
-        public boolean match(Mail mail) {
-            return matcher.test(mail);
+        public boolean match(ScannedMail scannedMail) {
+            return matcher.test(scannedMail);
         }
 
         @Override
@@ -224,10 +356,22 @@ public class DlpDomainRules {
 
     public static class DlpDomainRulesBuilder {
 
-        private final ImmutableMultimap.Builder<Targets.Type, Rule> rules;
+        private static class RuleDefinition {
+            private final Targets.Type type;
+            private final DLPConfigurationItem.Id id;
+            private final Pattern pattern;
+
+            private RuleDefinition(Targets.Type type, DLPConfigurationItem.Id id, Pattern pattern) {
+                this.type = type;
+                this.id = id;
+                this.pattern = pattern;
+            }
+        }
+
+        private final ImmutableList.Builder<RuleDefinition> definitions;
 
         private DlpDomainRulesBuilder() {
-            rules = ImmutableMultimap.builder();
+            definitions = ImmutableList.builder();
         }
 
         public DlpDomainRulesBuilder recipientRule(DLPConfigurationItem.Id id, Pattern pattern) {
@@ -243,25 +387,33 @@ public class DlpDomainRules {
         }
 
         public DlpDomainRulesBuilder rule(Targets.Type type, DLPConfigurationItem.Id id, Pattern regexp) {
-            rules.put(type, toRule(type, id, regexp));
+            definitions.add(new RuleDefinition(type, id, regexp));
             return this;
         }
 
-        private Rule toRule(Targets.Type type, DLPConfigurationItem.Id id, Pattern pattern) {
-            switch (type) {
+        private Rule toRule(RuleDefinition definition, ContentPrefilter prefilter) {
+            switch (definition.type) {
                 case Sender:
-                    return new Rule(id, new Rule.SenderMatcher(pattern));
+                    return new Rule(definition.id, new Rule.SenderMatcher(definition.pattern));
                 case Content:
-                    return new Rule(id, new Rule.ContentMatcher(pattern));
+                    return new Rule(definition.id, new Rule.ContentMatcher(definition.pattern, prefilter));
                 case Recipient:
-                    return new Rule(id, new Rule.RecipientsMatcher(pattern));
+                    return new Rule(definition.id, new Rule.RecipientsMatcher(definition.pattern));
                 default:
                     throw new IllegalArgumentException("unexpected value");
             }
         }
 
         public DlpDomainRules build() {
-            ImmutableMultimap<Targets.Type, Rule> rules = this.rules.build();
+            ImmutableList<RuleDefinition> definitions = this.definitions.build();
+            ContentPrefilter prefilter = ContentPrefilter.of(definitions.stream()
+                .filter(definition -> definition.type == Targets.Type.Content)
+                .map(definition -> definition.pattern)
+                .collect(ImmutableList.toImmutableList()));
+
+            ImmutableMultimap.Builder<Targets.Type, Rule> rulesBuilder = ImmutableMultimap.builder();
+            definitions.forEach(definition -> rulesBuilder.put(definition.type, toRule(definition, prefilter)));
+            ImmutableMultimap<Targets.Type, Rule> rules = rulesBuilder.build();
             Preconditions.checkState(!containsDuplicateIds(rules), "Rules should not contain duplicated `id`");
             return new DlpDomainRules(rules.values());
         }
@@ -290,8 +442,9 @@ public class DlpDomainRules {
     }
 
     public Optional<DLPConfigurationItem.Id> match(Mail mail) {
+        ScannedMail scannedMail = new ScannedMail(mail);
         return rules.stream()
-            .filter(rule -> rule.match(mail))
+            .filter(rule -> rule.match(scannedMail))
             .map(Rule::id)
             .findFirst();
     }
@@ -29,6 +29,7 @@ import org.apache.james.dlp.api.DLPConfigurationStore;
 import org.apache.james.dlp.api.DLPRules;
 import org.apache.james.metrics.api.GaugeRegistry;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
@@ -39,18 +40,46 @@ public interface DlpRulesLoader {
 
     DlpDomainRules load(Domain domain);
 
+    /**
+     * Compiling the rules of a domain is costly: the compiled rules are kept as long as the stored rules of the
+     * domain are unchanged.
+     */
     class Impl implements DlpRulesLoader {
+        private static final Duration COMPILED_RULES_EXPIRY = Duration.ofHours(1);
+        private static final int MAX_COMPILED_DOMAINS = 10_000;
+
+        private static class CompiledRules {
+            private final DLPRules source;
+            private final DlpDomainRules rules;
+
+            private CompiledRules(DLPRules source, DlpDomainRules rules) {
+                this.source = source;
+                this.rules = rules;
+            }
+        }
 
         private final DLPConfigurationStore configurationStore;
+        private final Cache<Domain, CompiledRules> compiledRules;
 
         @Inject
         public Impl(DLPConfigurationStore configurationStore) {
             this.configurationStore = configurationStore;
+            this.compiledRules = CacheBuilder.newBuilder()
+                .expireAfterAccess(COMPILED_RULES_EXPIRY)
+                .maximumSize(MAX_COMPILED_DOMAINS)
+                .build();
         }
 
         @Override
         public DlpDomainRules load(Domain domain) {
-          return toRules(Mono.from(configurationStore.list(domain)).block());
+            DLPRules items = Mono.from(configurationStore.list(domain)).block();
+            CompiledRules cached = compiledRules.getIfPresent(domain);
+            if (cached != null && cached.source.equals(items)) {
+                return cached.rules;
+            }
+            DlpDomainRules rules = toRules(items);
+            compiledRules.put(domain, new CompiledRules(items, rules));
+            return rules;
         }
 
         private DlpDomainRules toRules(DLPRules items) {
@@ -24,6 +24,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -38,6 +39,7 @@ import jakarta.mail.MessagingException;
 import org.apache.commons.io.IOUtils;
 import org.apache.james.core.MailAddress;
 import org.apache.james.core.builder.MimeMessageBuilder;
+import org.apache.james.mailetcontainer.api.ReactiveMailetContext;
 import org.apache.james.util.MimeMessageUtil;
 import org.apache.mailet.Mail;
 import org.apache.mailet.PerRecipientHeaders.Header;
@@ -175,6 +177,46 @@ class MailDispatcherTest {
         assertThat(mail.getState()).isEqualTo(Mail.GHOST);
     }
 
+    @Test
+    void dispatchReactiveShouldNotStoreMailBeforeSubscription() throws Exception {
+        MailDispatcher testee = MailDispatcher.builder()
+            .mailetContext(fakeMailContext)
+            .mailStore(mailStore)
+            .consume(true)
+            .build();
+
+        FakeMail mail = FakeMail.builder()
+            .name("name")
+            .recipients(MailAddressFixture.ANY_AT_JAMES)
+            .state("state")
+            .mimeMessage(MimeMessageUtil.defaultMimeMessage())
+            .build();
+        testee.dispatchReactive(mail);
+
+        verifyNoMoreInteractions(mailStore);
+        assertThat(mail.getState()).isEqualTo("state");
+    }
+
+    @Test
+    void dispatchReactiveShouldStoreAndConsumeMailUponSubscription() throws Exception {
+        MailDispatcher testee = MailDispatcher.builder()
+            .mailetContext(fakeMailContext)
+            .mailStore(mailStore)
+            .consume(true)
+            .build();
+
+        FakeMail mail = FakeMail.builder()
+            .name("name")
+            .recipients(MailAddressFixture.ANY_AT_JAMES)
+            .state("state")
+            .mimeMessage(MimeMessageUtil.defaultMimeMessage())
+            .build();
+        testee.dispatchReactive(mail).block();
+
+        verify(mailStore).storeMail(MailAddressFixture.ANY_AT_JAMES, mail);
+        assertThat(mail.getState()).isEqualTo(Mail.GHOST);
+    }
+
     @Test
     void dispatchShouldNotConsumeMailIfNotSpecified() throws Exception {
         MailDispatcher testee = MailDispatcher.builder()
@@ -484,6 +526,122 @@ class MailDispatcherTest {
             .isInstanceOf(Exception.class);
     }
 
+    @Test
+    void dispatchShouldNotSendAnyMailWhenDeliverySucceeds() throws Exception {
+        ReactiveMailetContext reactiveMailetContext = mock(ReactiveMailetContext.class);
+        MailDispatcher testee = MailDispatcher.builder()
+            .mailetContext(reactiveMailetContext)
+            .mailStore(mailStore)
+            .consume(true)
+            .build();
+
+        testee.dispatch(mailWithOneRecipient());
+
+        verify(reactiveMailetContext, never()).sendMailReactive(any(Mail.class));
+        verify(reactiveMailetContext, never()).sendMail(any(Mail.class));
+    }
+
+    @Test
+    void dispatchShouldSendTheErrorMailReactivelyWhenTheContextIsReactive() throws Exception {
+        ReactiveMailetContext reactiveMailetContext = mock(ReactiveMailetContext.class);
+        AtomicInteger enqueued = new AtomicInteger(0);
+        doReturn(Mono.fromRunnable(enqueued::incrementAndGet))
+            .when(reactiveMailetContext)
+            .sendMailReactive(any(Mail.class));
+        doReturn(Mono.error(new MessagingException()))
+            .when(mailStore)
+            .storeMail(any(MailAddress.class), any(Mail.class));
+        MailDispatcher testee = MailDispatcher.builder()
+            .mailetContext(reactiveMailetContext)
+            .mailStore(mailStore)
+            .onMailetException("errorProcessor1")
+            .build();
+
+        testee.dispatch(mailWithOneRecipient());
+
+        ArgumentCaptor<Mail> errorMail = ArgumentCaptor.forClass(Mail.class);
+        verify(reactiveMailetContext).sendMailReactive(errorMail.capture());
+        verify(reactiveMailetContext, never()).sendMail(any(Mail.class));
+        assertThat(enqueued.get()).isEqualTo(1);
+        assertThat(errorMail.getValue().getState()).isEqualTo("errorProcessor1");
+        assertThat(errorMail.getValue().getRecipients()).containsOnly(MailAddressFixture.ANY_AT_JAMES);
+    }
+
+    @Test
+    void dispatchShouldDisposeTheErrorMailOnceEnqueued() throws Exception {
+        ReactiveMailetContext reactiveMailetContext = mock(ReactiveMailetContext.class);
+        doReturn(Mono.empty())
+            .when(reactiveMailetContext)
+            .sendMailReactive(any(Mail.class));
+        doReturn(Mono.error(new MessagingException()))
+            .when(mailStore)
+            .storeMail(any(MailAddress.class), any(Mail.class));
+        MailDispatcher testee = MailDispatcher.builder()
+            .mailetContext(reactiveMailetContext)
+            .mailStore(mailStore)
+            .build();
+
+        testee.dispatch(mailWithOneRecipient());
+
+        ArgumentCaptor<Mail> errorMail = ArgumentCaptor.forClass(Mail.class);
+        verify(reactiveMailetContext).sendMailReactive(errorMail.capture());
+        assertThat(errorMail.getValue().getMessage()).isNull();
+    }
+
+    @Test
+    void dispatchShouldThrowWhenTheErrorMailCanNotBeEnqueued() throws Exception {
+        ReactiveMailetContext reactiveMailetContext = mock(ReactiveMailetContext.class);
+        doReturn(Mono.error(new MessagingException("enqueue failed")))
+            .when(reactiveMailetContext)
+            .sendMailReactive(any(Mail.class));
+        doReturn(Mono.error(new MessagingException()))
+            .when(mailStore)
+            .storeMail(any(MailAddress.class), any(Mail.class));
+        MailDispatcher testee = MailDispatcher.builder()
+            .mailetContext(reactiveMailetContext)
+            .mailStore(mailStore)
+            .build();
+
+        assertThatThrownBy(() -> testee.dispatch(mailWithOneRecipient()))
+            .isInstanceOf(MessagingException.class)
+            .hasMessage("enqueue failed");
+    }
+
+    @Test
+    void dispatchShouldDisposeTheErrorMailWhenItCanNotBeEnqueued() throws Exception {
+        ReactiveMailetContext reactiveMailetContext = mock(ReactiveMailetContext.class);
+        doReturn(Mono.error(new MessagingException("enqueue failed")))
+            .when(reactiveMailetContext)
+            .sendMailReactive(any(Mail.class));
+        doReturn(Mono.error(new MessagingException()))
+            .when(mailStore)
+            .storeMail(any(MailAddress.class), any(Mail.class));
+        MailDispatcher testee = MailDispatcher.builder()
+            .mailetContext(reactiveMailetContext)
+            .mailStore(mailStore)
+            .build();
+
+        assertThatThrownBy(() -> testee.dispatch(mailWithOneRecipient()))
+            .isInstanceOf(MessagingException.class);
+
+        ArgumentCaptor<Mail> errorMail = ArgumentCaptor.forClass(Mail.class);
+        verify(reactiveMailetContext).sendMailReactive(errorMail.capture());
+        assertThat(errorMail.getValue().getMessage()).isNull();
+    }
+
+    private FakeMail mailWithOneRecipient() throws MessagingException {
+        return FakeMail.builder()
+            .name("name")
+            .sender(MailAddressFixture.OTHER_AT_JAMES)
+            .mimeMessage(MimeMessageBuilder.mimeMessageBuilder()
+                .setMultipartWithBodyParts(
+                    MimeMessageBuilder.bodyPartBuilder()
+                        .data("toto")))
+            .recipients(MailAddressFixture.ANY_AT_JAMES)
+            .state("state")
+            .build();
+    }
+
     public static class AccumulatorHeaderMailStore implements MailStore {
         private final ArrayListMultimap<MailAddress, String[]> headerValues;
         private final String headerName;
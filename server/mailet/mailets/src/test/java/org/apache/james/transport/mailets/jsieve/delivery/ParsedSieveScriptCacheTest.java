@@ -0,0 +1,100 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.transport.mailets.jsieve.delivery;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.apache.jsieve.ConfigurationManager;
+import org.apache.jsieve.SieveFactory;
+import org.apache.jsieve.parser.generated.ParseException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ParsedSieveScriptCacheTest {
+    private static final String SCRIPT = "require \"fileinto\";\r\nif header :contains \"subject\" \"james\" { fileinto \"james\"; }\r\n";
+    private static final String OTHER_SCRIPT = "require \"fileinto\";\r\nif header :contains \"subject\" \"sieve\" { fileinto \"sieve\"; }\r\n";
+
+    private SieveFactory factory;
+    private RecordingMetricFactory metricFactory;
+    private ParsedSieveScriptCache testee;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        factory = spy(new ConfigurationManager().build());
+        metricFactory = new RecordingMetricFactory();
+        testee = new ParsedSieveScriptCache(factory, metricFactory);
+    }
+
+    private InputStream asStream(String script) {
+        return new ByteArrayInputStream(script.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void parseShouldReuseParsedScriptWhenSameContent() throws Exception {
+        testee.parse(asStream(SCRIPT));
+        testee.parse(asStream(SCRIPT));
+
+        verify(factory, times(1)).parse(any());
+    }
+
+    @Test
+    void parseShouldReturnSameTreeWhenSameContent() throws Exception {
+        assertThat(testee.parse(asStream(SCRIPT)))
+            .isSameAs(testee.parse(asStream(SCRIPT)));
+    }
+
+    @Test
+    void parseShouldParseAgainWhenContentChanges() throws Exception {
+        testee.parse(asStream(SCRIPT));
+        testee.parse(asStream(OTHER_SCRIPT));
+
+        verify(factory, times(2)).parse(any());
+    }
+
+    @Test
+    void parseShouldNotCacheInvalidScripts() throws Exception {
+        assertThatThrownBy(() -> testee.parse(asStream("invalid script")))
+            .isInstanceOf(ParseException.class);
+        assertThatThrownBy(() -> testee.parse(asStream("invalid script")))
+            .isInstanceOf(ParseException.class);
+
+        verify(factory, times(2)).parse(any());
+    }
+
+    @Test
+    void parseShouldRecordMetrics() throws Exception {
+        testee.parse(asStream(SCRIPT));
+        testee.parse(asStream(SCRIPT));
+        testee.parse(asStream(SCRIPT));
+
+        assertThat(metricFactory.executionTimesFor(ParsedSieveScriptCache.PARSE_TIMER)).hasSize(1);
+        assertThat(metricFactory.countFor(ParsedSieveScriptCache.HIT_METRIC)).isEqualTo(2);
+    }
+}
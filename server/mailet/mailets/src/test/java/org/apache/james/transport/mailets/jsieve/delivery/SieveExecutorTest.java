@@ -25,6 +25,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 
 import org.apache.james.core.builder.MimeMessageBuilder;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
 import org.apache.james.server.core.MailImpl;
 import org.apache.james.transport.mailets.jsieve.ResourceLocator;
 import org.apache.mailet.base.test.FakeMailContext;
@@ -42,6 +43,7 @@ class SieveExecutorTest {
             .mailetContext(mailetContext)
             .sievePoster(mock(SievePoster.class))
             .resourceLocator(mock(ResourceLocator.class))
+            .metricFactory(new RecordingMetricFactory())
             .build();
     }
 
@@ -19,12 +19,18 @@
 
 package org.apache.james.transport.matchers.dlp;
 
+import static org.apache.mailet.base.MailAddressFixture.OTHER_AT_JAMES;
+import static org.apache.mailet.base.MailAddressFixture.RECIPIENT1;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.util.regex.Pattern;
 
+import org.apache.james.core.builder.MimeMessageBuilder;
 import org.apache.james.dlp.api.DLPConfigurationItem.Id;
+import org.apache.mailet.Mail;
+import org.apache.mailet.base.test.FakeMail;
 import org.junit.jupiter.api.Test;
 
 class DlpDomainRulesTest {
@@ -57,4 +63,56 @@ class DlpDomainRulesTest {
             .doesNotThrowAnyException();
     }
 
-}
\ No newline at end of file
+    @Test
+    void matchShouldReturnFirstMatchingContentRuleInDeclarationOrder() throws Exception {
+        DlpDomainRules rules = DlpDomainRules.builder()
+            .contentRule(Id.of("donkey"), Pattern.compile("donkey"))
+            .contentRule(Id.of("horse"), Pattern.compile("horse"))
+            .contentRule(Id.of("pony"), Pattern.compile("pony"))
+            .build();
+
+        assertThat(rules.match(mailWithText("A pony, not a horse"))).contains(Id.of("horse"));
+    }
+
+    @Test
+    void matchShouldHonorContentRuleFlags() throws Exception {
+        DlpDomainRules rules = DlpDomainRules.builder()
+            .contentRule(Id.of("horse"), Pattern.compile("horse"))
+            .contentRule(Id.of("pony"), Pattern.compile("PONY", Pattern.CASE_INSENSITIVE))
+            .build();
+
+        assertThat(rules.match(mailWithText("I just bought a pony"))).contains(Id.of("pony"));
+    }
+
+    @Test
+    void matchShouldSupportContentRulesThatCannotBeCombined() throws Exception {
+        DlpDomainRules rules = DlpDomainRules.builder()
+            .contentRule(Id.of("horse"), Pattern.compile("horse"))
+            .contentRule(Id.of("repeated"), Pattern.compile("(\\w+) \\1"))
+            .contentRule(Id.of("named"), Pattern.compile("(?<animal>pony)"))
+            .build();
+
+        assertThat(rules.match(mailWithText("It is a pony pony"))).contains(Id.of("repeated"));
+    }
+
+    @Test
+    void matchShouldReturnEmptyWhenNoContentRuleMatches() throws Exception {
+        DlpDomainRules rules = DlpDomainRules.builder()
+            .contentRule(Id.of("horse"), Pattern.compile("horse"))
+            .contentRule(Id.of("repeated"), Pattern.compile("(\\w+) \\1"))
+            .build();
+
+        assertThat(rules.match(mailWithText("It is a donkey"))).isEmpty();
+    }
+
+    private Mail mailWithText(String text) throws Exception {
+        return FakeMail.builder()
+            .name("name")
+            .sender(OTHER_AT_JAMES)
+            .recipient(RECIPIENT1)
+            .mimeMessage(MimeMessageBuilder.mimeMessageBuilder()
+                .setSubject("Animals")
+                .setText(text))
+            .build();
+    }
+}
@@ -0,0 +1,81 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.jmap.mailet.filter;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.apache.james.core.Username;
+import org.apache.james.jmap.api.filtering.FilteringManagement;
+import org.apache.james.jmap.api.filtering.Rules;
+import org.apache.james.jmap.api.filtering.Version;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps the filtering rules of each user compiled into a {@link RuleMatcher}.
+ *
+ * Entries are tagged with the version of the filtering aggregate they were compiled from. Each rule change appends an
+ * event to that aggregate, so comparing with its latest version, a single read, is enough to detect changes made on any
+ * node. Rules are only read and compiled again when it changed.
+ */
+class CompiledRulesCache {
+    private static final Duration EXPIRY = Duration.ofHours(1);
+    private static final long MAXIMUM_SIZE = 10_000;
+
+    private static class CompiledRules {
+        private final Version version;
+        private final RuleMatcher ruleMatcher;
+
+        private CompiledRules(Rules rules) {
+            this.version = rules.getVersion();
+            this.ruleMatcher = new RuleMatcher(rules.getRules());
+        }
+    }
+
+    private final FilteringManagement filteringManagement;
+    private final Cache<Username, CompiledRules> cache;
+
+    CompiledRulesCache(FilteringManagement filteringManagement) {
+        this.filteringManagement = filteringManagement;
+        this.cache = CacheBuilder.newBuilder()
+            .expireAfterAccess(EXPIRY)
+            .maximumSize(MAXIMUM_SIZE)
+            .build();
+    }
+
+    Mono<RuleMatcher> ruleMatcher(Username username) {
+        return Mono.from(filteringManagement.getLatestVersion(username))
+            .flatMap(version -> Optional.ofNullable(cache.getIfPresent(username))
+                .filter(compiledRules -> compiledRules.version.equals(version))
+                .map(compiledRules -> Mono.just(compiledRules.ruleMatcher))
+                .orElseGet(() -> compile(username)));
+    }
+
+    private Mono<RuleMatcher> compile(Username username) {
+        return Mono.from(filteringManagement.listRulesForUser(username))
+            .map(CompiledRules::new)
+            .doOnNext(compiledRules -> cache.put(username, compiledRules))
+            .map(compiledRules -> compiledRules.ruleMatcher);
+    }
+}
@@ -29,7 +29,6 @@ import org.apache.james.core.MailAddress;
 import org.apache.james.core.Username;
 import org.apache.james.jmap.api.filtering.FilteringManagement;
 import org.apache.james.jmap.api.filtering.Rule;
-import org.apache.james.jmap.api.filtering.Rules;
 import org.apache.james.user.api.UsersRepository;
 import org.apache.james.user.api.UsersRepositoryException;
 import org.apache.mailet.Mail;
@@ -40,8 +39,6 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.ImmutableList;
 
-import reactor.core.publisher.Mono;
-
 /**
  * Mailet for applying JMAP filtering to incoming email.
  *
@@ -57,7 +54,7 @@ public class JMAPFiltering extends GenericMailet {
     static final ProcessingState RRT_ERROR = new ProcessingState("rrt-error");
     private final Logger logger = LoggerFactory.getLogger(JMAPFiltering.class);
 
-    private final FilteringManagement filteringManagement;
+    private final CompiledRulesCache compiledRulesCache;
     private final UsersRepository usersRepository;
     private final ActionApplier.Factory actionApplierFactory;
 
@@ -65,24 +62,25 @@ public class JMAPFiltering extends GenericMailet {
     public JMAPFiltering(FilteringManagement filteringManagement,
                          UsersRepository usersRepository, ActionApplier.Factory actionApplierFactory) {
 
-        this.filteringManagement = filteringManagement;
+        this.compiledRulesCache = new CompiledRulesCache(filteringManagement);
         this.usersRepository = usersRepository;
         this.actionApplierFactory = actionApplierFactory;
     }
 
     @Override
     public void service(Mail mail) {
+        MailMatcher.ExtractedHeaders extractedHeaders = new MailMatcher.ExtractedHeaders(mail);
+
         mail.getRecipients()
-            .forEach(recipient -> applyFirstApplicableRule(recipient, mail));
+            .forEach(recipient -> applyFirstApplicableRule(recipient, mail, extractedHeaders));
     }
 
-    private void applyFirstApplicableRule(MailAddress recipient, Mail mail) {
+    private void applyFirstApplicableRule(MailAddress recipient, Mail mail, MailMatcher.ExtractedHeaders extractedHeaders) {
         retrieveUser(recipient)
             .ifPresent(username -> {
-                Rules filteringRules = Mono.from(filteringManagement.listRulesForUser(username))
+                RuleMatcher ruleMatcher = compiledRulesCache.ruleMatcher(username)
                     .block();
-                RuleMatcher ruleMatcher = new RuleMatcher(filteringRules.getRules());
-                Stream<Rule> matchingRules = ruleMatcher.findApplicableRules(mail);
+                Stream<Rule> matchingRules = ruleMatcher.findApplicableRules(extractedHeaders);
 
                 actionApplierFactory.forMail(mail)
                     .forRecipient(getMailetContext(), recipient, username)
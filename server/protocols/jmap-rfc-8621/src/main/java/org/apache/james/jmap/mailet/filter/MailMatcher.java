@@ -19,8 +19,10 @@
 
 package org.apache.james.jmap.mailet.filter;
 
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Stream;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.apache.james.jmap.api.filtering.Rule;
 import org.apache.mailet.Mail;
@@ -33,6 +35,25 @@ import com.google.common.collect.ImmutableList;
 
 public interface MailMatcher {
 
+    /**
+     * Header values of a mail, extracted on first use only, so that evaluating several rules against a mail
+     * extracts each header once.
+     */
+    class ExtractedHeaders {
+        private final Mail mail;
+        private final Map<HeaderExtractor, List<String>> headerValues;
+
+        public ExtractedHeaders(Mail mail) {
+            this.mail = mail;
+            this.headerValues = new HashMap<>();
+        }
+
+        public List<String> get(HeaderExtractor headerExtractor) {
+            return headerValues.computeIfAbsent(headerExtractor,
+                extractor -> extractor.apply(mail).collect(Collectors.toList()));
+        }
+    }
+
     class HeaderMatcher implements MailMatcher {
 
         private static final Logger LOGGER = LoggerFactory.getLogger(HeaderMatcher.class);
@@ -46,11 +67,11 @@ public interface MailMatcher {
         }
 
         @Override
-        public boolean match(Mail mail) {
+        public boolean match(ExtractedHeaders extractedHeaders) {
             try {
                 Predicate<MailMatchingCondition> predicate = (MailMatchingCondition mailMatchingCondition) -> {
-                    Stream<String> headerLines = mailMatchingCondition.getHeaderExtractor().apply(mail);
-                    return mailMatchingCondition.getContentMatcher().match(headerLines, mailMatchingCondition.getRuleValue());
+                    List<String> headerLines = extractedHeaders.get(mailMatchingCondition.getHeaderExtractor());
+                    return mailMatchingCondition.getContentMatcher().match(headerLines.stream(), mailMatchingCondition.getRuleValue());
                 };
 
                 switch (conditionCombiner) {
@@ -107,5 +128,9 @@ public interface MailMatcher {
             ).collect(ImmutableList.toImmutableList()), rule.getConditionGroup().getConditionCombiner());
     }
 
-    boolean match(Mail mail);
+    default boolean match(Mail mail) {
+        return match(new ExtractedHeaders(mail));
+    }
+
+    boolean match(ExtractedHeaders extractedHeaders);
 }
@@ -23,21 +23,34 @@ import java.util.List;
 import java.util.stream.Stream;
 
 import org.apache.james.jmap.api.filtering.Rule;
-import org.apache.mailet.Mail;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 
 class RuleMatcher {
-    private final List<Rule> filteringRules;
+    private static class CompiledRule {
+        private final Rule rule;
+        private final MailMatcher mailMatcher;
+
+        private CompiledRule(Rule rule) {
+            this.rule = rule;
+            this.mailMatcher = MailMatcher.from(rule);
+        }
+    }
+
+    private final List<CompiledRule> filteringRules;
 
     RuleMatcher(List<Rule> filteringRules) {
         Preconditions.checkNotNull(filteringRules);
 
-        this.filteringRules = filteringRules;
+        this.filteringRules = filteringRules.stream()
+            .map(CompiledRule::new)
+            .collect(ImmutableList.toImmutableList());
     }
 
-    Stream<Rule> findApplicableRules(Mail mail) {
+    Stream<Rule> findApplicableRules(MailMatcher.ExtractedHeaders extractedHeaders) {
         return filteringRules.stream()
-            .filter(rule -> MailMatcher.from(rule).match(mail));
+            .filter(compiledRule -> compiledRule.mailMatcher.match(extractedHeaders))
+            .map(compiledRule -> compiledRule.rule);
     }
 }
@@ -20,16 +20,18 @@ package org.apache.james.jmap.routes
 
 import java.io.InputStream
 import java.nio.charset.StandardCharsets
+import java.util.UUID
 import java.util.concurrent.Callable
 import java.util.function.Consumer
 import java.util.stream
 import java.util.stream.Stream
 
 import com.google.common.base.CharMatcher
+import com.google.common.io.ByteStreams
 import eu.timepit.refined.numeric.NonNegative
 import eu.timepit.refined.refineV
-import io.netty.buffer.Unpooled
-import io.netty.handler.codec.http.HttpHeaderNames.{CONTENT_LENGTH, CONTENT_TYPE}
+import io.netty.buffer.{ByteBuf, Unpooled}
+import io.netty.handler.codec.http.HttpHeaderNames.{ACCEPT_RANGES, CONTENT_LENGTH, CONTENT_RANGE, CONTENT_TYPE, IF_RANGE, RANGE}
 import io.netty.handler.codec.http.HttpResponseStatus._
 import io.netty.handler.codec.http.{HttpHeaderValidationUtil, HttpMethod, QueryStringDecoder}
 import jakarta.inject.{Inject, Named}
@@ -44,9 +46,9 @@ import org.apache.james.jmap.exceptions.UnauthorizedException
 import org.apache.james.jmap.http.Authenticator
 import org.apache.james.jmap.http.rfc8621.InjectionKeys
 import org.apache.james.jmap.json.ResponseSerializer
-import org.apache.james.jmap.mail.{BlobId, MinimalEmailBodyPart}
+import org.apache.james.jmap.mail.{BlobId, MinimalEmailBodyPart, PartId}
 import org.apache.james.jmap.method.{AccountNotFoundException, ZoneIdProvider}
-import org.apache.james.jmap.routes.DownloadRoutes.{BUFFER_SIZE, LOGGER}
+import org.apache.james.jmap.routes.DownloadRoutes.{BUFFER_SIZE, BYTES_RANGE_UNIT, LOGGER}
 import org.apache.james.jmap.{Endpoint, JMAPRoute, JMAPRoutes}
 import org.apache.james.mailbox.model.ContentType.{MediaType, MimeType, SubType}
 import org.apache.james.mailbox.model._
@@ -59,7 +61,7 @@ import org.apache.james.mime4j.message.DefaultMessageWriter
 import org.apache.james.util.ReactorUtils
 import org.slf4j.{Logger, LoggerFactory}
 import play.api.libs.json.Json
-import reactor.core.publisher.Mono
+import reactor.core.publisher.{Flux, Mono}
 import reactor.core.scala.publisher.SMono
 import reactor.core.scheduler.Schedulers
 import reactor.netty.http.server.{HttpServerRequest, HttpServerResponse}
@@ -71,6 +73,7 @@ object DownloadRoutes {
   val LOGGER: Logger = LoggerFactory.getLogger(classOf[DownloadRoutes])
 
   val BUFFER_SIZE: Int = 16 * 1024
+  val BYTES_RANGE_UNIT: String = "bytes"
 }
 
 sealed trait BlobResolutionResult {
@@ -92,6 +95,16 @@ trait Blob {
   def contentType: ContentType
   def size: Try[Size]
   def content: InputStream
+
+  def content(offset: Long, length: Long): InputStream = {
+    val stream = content
+    Try(ByteStreams.skipFully(stream, offset)) match {
+      case Success(_) => ByteStreams.limit(stream, length)
+      case Failure(e) =>
+        stream.close()
+        throw e
+    }
+  }
 }
 
 case class BlobNotFoundException(blobId: BlobId) extends RuntimeException
@@ -106,6 +119,8 @@ case class MessageBlob(blobId: BlobId, message: MessageResult) extends Blob {
   }
 
   override def content: InputStream = message.getFullContent.getInputStream
+
+  override def content(offset: Long, length: Long): InputStream = message.getFullContent.getInputStream(offset, length)
 }
 
 case class UploadedBlob(blobId: BlobId, upload: Upload) extends Blob {
@@ -116,12 +131,16 @@ case class UploadedBlob(blobId: BlobId, upload: Upload) extends Blob {
   override def content: InputStream = upload.content()
 }
 
-case class AttachmentBlob(attachmentMetadata: AttachmentMetadata, fileContent: InputStream) extends Blob {
+// The content is loaded upon reads so that byte ranges are read from the blob store without fetching the whole attachment.
+case class AttachmentBlob(attachmentMetadata: AttachmentMetadata, attachmentManager: AttachmentManager, mailboxSession: MailboxSession) extends Blob {
   override def size: Try[Size] = Success(sanitizeSize(attachmentMetadata.getSize))
 
   override def contentType: ContentType = attachmentMetadata.getType
 
-  override def content: InputStream = fileContent
+  override def content: InputStream = attachmentManager.load(attachmentMetadata, mailboxSession)
+
+  override def content(offset: Long, length: Long): InputStream =
+    attachmentManager.loadAttachmentContent(attachmentMetadata.getAttachmentId, offset, length, mailboxSession)
 
   override def blobId: BlobId = BlobId.of(attachmentMetadata.getAttachmentId.getId).get
 }
@@ -141,6 +160,16 @@ case class EmailBodyPartBlob(blobId: BlobId, part: MinimalEmailBodyPart) extends
   }
 }
 
+// The part is measured upon resolution, then located again upon reads: the message is never read past the part, and
+// byte ranges are only decoded up to their end.
+case class StreamedEmailBodyPartBlob(blobId: BlobId, contentType: ContentType, partSize: Size, message: MessageResult, partId: PartId) extends Blob {
+  override def size: Try[Size] = Success(partSize)
+
+  override def content: InputStream = MessagePartLocator.locate(message.getFullContent.getInputStream, partId).get
+    .map(_.content)
+    .getOrElse(throw BlobNotFoundException(blobId))
+}
+
 class MessageBlobResolver @Inject()(val messageIdFactory: MessageId.Factory,
                                     val messageIdManager: MessageIdManager) extends BlobResolver {
   override def resolve(blobId: BlobId, mailboxSession: MailboxSession): BlobResolutionResult = {
@@ -181,8 +210,7 @@ class AttachmentBlobResolver @Inject()(val attachmentManager: AttachmentManager,
       case attachmentId: StringBackedAttachmentId =>
         Try(attachmentManager.getAttachment(attachmentId, mailboxSession)) match {
           case Success(attachmentMetadata) =>
-            Applicable(SMono(attachmentManager.loadReactive(attachmentMetadata, mailboxSession))
-              .map(content => AttachmentBlob(attachmentMetadata, content)))
+            Applicable(SMono.just(AttachmentBlob(attachmentMetadata, attachmentManager, mailboxSession)))
           case Failure(_) => NonApplicable
         }
       case _ => NonApplicable
@@ -213,23 +241,34 @@ class MessagePartBlobResolver @Inject()(val messageIdFactory: MessageId.Factory,
       case Success((messageId, blobIds)) =>
         Applicable(SMono.fromPublisher(
           messageIdManager.getMessagesReactive(List(messageId).asJava, FetchGroup.FULL_CONTENT, mailboxSession))
-          .handle[MinimalEmailBodyPart] {
-            case (message, sink) => MinimalEmailBodyPart.ofMessage(None, zoneIdSupplier.get(), BlobId.of(messageId).get, message)
+          .handle[Blob] {
+            case (message, sink) => streamedPart(blobId, blobIds, message)
+              .fold(parsedPart(blobId, messageId, blobIds, message))(Success(_))
               .fold(sink.error, sink.next)
           }
-          .handle[MinimalEmailBodyPart] {
-            case (bodyStructure, sink) =>
-              blobIds.foldLeft[Option[MinimalEmailBodyPart]](Some(bodyStructure)) {
-                case (None, _) => None
-                case (Some(nestedBodyStructure), blobId) => nestedBodyStructure.partWithBlobId(blobId)
-                    .orElse(nestedBodyStructure.nested(zoneIdSupplier.get()).flatMap(_.partWithBlobId(blobId)))
-              }
-                .fold(sink.error(BlobNotFoundException(blobId)))(part => sink.next(part))
-          }
-          .map[Blob](EmailBodyPartBlob(blobId, _))
           .switchIfEmpty(SMono.error(BlobNotFoundException(blobId))))
     }
   }
+
+  // Top level parts are located by streaming the message, which stops right after the part and never builds the
+  // message DOM. Parts of embedded messages are resolved from the parsed structure.
+  private def streamedPart(blobId: BlobId, blobIds: List[BlobId], message: MessageResult): Option[Blob] =
+    blobIds match {
+      case _ :: Nil => for {
+        partId <- PartId.parse(blobId.value.value.substring(blobId.value.value.lastIndexOf('_') + 1)).toOption
+        measured <- MessagePartLocator.measure(message.getFullContent.getInputStream, partId).toOption.flatten
+      } yield StreamedEmailBodyPartBlob(blobId, ContentType.of(measured.mimeType), sanitizeSize(measured.size), message, partId)
+      case _ => None
+    }
+
+  private def parsedPart(blobId: BlobId, messageId: MessageId, blobIds: List[BlobId], message: MessageResult): Try[Blob] =
+    MinimalEmailBodyPart.ofMessage(None, zoneIdSupplier.get(), BlobId.of(messageId).get, message)
+      .flatMap(bodyStructure => blobIds.foldLeft[Option[MinimalEmailBodyPart]](Some(bodyStructure)) {
+          case (None, _) => None
+          case (Some(nestedBodyStructure), blobId) => nestedBodyStructure.partWithBlobId(blobId)
+            .orElse(nestedBodyStructure.nested(zoneIdSupplier.get()).flatMap(_.partWithBlobId(blobId)))
+        }
+        .fold[Try[Blob]](Failure(BlobNotFoundException(blobId)))(part => Success(EmailBodyPartBlob(blobId, part))))
 }
 
 class BlobResolvers(blobResolvers: Set[BlobResolver]) {
@@ -297,7 +336,8 @@ class DownloadRoutes @Inject()(@Named(InjectionKeys.RFC_8621) val authenticator:
         blobContentType = queryParam(request, contentTypeParam)
           .map(ContentType.of)
           .getOrElse(blob.contentType),
-        blob = blob)
+        blob = blob,
+        range = rangeHeader(request))
         .`then`())
       .doOnSuccess(_ => pendingDownloadMetric.decrement())
 
@@ -308,19 +348,50 @@ class DownloadRoutes @Inject()(@Named(InjectionKeys.RFC_8621) val authenticator:
       case Left(throwable: Throwable) => SMono.error(throwable)
     }
 
+  // Without validators to compare against, a conditional range request falls back to the full content
+  private def rangeHeader(request: HttpServerRequest): Option[String] =
+    Option(request.requestHeaders.get(RANGE))
+      .filterNot(_ => request.requestHeaders.contains(IF_RANGE))
+
   private def downloadBlob(optionalName: Option[String],
                            response: HttpServerResponse,
                            blobContentType: ContentType,
-                           blob: Blob): SMono[Unit] = {
-    val resourceSupplier: Callable[InputStream] = () => blob.content
-    val sourceSupplier: java.util.function.Function[InputStream, Mono[Void]] = stream => SMono(addContentDispositionHeader(optionalName)
-      .compose(addContentLengthHeader(blob.size))
+                           blob: Blob,
+                           range: Option[String]): SMono[Unit] = {
+    val contentType = sanitizeHeaderValue(blobContentType.asString)
+    val preparedResponse = addContentDispositionHeader(optionalName)
+      .compose(addAcceptRangesHeader(blob.size))
       .apply(response)
-      .header(CONTENT_TYPE, sanitizeHeaderValue(blobContentType.asString))
-      .status(OK)
-      .send(ReactorUtils.toChunks(stream, BUFFER_SIZE)
-        .map(Unpooled.wrappedBuffer(_))
-        .subscribeOn(Schedulers.boundedElastic()))).asJava()
+
+    blob.size.toOption.map(_.value) match {
+      case Some(size) => RangeRequest.parse(range, size) match {
+        case RangeRequest.Satisfiable(List(byteRange)) =>
+          send(preparedResponse
+              .header(CONTENT_TYPE, contentType)
+              .header(CONTENT_RANGE, byteRange.contentRange(size))
+              .header(CONTENT_LENGTH, byteRange.length.toString)
+              .status(PARTIAL_CONTENT),
+            () => blob.content(byteRange.offset, byteRange.length))
+        case RangeRequest.Satisfiable(byteRanges) => sendByteRanges(preparedResponse, contentType, size, byteRanges, blob)
+        case RangeRequest.Unsatisfiable =>
+          respondDetails(response.header(CONTENT_RANGE, s"$BYTES_RANGE_UNIT */$size"),
+            ProblemDetails(status = REQUESTED_RANGE_NOT_SATISFIABLE, detail = "None of the requested ranges overlap the content"))
+        case RangeRequest.FullContent => sendFullContent(preparedResponse, contentType, blob)
+      }
+      case None => sendFullContent(preparedResponse, contentType, blob)
+    }
+  }
+
+  private def sendFullContent(response: HttpServerResponse, contentType: String, blob: Blob): SMono[Unit] =
+    send(addContentLengthHeader(blob.size)
+        .apply(response)
+        .header(CONTENT_TYPE, contentType)
+        .status(OK),
+      () => blob.content)
+
+  private def send(response: HttpServerResponse, resourceSupplier: Callable[InputStream]): SMono[Unit] = {
+    val sourceSupplier: java.util.function.Function[InputStream, Mono[Void]] = stream => SMono(response
+      .send(chunks(stream))).asJava()
     val resourceRelease: Consumer[InputStream] = (stream: InputStream) => stream.close()
 
     SMono.fromPublisher(Mono.using(
@@ -330,6 +401,42 @@ class DownloadRoutes @Inject()(@Named(InjectionKeys.RFC_8621) val authenticator:
       .`then`
   }
 
+  // multipart/byteranges as described in RFC 7233 appendix A. Each range is read from its own stream, so that blobs
+  // able to serve ranges natively never read the gaps between them.
+  private def sendByteRanges(response: HttpServerResponse, contentType: String, size: Long, byteRanges: List[ByteRange], blob: Blob): SMono[Unit] = {
+    val boundary = UUID.randomUUID().toString
+    val partHeaders: List[Array[Byte]] = byteRanges.map(byteRange =>
+      s"\r\n--$boundary\r\nContent-Type: $contentType\r\nContent-Range: ${byteRange.contentRange(size)}\r\n\r\n"
+        .getBytes(StandardCharsets.US_ASCII))
+    val closeDelimiter: Array[Byte] = s"\r\n--$boundary--\r\n".getBytes(StandardCharsets.US_ASCII)
+    val contentLength: Long = partHeaders.map(_.length.toLong).sum + byteRanges.map(_.length).sum + closeDelimiter.length
+
+    val parts: List[Flux[ByteBuf]] = partHeaders.zip(byteRanges)
+      .map {
+        case (partHeader, byteRange) => Flux.concat[ByteBuf](Flux.just(Unpooled.wrappedBuffer(partHeader)), rangeChunks(blob, byteRange))
+      }
+
+    SMono(response
+      .header(CONTENT_TYPE, s"multipart/byteranges; boundary=$boundary")
+      .header(CONTENT_LENGTH, contentLength.toString)
+      .status(PARTIAL_CONTENT)
+      .send(Flux.concat[ByteBuf]((parts :+ Flux.just(Unpooled.wrappedBuffer(closeDelimiter))).asJava)))
+      .`then`
+  }
+
+  private def rangeChunks(blob: Blob, byteRange: ByteRange): Flux[ByteBuf] = {
+    val resourceSupplier: Callable[InputStream] = () => blob.content(byteRange.offset, byteRange.length)
+    val sourceSupplier: java.util.function.Function[InputStream, Flux[ByteBuf]] = stream => chunks(stream)
+    val resourceRelease: Consumer[InputStream] = (stream: InputStream) => stream.close()
+
+    Flux.using[ByteBuf, InputStream](resourceSupplier, sourceSupplier, resourceRelease)
+  }
+
+  private def chunks(stream: InputStream): Flux[ByteBuf] =
+    ReactorUtils.toChunks(stream, BUFFER_SIZE)
+      .map(Unpooled.wrappedBuffer(_))
+      .subscribeOn(Schedulers.boundedElastic())
+
   private def addContentDispositionHeader(optionalName: Option[String]): HttpServerResponse => HttpServerResponse =
     resp => optionalName.map(addContentDispositionHeaderRegardingEncoding(_, resp))
       .getOrElse(resp)
@@ -346,6 +453,11 @@ class DownloadRoutes @Inject()(@Named(InjectionKeys.RFC_8621) val authenticator:
       .map(size => resp.header("Content-Length", size.value.toString))
       .getOrElse(resp)
 
+  private def addAcceptRangesHeader(sizeTry: Try[Size]): HttpServerResponse => HttpServerResponse =
+    resp => sizeTry
+      .map(_ => resp.header(ACCEPT_RANGES, BYTES_RANGE_UNIT))
+      .getOrElse(resp)
+
   private def addContentDispositionHeaderRegardingEncoding(name: String, resp: HttpServerResponse): HttpServerResponse =
     if (CharMatcher.ascii.matchesAllOf(name)) {
       Try(resp.header("Content-Disposition", "attachment; filename=\"" + name + "\""))
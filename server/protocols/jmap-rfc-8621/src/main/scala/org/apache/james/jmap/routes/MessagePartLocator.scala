@@ -0,0 +1,100 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *  http://www.apache.org/licenses/LICENSE-2.0                  *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.jmap.routes
+
+import java.io.{FilterInputStream, InputStream}
+
+import com.google.common.io.ByteStreams
+import org.apache.james.jmap.mail.PartId
+import org.apache.james.jmap.mime4j.JamesBodyDescriptorBuilder
+import org.apache.james.mime4j.codec.DecodeMonitor
+import org.apache.james.mime4j.field.LenientFieldParser
+import org.apache.james.mime4j.stream.{EntityState, MimeConfig, MimeTokenStream, RecursionMode}
+import org.apache.james.mime4j.util.MimeUtil
+
+import scala.annotation.tailrec
+import scala.util.{Failure, Success, Try, Using}
+
+case class LocatedPart(mimeType: String, content: InputStream)
+
+case class MeasuredPart(mimeType: String, size: Long)
+
+/**
+ * Locates a leaf part of a message without building its DOM.
+ *
+ * Parts are numbered depth first, containers before their children, exactly like
+ * [[org.apache.james.jmap.mail.MinimalEmailBodyPart]] does. Parsing stops on the requested part: the parts that follow
+ * it are never read, nor are the preceding ones buffered.
+ */
+object MessagePartLocator {
+  /**
+   * Returns the decoded content of the part. Closing it closes the message stream.
+   *
+   * Yields None, having closed the message stream, when the part can not be served from the stream: it does not
+   * exist, it is a multipart container, or it is an embedded message (whose content is re-serialized from its DOM).
+   */
+  def locate(message: InputStream, partId: PartId): Try[Option[LocatedPart]] =
+    Try(find(message, partId)) match {
+      case Success(Some(part)) => Success(Some(LocatedPart(part.mimeType, closing(part.content, message))))
+      case Success(None) =>
+        message.close()
+        Success(None)
+      case Failure(e) =>
+        message.close()
+        Failure(e)
+    }
+
+  /**
+   * Returns the size of the decoded content of the part, which is decoded without being retained. Like [[locate]], the
+   * message is not read past the part. The message stream is closed.
+   */
+  def measure(message: InputStream, partId: PartId): Try[Option[MeasuredPart]] =
+    Using(message)(stream => find(stream, partId)
+      .map(part => MeasuredPart(part.mimeType, ByteStreams.exhaust(part.content))))
+
+  private def find(message: InputStream, partId: PartId): Option[LocatedPart] = {
+    val tokenStream = new MimeTokenStream(MimeConfig.PERMISSIVE, DecodeMonitor.SILENT,
+      new JamesBodyDescriptorBuilder(null, LenientFieldParser.getParser, DecodeMonitor.SILENT))
+    tokenStream.setRecursionMode(RecursionMode.M_NO_RECURSE)
+    tokenStream.parse(message)
+    locate(tokenStream, partId.value.value, 0)
+  }
+
+  @tailrec
+  private def locate(tokenStream: MimeTokenStream, target: Int, current: Int): Option[LocatedPart] =
+    tokenStream.next() match {
+      case EntityState.T_END_OF_STREAM => None
+      case EntityState.T_START_MESSAGE | EntityState.T_START_BODYPART if current == target => None
+      case EntityState.T_START_MESSAGE | EntityState.T_START_BODYPART => locate(tokenStream, target, current + 1)
+      case EntityState.T_BODY if current == target =>
+        Some(tokenStream.getBodyDescriptor.getMimeType)
+          .filterNot(MimeUtil.isMessage)
+          .map(LocatedPart(_, tokenStream.getDecodedInputStream))
+      case _ => locate(tokenStream, target, current)
+    }
+
+  private def closing(content: InputStream, message: InputStream): InputStream = new FilterInputStream(content) {
+    override def close(): Unit =
+      try {
+        super.close()
+      } finally {
+        message.close()
+      }
+  }
+}
@@ -0,0 +1,108 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *  http://www.apache.org/licenses/LICENSE-2.0                  *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.jmap.routes
+
+import cats.implicits._
+
+import scala.util.Try
+
+case class ByteRange(offset: Long, length: Long) {
+  def last: Long = offset + length - 1
+
+  def contentRange(size: Long): String = s"bytes $offset-$last/$size"
+}
+
+sealed trait RangeRequest
+
+object RangeRequest {
+  private val BYTES_UNIT = "bytes="
+  // Bounds the work a single request can trigger: servers may ignore range requests they deem abusive (RFC 7233 section 6.1)
+  val MAX_RANGES: Int = 16
+
+  case object FullContent extends RangeRequest
+  case class Satisfiable(ranges: List[ByteRange]) extends RangeRequest
+  case object Unsatisfiable extends RangeRequest
+
+  /**
+   * Interprets a RFC 7233 `Range` header against a representation of the given size.
+   *
+   * Headers that are absent, malformed, not expressed in bytes or listing too many ranges are ignored, which means
+   * the full content is served. Ranges starting past the end of the content are dropped, and the request is
+   * unsatisfiable when none remains.
+   */
+  def parse(header: Option[String], size: Long): RangeRequest =
+    header.map(_.trim)
+      .filter(_.regionMatches(true, 0, BYTES_UNIT, 0, BYTES_UNIT.length))
+      .map(_.substring(BYTES_UNIT.length).split(',').toList.map(_.trim))
+      .filter(specs => specs.nonEmpty && specs.size <= MAX_RANGES)
+      .flatMap(specs => specs.map(parseSpec).sequence)
+      .map(specs => specs.flatMap(_.resolve(size)))
+      .map {
+        case Nil => Unsatisfiable
+        case ranges => Satisfiable(ranges)
+      }
+      .getOrElse(FullContent)
+
+  private sealed trait RangeSpec {
+    def resolve(size: Long): Option[ByteRange]
+  }
+
+  private case class FromTo(first: Long, last: Option[Long]) extends RangeSpec {
+    override def resolve(size: Long): Option[ByteRange] =
+      if (first >= size) {
+        None
+      } else {
+        val boundedLast = last.map(Math.min(_, size - 1)).getOrElse(size - 1)
+        Some(ByteRange(first, boundedLast - first + 1))
+      }
+  }
+
+  private case class Suffix(length: Long) extends RangeSpec {
+    override def resolve(size: Long): Option[ByteRange] =
+      if (length == 0 || size == 0) {
+        None
+      } else {
+        val boundedLength = Math.min(length, size)
+        Some(ByteRange(size - boundedLength, boundedLength))
+      }
+  }
+
+  private def parseSpec(spec: String): Option[RangeSpec] =
+    spec.indexOf('-') match {
+      case -1 => None
+      case 0 => parseNumber(spec.substring(1)).map(Suffix)
+      case dash =>
+        val first = parseNumber(spec.substring(0, dash))
+        val lastAsString = spec.substring(dash + 1)
+        if (lastAsString.isEmpty) {
+          first.map(FromTo(_, None))
+        } else {
+          for {
+            firstValue <- first
+            lastValue <- parseNumber(lastAsString)
+            if lastValue >= firstValue
+          } yield FromTo(firstValue, Some(lastValue))
+        }
+    }
+
+  private def parseNumber(string: String): Option[Long] =
+    Option(string)
+      .filter(s => s.nonEmpty && s.forall(Character.isDigit))
+      .flatMap(s => Try(s.toLong).toOption)
+}
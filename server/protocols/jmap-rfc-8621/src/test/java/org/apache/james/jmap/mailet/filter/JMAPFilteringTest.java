@@ -1129,4 +1129,77 @@ class JMAPFilteringTest {
 
         assertThat(mail.getAttribute(RECIPIENT_1_USERNAME_ATTRIBUTE_NAME).isEmpty()).isTrue();
     }
-}
\ No newline at end of file
+
+    @Test
+    void serviceShouldApplyRulesRedefinedAfterAPreviousMail(JMAPFilteringTestSystem testSystem) throws Exception {
+        Mono.from(testSystem.getFilteringManagement().defineRulesForUser(RECIPIENT_1_USERNAME,
+            Optional.empty(),
+            Rule.builder()
+                .id(Rule.Id.of("1"))
+                .name("rule 1")
+                .conditionGroup(Rule.Condition.of(SUBJECT, CONTAINS, "abc"))
+                .action(Rule.Action.of(Rule.Action.AppendInMailboxes.withMailboxIds(testSystem.getRecipient1MailboxId().serialize())))
+                .build())).block();
+        testSystem.getJmapFiltering().service(testSystem.asMail(mimeMessageBuilder().addHeader(SUBJECT.asString(), "abcdef")));
+
+        Mono.from(testSystem.getFilteringManagement().defineRulesForUser(RECIPIENT_1_USERNAME,
+            Optional.empty(),
+            Rule.builder()
+                .id(Rule.Id.of("1"))
+                .name("rule 1")
+                .conditionGroup(Rule.Condition.of(SUBJECT, CONTAINS, "def"))
+                .action(Rule.Action.of(Rule.Action.AppendInMailboxes.withMailboxIds(),
+                    false, false, true, ImmutableList.of()))
+                .build())).block();
+        FakeMail mail = testSystem.asMail(mimeMessageBuilder().addHeader(SUBJECT.asString(), "abcdef"));
+        testSystem.getJmapFiltering().service(mail);
+
+        assertThat(mail.getRecipients()).isEmpty();
+    }
+
+    @Test
+    void serviceShouldNotApplyRulesClearedAfterAPreviousMail(JMAPFilteringTestSystem testSystem) throws Exception {
+        Mono.from(testSystem.getFilteringManagement().defineRulesForUser(RECIPIENT_1_USERNAME,
+            Optional.empty(),
+            Rule.builder()
+                .id(Rule.Id.of("1"))
+                .name("rule 1")
+                .conditionGroup(Rule.Condition.of(SUBJECT, CONTAINS, "abc"))
+                .action(Rule.Action.of(Rule.Action.AppendInMailboxes.withMailboxIds(testSystem.getRecipient1MailboxId().serialize())))
+                .build())).block();
+        testSystem.getJmapFiltering().service(testSystem.asMail(mimeMessageBuilder().addHeader(SUBJECT.asString(), "abcdef")));
+
+        Mono.from(testSystem.getFilteringManagement().clearRulesForUser(RECIPIENT_1_USERNAME)).block();
+        FakeMail mail = testSystem.asMail(mimeMessageBuilder().addHeader(SUBJECT.asString(), "abcdef"));
+        testSystem.getJmapFiltering().service(mail);
+
+        assertThat(mail.getAttribute(RECIPIENT_1_USERNAME_ATTRIBUTE_NAME).isEmpty()).isTrue();
+    }
+
+    @Test
+    void rulesReferencingTheSameHeaderShouldAllBeEvaluated(JMAPFilteringTestSystem testSystem) throws Exception {
+        Mono.from(testSystem.getFilteringManagement().defineRulesForUser(RECIPIENT_1_USERNAME,
+            Optional.empty(),
+            Rule.builder()
+                .id(Rule.Id.of("1"))
+                .name("rule 1")
+                .conditionGroup(Rule.Condition.of(SUBJECT, CONTAINS, "xyz"))
+                .action(Rule.Action.of(Rule.Action.AppendInMailboxes.withMailboxIds(testSystem.getRecipient1MailboxId().serialize())))
+                .build(),
+            Rule.builder()
+                .id(Rule.Id.of("2"))
+                .name("rule 2")
+                .conditionGroup(Rule.Condition.of(SUBJECT, CONTAINS, "def"))
+                .action(Rule.Action.of(Rule.Action.AppendInMailboxes.withMailboxIds(),
+                    true, false, false, ImmutableList.of()))
+                .build())).block();
+
+        FakeMail mail = testSystem.asMail(mimeMessageBuilder().addHeader(SUBJECT.asString(), "abcdef"));
+        testSystem.getJmapFiltering().service(mail);
+
+        assertThat(StorageDirective.fromMail(Username.of("recipient1"), mail))
+            .isEqualTo(StorageDirective.builder()
+                .seen(Optional.of(true))
+                .build());
+    }
+}
@@ -0,0 +1,147 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *  http://www.apache.org/licenses/LICENSE-2.0                  *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.jmap.routes
+
+import java.io.{ByteArrayInputStream, IOException, InputStream, SequenceInputStream}
+import java.nio.charset.StandardCharsets
+
+import eu.timepit.refined.auto._
+import org.apache.commons.io.IOUtils
+import org.apache.james.jmap.mail.PartId
+import org.apache.james.jmap.routes.MessagePartLocatorTest.{MULTIPART, SINGLE_PART, asStream, contentOf}
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+object MessagePartLocatorTest {
+  private val SINGLE_PART: String =
+    """Subject: single
+      |Content-Type: text/plain; charset=UTF-8
+      |
+      |Hello world
+      |""".stripMargin.replace("\n", "\r\n")
+
+  // Part 1 is the root multipart, 2 the text, 3 the inner multipart, 4 and 5 its children, 6 the embedded message
+  private val MULTIPART: String =
+    """Subject: multipart
+      |Content-Type: multipart/mixed; boundary="outer"
+      |
+      |--outer
+      |Content-Type: text/plain
+      |
+      |body text
+      |--outer
+      |Content-Type: multipart/alternative; boundary="inner"
+      |
+      |--inner
+      |Content-Type: text/html
+      |
+      |<p>html</p>
+      |--inner
+      |Content-Type: application/octet-stream
+      |Content-Transfer-Encoding: base64
+      |
+      |YXR0YWNobWVudA==
+      |--inner--
+      |--outer
+      |Content-Type: message/rfc822
+      |
+      |Subject: embedded
+      |
+      |embedded body
+      |--outer--
+      |""".stripMargin.replace("\n", "\r\n")
+
+  private def asStream(message: String): InputStream = new ByteArrayInputStream(message.getBytes(StandardCharsets.UTF_8))
+
+  private def contentOf(part: LocatedPart): String = IOUtils.toString(part.content, StandardCharsets.UTF_8)
+}
+
+class MessagePartLocatorTest extends AnyWordSpec with Matchers {
+  "locate" should {
+    "return the body of a single part message" in {
+      val part = MessagePartLocator.locate(asStream(SINGLE_PART), PartId(1)).get.get
+
+      part.mimeType should equal("text/plain")
+      contentOf(part) should equal("Hello world\r\n")
+    }
+
+    "return a top level part" in {
+      val part = MessagePartLocator.locate(asStream(MULTIPART), PartId(2)).get.get
+
+      part.mimeType should equal("text/plain")
+      contentOf(part) should equal("body text")
+    }
+
+    "number parts depth first" in {
+      val part = MessagePartLocator.locate(asStream(MULTIPART), PartId(4)).get.get
+
+      part.mimeType should equal("text/html")
+      contentOf(part) should equal("<p>html</p>")
+    }
+
+    "decode the transfer encoding" in {
+      val part = MessagePartLocator.locate(asStream(MULTIPART), PartId(5)).get.get
+
+      part.mimeType should equal("application/octet-stream")
+      contentOf(part) should equal("attachment")
+    }
+
+    "not locate multipart containers" in {
+      MessagePartLocator.locate(asStream(MULTIPART), PartId(3)).get should equal(None)
+    }
+
+    "not locate embedded messages" in {
+      MessagePartLocator.locate(asStream(MULTIPART), PartId(6)).get should equal(None)
+    }
+
+    "not locate missing parts" in {
+      MessagePartLocator.locate(asStream(MULTIPART), PartId(7)).get should equal(None)
+    }
+
+    "not read the message past the located part" in {
+      val header = MULTIPART.substring(0, MULTIPART.indexOf("--inner\r\nContent-Type: application/octet-stream"))
+      val failingTail = new InputStream {
+        override def read(): Int = throw new IOException("read past the located part")
+      }
+
+      val part = MessagePartLocator.locate(new SequenceInputStream(asStream(header), failingTail), PartId(2)).get.get
+
+      contentOf(part) should equal("body text")
+    }
+  }
+
+  "measure" should {
+    "return the size of the decoded part" in {
+      MessagePartLocator.measure(asStream(MULTIPART), PartId(5)).get should equal(Some(MeasuredPart("application/octet-stream", 10L)))
+    }
+
+    "not measure multipart containers" in {
+      MessagePartLocator.measure(asStream(MULTIPART), PartId(3)).get should equal(None)
+    }
+
+    "not read the message past the measured part" in {
+      val header = MULTIPART.substring(0, MULTIPART.indexOf("--inner\r\nContent-Type: application/octet-stream"))
+      val failingTail = new InputStream {
+        override def read(): Int = throw new IOException("read past the measured part")
+      }
+
+      MessagePartLocator.measure(new SequenceInputStream(asStream(header), failingTail), PartId(2)).get should equal(Some(MeasuredPart("text/plain", 9L)))
+    }
+  }
+}
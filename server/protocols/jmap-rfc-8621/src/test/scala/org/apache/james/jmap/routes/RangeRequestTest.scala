@@ -0,0 +1,93 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *  http://www.apache.org/licenses/LICENSE-2.0                  *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.jmap.routes
+
+import org.apache.james.jmap.routes.RangeRequest.{FullContent, Satisfiable, Unsatisfiable}
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class RangeRequestTest extends AnyWordSpec with Matchers {
+  private val size = 100L
+
+  "parse" should {
+    "serve the full content when no header" in {
+      RangeRequest.parse(None, size) should equal(FullContent)
+    }
+
+    "serve the full content when the unit is not bytes" in {
+      RangeRequest.parse(Some("items=0-10"), size) should equal(FullContent)
+    }
+
+    "serve the full content when a range is malformed" in {
+      RangeRequest.parse(Some("bytes=0-10,abc"), size) should equal(FullContent)
+    }
+
+    "serve the full content when last is before first" in {
+      RangeRequest.parse(Some("bytes=10-5"), size) should equal(FullContent)
+    }
+
+    "serve the full content when too many ranges" in {
+      val header = (0 until RangeRequest.MAX_RANGES + 1).map(i => s"$i-$i").mkString("bytes=", ",", "")
+
+      RangeRequest.parse(Some(header), size) should equal(FullContent)
+    }
+
+    "return a bounded range" in {
+      RangeRequest.parse(Some("bytes=10-19"), size) should equal(Satisfiable(List(ByteRange(10, 10))))
+    }
+
+    "be case insensitive on the unit and tolerate spaces" in {
+      RangeRequest.parse(Some("Bytes=10-19, 30-39"), size) should equal(Satisfiable(List(ByteRange(10, 10), ByteRange(30, 10))))
+    }
+
+    "return the end of the content when open ended" in {
+      RangeRequest.parse(Some("bytes=90-"), size) should equal(Satisfiable(List(ByteRange(90, 10))))
+    }
+
+    "return a suffix" in {
+      RangeRequest.parse(Some("bytes=-5"), size) should equal(Satisfiable(List(ByteRange(95, 5))))
+    }
+
+    "bound a suffix longer than the content" in {
+      RangeRequest.parse(Some("bytes=-500"), size) should equal(Satisfiable(List(ByteRange(0, 100))))
+    }
+
+    "bound a last position past the end" in {
+      RangeRequest.parse(Some("bytes=95-500"), size) should equal(Satisfiable(List(ByteRange(95, 5))))
+    }
+
+    "drop ranges starting past the end" in {
+      RangeRequest.parse(Some("bytes=0-0,100-200"), size) should equal(Satisfiable(List(ByteRange(0, 1))))
+    }
+
+    "be unsatisfiable when all ranges start past the end" in {
+      RangeRequest.parse(Some("bytes=100-200"), size) should equal(Unsatisfiable)
+    }
+
+    "be unsatisfiable when the suffix is empty" in {
+      RangeRequest.parse(Some("bytes=-0"), size) should equal(Unsatisfiable)
+    }
+  }
+
+  "contentRange" should {
+    "render first and last positions" in {
+      ByteRange(10, 10).contentRange(size) should equal("bytes 10-19/100")
+    }
+  }
+}
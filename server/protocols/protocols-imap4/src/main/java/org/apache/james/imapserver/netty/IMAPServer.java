@@ -301,6 +301,7 @@ public class IMAPServer extends AbstractConfigurableAsyncServer implements ImapC
             .heartbeatInterval(heartbeatInterval)
             .ignoreIDLEUponProcessing(ignoreIDLEUponProcessing)
             .proxyRequired(proxyRequired)
+            .virtualThreads(useVirtualThreads)
             .build();
     }
 
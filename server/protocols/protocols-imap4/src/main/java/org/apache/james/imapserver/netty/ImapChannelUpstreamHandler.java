@@ -31,6 +31,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.net.ssl.SSLHandshakeException;
 
@@ -93,6 +94,7 @@ public class ImapChannelUpstreamHandler extends ChannelInboundHandlerAdapter imp
         private ReactiveThrottler reactiveThrottler;
         private Set<ConnectionCheck> connectionChecks;
         private boolean proxyRequired;
+        private boolean virtualThreads;
 
         public ImapChannelUpstreamHandlerBuilder reactiveThrottler(ReactiveThrottler reactiveThrottler) {
             this.reactiveThrottler = reactiveThrottler;
@@ -154,14 +156,20 @@ public class ImapChannelUpstreamHandler extends ChannelInboundHandlerAdapter imp
             return this;
         }
 
+        public ImapChannelUpstreamHandlerBuilder virtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
         public ImapChannelUpstreamHandler build() {
-            return new ImapChannelUpstreamHandler(hello, processor, encoder, compress, secure, imapMetrics, authenticationConfiguration, ignoreIDLEUponProcessing, (int) heartbeatInterval.toSeconds(), reactiveThrottler, connectionChecks, proxyRequired);
+            return new ImapChannelUpstreamHandler(hello, processor, encoder, compress, secure, imapMetrics, authenticationConfiguration, ignoreIDLEUponProcessing, (int) heartbeatInterval.toSeconds(), reactiveThrottler, connectionChecks, proxyRequired, virtualThreads);
         }
     }
 
     static class ImapLinerarizer {
         private final AtomicBoolean isExecutingRequest = new AtomicBoolean(false);
         private final ConcurrentLinkedQueue<Object> throttled = new ConcurrentLinkedQueue<>();
+        private final ReentrantLock lock = new ReentrantLock();
     }
 
     public static ImapChannelUpstreamHandlerBuilder builder() {
@@ -181,11 +189,12 @@ public class ImapChannelUpstreamHandler extends ChannelInboundHandlerAdapter imp
     private final ReactiveThrottler reactiveThrottler;
     private final Set<ConnectionCheck> connectionChecks;
     private final boolean proxyRequired;
+    private final boolean virtualThreads;
 
     public ImapChannelUpstreamHandler(String hello, ImapProcessor processor, ImapEncoder encoder, boolean compress,
                                       Encryption secure, ImapMetrics imapMetrics, AuthenticationConfiguration authenticationConfiguration,
                                       boolean ignoreIDLEUponProcessing, int heartbeatIntervalSeconds, ReactiveThrottler reactiveThrottler,
-                                      Set<ConnectionCheck> connectionChecks, boolean proxyRequired) {
+                                      Set<ConnectionCheck> connectionChecks, boolean proxyRequired, boolean virtualThreads) {
         this.hello = hello;
         this.processor = processor;
         this.encoder = encoder;
@@ -199,6 +208,7 @@ public class ImapChannelUpstreamHandler extends ChannelInboundHandlerAdapter imp
         this.reactiveThrottler = reactiveThrottler;
         this.connectionChecks = connectionChecks;
         this.proxyRequired = proxyRequired;
+        this.virtualThreads = virtualThreads;
     }
 
     @Override
@@ -396,12 +406,15 @@ public class ImapChannelUpstreamHandler extends ChannelInboundHandlerAdapter imp
         Attribute<Disposable> disposableAttribute = ctx.channel().attr(REQUEST_IN_FLIGHT_ATTRIBUTE_KEY);
 
         ImapLinerarizer linearalizer = ctx.channel().attr(LINEARIZER_ATTRIBUTE_KEY).get();
-        synchronized (linearalizer) {
+        linearalizer.lock.lock();
+        try {
             if (linearalizer.isExecutingRequest.get()) {
                 linearalizer.throttled.add(msg);
                 return;
             }
             linearalizer.isExecutingRequest.set(true);
+        } finally {
+            linearalizer.lock.unlock();
         }
 
         ChannelImapResponseWriter writer = new ChannelImapResponseWriter(ctx.channel());
@@ -411,7 +424,7 @@ public class ImapChannelUpstreamHandler extends ChannelInboundHandlerAdapter imp
 
         beforeIDLEUponProcessing(ctx);
         ResponseEncoder responseEncoder = new ResponseEncoder(encoder, response);
-        Disposable disposable = reactiveThrottler.throttle(processor.processReactive(message, responseEncoder, session)
+        Disposable disposable = reactiveThrottler.throttle(processOnConfiguredThreads(processor.processReactive(message, responseEncoder, session))
                 .doOnEach(Throwing.consumer(signal -> {
                     if (session.getState() == ImapSessionState.LOGOUT) {
                         // Make sure we close the channel after all the buffers were flushed out
@@ -434,9 +447,12 @@ public class ImapChannelUpstreamHandler extends ChannelInboundHandlerAdapter imp
                         }
                     }
                     Object waitingMessage;
-                    synchronized (linearalizer) {
+                    linearalizer.lock.lock();
+                    try {
                         linearalizer.isExecutingRequest.set(false);
                         waitingMessage = linearalizer.throttled.poll();
+                    } finally {
+                        linearalizer.lock.unlock();
                     }
                     if (signal.isOnComplete() || signal.isOnError()) {
                         afterIDLEUponProcessing(ctx);
@@ -465,6 +481,14 @@ public class ImapChannelUpstreamHandler extends ChannelInboundHandlerAdapter imp
         disposableAttribute.set(disposable);
     }
 
+    private Mono<Void> processOnConfiguredThreads(Mono<Void> processing) {
+        if (virtualThreads) {
+            // Blocking sections of IMAP processors then park a virtual thread instead of holding a Netty or bounded elastic thread
+            return processing.subscribeOn(ReactorUtils.VIRTUAL_THREADS);
+        }
+        return processing;
+    }
+
     private void beforeIDLEUponProcessing(ChannelHandlerContext ctx) {
         if (!ignoreIDLEUponProcessing) {
             try {
@@ -25,6 +25,7 @@ import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 import java.util.concurrent.RejectedExecutionException;
 
 import javax.management.MBeanServer;
@@ -49,6 +50,7 @@ import org.apache.james.protocols.netty.AbstractChannelPipelineFactory;
 import org.apache.james.protocols.netty.AbstractSSLAwareChannelPipelineFactory;
 import org.apache.james.protocols.netty.ChannelHandlerFactory;
 import org.apache.james.protocols.netty.Encryption;
+import org.apache.james.util.ReactorUtils;
 import org.apache.james.util.Size;
 import org.apache.james.util.concurrent.NamedThreadFactory;
 import org.slf4j.Logger;
@@ -91,6 +93,9 @@ public abstract class AbstractConfigurableAsyncServer
     /** The name of the parameter defining the service hello name. */
     public static final String PROXY_REQUIRED = "proxyRequired";
 
+    /** The name of the parameter enabling JDK virtual threads for request processing. */
+    public static final String USE_VIRTUAL_THREADS = "useVirtualThreads";
+
     public static final int DEFAULT_MAX_EXECUTOR_COUNT = 16;
 
     private FileSystem fileSystem;
@@ -99,6 +104,8 @@ public abstract class AbstractConfigurableAsyncServer
 
     protected boolean proxyRequired;
 
+    protected boolean useVirtualThreads;
+
     protected int connPerIP;
 
     protected int connectionLimit;
@@ -189,6 +196,11 @@ public abstract class AbstractConfigurableAsyncServer
             }
         };
 
+        useVirtualThreads = config.getBoolean(USE_VIRTUAL_THREADS, false);
+        if (useVirtualThreads) {
+            LOGGER.info("{} will process requests on virtual threads", getServiceType());
+        }
+
         executorGroup = new DefaultEventExecutorGroup(config.getInt("maxExecutorCount", DEFAULT_MAX_EXECUTOR_COUNT),
             NamedThreadFactory.withName(jmxName),
             Math.max(16, SystemPropertyUtil.getInt("io.netty.eventexecutor.maxPendingTasks", Integer.MAX_VALUE)),
@@ -260,6 +272,18 @@ public abstract class AbstractConfigurableAsyncServer
         return executorGroup;
     }
 
+    /**
+     * @return the executor protocol handlers should be dispatched to, if any. When virtual threads are enabled
+     * this is a virtual thread per task executor: blocking calls done by handlers then park a virtual thread
+     * instead of holding one of the {@link #getExecutorGroup()} threads.
+     */
+    protected Optional<Executor> getRequestExecutor() {
+        if (useVirtualThreads) {
+            return Optional.of(ReactorUtils.VIRTUAL_THREAD_PER_TASK_EXECUTOR);
+        }
+        return Optional.empty();
+    }
+
     @PostConstruct
     public final void init() throws Exception {
 
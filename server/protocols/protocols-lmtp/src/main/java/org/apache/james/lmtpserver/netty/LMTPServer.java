@@ -155,7 +155,7 @@ public class LMTPServer extends AbstractProtocolAsyncServer implements LMTPServe
                 return new ExtendedSMTPSession(lmtpConfig, transport);
             }
         };
-        return new SMTPChannelInboundHandler(transport, lmtpMetrics);
+        return new SMTPChannelInboundHandler(transport, null, false, lmtpMetrics, getRequestExecutor());
     }
 
     @Override
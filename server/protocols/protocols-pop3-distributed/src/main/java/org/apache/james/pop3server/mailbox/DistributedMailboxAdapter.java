@@ -98,21 +98,38 @@ public class DistributedMailboxAdapter implements Mailbox {
     @Override
     public InputStream getMessage(String uid) throws IOException {
         try {
-            MessageId messageId = messageIdFactory.fromString(uid);
-            Iterator<MessageResult> messages = messageIdManager.getMessage(messageId, FetchGroup.FULL_CONTENT, session).iterator();
-            if (messages.hasNext()) {
-                return messages.next().getFullContent().getInputStream();
-            } else {
-                LOGGER.warn("Removing {} from {} POP3 projection for user {} at it is not backed by a MailboxMessage",
-                    uid, mailbox.getId().serialize(), session.getUser().asString());
-                Mono.from(metadataStore.remove(mailbox.getId(), messageId)).block();
-                throw new IOException("Message does not exist for uid " + uid);
-            }
+            return retrieveMessage(uid, FetchGroup.FULL_CONTENT)
+                .getFullContent()
+                .getInputStream();
         } catch (MailboxException e) {
             throw new IOException("Unable to retrieve message body for uid " + uid, e);
         }
     }
 
+    @Override
+    public InputStream getMessageHeaders(String uid) throws IOException {
+        try {
+            return retrieveMessage(uid, FetchGroup.HEADERS)
+                .getHeaders()
+                .getInputStream();
+        } catch (MailboxException e) {
+            throw new IOException("Unable to retrieve message headers for uid " + uid, e);
+        }
+    }
+
+    private MessageResult retrieveMessage(String uid, FetchGroup fetchGroup) throws MailboxException, IOException {
+        MessageId messageId = messageIdFactory.fromString(uid);
+        Iterator<MessageResult> messages = messageIdManager.getMessage(messageId, fetchGroup, session).iterator();
+        if (messages.hasNext()) {
+            return messages.next();
+        } else {
+            LOGGER.warn("Removing {} from {} POP3 projection for user {} at it is not backed by a MailboxMessage",
+                uid, mailbox.getId().serialize(), session.getUser().asString());
+            Mono.from(metadataStore.remove(mailbox.getId(), messageId)).block();
+            throw new IOException("Message does not exist for uid " + uid);
+        }
+    }
+
     @Override
     public List<MessageMetaData> getMessages() {
         return Flux.from(metadataStore.stat(mailbox.getId()))
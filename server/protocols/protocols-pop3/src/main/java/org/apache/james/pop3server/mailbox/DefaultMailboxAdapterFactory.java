@@ -19,6 +19,8 @@
 
 package org.apache.james.pop3server.mailbox;
 
+import java.util.Optional;
+
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
 
@@ -28,15 +30,27 @@ import org.apache.james.mailbox.MessageManager;
 import org.apache.james.protocols.pop3.mailbox.Mailbox;
 
 public class DefaultMailboxAdapterFactory  implements MailboxAdapterFactory {
+    /**
+     * Count of messages the node-local POP3 listing cache may hold. The cache is disabled when unset or 0, as each
+     * session then needs to read the mailbox state in order to validate cached listings.
+     */
+    public static final long LISTING_CACHE_MAXIMUM_MESSAGES = Optional.ofNullable(System.getProperty("james.pop3.listing.cache.max.messages"))
+        .map(Long::parseLong)
+        .orElse(0L);
+
     private final MailboxManager mailboxManager;
+    private final Optional<MessageListingCache> messageListingCache;
 
     @Inject
     public DefaultMailboxAdapterFactory(@Named("mailboxmanager") MailboxManager mailboxManager) {
         this.mailboxManager = mailboxManager;
+        this.messageListingCache = Optional.of(LISTING_CACHE_MAXIMUM_MESSAGES)
+            .filter(maximumMessages -> maximumMessages > 0)
+            .map(MessageListingCache::new);
     }
 
     @Override
     public Mailbox create(MessageManager manager, MailboxSession session) {
-        return new MailboxAdapter(mailboxManager, manager, session);
+        return new MailboxAdapter(mailboxManager, manager, session, messageListingCache);
     }
 }
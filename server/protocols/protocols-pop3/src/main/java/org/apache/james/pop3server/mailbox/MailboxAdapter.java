@@ -22,13 +22,16 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.apache.james.mailbox.MailboxManager;
 import org.apache.james.mailbox.MailboxSession;
 import org.apache.james.mailbox.MessageManager;
+import org.apache.james.mailbox.MessageManager.MailboxMetaData;
 import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.exception.MailboxException;
 import org.apache.james.mailbox.model.FetchGroup;
@@ -41,29 +44,34 @@ import com.google.common.collect.ImmutableList;
 
 public class MailboxAdapter implements Mailbox {
     private static final FetchGroup FULL_GROUP = FetchGroup.FULL_CONTENT;
+    private static final FetchGroup HEADERS_GROUP = FetchGroup.HEADERS;
     private static final FetchGroup METADATA_GROUP = FetchGroup.MINIMAL;
+    private static final EnumSet<MailboxMetaData.Item> LISTING_STATE_ITEMS = EnumSet.of(MailboxMetaData.Item.HighestModSeq, MailboxMetaData.Item.MailboxCounters);
 
     private final MessageManager manager;
     private final MailboxSession session;
+    private final Optional<MessageListingCache> messageListingCache;
 
     private final MailboxManager mailboxManager;
 
     public MailboxAdapter(MailboxManager mailboxManager, MessageManager manager, MailboxSession session) {
+        this(mailboxManager, manager, session, Optional.empty());
+    }
+
+    public MailboxAdapter(MailboxManager mailboxManager, MessageManager manager, MailboxSession session, Optional<MessageListingCache> messageListingCache) {
         this.manager = manager;
         this.session = session;
         this.mailboxManager = mailboxManager;
+        this.messageListingCache = messageListingCache;
     }
 
     @Override
     public InputStream getMessage(String uid) throws IOException {
         try {
             mailboxManager.startProcessingRequest(session);
-            Iterator<MessageResult> results = manager.getMessages(MessageUid.of(Long.parseLong(uid)).toRange(), FULL_GROUP, session);
-            if (results.hasNext()) {
-                return results.next().getFullContent().getInputStream();
-            } else {
-                throw new IOException("Message does not exist for uid " + uid);
-            }
+            return retrieveMessage(uid, FULL_GROUP)
+                .getFullContent()
+                .getInputStream();
         } catch (MailboxException e) {
             throw new IOException("Unable to retrieve message for uid " + uid, e);
         } finally {
@@ -71,18 +79,37 @@ public class MailboxAdapter implements Mailbox {
         }
     }
 
+    @Override
+    public InputStream getMessageHeaders(String uid) throws IOException {
+        try {
+            mailboxManager.startProcessingRequest(session);
+            return retrieveMessage(uid, HEADERS_GROUP)
+                .getHeaders()
+                .getInputStream();
+        } catch (MailboxException e) {
+            throw new IOException("Unable to retrieve message headers for uid " + uid, e);
+        } finally {
+            mailboxManager.endProcessingRequest(session);
+        }
+    }
+
+    private MessageResult retrieveMessage(String uid, FetchGroup fetchGroup) throws MailboxException, IOException {
+        Iterator<MessageResult> results = manager.getMessages(MessageUid.of(Long.parseLong(uid)).toRange(), fetchGroup, session);
+        if (results.hasNext()) {
+            return results.next();
+        } else {
+            throw new IOException("Message does not exist for uid " + uid);
+        }
+    }
+
     @Override
     public List<MessageMetaData> getMessages() throws IOException {
         try {
             mailboxManager.startProcessingRequest(session);
-            Iterator<MessageResult> results = manager.getMessages(MessageRange.all(), METADATA_GROUP, session);
-            List<MessageMetaData> mList = new ArrayList<>();
-            while (results.hasNext()) {
-                MessageResult result = results.next();
-                MessageMetaData metaData = new MessageMetaData(String.valueOf(result.getUid().asLong()), result.getSize());
-                mList.add(metaData);
+            if (messageListingCache.isEmpty()) {
+                return listMessages();
             }
-            return ImmutableList.copyOf(mList);
+            return cachedListing(messageListingCache.get());
         } catch (MailboxException e) {
             throw new IOException("Unable to retrieve messages", e);
         } finally {
@@ -90,6 +117,31 @@ public class MailboxAdapter implements Mailbox {
         }
     }
 
+    private List<MessageMetaData> cachedListing(MessageListingCache cache) throws MailboxException {
+        // The state is read before listing messages: changes happening meanwhile then cause the next lookup to miss
+        MailboxMetaData mailboxMetaData = manager.getMetaData(MailboxMetaData.RecentMode.IGNORE, session, LISTING_STATE_ITEMS);
+        MessageListingCache.State state = new MessageListingCache.State(mailboxMetaData.getHighestModSeq(), mailboxMetaData.getMessageCount());
+        Optional<List<MessageMetaData>> cachedListing = cache.retrieve(session.getUser(), manager.getId(), state);
+        if (cachedListing.isPresent()) {
+            return cachedListing.get();
+        }
+
+        List<MessageMetaData> listing = listMessages();
+        cache.store(session.getUser(), manager.getId(), state, listing);
+        return listing;
+    }
+
+    private List<MessageMetaData> listMessages() throws MailboxException {
+        Iterator<MessageResult> results = manager.getMessages(MessageRange.all(), METADATA_GROUP, session);
+        List<MessageMetaData> mList = new ArrayList<>();
+        while (results.hasNext()) {
+            MessageResult result = results.next();
+            MessageMetaData metaData = new MessageMetaData(String.valueOf(result.getUid().asLong()), result.getSize());
+            mList.add(metaData);
+        }
+        return ImmutableList.copyOf(mList);
+    }
+
     @Override
     public void remove(String... uids) throws IOException {
         List<MessageUid> uidList = Arrays.stream(uids)
@@ -99,6 +151,7 @@ public class MailboxAdapter implements Mailbox {
         try {
             mailboxManager.startProcessingRequest(session);
             manager.delete(uidList, session);
+            messageListingCache.ifPresent(cache -> cache.invalidate(session.getUser(), manager.getId()));
         } catch (MailboxException e) {
             String serializedUids = uidList
                 .stream()
@@ -0,0 +1,119 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.pop3server.mailbox;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.apache.james.core.Username;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.model.MailboxId;
+import org.apache.james.protocols.pop3.mailbox.MessageMetaData;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Node-local cache of the POP3 message listing (uid, size) of mailboxes.
+ *
+ * Entries are validated against the mailbox highest mod-sequence and message count: additions bump the
+ * mod-sequence while expunges lower the message count. Stale entries are thus never served, even when
+ * another James node modified the mailbox.
+ *
+ * The cache is bounded by the overall count of listed messages, not by the count of listings, so that large
+ * mailboxes do not make its memory usage unbounded.
+ */
+public class MessageListingCache {
+    public static final long DEFAULT_MAXIMUM_MESSAGES = 1_000_000;
+
+    public static class State {
+        private final ModSeq highestModSeq;
+        private final long messageCount;
+
+        public State(ModSeq highestModSeq, long messageCount) {
+            this.highestModSeq = highestModSeq;
+            this.messageCount = messageCount;
+        }
+
+        @Override
+        public final boolean equals(Object o) {
+            if (o instanceof State) {
+                State that = (State) o;
+
+                return Objects.equals(this.messageCount, that.messageCount)
+                    && Objects.equals(this.highestModSeq, that.highestModSeq);
+            }
+            return false;
+        }
+
+        @Override
+        public final int hashCode() {
+            return Objects.hash(highestModSeq, messageCount);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                .add("highestModSeq", highestModSeq)
+                .add("messageCount", messageCount)
+                .toString();
+        }
+    }
+
+    // Listings are keyed by user as well: rights on a shared mailbox might differ
+    private record Key(Username username, MailboxId mailboxId) {
+
+    }
+
+    private record Entry(State state, ImmutableList<MessageMetaData> messages) {
+
+    }
+
+    private final Cache<Key, Entry> cache;
+
+    public MessageListingCache() {
+        this(DEFAULT_MAXIMUM_MESSAGES);
+    }
+
+    public MessageListingCache(long maximumMessages) {
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(maximumMessages)
+            // Empty listings still weight 1 so that they remain bounded
+            .weigher((Key key, Entry entry) -> entry.messages().size() + 1)
+            .build();
+    }
+
+    public Optional<List<MessageMetaData>> retrieve(Username username, MailboxId mailboxId, State state) {
+        return Optional.ofNullable(cache.getIfPresent(new Key(username, mailboxId)))
+            .filter(entry -> entry.state().equals(state))
+            .map(Entry::messages);
+    }
+
+    public void store(Username username, MailboxId mailboxId, State state, List<MessageMetaData> messages) {
+        cache.put(new Key(username, mailboxId), new Entry(state, ImmutableList.copyOf(messages)));
+    }
+
+    public void invalidate(Username username, MailboxId mailboxId) {
+        cache.invalidate(new Key(username, mailboxId));
+    }
+}
@@ -0,0 +1,97 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.pop3server.mailbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.james.core.Username;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.inmemory.InMemoryId;
+import org.apache.james.protocols.pop3.mailbox.MessageMetaData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+
+class MessageListingCacheTest {
+    private static final Username BOB = Username.of("bob@domain.tld");
+    private static final Username ALICE = Username.of("alice@domain.tld");
+    private static final InMemoryId MAILBOX_ID = InMemoryId.of(42);
+    private static final MessageListingCache.State STATE = new MessageListingCache.State(ModSeq.of(36), 2);
+    private static final ImmutableList<MessageMetaData> LISTING = ImmutableList.of(
+        new MessageMetaData("1", 1024),
+        new MessageMetaData("2", 2048));
+
+    MessageListingCache testee;
+
+    @BeforeEach
+    void setUp() {
+        testee = new MessageListingCache();
+    }
+
+    @Test
+    void stateShouldRespectBeanContract() {
+        EqualsVerifier.forClass(MessageListingCache.State.class).verify();
+    }
+
+    @Test
+    void retrieveShouldReturnEmptyByDefault() {
+        assertThat(testee.retrieve(BOB, MAILBOX_ID, STATE)).isEmpty();
+    }
+
+    @Test
+    void retrieveShouldReturnStoredListing() {
+        testee.store(BOB, MAILBOX_ID, STATE, LISTING);
+
+        assertThat(testee.retrieve(BOB, MAILBOX_ID, STATE)).contains(LISTING);
+    }
+
+    @Test
+    void retrieveShouldNotReturnListingOfAnOutdatedState() {
+        testee.store(BOB, MAILBOX_ID, STATE, LISTING);
+
+        assertThat(testee.retrieve(BOB, MAILBOX_ID, new MessageListingCache.State(ModSeq.of(37), 3))).isEmpty();
+    }
+
+    @Test
+    void retrieveShouldNotReturnListingAfterAnExpunge() {
+        testee.store(BOB, MAILBOX_ID, STATE, LISTING);
+
+        assertThat(testee.retrieve(BOB, MAILBOX_ID, new MessageListingCache.State(ModSeq.of(36), 1))).isEmpty();
+    }
+
+    @Test
+    void retrieveShouldNotReturnListingOfOtherUsers() {
+        testee.store(BOB, MAILBOX_ID, STATE, LISTING);
+
+        assertThat(testee.retrieve(ALICE, MAILBOX_ID, STATE)).isEmpty();
+    }
+
+    @Test
+    void invalidateShouldRemoveListing() {
+        testee.store(BOB, MAILBOX_ID, STATE, LISTING);
+
+        testee.invalidate(BOB, MAILBOX_ID);
+
+        assertThat(testee.retrieve(BOB, MAILBOX_ID, STATE)).isEmpty();
+    }
+}
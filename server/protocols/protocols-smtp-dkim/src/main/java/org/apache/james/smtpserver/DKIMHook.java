@@ -38,6 +38,7 @@ import org.apache.james.jdkim.api.PublicKeyRecordRetriever;
 import org.apache.james.jdkim.api.SignatureRecord;
 import org.apache.james.jdkim.exceptions.FailException;
 import org.apache.james.jdkim.mailets.DKIMVerifier;
+import org.apache.james.jdkim.mailets.RecordedDKIMVerification;
 import org.apache.james.protocols.smtp.SMTPSession;
 import org.apache.james.protocols.smtp.hook.HookResult;
 import org.apache.james.protocols.smtp.hook.HookReturnCode;
@@ -219,8 +220,10 @@ public class DKIMHook implements JamesMessageHook {
             return HookResult.DECLINED;
         }
         try {
-            return signatureRecordValidation.validate(mail.getMaybeSender(),
-                verifier.verify(mail.getMessage(), config.forceCRLF));
+            RecordedDKIMVerification.Fingerprint fingerprint = new RecordedDKIMVerification.Fingerprint(config.forceCRLF);
+            List<SignatureRecord> records = verifier.verify(mail.getMessage(), config.forceCRLF, fingerprint.contentStream());
+            RecordedDKIMVerification.record(mail, RecordedDKIMVerification.authResult(records), fingerprint);
+            return signatureRecordValidation.validate(mail.getMaybeSender(), records);
         } catch (MessagingException e) {
             LOGGER.warn("Error while verifying DKIM signatures", e);
             return HookResult.builder()
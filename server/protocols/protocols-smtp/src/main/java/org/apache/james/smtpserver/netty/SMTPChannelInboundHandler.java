@@ -19,6 +19,7 @@
 package org.apache.james.smtpserver.netty;
 
 import java.util.Optional;
+import java.util.concurrent.Executor;
 
 import org.apache.james.lifecycle.api.LifecycleUtil;
 import org.apache.james.protocols.api.Protocol;
@@ -40,15 +41,17 @@ public class SMTPChannelInboundHandler extends BasicChannelInboundHandler {
     private final SmtpMetrics smtpMetrics;
 
     public SMTPChannelInboundHandler(Protocol protocol, Encryption encryption, boolean proxyRequired, SmtpMetrics smtpMetrics) {
-        super(new SMTPMDCContextFactory(), protocol, encryption, proxyRequired);
+        this(protocol, encryption, proxyRequired, smtpMetrics, Optional.empty());
+    }
+
+    public SMTPChannelInboundHandler(Protocol protocol, Encryption encryption, boolean proxyRequired, SmtpMetrics smtpMetrics, Optional<Executor> requestExecutor) {
+        super(new SMTPMDCContextFactory(), protocol, encryption, proxyRequired, requestExecutor);
         this.smtpMetrics = smtpMetrics;
         this.resultHandlers.add(recordCommandCount(smtpMetrics));
     }
 
     public SMTPChannelInboundHandler(Protocol protocol, SmtpMetrics smtpMetrics) {
-        super(new SMTPMDCContextFactory(), protocol);
-        this.smtpMetrics = smtpMetrics;
-        this.resultHandlers.add(recordCommandCount(smtpMetrics));
+        this(protocol, null, false, smtpMetrics);
     }
 
     private ProtocolHandlerResultHandler recordCommandCount(SmtpMetrics smtpMetrics) {
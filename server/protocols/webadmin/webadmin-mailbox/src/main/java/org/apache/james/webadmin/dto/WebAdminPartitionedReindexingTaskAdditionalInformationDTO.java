@@ -0,0 +1,146 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.webadmin.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.commons.lang3.NotImplementedException;
+import org.apache.james.core.Username;
+import org.apache.james.json.DTOModule;
+import org.apache.james.mailbox.indexer.ReIndexer;
+import org.apache.james.mailbox.indexer.ReIndexingExecutionFailures;
+import org.apache.james.server.task.json.dto.AdditionalInformationDTO;
+import org.apache.james.server.task.json.dto.AdditionalInformationDTOModule;
+import org.apache.mailbox.tools.indexer.PartitionedReindexingTask;
+import org.apache.mailbox.tools.indexer.RunningOptionsDTO;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+public class WebAdminPartitionedReindexingTaskAdditionalInformationDTO implements AdditionalInformationDTO {
+
+    public static AdditionalInformationDTOModule<PartitionedReindexingTask.AdditionalInformation, WebAdminPartitionedReindexingTaskAdditionalInformationDTO> serializationModule() {
+        return DTOModule.forDomainObject(PartitionedReindexingTask.AdditionalInformation.class)
+            .convertToDTO(WebAdminPartitionedReindexingTaskAdditionalInformationDTO.class)
+            .toDomainObjectConverter(dto -> {
+                throw new NotImplementedException("Deserialization not implemented for this DTO");
+            })
+            .toDTOConverter((details, type) -> new WebAdminPartitionedReindexingTaskAdditionalInformationDTO(
+                type,
+                details.getPartition(),
+                details.getCheckpoint().map(Username::asString),
+                details.getProcessedUserCount(),
+                details.getMessagesPerSecond(),
+                details.getCurrentRate(),
+                RunningOptionsDTO.toDTO(details.getRunningOptions()),
+                details.getSuccessfullyReprocessedMailCount(),
+                details.getFailedReprocessedMailCount(),
+                details.failures(),
+                details.timestamp()))
+            .typeName(PartitionedReindexingTask.PARTITIONED_RE_INDEXING.asString())
+            .withFactory(AdditionalInformationDTOModule::new);
+    }
+
+    private final WebAdminIndexationContextInformationDTO reprocessingContextInformationDTO;
+    private final int partitionIndex;
+    private final int partitionCount;
+    private final Optional<String> checkpoint;
+    private final long processedUserCount;
+    private final double messagesPerSecond;
+    private final int currentRate;
+
+    @JsonCreator
+    private WebAdminPartitionedReindexingTaskAdditionalInformationDTO(String type,
+                                                                      ReIndexer.Partition partition,
+                                                                      Optional<String> checkpoint,
+                                                                      long processedUserCount,
+                                                                      double messagesPerSecond,
+                                                                      int currentRate,
+                                                                      RunningOptionsDTO runningOptions,
+                                                                      int successfullyReprocessedMailCount,
+                                                                      int failedReprocessedMailCount,
+                                                                      ReIndexingExecutionFailures failures,
+                                                                      Instant timestamp) {
+        this.partitionIndex = partition.getIndex();
+        this.partitionCount = partition.getCount();
+        this.checkpoint = checkpoint;
+        this.processedUserCount = processedUserCount;
+        this.messagesPerSecond = messagesPerSecond;
+        this.currentRate = currentRate;
+        this.reprocessingContextInformationDTO = new WebAdminIndexationContextInformationDTO(
+            type,
+            runningOptions,
+            successfullyReprocessedMailCount,
+            failedReprocessedMailCount, failures, timestamp);
+    }
+
+    @Override
+    public String getType() {
+        return reprocessingContextInformationDTO.getType();
+    }
+
+    public Instant getTimestamp() {
+        return reprocessingContextInformationDTO.getTimestamp();
+    }
+
+    public int getPartitionIndex() {
+        return partitionIndex;
+    }
+
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    public Optional<String> getCheckpoint() {
+        return checkpoint;
+    }
+
+    public long getProcessedUserCount() {
+        return processedUserCount;
+    }
+
+    public double getMessagesPerSecond() {
+        return messagesPerSecond;
+    }
+
+    public int getCurrentRate() {
+        return currentRate;
+    }
+
+    public RunningOptionsDTO getRunningOptions() {
+        return reprocessingContextInformationDTO.getRunningOptions();
+    }
+
+    public int getSuccessfullyReprocessedMailCount() {
+        return reprocessingContextInformationDTO.getSuccessfullyReprocessedMailCount();
+    }
+
+    public int getFailedReprocessedMailCount() {
+        return reprocessingContextInformationDTO.getFailedReprocessedMailCount();
+    }
+
+    public SerializableReIndexingExecutionFailures getMessageFailures() {
+        return reprocessingContextInformationDTO.getMessageFailures();
+    }
+
+    public List<String> getMailboxFailures() {
+        return reprocessingContextInformationDTO.getMailboxFailures();
+    }
+}
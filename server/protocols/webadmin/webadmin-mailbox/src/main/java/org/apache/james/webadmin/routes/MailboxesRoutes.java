@@ -25,6 +25,7 @@ import java.util.Set;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
 
+import org.apache.james.core.Username;
 import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.exception.MailboxException;
 import org.apache.james.mailbox.exception.MailboxNotFoundException;
@@ -64,10 +65,23 @@ public class MailboxesRoutes implements Routes {
                 IndexingDetailInformation indexingDetailInformation = retrieveIndexingExecutionDetails(previousReIndexingService, request);
                 return reIndexer.reIndex(indexingDetailInformation.failures(), ReindexingRunningOptionsParser.parse(request));
             }
+            Optional<Integer> partitionCount = ReindexingRunningOptionsParser.intQueryParameter(request, PARTITION_COUNT_QUERY_PARAM);
+            if (partitionCount.isPresent()) {
+                return reIndexer.reIndex(extractPartition(request, partitionCount.get()),
+                    Optional.ofNullable(request.queryParams(RESUME_AFTER_QUERY_PARAM)).map(Username::of),
+                    ReindexingRunningOptionsParser.parse(request));
+            }
 
             return reIndexer.reIndex(ReindexingRunningOptionsParser.parse(request));
         }
 
+        private static ReIndexer.Partition extractPartition(Request request, int partitionCount) {
+            int partitionIndex = ReindexingRunningOptionsParser.intQueryParameter(request, PARTITION_QUERY_PARAM)
+                .orElseThrow(() -> new IllegalArgumentException(String.format("'%s' is required when '%s' is specified",
+                    PARTITION_QUERY_PARAM, PARTITION_COUNT_QUERY_PARAM)));
+            return ReIndexer.Partition.of(partitionIndex, partitionCount);
+        }
+
         private static IndexingDetailInformation retrieveIndexingExecutionDetails(PreviousReIndexingService previousReIndexingService, Request request) {
             TaskId taskId = getTaskId(request);
             try {
@@ -171,6 +185,9 @@ public class MailboxesRoutes implements Routes {
 
     private static final String BASE_PATH = "/mailboxes";
     private static final String RE_INDEX_FAILED_MESSAGES_QUERY_PARAM = "reIndexFailedMessagesOf";
+    private static final String PARTITION_QUERY_PARAM = "partition";
+    private static final String PARTITION_COUNT_QUERY_PARAM = "partitionCount";
+    private static final String RESUME_AFTER_QUERY_PARAM = "resumeAfter";
     private static final String MAILBOX_PARAM = ":mailbox";
     private static final String UID_PARAM = ":uid";
     private static final String MAILBOX_PATH = BASE_PATH + "/" + MAILBOX_PARAM;
@@ -27,6 +27,7 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.spy;
@@ -85,15 +86,18 @@ import org.apache.james.mailbox.store.search.ListeningMessageSearchIndex;
 import org.apache.james.metrics.tests.RecordingMetricFactory;
 import org.apache.james.task.Hostname;
 import org.apache.james.task.MemoryTaskManager;
+import org.apache.james.user.api.UsersRepository;
 import org.apache.james.webadmin.WebAdminServer;
 import org.apache.james.webadmin.WebAdminUtils;
 import org.apache.james.webadmin.dto.WebAdminIndexationContextInformationDTO.WebAdminErrorRecoveryIndexationDTO;
 import org.apache.james.webadmin.dto.WebAdminIndexationContextInformationDTO.WebAdminFullIndexationDTO;
+import org.apache.james.webadmin.dto.WebAdminPartitionedReindexingTaskAdditionalInformationDTO;
 import org.apache.james.webadmin.dto.WebAdminSingleMailboxReindexingTaskAdditionalInformationDTO;
 import org.apache.james.webadmin.service.PreviousReIndexingService;
 import org.apache.james.webadmin.utils.ErrorResponder;
 import org.apache.james.webadmin.utils.JsonTransformer;
 import org.apache.mailbox.tools.indexer.FullReindexingTask;
+import org.apache.mailbox.tools.indexer.PartitionedReindexingTask;
 import org.apache.mailbox.tools.indexer.ReIndexerImpl;
 import org.apache.mailbox.tools.indexer.ReIndexerPerformer;
 import org.apache.mailbox.tools.indexer.SingleMailboxReindexingTask;
@@ -115,6 +119,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
 import io.restassured.RestAssured;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 class MailboxesRoutesTest {
@@ -177,10 +182,14 @@ class MailboxesRoutesTest {
 
         searchIndex = spy((ListeningMessageSearchIndex) resources.getSearchIndex());
 
+        UsersRepository usersRepository = mock(UsersRepository.class);
+        doReturn(Flux.just(USERNAME)).when(usersRepository).listReactive();
+
         ReIndexerPerformer reIndexerPerformer = new ReIndexerPerformer(
             mailboxManager,
             searchIndex,
-            mailboxManager.getMapperFactory());
+            mailboxManager.getMapperFactory(),
+            usersRepository);
         ReIndexer reIndexer = new ReIndexerImpl(
             reIndexerPerformer,
             mailboxManager,
@@ -192,6 +201,7 @@ class MailboxesRoutesTest {
                     DTOConverter.of(
                         WebAdminErrorRecoveryIndexationDTO.serializationModule(),
                         WebAdminFullIndexationDTO.serializationModule(),
+                        WebAdminPartitionedReindexingTaskAdditionalInformationDTO.serializationModule(),
                         WebAdminSingleMailboxReindexingTaskAdditionalInformationDTO.serializationModule(),
                         SingleMessageReindexingTaskAdditionalInformationDTO.module(mailboxIdFactory))),
                 new MailboxesRoutes(taskManager,
@@ -244,10 +254,103 @@ class MailboxesRoutesTest {
                     .body("message", is("Invalid arguments supplied in the user request"))
                     .body("details", is("Invalid value supplied for query parameter 'task': bad. Supported values are [reIndex]"));
             }
+
+            @Test
+            void partitionedReIndexingShouldFailWhenPartitionIsMissing() {
+                when()
+                    .post("/mailboxes?task=reIndex&partitionCount=4")
+                .then()
+                    .statusCode(HttpStatus.BAD_REQUEST_400)
+                    .body("statusCode", is(400))
+                    .body("type", is(ErrorResponder.ErrorType.INVALID_ARGUMENT.getType()))
+                    .body("message", is("Invalid arguments supplied in the user request"))
+                    .body("details", is("'partition' is required when 'partitionCount' is specified"));
+            }
+
+            @Test
+            void partitionedReIndexingShouldFailWhenPartitionIsOutOfRange() {
+                when()
+                    .post("/mailboxes?task=reIndex&partition=4&partitionCount=4")
+                .then()
+                    .statusCode(HttpStatus.BAD_REQUEST_400)
+                    .body("statusCode", is(400))
+                    .body("type", is(ErrorResponder.ErrorType.INVALID_ARGUMENT.getType()))
+                    .body("message", is("Invalid arguments supplied in the user request"))
+                    .body("details", is("'index' must be positive and lower than 'count'"));
+            }
+
+            @Test
+            void partitionedReIndexingShouldFailWhenPartitionCountIsNotPositive() {
+                when()
+                    .post("/mailboxes?task=reIndex&partition=0&partitionCount=0")
+                .then()
+                    .statusCode(HttpStatus.BAD_REQUEST_400)
+                    .body("statusCode", is(400))
+                    .body("type", is(ErrorResponder.ErrorType.INVALID_ARGUMENT.getType()))
+                    .body("message", is("Invalid arguments supplied in the user request"));
+            }
         }
 
         @Nested
         class TaskDetails {
+            @Test
+            void partitionedReIndexingShouldReturnTaskDetailsWhenMail() throws Exception {
+                MailboxSession systemSession = mailboxManager.createSystemSession(USERNAME);
+                mailboxManager.createMailbox(INBOX, systemSession).get();
+                mailboxManager.getMailbox(INBOX, systemSession)
+                    .appendMessage(
+                        MessageManager.AppendCommand.builder().build("header: value\r\n\r\nbody"),
+                        systemSession);
+
+                String taskId = with()
+                    .post("/mailboxes?task=reIndex&partition=0&partitionCount=1")
+                    .jsonPath()
+                    .get("taskId");
+
+                given()
+                    .basePath(TasksRoutes.BASE)
+                .when()
+                    .get(taskId + "/await")
+                .then()
+                    .body("status", is("completed"))
+                    .body("taskId", is(notNullValue()))
+                    .body("type", is(PartitionedReindexingTask.PARTITIONED_RE_INDEXING.asString()))
+                    .body("additionalInformation.partitionIndex", is(0))
+                    .body("additionalInformation.partitionCount", is(1))
+                    .body("additionalInformation.checkpoint", is(USERNAME.asString()))
+                    .body("additionalInformation.processedUserCount", is(1))
+                    .body("additionalInformation.successfullyReprocessedMailCount", is(1))
+                    .body("additionalInformation.failedReprocessedMailCount", is(0))
+                    .body("additionalInformation.runningOptions.messagesPerSecond", is(50))
+                    .body("additionalInformation.runningOptions.mode", is("REBUILD_ALL"));
+            }
+
+            @Test
+            void partitionedReIndexingShouldSkipUsersBeforeResumeAfter() throws Exception {
+                MailboxSession systemSession = mailboxManager.createSystemSession(USERNAME);
+                mailboxManager.createMailbox(INBOX, systemSession).get();
+                mailboxManager.getMailbox(INBOX, systemSession)
+                    .appendMessage(
+                        MessageManager.AppendCommand.builder().build("header: value\r\n\r\nbody"),
+                        systemSession);
+
+                String taskId = with()
+                    .queryParam("resumeAfter", USERNAME.asString())
+                    .post("/mailboxes?task=reIndex&partition=0&partitionCount=1")
+                    .jsonPath()
+                    .get("taskId");
+
+                given()
+                    .basePath(TasksRoutes.BASE)
+                .when()
+                    .get(taskId + "/await")
+                .then()
+                    .body("status", is("completed"))
+                    .body("additionalInformation.checkpoint", is(USERNAME.asString()))
+                    .body("additionalInformation.processedUserCount", is(0))
+                    .body("additionalInformation.successfullyReprocessedMailCount", is(0));
+            }
+
             @Test
             void fullReIndexingShouldNotFailWhenNoMail() {
                 String taskId = with()
@@ -168,7 +168,8 @@ class UserMailboxesRoutesTest {
         ReIndexerPerformer reIndexerPerformer = new ReIndexerPerformer(
             mailboxManager,
             searchIndex,
-            mapperFactory);
+            mapperFactory,
+            usersRepository);
         ReIndexer reIndexer = new ReIndexerImpl(
             reIndexerPerformer,
             mailboxManager,
@@ -0,0 +1,114 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.webadmin.dto;
+
+import java.util.Locale;
+import java.util.Optional;
+
+import org.apache.james.mailetcontainer.api.PipelineStepProfile;
+import org.apache.james.mailetcontainer.api.PipelineStepProfile.Histogram;
+import org.apache.james.mailetcontainer.api.PipelineStepProfile.Kind;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.google.common.collect.ImmutableMap;
+
+public class PipelineStepProfileDTO {
+    private static final String OVERFLOW_BUCKET = "+Inf";
+
+    public static PipelineStepProfileDTO from(PipelineStepProfile profile) {
+        return new PipelineStepProfileDTO(profile);
+    }
+
+    private static ImmutableMap<String, Long> toBuckets(Histogram histogram) {
+        ImmutableMap.Builder<String, Long> buckets = ImmutableMap.builder();
+        for (int i = 0; i < histogram.upperBounds().size(); i++) {
+            buckets.put(String.valueOf(histogram.upperBounds().get(i)), histogram.counts().get(i));
+        }
+        buckets.put(OVERFLOW_BUCKET, histogram.counts().get(histogram.upperBounds().size()));
+        return buckets.build();
+    }
+
+    private final PipelineStepProfile profile;
+
+    private PipelineStepProfileDTO(PipelineStepProfile profile) {
+        this.profile = profile;
+    }
+
+    public String getProcessor() {
+        return profile.processor();
+    }
+
+    public int getPosition() {
+        return profile.position();
+    }
+
+    public String getKind() {
+        return profile.kind().name().toLowerCase(Locale.US);
+    }
+
+    public String getName() {
+        return profile.name();
+    }
+
+    public long getInvocationCount() {
+        return profile.invocationCount();
+    }
+
+    public long getErrorCount() {
+        return profile.errorCount();
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_ABSENT)
+    public Optional<Long> getMatchCount() {
+        return matcherOnly(profile.matchCount());
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_ABSENT)
+    public Optional<Double> getMatchRatio() {
+        return matcherOnly(profile.matchRatio());
+    }
+
+    public long getSampleCount() {
+        return profile.sampleCount();
+    }
+
+    public ImmutableMap<String, Long> getLatencyMillis() {
+        return toBuckets(profile.latencyMillis());
+    }
+
+    public ImmutableMap<String, Long> getMessageSizeBytes() {
+        return toBuckets(profile.messageSizeBytes());
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_ABSENT)
+    public Optional<Long> getAllocatedBytes() {
+        if (profile.allocatedBytes() < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(profile.allocatedBytes());
+    }
+
+    private <T> Optional<T> matcherOnly(T value) {
+        if (profile.kind() == Kind.MATCHER) {
+            return Optional.of(value);
+        }
+        return Optional.empty();
+    }
+}
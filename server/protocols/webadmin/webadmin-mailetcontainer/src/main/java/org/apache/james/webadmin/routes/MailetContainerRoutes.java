@@ -0,0 +1,64 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.webadmin.routes;
+
+import jakarta.inject.Inject;
+
+import org.apache.james.mailetcontainer.api.MailetPipelineProfiler;
+import org.apache.james.webadmin.Routes;
+import org.apache.james.webadmin.dto.PipelineStepProfileDTO;
+import org.apache.james.webadmin.utils.JsonTransformer;
+import org.apache.james.webadmin.utils.Responses;
+
+import com.google.common.collect.ImmutableList;
+
+import spark.Service;
+
+public class MailetContainerRoutes implements Routes {
+    public static final String BASE_PATH = "/mailetContainer";
+    public static final String PROFILING_PATH = BASE_PATH + "/profiling";
+
+    private final MailetPipelineProfiler profiler;
+    private final JsonTransformer jsonTransformer;
+
+    @Inject
+    public MailetContainerRoutes(MailetPipelineProfiler profiler, JsonTransformer jsonTransformer) {
+        this.profiler = profiler;
+        this.jsonTransformer = jsonTransformer;
+    }
+
+    @Override
+    public String getBasePath() {
+        return BASE_PATH;
+    }
+
+    @Override
+    public void define(Service service) {
+        service.get(PROFILING_PATH, (request, response) -> profiler.getProfiles()
+            .stream()
+            .map(PipelineStepProfileDTO::from)
+            .collect(ImmutableList.toImmutableList()), jsonTransformer);
+
+        service.delete(PROFILING_PATH, (request, response) -> {
+            profiler.reset();
+            return Responses.returnNoContent(response);
+        });
+    }
+}
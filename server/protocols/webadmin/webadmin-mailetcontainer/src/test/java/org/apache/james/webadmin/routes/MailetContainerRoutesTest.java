@@ -0,0 +1,134 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.webadmin.routes;
+
+import static io.restassured.RestAssured.when;
+import static net.javacrumbs.jsonunit.assertj.JsonAssertions.assertThatJson;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.apache.james.mailetcontainer.api.MailetPipelineProfiler;
+import org.apache.james.mailetcontainer.api.PipelineStepProfile;
+import org.apache.james.mailetcontainer.api.PipelineStepProfile.Histogram;
+import org.apache.james.mailetcontainer.api.PipelineStepProfile.Kind;
+import org.apache.james.webadmin.WebAdminServer;
+import org.apache.james.webadmin.WebAdminUtils;
+import org.apache.james.webadmin.utils.JsonTransformer;
+import org.eclipse.jetty.http.HttpStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import io.restassured.RestAssured;
+
+class MailetContainerRoutesTest {
+    private static final Histogram LATENCIES = new Histogram(ImmutableList.of(1L, 10L), ImmutableList.of(3L, 1L, 0L));
+    private static final Histogram SIZES = new Histogram(ImmutableList.of(1024L), ImmutableList.of(2L, 2L));
+    private static final PipelineStepProfile MATCHER_PROFILE = new PipelineStepProfile("transport", 3, Kind.MATCHER, "HasHeader",
+        8, 0, 2, 4, LATENCIES, SIZES, 2048);
+    private static final PipelineStepProfile MAILET_PROFILE = new PipelineStepProfile("transport", 3, Kind.MAILET, "ToRepository",
+        2, 1, 0, 4, LATENCIES, SIZES, -1);
+
+    private static class FakeProfiler implements MailetPipelineProfiler {
+        private boolean reset = false;
+
+        @Override
+        public List<PipelineStepProfile> getProfiles() {
+            return ImmutableList.of(MATCHER_PROFILE, MAILET_PROFILE);
+        }
+
+        @Override
+        public void reset() {
+            reset = true;
+        }
+    }
+
+    private WebAdminServer webAdminServer;
+    private FakeProfiler profiler;
+
+    @BeforeEach
+    void setUp() {
+        profiler = new FakeProfiler();
+        webAdminServer = WebAdminUtils.createWebAdminServer(new MailetContainerRoutes(profiler, new JsonTransformer()))
+            .start();
+
+        RestAssured.requestSpecification = WebAdminUtils.buildRequestSpecification(webAdminServer)
+            .setBasePath(MailetContainerRoutes.PROFILING_PATH)
+            .build();
+        RestAssured.enableLoggingOfRequestAndResponseIfValidationFails();
+    }
+
+    @AfterEach
+    void tearDown() {
+        webAdminServer.destroy();
+    }
+
+    @Test
+    void getShouldReturnStepProfiles() {
+        String body = when()
+            .get()
+        .then()
+            .statusCode(HttpStatus.OK_200)
+            .extract()
+            .body()
+            .asString();
+
+        assertThatJson(body).isEqualTo("[" +
+            "  {" +
+            "    \"processor\": \"transport\"," +
+            "    \"position\": 3," +
+            "    \"kind\": \"matcher\"," +
+            "    \"name\": \"HasHeader\"," +
+            "    \"invocationCount\": 8," +
+            "    \"errorCount\": 0," +
+            "    \"matchCount\": 2," +
+            "    \"matchRatio\": 0.25," +
+            "    \"sampleCount\": 4," +
+            "    \"latencyMillis\": {\"1\": 3, \"10\": 1, \"+Inf\": 0}," +
+            "    \"messageSizeBytes\": {\"1024\": 2, \"+Inf\": 2}," +
+            "    \"allocatedBytes\": 2048" +
+            "  }," +
+            "  {" +
+            "    \"processor\": \"transport\"," +
+            "    \"position\": 3," +
+            "    \"kind\": \"mailet\"," +
+            "    \"name\": \"ToRepository\"," +
+            "    \"invocationCount\": 2," +
+            "    \"errorCount\": 1," +
+            "    \"sampleCount\": 4," +
+            "    \"latencyMillis\": {\"1\": 3, \"10\": 1, \"+Inf\": 0}," +
+            "    \"messageSizeBytes\": {\"1024\": 2, \"+Inf\": 2}" +
+            "  }" +
+            "]");
+    }
+
+    @Test
+    void deleteShouldResetTheProfiler() {
+        when()
+            .delete()
+        .then()
+            .statusCode(HttpStatus.NO_CONTENT_204);
+
+        assertThat(profiler.reset).isTrue();
+    }
+}
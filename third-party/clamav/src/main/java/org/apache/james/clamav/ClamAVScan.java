@@ -20,28 +20,31 @@
 
 package org.apache.james.clamav;
 
-import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.net.ConnectException;
 import java.net.InetAddress;
 import java.net.Socket;
 import java.net.UnknownHostException;
-import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.util.HashSet;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import jakarta.inject.Inject;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 
+import org.apache.james.metrics.api.MetricFactory;
 import org.apache.james.server.core.MimeMessageInputStream;
 import org.apache.james.util.AuditTrail;
 import org.apache.mailet.Attribute;
@@ -54,6 +57,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.fge.lambdas.Throwing;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
@@ -67,8 +71,10 @@ import com.google.common.collect.ImmutableSet;
  * different host.
  * It may also consist on a set of multiple daemons, each residing on a different
  * server and on different IP number.
- * In such case a DNS host name with multiple IP addresses (round-robin load sharing)
+ * In such case a DNS host name with multiple IP addresses (load sharing)
  * is supported by the mailet (but on the same port number).</P>
+ * <P>Connections to each daemon are kept open in <CODE>IDSESSION</CODE> mode and reused across mails.
+ * The time spent scanning on each daemon is published as the <CODE>clamav-scan-&lt;ip&gt;</CODE> timer metric.</P>
  * <p/>
  * <P>Handles the following init parameters:</P>
  * <UL>
@@ -78,8 +84,8 @@ import com.google.common.collect.ImmutableSet;
  * "<code>java.sun.com</code>", or a textual representation of its
  * IP address. If a literal IP address is supplied, only the
  * validity of the address format is checked.
- * If the machine name resolves to multiple IP addresses, <I>round-robin load sharing</I> will
- * be used.
+ * If the machine name resolves to multiple IP addresses, <I>load sharing</I> will
+ * be used: each mail goes to the healthy daemon with the fewest scans in flight, then the lowest latency.
  * The default is <CODE>localhost</CODE>.</LI>
  * <LI><CODE>&lt;port&gt;</CODE>: the port on which CLAMD listens. The default is <I>3310</I>.</LI>
  * <LI><CODE>&lt;maxPings&gt;</CODE>: the maximum number of connection retries during startup.
@@ -88,8 +94,14 @@ import com.google.common.collect.ImmutableSet;
  * <LI><CODE>&lt;pingIntervalMilli&gt;</CODE>: the interval (in milliseconds)
  * between each connection retry during startup.
  * The default is <I>30000</I> (30 seconds).</LI>
- * <LI><CODE>&lt;streamBufferSize&gt;</CODE>: the BufferedOutputStream buffer size to use
- * writing to the <I>stream connection</I>. The default is <I>8192</I>.</LI>
+ * <LI><CODE>&lt;streamBufferSize&gt;</CODE>: the size of the chunks streamed to CLAMD
+ * over the <I>session</I>. The default is <I>8192</I>.</LI>
+ * <LI><CODE>&lt;maxConcurrentScansPerHost&gt;</CODE>: the maximum number of scans in flight, hence of
+ * open sessions, on each CLAMD daemon. Further scans wait up to 10 seconds for a session to be
+ * released, then try the next daemon. It should not exceed the CLAMD <CODE>MaxThreads</CODE> setting. The default is <I>10</I>.</LI>
+ * <LI><CODE>&lt;sessionIdleTimeoutMilli&gt;</CODE>: the time (in milliseconds) after which an idle
+ * session is closed instead of being reused. It should be lower than the CLAMD <CODE>IdleTimeout</CODE>
+ * setting. The default is <I>20000</I> (20 seconds).</LI>
  * </UL>
  * <p/>
  * <P>The actions performed are as follows:</P>
@@ -97,8 +109,8 @@ import com.google.common.collect.ImmutableSet;
  * <LI>During initialization:</LI>
  * <OL>
  * <LI>Gets all <CODE>config.xml</CODE> parameters, handling the defaults;</LI>
- * <LI>resolves the <CODE>&lt;host&gt;</CODE> parameter, creating the round-robin IP list;</LI>
- * <LI>connects to CLAMD at the first IP in the round-robin list, on
+ * <LI>resolves the <CODE>&lt;host&gt;</CODE> parameter, creating the IP list;</LI>
+ * <LI>connects to CLAMD at the first IP in the list, on
  * the specified <CODE>&lt;port&gt;</CODE>;</LI>
  * <LI>if unsuccessful, retries every <CODE>&lt;pingIntervalMilli&gt;</CODE> milliseconds up to
  * <CODE>&lt;maxPings&gt;</CODE> times;</LI>
@@ -108,14 +120,17 @@ import com.google.common.collect.ImmutableSet;
  * </OL>
  * <LI>For every mail</LI>
  * <OL>
- * <LI>connects to CLAMD at the "next" IP in the round-robin list, on
- * the specified <CODE>&lt;port&gt;</CODE>, and increments the "next" index;
- * if the connection request is not accepted tries with the next one
- * in the list unless all of them have failed;</LI>
+ * <LI>picks the preferred CLAMD daemon and reuses one of its idle sessions, or opens a new
+ * one on the specified <CODE>&lt;port&gt;</CODE>;
+ * if the connection request is not accepted tries with the next preferred one
+ * in the list unless all of them have failed. A daemon that failed is avoided for
+ * <CODE>&lt;pingIntervalMilli&gt;</CODE> milliseconds;</LI>
  * <LI>sends a "<CODE>INSTREAM</CODE>" request;</LI>
- * <LI>sends the mime message to CLAMD;</LI>
- * <LI>gets the "<CODE>OK</CODE>" or "<CODE>... FOUND</CODE>" answer from the connection;</LI>
- * <LI>closes the connection;</LI>
+ * <LI>streams the mime message to CLAMD, chunk by chunk;</LI>
+ * <LI>gets the "<CODE>OK</CODE>" or "<CODE>... FOUND</CODE>" answer from the session;</LI>
+ * <LI>if a reused session fails, as when CLAMD closed it while idle, streams the mime
+ * message again over a new session. Only a failure of that new session counts against the daemon;</LI>
+ * <LI>releases the session for the next mail;</LI>
  * <LI>sets the "<CODE>org.apache.james.infected</CODE>" <I>mail attribute</I> to either
  * "<CODE>true</CODE>" or "<CODE>false</CODE>";</LI>
  * <LI>adds the "<CODE>X-MessageIsInfected</CODE>" <I>header</I> to either
@@ -195,6 +210,14 @@ public class ClamAVScan extends GenericMailet {
 
     private static final int DEFAULT_STREAM_BUFFER_SIZE = 8192;
 
+    private static final int DEFAULT_MAX_CONCURRENT_SCANS_PER_HOST = 10;
+
+    private static final int DEFAULT_SESSION_IDLE_TIMEOUT_MILLI = 20000;
+
+    private static final int READ_TIMEOUT_MILLI = 2000;
+
+    private static final Duration SESSION_ACQUIRE_TIMEOUT = Duration.ofSeconds(10);
+
     private static final String FOUND_STRING = "FOUND";
 
     protected static final AttributeName INFECTED_MAIL_ATTRIBUTE_NAME = AttributeName.of("org.apache.james.infected");
@@ -237,9 +260,26 @@ public class ClamAVScan extends GenericMailet {
     private InetAddress[] addresses;
 
     /**
-     * Holds the index of the next address to connect to
+     * Holds value of property maxConcurrentScansPerHost.
      */
-    private int nextAddressIndex;
+    private int maxConcurrentScansPerHost;
+
+    /**
+     * Holds value of property sessionIdleTimeoutMilli.
+     */
+    private int sessionIdleTimeoutMilli;
+
+    /**
+     * Holds the CLAMD daemons, with their sessions.
+     */
+    private volatile List<ClamdHost> clamdHosts = ImmutableList.of();
+
+    private final MetricFactory metricFactory;
+
+    @Inject
+    public ClamAVScan(MetricFactory metricFactory) {
+        this.metricFactory = metricFactory;
+    }
 
     @Override
     public String getMailetInfo() {
@@ -257,7 +297,9 @@ public class ClamAVScan extends GenericMailet {
                 "port",
                 "maxPings",
                 "pingIntervalMilli",
-                "streamBufferSize"
+                "streamBufferSize",
+                "maxConcurrentScansPerHost",
+                "sessionIdleTimeoutMilli"
         );
     }
 
@@ -301,9 +343,8 @@ public class ClamAVScan extends GenericMailet {
 
     /**
      * Setter for property host.
-     * Resolves also the host name into the corresponding IP addresses, issues
-     * a {@link #setAddresses} and resets the <CODE>nextAddressIndex</CODE>
-     * variable to <I>0</I> for dealing with <I>round-robin</I>.
+     * Resolves also the host name into the corresponding IP addresses and issues
+     * a {@link #setAddresses}.
      *
      * @param host New value of property host.
      * @throws UnknownHostException if unable to resolve the host name, or if invalid
@@ -312,8 +353,6 @@ public class ClamAVScan extends GenericMailet {
         this.host = host;
 
         setAddresses(InetAddress.getAllByName(host));
-
-        nextAddressIndex = 0;
     }
 
     /**
@@ -440,6 +479,70 @@ public class ClamAVScan extends GenericMailet {
         this.streamBufferSize = streamBufferSize;
     }
 
+    /**
+     * Initializer for property maxConcurrentScansPerHost.
+     */
+    protected void initMaxConcurrentScansPerHost() {
+        String maxConcurrentScansPerHostParam = getInitParameter("maxConcurrentScansPerHost");
+        setMaxConcurrentScansPerHost((maxConcurrentScansPerHostParam == null) ? DEFAULT_MAX_CONCURRENT_SCANS_PER_HOST : Integer.parseInt(maxConcurrentScansPerHostParam));
+        if (isDebug()) {
+            LOGGER.debug("maxConcurrentScansPerHost: {}", getMaxConcurrentScansPerHost());
+        }
+    }
+
+    /**
+     * Getter for property maxConcurrentScansPerHost.
+     *
+     * @return Value of property maxConcurrentScansPerHost.
+     */
+    public int getMaxConcurrentScansPerHost() {
+
+        return this.maxConcurrentScansPerHost;
+    }
+
+    /**
+     * Setter for property maxConcurrentScansPerHost.
+     *
+     * @param maxConcurrentScansPerHost New value of property maxConcurrentScansPerHost.
+     */
+    public void setMaxConcurrentScansPerHost(int maxConcurrentScansPerHost) {
+        if (maxConcurrentScansPerHost < 1) {
+            throw new IllegalArgumentException("'maxConcurrentScansPerHost' must be strictly positive");
+        }
+        this.maxConcurrentScansPerHost = maxConcurrentScansPerHost;
+    }
+
+    /**
+     * Initializer for property sessionIdleTimeoutMilli.
+     */
+    protected void initSessionIdleTimeoutMilli() {
+        String sessionIdleTimeoutMilliParam = getInitParameter("sessionIdleTimeoutMilli");
+        setSessionIdleTimeoutMilli((sessionIdleTimeoutMilliParam == null) ? DEFAULT_SESSION_IDLE_TIMEOUT_MILLI : Integer.parseInt(sessionIdleTimeoutMilliParam));
+        if (isDebug()) {
+            LOGGER.debug("sessionIdleTimeoutMilli: {}", getSessionIdleTimeoutMilli());
+        }
+    }
+
+    /**
+     * Getter for property sessionIdleTimeoutMilli.
+     *
+     * @return Value of property sessionIdleTimeoutMilli.
+     */
+    public int getSessionIdleTimeoutMilli() {
+
+        return this.sessionIdleTimeoutMilli;
+    }
+
+    /**
+     * Setter for property sessionIdleTimeoutMilli.
+     *
+     * @param sessionIdleTimeoutMilli New value of property sessionIdleTimeoutMilli.
+     */
+    public void setSessionIdleTimeoutMilli(int sessionIdleTimeoutMilli) {
+
+        this.sessionIdleTimeoutMilli = sessionIdleTimeoutMilli;
+    }
+
     /**
      * Indexed getter for property addresses.
      *
@@ -471,26 +574,6 @@ public class ClamAVScan extends GenericMailet {
         this.addresses = addresses;
     }
 
-    /**
-     * Getter for property nextAddress.
-     * <p/>
-     * Gets the address of the next CLAMD server to connect to in this round, using round-robin.
-     * Increments the nextAddressIndex for the next round.
-     *
-     * @return Value of property address.
-     */
-    protected synchronized InetAddress getNextAddress() {
-
-        InetAddress address = getAddresses(nextAddressIndex);
-
-        nextAddressIndex++;
-        if (nextAddressIndex >= getAddressesCount()) {
-            nextAddressIndex = 0;
-        }
-
-        return address;
-    }
-
     /**
      * Getter for property addressesCount.
      *
@@ -501,39 +584,34 @@ public class ClamAVScan extends GenericMailet {
     }
 
     /**
-     * Gets a Socket connected to CLAMD.
+     * Gets the CLAMD daemons in preference order.
      * <p/>
-     * Will loop though the round-robin address list until the first one accepts
-     * the connection.
+     * Healthy daemons come first, the least loaded then the fastest first. Daemons that failed
+     * recently come last, the one that failed the longest ago first.
      *
-     * @return a socket connected to CLAMD
-     * @throws ConnectException if no CLAMD in the round-robin address list has accepted the connection
+     * @return the CLAMD daemons to try, in order
      */
-    protected Socket getClamdSocket() throws ConnectException {
+    private List<ClamdHost> getClamdHostsByPreference() {
+        return clamdHosts.stream()
+            .map(HostLoad::of)
+            .sorted(HostLoad.PREFERENCE)
+            .map(HostLoad::clamdHost)
+            .collect(ImmutableList.toImmutableList());
+    }
 
-        InetAddress address;
+    /**
+     * Snapshot of the load of a CLAMD daemon, so that the sort is not disturbed by concurrent scans.
+     */
+    private record HostLoad(ClamdHost clamdHost, boolean healthy, long nanosSinceFailure, int inFlightScans, double averageLatencyMilli) {
+        static final Comparator<HostLoad> PREFERENCE = Comparator.comparing((HostLoad hostLoad) -> !hostLoad.healthy())
+            .thenComparing(Comparator.comparingLong(HostLoad::nanosSinceFailure).reversed())
+            .thenComparingInt(HostLoad::inFlightScans)
+            .thenComparingDouble(HostLoad::averageLatencyMilli);
 
-        Set<InetAddress> usedAddresses = new HashSet<>(getAddressesCount());
-        for (; ; ) {
-            // this do-while loop is needed because other threads could in the meantime
-            // calling getNextAddress(), and because of that the current thread may skip
-            // some working address
-            do {
-                if (usedAddresses.size() >= getAddressesCount()) {
-                    String logText = "Unable to connect to CLAMD. All addresses failed.";
-                    LOGGER.debug("{} Giving up.", logText);
-                    throw new ConnectException(logText);
-                }
-                address = getNextAddress();
-            } while (!usedAddresses.add(address));
-            try {
-                // get the socket
-                return new Socket(address, getPort());
-            } catch (IOException ioe) {
-                LOGGER.error("Exception caught acquiring main socket to CLAMD on {} on port {}: {}", address, getPort(), ioe.getMessage());
-                getNextAddress();
-                // retry
-            }
+        static HostLoad of(ClamdHost clamdHost) {
+            boolean healthy = clamdHost.isHealthy();
+            long nanosSinceFailure = healthy ? 0 : System.nanoTime() - clamdHost.lastFailureNanos();
+            return new HostLoad(clamdHost, healthy, nanosSinceFailure, clamdHost.inFlightScans(), clamdHost.averageLatencyMilli());
         }
     }
 
@@ -554,6 +632,9 @@ public class ClamAVScan extends GenericMailet {
             initMaxPings();
             initPingIntervalMilli();
             initStreamBufferSize();
+            initMaxConcurrentScansPerHost();
+            initSessionIdleTimeoutMilli();
+            initClamdHosts();
 
             // If "maxPings is > ping the CLAMD server to check if it is up
             if (getMaxPings() > 0) {
@@ -567,6 +648,20 @@ public class ClamAVScan extends GenericMailet {
         }
     }
 
+    private void initClamdHosts() {
+        List<ClamdHost> previousHosts = clamdHosts;
+        clamdHosts = Arrays.stream(getAddresses())
+            .map(address -> new ClamdHost(address, getPort(), getMaxConcurrentScansPerHost(), READ_TIMEOUT_MILLI, getStreamBufferSize(),
+                Duration.ofMillis(getSessionIdleTimeoutMilli()), SESSION_ACQUIRE_TIMEOUT, Duration.ofMillis(getPingIntervalMilli()), metricFactory))
+            .collect(ImmutableList.toImmutableList());
+        previousHosts.forEach(ClamdHost::close);
+    }
+
+    @Override
+    public void destroy() {
+        clamdHosts.forEach(ClamdHost::close);
+    }
+
     /**
      * Scans the mail.
      *
@@ -590,7 +685,7 @@ public class ClamAVScan extends GenericMailet {
         }
 
         try {
-            if (hasVirus(new MimeMessageInputStream(mimeMessage))) {
+            if (hasVirus(mimeMessage)) {
                 AuditTrail.entry()
                     .protocol("mailetcontainer")
                     .action("ClamAVScan")
@@ -630,6 +725,17 @@ public class ClamAVScan extends GenericMailet {
         }
     }
 
+    private boolean hasVirus(MimeMessage mimeMessage) throws IOException {
+        // streams straight from the source of a MimeMessageWrapper, again for each attempt
+        return hasVirus(() -> {
+            try {
+                return new MimeMessageInputStream(mimeMessage);
+            } catch (MessagingException e) {
+                throw new IOException("Unable to read the message to scan", e);
+            }
+        });
+    }
+
     private Attribute makeInfectedAttribute(boolean value) {
         return new Attribute(INFECTED_MAIL_ATTRIBUTE_NAME, AttributeValue.of(value));
     }
@@ -729,30 +835,33 @@ public class ClamAVScan extends GenericMailet {
         }
     }
 
+    /**
+     * Scans the given stream, and closes it.
+     * <p/>
+     * The stream can not be read again: the scan fails if a pooled session breaks while it is being sent.
+     */
     public boolean hasVirus(InputStream mimeMessage) throws IOException {
-        try (Socket socket = getClamdSocket();
-        OutputStream clamAVOutputStream = new BufferedOutputStream(socket.getOutputStream(), getStreamBufferSize());
-        InputStream clamAvInputStream = socket.getInputStream()) {
-            socket.setSoTimeout(2000);
-            clamAVOutputStream.write("zINSTREAM\0".getBytes());
-            clamAVOutputStream.flush();
-
-            byte[] buffer = new byte[getStreamBufferSize()];
-            int read = mimeMessage.read(buffer);
-            while (read >= 0) {
-                byte[] chunkSize = ByteBuffer.allocate(4).putInt(read).array();
-                clamAVOutputStream.write(chunkSize);
-                clamAVOutputStream.write(buffer, 0, read);
-                if (clamAvInputStream.available() > 0) {
-                    byte[] reply = clamAvInputStream.readAllBytes();
-                    throw new IOException("Reply from server: " + new String(reply));
-                }
-                read = mimeMessage.read(buffer);
+        AtomicBoolean opened = new AtomicBoolean(false);
+        return hasVirus(() -> {
+            if (opened.getAndSet(true)) {
+                throw new IOException("The stream to scan was already partially sent and can not be read again");
+            }
+            return mimeMessage;
+        });
+    }
+
+    private boolean hasVirus(ClamdHost.Content content) throws IOException {
+        for (ClamdHost clamdHost : getClamdHostsByPreference()) {
+            try {
+                return replyContainsFound(clamdHost.scan(content));
+            } catch (ConnectException e) {
+                // nothing was sent: retry with the next daemon
+                LOGGER.debug("Unable to open a session to CLAMD on {}, trying the next one", clamdHost.getAddress());
             }
-            clamAVOutputStream.write(new byte[]{0, 0, 0, 0});
-            clamAVOutputStream.flush();
-            return replyContainsFound(new String(clamAvInputStream.readAllBytes()));
         }
+        String logText = "Unable to connect to CLAMD. All addresses failed.";
+        LOGGER.debug("{} Giving up.", logText);
+        throw new ConnectException(logText);
     }
 
     private boolean replyContainsFound(String reply) {
@@ -0,0 +1,238 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.clamav;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.metrics.api.TimeMetric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One CLAMD daemon, with its pool of idle sessions, its in-flight scan limit and its health.
+ * <p/>
+ * Each in-flight scan holds one session, so at most <CODE>maxConcurrentScans</CODE> sessions are ever opened.
+ * After a failure the host is considered unhealthy for <CODE>retryIntervalMilli</CODE>, during which other hosts
+ * are preferred.
+ * <p/>
+ * A pooled session may have been closed by CLAMD in the meantime. A scan failing over a pooled session is thus sent
+ * again over a new session, and only a failure of that new session counts against the health of the host.
+ */
+class ClamdHost {
+    /**
+     * The content to scan. It is opened again when a scan is sent again over a new session.
+     */
+    @FunctionalInterface
+    interface Content {
+        InputStream open() throws IOException;
+    }
+
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClamdHost.class);
+    private static final String METRIC_NAME_PREFIX = "clamav-scan-";
+    private static final double LATENCY_SMOOTHING_FACTOR = 0.2;
+
+    private final InetAddress address;
+    private final int port;
+    private final int maxConcurrentScans;
+    private final int readTimeoutMilli;
+    private final int streamBufferSize;
+    private final long sessionIdleTimeoutNanos;
+    private final long acquireTimeoutNanos;
+    private final long retryIntervalNanos;
+    private final MetricFactory metricFactory;
+    private final String metricName;
+    private final Semaphore inFlightScans;
+    private final Deque<ClamdSession> idleSessions;
+    private final AtomicInteger consecutiveFailures;
+    private volatile long lastFailureNanos;
+    private volatile double averageLatencyMilli;
+
+    ClamdHost(InetAddress address, int port, int maxConcurrentScans, int readTimeoutMilli, int streamBufferSize,
+              Duration sessionIdleTimeout, Duration acquireTimeout, Duration retryInterval, MetricFactory metricFactory) {
+        this.address = address;
+        this.port = port;
+        this.maxConcurrentScans = maxConcurrentScans;
+        this.readTimeoutMilli = readTimeoutMilli;
+        this.streamBufferSize = streamBufferSize;
+        this.sessionIdleTimeoutNanos = sessionIdleTimeout.toNanos();
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        this.retryIntervalNanos = retryInterval.toNanos();
+        this.metricFactory = metricFactory;
+        this.metricName = METRIC_NAME_PREFIX + address.getHostAddress();
+        this.inFlightScans = new Semaphore(maxConcurrentScans, true);
+        this.idleSessions = new ConcurrentLinkedDeque<>();
+        this.consecutiveFailures = new AtomicInteger(0);
+        this.averageLatencyMilli = 0;
+    }
+
+    InetAddress getAddress() {
+        return address;
+    }
+
+    boolean isHealthy() {
+        return consecutiveFailures.get() == 0
+            || System.nanoTime() - lastFailureNanos >= retryIntervalNanos;
+    }
+
+    int inFlightScans() {
+        return maxConcurrentScans - inFlightScans.availablePermits();
+    }
+
+    double averageLatencyMilli() {
+        return averageLatencyMilli;
+    }
+
+    long lastFailureNanos() {
+        return lastFailureNanos;
+    }
+
+    /**
+     * Scans the content over a pooled session, waiting for an in-flight slot if this host is saturated.
+     *
+     * @return the reply of CLAMD, stripped from its request id
+     * @throws ConnectException if no slot got free in time or no session could be opened: the content was not
+     * opened and can be submitted to another host
+     * @throws IOException if the scan itself failed
+     */
+    String scan(Content content) throws IOException {
+        acquireSlot();
+        try {
+            ClamdSession pooledSession = pollIdleSession();
+            if (pooledSession != null) {
+                InputStream stream = open(content, pooledSession);
+                try (stream) {
+                    return scan(pooledSession, stream);
+                } catch (IOException e) {
+                    // most likely closed by CLAMD while idle, which says nothing about the health of this host
+                    LOGGER.debug("Pooled CLAMD session on {} failed, scanning again over a new session", address, e);
+                }
+            }
+            ClamdSession session = openSession();
+            InputStream stream = open(content, session);
+            try (stream) {
+                return scan(session, stream);
+            } catch (IOException e) {
+                recordFailure();
+                throw e;
+            }
+        } finally {
+            inFlightScans.release();
+        }
+    }
+
+    private InputStream open(Content content, ClamdSession session) throws IOException {
+        try {
+            return content.open();
+        } catch (IOException e) {
+            idleSessions.offerFirst(session);
+            throw e;
+        }
+    }
+
+    private String scan(ClamdSession session, InputStream stream) throws IOException {
+        TimeMetric timeMetric = metricFactory.timer(metricName);
+        try {
+            String reply = session.scan(stream);
+            recordSuccess(timeMetric.stopAndPublish().elasped());
+            idleSessions.offerFirst(session);
+            return reply;
+        } catch (IOException e) {
+            timeMetric.stopAndPublish();
+            closeQuietly(session);
+            throw e;
+        }
+    }
+
+    void close() {
+        ClamdSession session = idleSessions.pollFirst();
+        while (session != null) {
+            closeQuietly(session);
+            session = idleSessions.pollFirst();
+        }
+    }
+
+    private void acquireSlot() throws IOException {
+        try {
+            if (!inFlightScans.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new ConnectException("No CLAMD session on " + address + " got free within " + Duration.ofNanos(acquireTimeoutNanos));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a CLAMD session on " + address);
+        }
+    }
+
+    private ClamdSession pollIdleSession() {
+        ClamdSession session = idleSessions.pollFirst();
+        while (session != null) {
+            // CLAMD closes sessions idle for longer than its IdleTimeout
+            if (session.idleNanos() < sessionIdleTimeoutNanos) {
+                return session;
+            }
+            closeQuietly(session);
+            session = idleSessions.pollFirst();
+        }
+        return null;
+    }
+
+    private ClamdSession openSession() throws IOException {
+        try {
+            return ClamdSession.open(address, port, readTimeoutMilli, streamBufferSize);
+        } catch (IOException e) {
+            LOGGER.error("Exception caught acquiring session to CLAMD on {} on port {}: {}", address, port, e.getMessage());
+            recordFailure();
+            ConnectException connectException = new ConnectException("Unable to open a session to CLAMD on " + address + " on port " + port);
+            connectException.initCause(e);
+            throw connectException;
+        }
+    }
+
+    private void recordSuccess(Duration latency) {
+        consecutiveFailures.set(0);
+        double latencyMilli = latency.toNanos() / 1_000_000.0;
+        double previous = averageLatencyMilli;
+        averageLatencyMilli = previous == 0 ? latencyMilli : previous + LATENCY_SMOOTHING_FACTOR * (latencyMilli - previous);
+    }
+
+    private void recordFailure() {
+        lastFailureNanos = System.nanoTime();
+        consecutiveFailures.incrementAndGet();
+    }
+
+    private void closeQuietly(ClamdSession session) {
+        try {
+            session.close();
+        } catch (IOException e) {
+            LOGGER.debug("Exception caught closing CLAMD session on {}", address, e);
+        }
+    }
+}
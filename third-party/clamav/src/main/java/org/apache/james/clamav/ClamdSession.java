@@ -0,0 +1,150 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.clamav;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A connection to CLAMD in <CODE>IDSESSION</CODE> mode, allowing several <CODE>INSTREAM</CODE> scans
+ * to be sent over the same socket.
+ * <p/>
+ * In a session every reply is prefixed by the id of the request it answers ("<CODE>1: stream: OK</CODE>")
+ * and terminated by a NUL character. A session is used by a single scan at a time.
+ */
+class ClamdSession implements Closeable {
+    private static final byte[] IDSESSION_COMMAND = "zIDSESSION\0".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] INSTREAM_COMMAND = "zINSTREAM\0".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] END_COMMAND = "zEND\0".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] END_OF_STREAM = new byte[]{0, 0, 0, 0};
+    private static final int CHUNK_LENGTH_SIZE = 4;
+    private static final int REPLY_TERMINATOR = 0;
+
+    static ClamdSession open(InetAddress address, int port, int readTimeoutMilli, int streamBufferSize) throws IOException {
+        Socket socket = new Socket(address, port);
+        try {
+            socket.setSoTimeout(readTimeoutMilli);
+            // the chunk terminator is a tiny write which Nagle's algorithm would otherwise delay
+            socket.setTcpNoDelay(true);
+            ClamdSession session = new ClamdSession(socket, streamBufferSize);
+            session.out.write(IDSESSION_COMMAND);
+            session.out.flush();
+            return session;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    private final Socket socket;
+    private final OutputStream out;
+    private final InputStream in;
+    /**
+     * Reused for every chunk: the chunk length is written in front of the data read from the message, so that each
+     * chunk is sent with a single write and without any intermediate copy.
+     */
+    private final byte[] chunk;
+    private int lastRequestId;
+    private long lastUsedNanos;
+
+    private ClamdSession(Socket socket, int streamBufferSize) throws IOException {
+        this.socket = socket;
+        this.out = socket.getOutputStream();
+        this.in = socket.getInputStream();
+        this.chunk = new byte[CHUNK_LENGTH_SIZE + streamBufferSize];
+        this.lastRequestId = 0;
+        this.lastUsedNanos = System.nanoTime();
+    }
+
+    /**
+     * Streams the content to CLAMD and waits for its verdict.
+     *
+     * @return the reply of CLAMD, stripped from its request id
+     * @throws IOException if the session is broken or CLAMD rejected the stream. The session should then be closed.
+     */
+    String scan(InputStream content) throws IOException {
+        int requestId = ++lastRequestId;
+        out.write(INSTREAM_COMMAND);
+
+        int read = content.read(chunk, CHUNK_LENGTH_SIZE, chunk.length - CHUNK_LENGTH_SIZE);
+        while (read >= 0) {
+            writeChunkLength(read);
+            out.write(chunk, 0, CHUNK_LENGTH_SIZE + read);
+            if (in.available() > 0) {
+                throw new IOException("Reply from server: " + readReply());
+            }
+            read = content.read(chunk, CHUNK_LENGTH_SIZE, chunk.length - CHUNK_LENGTH_SIZE);
+        }
+        out.write(END_OF_STREAM);
+        out.flush();
+
+        String reply = readReply();
+        lastUsedNanos = System.nanoTime();
+        return stripRequestId(requestId, reply);
+    }
+
+    long idleNanos() {
+        return System.nanoTime() - lastUsedNanos;
+    }
+
+    private void writeChunkLength(int length) {
+        chunk[0] = (byte) (length >>> 24);
+        chunk[1] = (byte) (length >>> 16);
+        chunk[2] = (byte) (length >>> 8);
+        chunk[3] = (byte) length;
+    }
+
+    private String readReply() throws IOException {
+        ByteArrayOutputStream reply = new ByteArrayOutputStream();
+        int b = in.read();
+        while (b != REPLY_TERMINATOR) {
+            if (b < 0) {
+                throw new IOException("CLAMD closed the session" + (reply.size() > 0 ? ": " + reply.toString(StandardCharsets.US_ASCII) : ""));
+            }
+            reply.write(b);
+            b = in.read();
+        }
+        return reply.toString(StandardCharsets.US_ASCII);
+    }
+
+    private String stripRequestId(int requestId, String reply) throws IOException {
+        String prefix = requestId + ": ";
+        if (!reply.startsWith(prefix)) {
+            throw new IOException("Unexpected reply from server for request " + requestId + ": " + reply);
+        }
+        return reply.substring(prefix.length());
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            out.write(END_COMMAND);
+            out.flush();
+        } finally {
+            socket.close();
+        }
+    }
+}
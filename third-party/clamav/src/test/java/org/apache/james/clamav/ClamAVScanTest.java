@@ -28,6 +28,7 @@ import java.io.InputStream;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 
+import org.apache.james.metrics.tests.RecordingMetricFactory;
 import org.apache.james.server.core.MimeMessageInputStream;
 import org.apache.james.util.MimeMessageUtil;
 import org.apache.mailet.Mail;
@@ -41,11 +42,13 @@ import org.junit.jupiter.api.Test;
 class ClamAVScanTest {
     private static final DockerClamAV dockerClamAV = new DockerClamAV();
 
+    private RecordingMetricFactory metricFactory;
     private ClamAVScan clamAVScan;
 
     @BeforeEach
     public void setUp() throws MessagingException {
-        clamAVScan = new ClamAVScan();
+        metricFactory = new RecordingMetricFactory();
+        clamAVScan = new ClamAVScan(metricFactory);
         FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
             .mailetName("Test")
             .setProperty("host", "localhost")
@@ -139,6 +142,17 @@ class ClamAVScanTest {
         assertThat(nonVirusMail.getMessage().getHeader(INFECTED_HEADER_NAME)[0]).isEqualTo("false");
     }
 
+    @Test
+    void hasVirusShouldRecordScanLatencyPerHost() throws Exception {
+        MimeMessage mimeMessage = MimeMessageUtil.mimeMessageFromStream(
+            ClassLoader.getSystemResourceAsStream("attachment/inlineNonVirusTextAttachment.eml"));
+
+        clamAVScan.hasVirus(new MimeMessageInputStream(mimeMessage));
+        clamAVScan.hasVirus(new MimeMessageInputStream(mimeMessage));
+
+        assertThat(metricFactory.executionTimesForPrefixName("clamav-scan-").values()).hasSize(2);
+    }
+
     @Test
     void mailetShouldNotMarkHeaderAndMailAttributeAndJustLogErrorWhenCanNotConnectToClamAV() throws Exception {
         MimeMessage mimeMessage = MimeMessageUtil.mimeMessageFromStream(
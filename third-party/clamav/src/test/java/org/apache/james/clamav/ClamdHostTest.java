@@ -0,0 +1,181 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.clamav;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.fge.lambdas.Throwing;
+
+class ClamdHostTest {
+    private static final int READ_TIMEOUT_MILLI = 2000;
+    private static final int STREAM_BUFFER_SIZE = 16;
+    private static final Duration SESSION_IDLE_TIMEOUT = Duration.ofSeconds(20);
+    private static final Duration ACQUIRE_TIMEOUT = Duration.ofMillis(200);
+    private static final Duration RETRY_INTERVAL = Duration.ofSeconds(10);
+    private static final String CLEAN_CONTENT = "Subject: hello\r\n\r\nA clean message, spanning several chunks\r\n";
+    private static final String INFECTED_CONTENT = "Subject: hello\r\n\r\n" + FakeClamd.VIRUS_SIGNATURE + "\r\n";
+
+    private FakeClamd fakeClamd;
+    private AtomicInteger openedContents;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        fakeClamd = new FakeClamd();
+        openedContents = new AtomicInteger(0);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        fakeClamd.close();
+    }
+
+    @Test
+    void scanShouldReturnTheVerdict() throws Exception {
+        ClamdHost clamdHost = clamdHost(1);
+
+        assertThat(clamdHost.scan(content(CLEAN_CONTENT))).isEqualTo("stream: OK");
+        assertThat(clamdHost.scan(content(INFECTED_CONTENT))).endsWith("FOUND");
+    }
+
+    @Test
+    void scanShouldReuseTheSession() throws Exception {
+        ClamdHost clamdHost = clamdHost(1);
+
+        clamdHost.scan(content(CLEAN_CONTENT));
+        clamdHost.scan(content(CLEAN_CONTENT));
+        clamdHost.scan(content(CLEAN_CONTENT));
+
+        assertThat(fakeClamd.openedSessions()).isEqualTo(1);
+    }
+
+    @Test
+    void scanShouldScanAgainOverANewSessionWhenThePooledOneWasClosed() throws Exception {
+        ClamdHost clamdHost = clamdHost(1);
+        clamdHost.scan(content(CLEAN_CONTENT));
+
+        fakeClamd.closeSessions();
+
+        assertThat(clamdHost.scan(content(INFECTED_CONTENT))).endsWith("FOUND");
+        assertThat(fakeClamd.openedSessions()).isEqualTo(2);
+        assertThat(openedContents.get()).isEqualTo(3);
+    }
+
+    @Test
+    void scanShouldNotMarkTheHostUnhealthyWhenThePooledSessionWasClosed() throws Exception {
+        ClamdHost clamdHost = clamdHost(1);
+        clamdHost.scan(content(CLEAN_CONTENT));
+
+        fakeClamd.closeSessions();
+        clamdHost.scan(content(CLEAN_CONTENT));
+
+        assertThat(clamdHost.isHealthy()).isTrue();
+    }
+
+    @Test
+    void scanShouldMarkTheHostUnhealthyWhenANewSessionFails() throws Exception {
+        ClamdHost clamdHost = clamdHost(1);
+
+        fakeClamd.failScans();
+
+        assertThatThrownBy(() -> clamdHost.scan(content(CLEAN_CONTENT)))
+            .isInstanceOf(IOException.class);
+        assertThat(clamdHost.isHealthy()).isFalse();
+    }
+
+    @Test
+    void scanShouldNotOpenTheContentWhenNoSessionCanBeOpened() throws Exception {
+        ClamdHost clamdHost = clamdHost(1);
+
+        fakeClamd.close();
+
+        assertThatThrownBy(() -> clamdHost.scan(content(CLEAN_CONTENT)))
+            .isInstanceOf(ConnectException.class);
+        assertThat(openedContents.get()).isZero();
+    }
+
+    @Test
+    void scanShouldGiveUpWhenNoSessionGetsFreeInTime() throws Exception {
+        ClamdHost clamdHost = clamdHost(1);
+        CountDownLatch scanStarted = new CountDownLatch(1);
+        CountDownLatch releaseScan = new CountDownLatch(1);
+        CompletableFuture<String> blockedScan = CompletableFuture.supplyAsync(Throwing.supplier(() -> clamdHost.scan(() -> {
+            scanStarted.countDown();
+            return blockingContent(releaseScan);
+        })).sneakyThrow());
+        scanStarted.await(READ_TIMEOUT_MILLI, TimeUnit.MILLISECONDS);
+
+        assertThatThrownBy(() -> clamdHost.scan(content(CLEAN_CONTENT)))
+            .isInstanceOf(ConnectException.class);
+        assertThat(clamdHost.isHealthy()).isTrue();
+
+        releaseScan.countDown();
+        assertThat(blockedScan.get(READ_TIMEOUT_MILLI, TimeUnit.MILLISECONDS)).isEqualTo("stream: OK");
+    }
+
+    private ClamdHost clamdHost(int maxConcurrentScans) {
+        return new ClamdHost(fakeClamd.getAddress(), fakeClamd.getPort(), maxConcurrentScans, READ_TIMEOUT_MILLI,
+            STREAM_BUFFER_SIZE, SESSION_IDLE_TIMEOUT, ACQUIRE_TIMEOUT, RETRY_INTERVAL, new RecordingMetricFactory());
+    }
+
+    private ClamdHost.Content content(String content) {
+        return () -> {
+            openedContents.incrementAndGet();
+            return new ByteArrayInputStream(content.getBytes(StandardCharsets.US_ASCII));
+        };
+    }
+
+    private InputStream blockingContent(CountDownLatch release) {
+        return new InputStream() {
+            @Override
+            public int read() throws IOException {
+                byte[] b = new byte[1];
+                return read(b, 0, 1) < 0 ? -1 : b[0];
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+                return -1;
+            }
+        };
+    }
+}
@@ -0,0 +1,152 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.clamav;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal CLAMD answering <CODE>INSTREAM</CODE> scans in <CODE>IDSESSION</CODE> mode.
+ * <p/>
+ * Streams containing {@link #VIRUS_SIGNATURE} are reported as infected.
+ */
+class FakeClamd implements AutoCloseable {
+    static final String VIRUS_SIGNATURE = "FAKE-VIRUS-SIGNATURE";
+
+    private final ServerSocket serverSocket;
+    private final Set<Socket> sessions;
+    private final AtomicInteger openedSessions;
+    private volatile boolean failScans;
+
+    FakeClamd() throws IOException {
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        this.sessions = ConcurrentHashMap.newKeySet();
+        this.openedSessions = new AtomicInteger(0);
+        this.failScans = false;
+        Thread acceptor = new Thread(this::accept, "fake-clamd");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    InetAddress getAddress() {
+        return serverSocket.getInetAddress();
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    int openedSessions() {
+        return openedSessions.get();
+    }
+
+    /**
+     * Closes every open session, as CLAMD does once they are idle for longer than its <CODE>IdleTimeout</CODE>.
+     */
+    void closeSessions() throws IOException {
+        for (Socket session : sessions) {
+            session.close();
+        }
+    }
+
+    /**
+     * Makes CLAMD close the session instead of answering scans.
+     */
+    void failScans() {
+        failScans = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        closeSessions();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket session = serverSocket.accept();
+                openedSessions.incrementAndGet();
+                sessions.add(session);
+                Thread handler = new Thread(() -> serve(session), "fake-clamd-session");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                // server socket closed
+            }
+        }
+    }
+
+    private void serve(Socket session) {
+        try (session) {
+            DataInputStream in = new DataInputStream(session.getInputStream());
+            OutputStream out = session.getOutputStream();
+            if (!readCommand(in).equals("zIDSESSION")) {
+                return;
+            }
+            int requestId = 0;
+            while (readCommand(in).equals("zINSTREAM")) {
+                requestId++;
+                String content = readStream(in);
+                if (failScans) {
+                    return;
+                }
+                String verdict = content.contains(VIRUS_SIGNATURE) ? "stream: Fake-Virus FOUND" : "stream: OK";
+                out.write((requestId + ": " + verdict + "\0").getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+            }
+        } catch (IOException e) {
+            // session closed
+        } finally {
+            sessions.remove(session);
+        }
+    }
+
+    private String readCommand(DataInputStream in) throws IOException {
+        ByteArrayOutputStream command = new ByteArrayOutputStream();
+        int b = in.read();
+        while (b > 0) {
+            command.write(b);
+            b = in.read();
+        }
+        return command.toString(StandardCharsets.US_ASCII);
+    }
+
+    private String readStream(DataInputStream in) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        int length = in.readInt();
+        while (length > 0) {
+            byte[] chunk = new byte[length];
+            in.readFully(chunk);
+            content.write(chunk);
+            length = in.readInt();
+        }
+        return content.toString(StandardCharsets.US_ASCII);
+    }
+}
@@ -19,8 +19,10 @@
 
 package org.apache.james.rspamd;
 
+import static org.apache.james.rspamd.client.RspamdClientConfiguration.DEFAULT_MAX_CONCURRENCY;
 
 import java.nio.ByteBuffer;
+import java.util.function.Function;
 
 import jakarta.inject.Inject;
 
@@ -46,7 +48,6 @@ import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 import org.apache.james.rspamd.client.RspamdClientConfiguration;
 import org.apache.james.rspamd.client.RspamdHttpClient;
 import org.apache.james.util.FunctionalUtils;
-import org.apache.james.util.ReactorUtils;
 import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -86,6 +87,7 @@ public class RspamdListener implements SpamEventListener, EventListener.Reactive
     private final MailboxSessionMapperFactory mapperFactory;
     private final SystemMailboxesProvider systemMailboxesProvider;
     private final RspamdListenerConfiguration rspamdListenerConfiguration;
+    private final int learnBatchSize;
 
     public RspamdListener(RspamdHttpClient rspamdHttpClient, MailboxManager mailboxManager, MailboxSessionMapperFactory mapperFactory, 
                           SystemMailboxesProvider systemMailboxesProvider, RspamdClientConfiguration configuration, RspamdListenerConfiguration rspamdListenerConfiguration) {
@@ -95,6 +97,7 @@ public class RspamdListener implements SpamEventListener, EventListener.Reactive
         this.mapperFactory = mapperFactory;
         this.systemMailboxesProvider = systemMailboxesProvider;
         this.rspamdListenerConfiguration = rspamdListenerConfiguration;
+        this.learnBatchSize = configuration.getMaxConcurrency().orElse(DEFAULT_MAX_CONCURRENCY);
     }
 
     @Inject
@@ -106,6 +109,7 @@ public class RspamdListener implements SpamEventListener, EventListener.Reactive
         this.mapperFactory = mapperFactory;
         this.systemMailboxesProvider = systemMailboxesProvider;
         this.rspamdListenerConfiguration = RspamdListenerConfiguration.from(rspamdListenerConfiguration);
+        this.learnBatchSize = configuration.getMaxConcurrency().orElse(DEFAULT_MAX_CONCURRENCY);
     }
 
     @Override
@@ -129,38 +133,34 @@ public class RspamdListener implements SpamEventListener, EventListener.Reactive
     }
 
     private Mono<Void> handleMessageAdded(MailboxEvents.Added addedEvent) {
-        MailboxSession mailboxSession = mailboxManager.createSystemSession(Username.of(getClass().getCanonicalName()));
         return isAppendedToInbox(addedEvent)
             .filter(FunctionalUtils.identityPredicate())
             .doOnNext(isHam -> LOGGER.debug("Ham event detected, EventId = {}", addedEvent.getEventId().getId()))
-            .flatMap(any -> reportHamWhenAdded(addedEvent, mailboxSession))
-            .then(Mono.fromRunnable(() -> mailboxManager.endProcessingRequest(mailboxSession)));
-    }
-
-    private Mono<Void> handleMessageMoved(MessageMoveEvent messageMoveEvent) {
-        return handleMessageMoved(mailboxMessagePublisher(messageMoveEvent), messageMoveEvent);
+            .flatMap(any -> withSystemSession(session -> reportHamWhenAdded(addedEvent, session)));
     }
 
     private Mono<Void> reportHamWhenAdded(MailboxEvents.Added addedEvent, MailboxSession session) {
-        return mapperFactory.getMailboxMapper(session)
+        return learnByBatches(mapperFactory.getMailboxMapper(session)
             .findMailboxById(addedEvent.getMailboxId())
             .map(mailbox -> Pair.of(mailbox, mapperFactory.getMessageMapper(session)))
             .flatMapMany(pair -> Flux.fromIterable(MessageRange.toRanges(addedEvent.getUids()))
                 .flatMap(range -> pair.getRight().findInMailboxReactive(pair.getLeft(), range, MessageMapper.FetchType.FULL, LIMIT)))
-            .map(MailboxMessage::getFullContentReactive)
-            .flatMap(content -> reportHam(content, addedEvent), ReactorUtils.DEFAULT_CONCURRENCY)
-            .then();
+            .map(MailboxMessage::getFullContentReactive),
+            content -> reportHam(content, addedEvent));
     }
 
-    private Flux<ByteBuffer> mailboxMessagePublisher(MessageMoveEvent messageMoveEvent) {
-        MailboxSession mailboxSession = mailboxManager.createSystemSession(Username.of(getClass().getCanonicalName()));
+    /**
+     * One content publisher per moved message: each message is learnt by its own request, its content being streamed
+     * from the message source.
+     */
+    private Flux<Publisher<ByteBuffer>> mailboxMessagesPublisher(MessageMoveEvent messageMoveEvent, MailboxSession mailboxSession) {
         return Mono.fromCallable(() -> mapperFactory.getMessageIdMapper(mailboxSession))
             .flatMapMany(messageIdMapper -> messageIdMapper.findReactive(messageMoveEvent.getMessageIds(), MessageMapper.FetchType.FULL))
-            .flatMap(MailboxMessage::getFullContentReactive)
-            .doFinally(any -> mailboxManager.endProcessingRequest(mailboxSession));
+            .distinct(MailboxMessage::getMessageId)
+            .map(MailboxMessage::getFullContentReactive);
     }
 
-    private Mono<Void> handleMessageMoved(Flux<ByteBuffer> mailboxMessagesPublisher, MessageMoveEvent messageMoveEvent) {
+    private Mono<Void> handleMessageMoved(MessageMoveEvent messageMoveEvent) {
         Mono<Boolean> reportHamIfNotSpamDetected = isMessageMovedOutOfSpamMailbox(messageMoveEvent)
             .filter(FunctionalUtils.identityPredicate())
             .doOnNext(isHam -> LOGGER.debug("Ham event detected, EventId = {}", messageMoveEvent.getEventId().getId()));
@@ -169,29 +169,53 @@ public class RspamdListener implements SpamEventListener, EventListener.Reactive
             .flatMap(isSpam -> {
                 if (isSpam) {
                     LOGGER.debug("Spam event detected, EventId = {}", messageMoveEvent.getEventId().getId());
-                    return reportSpam(mailboxMessagesPublisher, messageMoveEvent)
-                        .then();
+                    return withSystemSession(session -> learnByBatches(mailboxMessagesPublisher(messageMoveEvent, session),
+                        content -> reportSpam(content, messageMoveEvent)));
                 } else {
                     return reportHamIfNotSpamDetected
-                        .flatMapMany(isHam -> reportHam(mailboxMessagesPublisher, messageMoveEvent))
-                        .then();
+                        .flatMap(isHam -> withSystemSession(session -> learnByBatches(mailboxMessagesPublisher(messageMoveEvent, session),
+                            content -> reportHam(content, messageMoveEvent))));
                 }
             });
     }
 
-    private Mono<Void> reportHam(Publisher<ByteBuffer> content, Event messageMoveEvent) {
+    /**
+     * The session is only ended once the learn requests completed, as they stream the message contents.
+     */
+    private Mono<Void> withSystemSession(Function<MailboxSession, Mono<Void>> action) {
+        return Mono.usingWhen(
+            Mono.fromCallable(() -> mailboxManager.createSystemSession(Username.of(getClass().getCanonicalName()))),
+            action,
+            session -> Mono.fromRunnable(() -> mailboxManager.endProcessingRequest(session)));
+    }
+
+    /**
+     * Rspamd learns a single message per request. Messages are learnt by batches as large as the connection pool of
+     * the client, the next batch being requested once the previous one is learnt: this propagates backpressure to the
+     * message lookups.
+     */
+    private Mono<Void> learnByBatches(Flux<Publisher<ByteBuffer>> contents, Function<Publisher<ByteBuffer>, Mono<Void>> learn) {
+        return contents
+            .buffer(learnBatchSize)
+            .concatMap(batch -> Flux.fromIterable(batch)
+                .flatMap(learn, batch.size())
+                .then())
+            .then();
+    }
+
+    private Mono<Void> reportHam(Publisher<ByteBuffer> content, Event event) {
         if (configuration.usePerUserBayes()) {
-            return rspamdHttpClient.reportAsHam(content, RspamdHttpClient.Options.forUser(messageMoveEvent.getUsername()));
+            return rspamdHttpClient.reportAsHam(content, RspamdHttpClient.Options.forUser(event.getUsername()));
         } else {
             return rspamdHttpClient.reportAsHam(content);
         }
     }
 
-    private Mono<Void> reportSpam(Flux<ByteBuffer> mailboxMessagesPublisher, MessageMoveEvent messageMoveEvent) {
+    private Mono<Void> reportSpam(Publisher<ByteBuffer> content, Event event) {
         if (configuration.usePerUserBayes()) {
-            return rspamdHttpClient.reportAsSpam(mailboxMessagesPublisher, RspamdHttpClient.Options.forUser(messageMoveEvent.getUsername()));
+            return rspamdHttpClient.reportAsSpam(content, RspamdHttpClient.Options.forUser(event.getUsername()));
         } else {
-            return rspamdHttpClient.reportAsSpam(mailboxMessagesPublisher);
+            return rspamdHttpClient.reportAsSpam(content);
         }
     }
 
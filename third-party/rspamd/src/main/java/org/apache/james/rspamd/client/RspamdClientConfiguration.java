@@ -30,6 +30,7 @@ import com.google.common.base.Preconditions;
 
 public class RspamdClientConfiguration {
     public static final Integer DEFAULT_TIMEOUT_IN_SECONDS = 15;
+    public static final Integer DEFAULT_MAX_CONCURRENCY = 16;
 
     public static RspamdClientConfiguration from(Configuration config) {
         URL rspamdUrl = Optional.ofNullable(config.getString("rspamdUrl", null))
@@ -43,15 +44,22 @@ public class RspamdClientConfiguration {
                 return i;
             });
 
+        Optional<Integer> rspamdMaxConcurrency = Optional.ofNullable(config.getInteger("rspamdMaxConcurrency", null))
+            .map(i -> {
+                Preconditions.checkArgument(i > 0, "rspamdMaxConcurrency should be positive number");
+                return i;
+            });
+
         String rspamdPassword = config.getString("rspamdPassword", "");
         boolean perUserBayes = config.getBoolean("perUserBayes", false);
-        return new RspamdClientConfiguration(rspamdUrl, rspamdPassword, rspamdTimeoutConfigure, perUserBayes);
+        return new RspamdClientConfiguration(rspamdUrl, rspamdPassword, rspamdTimeoutConfigure, perUserBayes, rspamdMaxConcurrency);
     }
 
     private final URL url;
     private final String password;
     private final Optional<Integer> timeout;
     private final boolean perUserBayes;
+    private final Optional<Integer> maxConcurrency;
 
     @VisibleForTesting
     public RspamdClientConfiguration(URL url, String password, Optional<Integer> timeout) {
@@ -59,13 +67,19 @@ public class RspamdClientConfiguration {
         this.password = password;
         this.timeout = timeout;
         this.perUserBayes = false;
+        this.maxConcurrency = Optional.empty();
     }
 
     public RspamdClientConfiguration(URL url, String password, Optional<Integer> timeout, boolean perUserBayes) {
+        this(url, password, timeout, perUserBayes, Optional.empty());
+    }
+
+    public RspamdClientConfiguration(URL url, String password, Optional<Integer> timeout, boolean perUserBayes, Optional<Integer> maxConcurrency) {
         this.url = url;
         this.password = password;
         this.timeout = timeout;
         this.perUserBayes = perUserBayes;
+        this.maxConcurrency = maxConcurrency;
     }
 
     public URL getUrl() {
@@ -80,6 +94,14 @@ public class RspamdClientConfiguration {
         return timeout;
     }
 
+    /**
+     * Maximum number of requests in flight to Rspamd, hence of open connections. Further requests wait for a
+     * connection to be released.
+     */
+    public Optional<Integer> getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
     public boolean usePerUserBayes() {
         return perUserBayes;
     }
@@ -19,6 +19,7 @@
 
 package org.apache.james.rspamd.client;
 
+import static org.apache.james.rspamd.client.RspamdClientConfiguration.DEFAULT_MAX_CONCURRENCY;
 import static org.apache.james.rspamd.client.RspamdClientConfiguration.DEFAULT_TIMEOUT_IN_SECONDS;
 
 import java.nio.ByteBuffer;
@@ -26,6 +27,7 @@ import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Optional;
 
+import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
 import jakarta.mail.MessagingException;
 
@@ -55,6 +57,7 @@ import reactor.core.publisher.Mono;
 import reactor.netty.ByteBufMono;
 import reactor.netty.http.client.HttpClient;
 import reactor.netty.http.client.HttpClientResponse;
+import reactor.netty.resources.ConnectionProvider;
 
 public class RspamdHttpClient {
     private static final Logger LOGGER = LoggerFactory.getLogger(RspamdHttpClient.class);
@@ -110,15 +113,23 @@ public class RspamdHttpClient {
     private static final int UNAUTHORIZED = 401;
     private static final int BUFFER_SIZE = 16384;
 
+    private final ConnectionProvider connectionProvider;
     private final HttpClient httpClient;
     private final ObjectMapper objectMapper;
 
     @Inject
     public RspamdHttpClient(RspamdClientConfiguration configuration) {
-        httpClient = buildReactorNettyHttpClient(configuration);
+        Duration timeout = Duration.ofSeconds(configuration.getTimeout().orElse(DEFAULT_TIMEOUT_IN_SECONDS));
+        this.connectionProvider = buildConnectionProvider(configuration, timeout);
+        this.httpClient = buildReactorNettyHttpClient(configuration, connectionProvider, timeout);
         this.objectMapper = new ObjectMapper().registerModule(new Jdk8Module());
     }
 
+    @PreDestroy
+    public void close() {
+        connectionProvider.dispose();
+    }
+
     public Mono<HttpClientResponse> ping() {
         return httpClient.get()
             .uri(PING_ENDPOINT)
@@ -198,14 +209,24 @@ public class RspamdHttpClient {
             .ifPresent(cipher -> headers.add("TLS-Cipher", cipher));
     }
 
-    private HttpClient buildReactorNettyHttpClient(RspamdClientConfiguration configuration) {
-        return HttpClient.create()
+    private HttpClient buildReactorNettyHttpClient(RspamdClientConfiguration configuration, ConnectionProvider connectionProvider, Duration timeout) {
+        return HttpClient.create(connectionProvider)
             .disableRetry(true)
-            .responseTimeout(Duration.ofSeconds(configuration.getTimeout().orElse(DEFAULT_TIMEOUT_IN_SECONDS)))
+            .responseTimeout(timeout)
             .baseUrl(configuration.getUrl().toString())
             .headers(headers -> headers.add("Password", configuration.getPassword()));
     }
 
+    // Rspamd only speaks HTTP/1.1: keep-alive connections are reused, and their count bounds the requests in flight.
+    // Requests beyond it are queued until a connection is released, which propagates backpressure to the callers.
+    private ConnectionProvider buildConnectionProvider(RspamdClientConfiguration configuration, Duration timeout) {
+        return ConnectionProvider.builder(RspamdHttpClient.class.getName())
+            .maxConnections(configuration.getMaxConcurrency().orElse(DEFAULT_MAX_CONCURRENCY))
+            .pendingAcquireMaxCount(-1)
+            .pendingAcquireTimeout(timeout)
+            .build();
+    }
+
     private Mono<Void> reportMail(Publisher<ByteBuffer> content, String endpoint, Options options) {
         return options.decorate(httpClient)
             .post()
@@ -28,19 +28,19 @@ import org.apache.james.utils.PropertiesProvider;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
+import com.google.inject.Scopes;
 import com.google.inject.Singleton;
 
 public class RspamdModule extends AbstractModule {
+    @Override
+    protected void configure() {
+        // Bound to its class, rather than provided, for its @PreDestroy method to release its connections
+        bind(RspamdHttpClient.class).in(Scopes.SINGLETON);
+    }
 
     @Provides
     @Singleton
     public RspamdClientConfiguration rspamdClientConfiguration(PropertiesProvider propertiesProvider) throws ConfigurationException, FileNotFoundException {
         return RspamdClientConfiguration.from(propertiesProvider.getConfiguration("rspamd"));
     }
-
-    @Provides
-    @Singleton
-    public RspamdHttpClient rspamdHttpClient(RspamdClientConfiguration rspamdClientConfiguration) {
-        return new RspamdHttpClient(rspamdClientConfiguration);
-    }
 }
@@ -24,14 +24,21 @@ import static org.apache.james.mailbox.events.MailboxEvents.Added.IS_APPENDED;
 import static org.apache.james.mailbox.events.MailboxEvents.Added.IS_DELIVERY;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import jakarta.mail.Flags;
 
@@ -64,7 +71,9 @@ import org.apache.james.rspamd.client.RspamdClientConfiguration;
 import org.apache.james.rspamd.client.RspamdHttpClient;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class RspamdListenerTest {
@@ -72,7 +81,7 @@ public class RspamdListenerTest {
     static final MailboxSession MAILBOX_SESSION = MailboxSessionUtil.create(USER);
     static final UidValidity UID_VALIDITY = UidValidity.of(43);
     static final TestMessageId MESSAGE_ID = TestMessageId.of(45);
-    static final ThreadId THREAD_ID = ThreadId.fromBaseMessageId(MESSAGE_ID);
+    static final TestMessageId OTHER_MESSAGE_ID = TestMessageId.of(46);
 
     private RspamdHttpClient rspamdHttpClient;
     private RspamdListener listener;
@@ -269,6 +278,81 @@ public class RspamdListenerTest {
         verify(rspamdHttpClient, never()).reportAsSpam(any(), any());
     }
 
+    @Test
+    void eventShouldLearnEachMovedMessageSeparately() throws Exception {
+        createMessage(inbox);
+        createMessage(inbox, OTHER_MESSAGE_ID);
+        MessageMoveEvent messageMoveEvent = MessageMoveEvent.builder()
+            .session(MAILBOX_SESSION)
+            .messageMoves(MessageMoves.builder()
+                .previousMailboxIds(mailboxId1)
+                .targetMailboxIds(spamMailboxId)
+                .build())
+            .messageId(MESSAGE_ID)
+            .messageId(OTHER_MESSAGE_ID)
+            .build();
+
+        listener.event(messageMoveEvent);
+
+        verify(rspamdHttpClient, times(2)).reportAsSpam(any(), any());
+    }
+
+    @Test
+    void eventShouldLearnMovedMessagesByBatchesOfTheConnectionPoolSize() throws Exception {
+        RspamdClientConfiguration configuration = mock(RspamdClientConfiguration.class);
+        when(configuration.usePerUserBayes()).thenReturn(true);
+        when(configuration.getMaxConcurrency()).thenReturn(Optional.of(1));
+        listener = new RspamdListener(rspamdHttpClient, mailboxManager, mapperFactory, systemMailboxesProvider, configuration,
+            RspamdListener.RspamdListenerConfiguration.DEFAULT);
+        AtomicInteger inFlight = new AtomicInteger(0);
+        AtomicInteger maxInFlight = new AtomicInteger(0);
+        when(rspamdHttpClient.reportAsSpam(any(), any())).thenAnswer(invocation -> Mono.fromRunnable(() -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+            .then(Mono.delay(Duration.ofMillis(50)))
+            .then(Mono.fromRunnable(inFlight::decrementAndGet)));
+        createMessage(inbox);
+        createMessage(inbox, OTHER_MESSAGE_ID);
+        MessageMoveEvent messageMoveEvent = MessageMoveEvent.builder()
+            .session(MAILBOX_SESSION)
+            .messageMoves(MessageMoves.builder()
+                .previousMailboxIds(mailboxId1)
+                .targetMailboxIds(spamMailboxId)
+                .build())
+            .messageId(MESSAGE_ID)
+            .messageId(OTHER_MESSAGE_ID)
+            .build();
+
+        listener.event(messageMoveEvent);
+
+        verify(rspamdHttpClient, times(2)).reportAsSpam(any(), any());
+        assertThat(maxInFlight.get()).isEqualTo(1);
+    }
+
+    @Test
+    void eventShouldEndTheSessionOnlyOnceMovedMessagesAreLearnt() throws Exception {
+        AtomicBoolean sessionEnded = new AtomicBoolean(false);
+        AtomicBoolean sessionEndedWhileLearning = new AtomicBoolean(false);
+        doAnswer(invocation -> {
+            sessionEnded.set(true);
+            return invocation.callRealMethod();
+        }).when(mailboxManager).endProcessingRequest(any());
+        when(rspamdHttpClient.reportAsSpam(any(), any())).thenAnswer(invocation -> Flux.from(invocation.<Publisher<ByteBuffer>>getArgument(0))
+            .then(Mono.fromRunnable(() -> sessionEndedWhileLearning.set(sessionEnded.get()))));
+        createMessage(inbox);
+        MessageMoveEvent messageMoveEvent = MessageMoveEvent.builder()
+            .session(MAILBOX_SESSION)
+            .messageMoves(MessageMoves.builder()
+                .previousMailboxIds(mailboxId1)
+                .targetMailboxIds(spamMailboxId)
+                .build())
+            .messageId(MESSAGE_ID)
+            .build();
+
+        listener.event(messageMoveEvent);
+
+        assertThat(sessionEndedWhileLearning.get()).isFalse();
+        assertThat(sessionEnded.get()).isTrue();
+    }
+
     @Test
     void eventShouldCallHamLearningWhenTheMovedEventMatches() throws Exception {
         createMessage(inbox);
@@ -355,10 +439,14 @@ public class RspamdListenerTest {
     }
 
     private SimpleMailboxMessage createMessage(Mailbox mailbox) throws MailboxException {
+        return createMessage(mailbox, MESSAGE_ID);
+    }
+
+    private SimpleMailboxMessage createMessage(Mailbox mailbox, TestMessageId messageId) throws MailboxException {
         int size = 45;
         int bodyStartOctet = 25;
         byte[] content = "Subject: test\r\n\r\nBody\r\n".getBytes(StandardCharsets.UTF_8);
-        SimpleMailboxMessage message = new SimpleMailboxMessage(MESSAGE_ID, THREAD_ID, new Date(),
+        SimpleMailboxMessage message = new SimpleMailboxMessage(messageId, ThreadId.fromBaseMessageId(messageId), new Date(),
             size, bodyStartOctet, new ByteContent(content), new Flags(), new PropertyBuilder().build(),
             mailbox.getMailboxId());
         MessageMetaData messageMetaData = mapperFactory.createMessageMapper(null).add(mailbox, message);
@@ -29,6 +29,8 @@ import static org.hamcrest.core.Is.is;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import jakarta.mail.MessagingException;
@@ -46,6 +48,7 @@ import org.apache.mailet.Mail;
 import org.apache.mailet.base.test.FakeMail;
 import org.assertj.core.api.SoftAssertions;
 import org.eclipse.jetty.http.HttpStatus;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -71,6 +74,7 @@ class RspamdHttpClientTest {
     private Mail hamMessage;
     private Mail virusMessage;
     private Mail nonVirusMessage;
+    private final List<RspamdHttpClient> clients = new ArrayList<>();
 
     @BeforeEach
     void setup() throws MessagingException {
@@ -99,7 +103,7 @@ class RspamdHttpClientTest {
     @Test
     void checkMailWithWrongPasswordShouldThrowUnauthorizedException() {
         RspamdClientConfiguration configuration = new RspamdClientConfiguration(rspamdExtension.getBaseUrl(), "wrongPassword", Optional.empty());
-        RspamdHttpClient client = new RspamdHttpClient(configuration);
+        RspamdHttpClient client = client(configuration);
 
         assertThatThrownBy(() -> client.checkV2(spamMessage).block())
             .hasMessage("{\"error\":\"Unauthorized\"}")
@@ -109,7 +113,7 @@ class RspamdHttpClientTest {
     @Test
     void learnSpamWithWrongPasswordShouldThrowUnauthorizedException() {
         RspamdClientConfiguration configuration = new RspamdClientConfiguration(rspamdExtension.getBaseUrl(), "wrongPassword", Optional.empty());
-        RspamdHttpClient client = new RspamdHttpClient(configuration);
+        RspamdHttpClient client = client(configuration);
 
 
         assertThatThrownBy(() -> reportAsSpam(client, spamMessage.getMessage().getInputStream()))
@@ -120,7 +124,7 @@ class RspamdHttpClientTest {
     @Test
     void learnHamWithWrongPasswordShouldThrowUnauthorizedException() {
         RspamdClientConfiguration configuration = new RspamdClientConfiguration(rspamdExtension.getBaseUrl(), "wrongPassword", Optional.empty());
-        RspamdHttpClient client = new RspamdHttpClient(configuration);
+        RspamdHttpClient client = client(configuration);
 
         assertThatThrownBy(() -> reportAsHam(client, spamMessage.getMessage().getInputStream()))
             .hasMessage("{\"error\":\"Unauthorized\"}")
@@ -130,7 +134,7 @@ class RspamdHttpClientTest {
     @Test
     void checkSpamMailUsingRspamdClientWithExactPasswordShouldReturnAnalysisResultAsSameAsUsingRawClient() throws MessagingException {
         RspamdClientConfiguration configuration = new RspamdClientConfiguration(rspamdExtension.getBaseUrl(), PASSWORD, Optional.empty());
-        RspamdHttpClient client = new RspamdHttpClient(configuration);
+        RspamdHttpClient client = client(configuration);
 
         AnalysisResult analysisResult = client.checkV2(spamMessage).block();
         assertThat(analysisResult.getAction()).isEqualTo(AnalysisResult.Action.ADD_HEADER);
@@ -151,7 +155,7 @@ class RspamdHttpClientTest {
     @Test
     void checkHamMailUsingRspamdClientWithExactPasswordShouldReturnAnalysisResultAsSameAsUsingRawClient() throws Exception {
         RspamdClientConfiguration configuration = new RspamdClientConfiguration(rspamdExtension.getBaseUrl(), PASSWORD, Optional.empty());
-        RspamdHttpClient client = new RspamdHttpClient(configuration);
+        RspamdHttpClient client = client(configuration);
 
         AnalysisResult analysisResult = client.checkV2(hamMessage).block();
         SoftAssertions.assertSoftly(softly -> {
@@ -176,7 +180,7 @@ class RspamdHttpClientTest {
     @Test
     void learnSpamMailUsingRspamdClientWithExactPasswordShouldWork() {
         RspamdClientConfiguration configuration = new RspamdClientConfiguration(rspamdExtension.getBaseUrl(), PASSWORD, Optional.empty());
-        RspamdHttpClient client = new RspamdHttpClient(configuration);
+        RspamdHttpClient client = client(configuration);
 
         assertThatCode(() -> client.reportAsSpam(ReactorUtils.toChunks(spamMessage.getMessage().getInputStream(), BUFFER_SIZE)).block())
             .doesNotThrowAnyException();
@@ -185,7 +189,7 @@ class RspamdHttpClientTest {
     @Test
     void learnHamMailUsingRspamdClientWithExactPasswordShouldWork() {
         RspamdClientConfiguration configuration = new RspamdClientConfiguration(rspamdExtension.getBaseUrl(), PASSWORD, Optional.empty());
-        RspamdHttpClient client = new RspamdHttpClient(configuration);
+        RspamdHttpClient client = client(configuration);
 
         assertThatCode(() -> client.reportAsHam(ReactorUtils.toChunks(hamMessage.getMessage().getInputStream(), BUFFER_SIZE)).block())
             .doesNotThrowAnyException();
@@ -194,7 +198,7 @@ class RspamdHttpClientTest {
     @Test
     void learnHamMShouldBeIdempotent() throws Exception {
         RspamdClientConfiguration configuration = new RspamdClientConfiguration(rspamdExtension.getBaseUrl(), PASSWORD, Optional.empty());
-        RspamdHttpClient client = new RspamdHttpClient(configuration);
+        RspamdHttpClient client = client(configuration);
 
         client.reportAsHam(ReactorUtils.toChunks(hamMessage.getMessage().getInputStream(), BUFFER_SIZE)).block();
         assertThatCode(() -> client.reportAsHam(ReactorUtils.toChunks(hamMessage.getMessage().getInputStream(), BUFFER_SIZE)).block())
@@ -204,7 +208,7 @@ class RspamdHttpClientTest {
     @Test
     void learnSpamMShouldBeIdempotent() throws Exception {
         RspamdClientConfiguration configuration = new RspamdClientConfiguration(rspamdExtension.getBaseUrl(), PASSWORD, Optional.empty());
-        RspamdHttpClient client = new RspamdHttpClient(configuration);
+        RspamdHttpClient client = client(configuration);
 
         client.reportAsSpam(ReactorUtils.toChunks(spamMessage.getMessage().getInputStream(), BUFFER_SIZE)).block();
         assertThatCode(() -> client.reportAsSpam(ReactorUtils.toChunks(spamMessage.getMessage().getInputStream(), BUFFER_SIZE)).block())
@@ -214,7 +218,7 @@ class RspamdHttpClientTest {
     @Test
     void checkVirusMailUsingRspamdClientWithExactPasswordShouldReturnHasVirus() throws Exception {
         RspamdClientConfiguration configuration = new RspamdClientConfiguration(rspamdExtension.getBaseUrl(), PASSWORD, Optional.empty());
-        RspamdHttpClient client = new RspamdHttpClient(configuration);
+        RspamdHttpClient client = client(configuration);
 
         AnalysisResult analysisResult = client.checkV2(virusMessage).block();
         assertThat(analysisResult.hasVirus()).isTrue();
@@ -223,7 +227,7 @@ class RspamdHttpClientTest {
     @Test
     void checkNonVirusMailUsingRspamdClientWithExactPasswordShouldReturnHasNoVirus() throws Exception {
         RspamdClientConfiguration configuration = new RspamdClientConfiguration(rspamdExtension.getBaseUrl(), PASSWORD, Optional.empty());
-        RspamdHttpClient client = new RspamdHttpClient(configuration);
+        RspamdHttpClient client = client(configuration);
 
         AnalysisResult analysisResult = client.checkV2(nonVirusMessage).block();
         assertThat(analysisResult.hasVirus()).isFalse();
@@ -232,7 +236,7 @@ class RspamdHttpClientTest {
     @Test
     void perUserBayesShouldNotBeActivatedWhenFeedNotEnoughMessages() throws Exception {
         RspamdClientConfiguration configuration = new RspamdClientConfiguration(rspamdExtension.getBaseUrl(), PASSWORD, Optional.empty());
-        RspamdHttpClient client = new RspamdHttpClient(configuration);
+        RspamdHttpClient client = client(configuration);
 
         // Before active per-user bayes for Bob
         AnalysisResult analysisResultBobBefore = client.checkV2(spamMessage, RspamdHttpClient.Options.forUser(BOB)).block();
@@ -249,7 +253,7 @@ class RspamdHttpClientTest {
     @Test
     void perUserBayesShouldBeActivatedWhenFeedEnoughMessagesSpamCase() throws Exception {
         RspamdClientConfiguration configuration = new RspamdClientConfiguration(rspamdExtension.getBaseUrl(), PASSWORD, Optional.empty());
-        RspamdHttpClient client = new RspamdHttpClient(configuration);
+        RspamdHttpClient client = client(configuration);
 
         // Before active per-user bayes for Bob
         AnalysisResult spamMessageResultBobBefore = client.checkV2(spamMessage, RspamdHttpClient.Options.forUser(BOB)).block();
@@ -271,7 +275,7 @@ class RspamdHttpClientTest {
     @Test
     void perUserBayesShouldBeActivatedWhenFeedEnoughMessagesHamCase() throws Exception {
         RspamdClientConfiguration configuration = new RspamdClientConfiguration(rspamdExtension.getBaseUrl(), PASSWORD, Optional.empty());
-        RspamdHttpClient client = new RspamdHttpClient(configuration);
+        RspamdHttpClient client = client(configuration);
 
         // Before active per-user bayes for Bob
         AnalysisResult hamMessageResultBobBefore = client.checkV2(hamMessage, RspamdHttpClient.Options.forUser(BOB)).block();
@@ -293,7 +297,7 @@ class RspamdHttpClientTest {
     @Test
     void globalBayesShouldNotBeChangedAfterPerUserBayesIsActivated() throws Exception {
         RspamdClientConfiguration configuration = new RspamdClientConfiguration(rspamdExtension.getBaseUrl(), PASSWORD, Optional.empty());
-        RspamdHttpClient client = new RspamdHttpClient(configuration);
+        RspamdHttpClient client = client(configuration);
 
         // Before active per-user bayes for Bob
         AnalysisResult globalBefore = client.checkV2(hamMessage, RspamdHttpClient.Options.NONE).block();
@@ -313,7 +317,7 @@ class RspamdHttpClientTest {
     @Test
     void pingTestShouldReturn200OK() {
         RspamdClientConfiguration configuration = new RspamdClientConfiguration(rspamdExtension.getBaseUrl(), PASSWORD, Optional.empty());
-        RspamdHttpClient client = new RspamdHttpClient(configuration);
+        RspamdHttpClient client = client(configuration);
 
         assertThat(client.ping().block().status()).isEqualTo(HttpResponseStatus.OK);
     }
@@ -321,12 +325,23 @@ class RspamdHttpClientTest {
     @Test
     void shouldNotFailOnEmptyContent() {
         RspamdClientConfiguration configuration = new RspamdClientConfiguration(rspamdExtension.getBaseUrl(), PASSWORD, Optional.empty());
-        RspamdHttpClient client = new RspamdHttpClient(configuration);
+        RspamdHttpClient client = client(configuration);
 
         client.reportAsSpam(ReactorUtils.toChunks(new ByteArrayInputStream("".getBytes()),
             BUFFER_SIZE), RspamdHttpClient.Options.forUser(BOB)).block();
     }
 
+    @AfterEach
+    void tearDown() {
+        clients.forEach(RspamdHttpClient::close);
+    }
+
+    private RspamdHttpClient client(RspamdClientConfiguration configuration) {
+        RspamdHttpClient client = new RspamdHttpClient(configuration);
+        clients.add(client);
+        return client;
+    }
+
     private void reportAsSpam(RspamdHttpClient client, InputStream inputStream) {
         client.reportAsSpam(ReactorUtils.toChunks(inputStream, BUFFER_SIZE)).block();
     }
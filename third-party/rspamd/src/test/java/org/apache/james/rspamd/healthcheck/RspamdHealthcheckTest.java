@@ -22,12 +22,15 @@ package org.apache.james.rspamd.healthcheck;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import org.apache.james.core.healthcheck.Result;
 import org.apache.james.rspamd.RspamdExtension;
 import org.apache.james.rspamd.client.RspamdClientConfiguration;
 import org.apache.james.rspamd.client.RspamdHttpClient;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
@@ -39,6 +42,7 @@ class RspamdHealthcheckTest {
     static RspamdExtension rspamdExtension = new RspamdExtension();
 
     private RspamdHealthCheck rspamdHealthCheck;
+    private final List<RspamdHttpClient> clients = new ArrayList<>();
 
     @BeforeEach
     void setUp() {
@@ -47,10 +51,15 @@ class RspamdHealthcheckTest {
         }
 
         RspamdClientConfiguration configuration = new RspamdClientConfiguration(rspamdExtension.getBaseUrl(), "passwordDoesNotMatter", Optional.empty());
-        RspamdHttpClient client = new RspamdHttpClient(configuration);
+        RspamdHttpClient client = client(configuration);
         rspamdHealthCheck = new RspamdHealthCheck(client);
     }
 
+    @AfterEach
+    void tearDown() {
+        clients.forEach(RspamdHttpClient::close);
+    }
+
     @Test
     void checkShouldReturnHealthyWhenRspamdIsRunning() {
         Result check = Mono.from(rspamdHealthCheck.check()).block();
@@ -69,7 +78,7 @@ class RspamdHealthcheckTest {
     @Test
     void checkShouldReturnUnhealthyWhenWrongRspamdURL() throws Exception {
         RspamdClientConfiguration configuration = new RspamdClientConfiguration(new URI("http://wrongRspamdURL:11334").toURL(), "passwordDoesNotMatter", Optional.empty());
-        RspamdHttpClient client = new RspamdHttpClient(configuration);
+        RspamdHttpClient client = client(configuration);
         rspamdHealthCheck = new RspamdHealthCheck(client);
 
         Result check = Mono.from(rspamdHealthCheck.check()).block();
@@ -85,4 +94,10 @@ class RspamdHealthcheckTest {
 
         assertThat(check.isHealthy()).isTrue();
     }
+
+    private RspamdHttpClient client(RspamdClientConfiguration configuration) {
+        RspamdHttpClient client = new RspamdHttpClient(configuration);
+        clients.add(client);
+        return client;
+    }
 }
@@ -103,6 +103,7 @@ public class FeedMessageRouteTest {
     private InMemoryMailboxManager mailboxManager;
     private WebAdminServer webAdminServer;
     private MemoryTaskManager taskManager;
+    private RspamdHttpClient client;
 
     @BeforeEach
     void setUp() throws Exception {
@@ -122,7 +123,7 @@ public class FeedMessageRouteTest {
         UpdatableTickingClock clock = new UpdatableTickingClock(NOW);
         JsonTransformer jsonTransformer = new JsonTransformer();
         RspamdClientConfiguration rspamdConfiguration = new RspamdClientConfiguration(rspamdExtension.getBaseUrl(), PASSWORD, Optional.empty());
-        RspamdHttpClient client = new RspamdHttpClient(rspamdConfiguration);
+        client = new RspamdHttpClient(rspamdConfiguration);
         MessageIdManager messageIdManager = inMemoryIntegrationResources.getMessageIdManager();
         MailboxSessionMapperFactory mapperFactory = mailboxManager.getMapperFactory();
 
@@ -142,6 +143,7 @@ public class FeedMessageRouteTest {
     void stop() {
         webAdminServer.destroy();
         taskManager.stop();
+        client.close();
     }
 
     private void appendMessage(MailboxPath mailboxPath, Date internalDate) throws MailboxException {